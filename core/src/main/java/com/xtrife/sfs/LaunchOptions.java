@@ -0,0 +1,25 @@
+package com.xtrife.sfs;
+
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.broadcast.SpectatorClient;
+import com.xtrife.sfs.profiling.BenchmarkMode;
+import com.xtrife.sfs.profiling.FramePacer;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.profiling.SoakMode;
+
+import java.io.File;
+
+/**
+ * Created by 9S on 10/20/2026 - 12:18 AM.
+ * How the desktop launcher starts the {@link Main game}. The defaults are a normal session: no profiling, frames paced
+ * by the backend and the player fighting through the menus. At most one of benchmark, replay, soak and spectator is set.
+ */
+public class LaunchOptions {
+    public Profiler profiler = Profiler.NONE; // receives frame phase timings and game events
+    public FramePacer pacer = FramePacer.BACKEND; // decides when each frame starts
+    public BenchmarkMode benchmark; // plays a scripted match instead of letting the player fight, or null
+    public File replay; // a file from Main.REPLAY_DIRECTORY to play back instead of a match, or null
+    public SoakMode soak; // lets the AI play both fighters and scripts restarts, pauses and settings changes, or null
+    public MatchBroadcaster broadcaster; // bound but not started, streams every match played to spectators, or null
+    public SpectatorClient spectator; // connected, its broadcast is shown instead of a match, or null
+}
@@ -1,64 +1,216 @@
 package com.xtrife.sfs;
 
 import com.badlogic.gdx.Game;
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.broadcast.SpectatorClient;
 import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.profiling.BenchmarkMode;
+import com.xtrife.sfs.profiling.FramePacer;
+import com.xtrife.sfs.profiling.FramePhase;
+import com.xtrife.sfs.profiling.InputLatency;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.profiling.ResourceTracker;
+import com.xtrife.sfs.profiling.SoakMode;
+import com.xtrife.sfs.replay.ReplayRecorder;
 import com.xtrife.sfs.resources.Assets;
 import com.xtrife.sfs.resources.AudioManager;
-import com.xtrife.sfs.screens.GameScreen;
+import com.xtrife.sfs.resources.FighterChoice;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.resources.SettingsManager;
+import com.xtrife.sfs.resources.StageData;
+import com.xtrife.sfs.resources.TuningWatcher;
+import com.xtrife.sfs.screens.ScreenManager;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
 
 /**
  * {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms.
  */
 public class Main extends Game {
+    // relative to the user's home directory on desktop
+    public static final String TELEMETRY_DIRECTORY = ".stick-figure-showdown/telemetry";
+    public static final String REPLAY_DIRECTORY = ".stick-figure-showdown/replays";
+
     public SpriteBatch batch;
     public ShapeRenderer shapeRenderer;
     public Assets assets;
     public AudioManager audioManager;
+    public SettingsManager settings;
+    public TelemetryLog telemetry;
+    public ReplayRecorder replays; // records every match the player fights, null in benchmarks, soaks and replays
+    public ResourceTracker resources; // live GL, OpenAL and FreeType objects, see the debug overlay
+    public TuningWatcher tuning; // gameplay values, reloaded when their file changes
+    public final Profiler profiler;
+    public final InputLatency inputLatency = new InputLatency(); // from key press to the frame showing it
+    public final FramePacer pacer;
+    public final BenchmarkMode benchmark; // null unless running a benchmark
+    public final File replay; // recorded match to watch instead of fighting, or null
+    public final SoakMode soak; // null unless running unattended for hours
+    public final MatchBroadcaster broadcaster; // streams the matches to spectators, or null
+    public final SpectatorClient spectator; // connected to another game's broadcast to watch it, or null
 
-    // screens
-    public GameScreen gameScreen;
+    // screens, all created once and kept until the game closes
+    public ScreenManager screens;
 
-    // fighters
+    // fighters, named and colored by the fighter select screen
     public Fighter player, opponent;
+    public Array<FighterChoice> fighterChoices;
+
+    // stages, only the selected one has its textures loaded
+    public Array<StageData> stages;
 
 
+    /**
+     * @param options what to run, built by the desktop launcher
+     */
+    public Main(LaunchOptions options) {
+        this.profiler = options.profiler;
+        this.pacer = options.pacer;
+        this.benchmark = options.benchmark;
+        this.replay = options.replay;
+        this.soak = options.soak;
+        this.broadcaster = options.broadcaster;
+        this.spectator = options.spectator;
+    }
+
     @Override
     public void create() {
+        // full screen before the texture resolution is picked for the window. Benchmarks and soaks keep their window
+        settings = new SettingsManager();
+        if (isInteractive()) {
+            applyFullScreen();
+        }
+
         batch = new SpriteBatch();
         shapeRenderer = new ShapeRenderer();
-        assets = new Assets();
+        // pick the texture resolution for the window the game starts in
+        assets = new Assets(profiler, Assets.chooseTextureTier(Gdx.graphics.getBackBufferWidth(),
+            Gdx.graphics.getBackBufferHeight()));
+        resources = new ResourceTracker();
+        resources.setAssetManager(assets.manager);
 
         // load all assets
         assets.load(); // assets are loaded asynchronously
+        stages = assets.loadStageData();
+        assets.loadStage(stages.first());
         assets.manager.finishLoading(); // blocks until all assets are done loading
 
+        // edits to the tuning file apply while the game runs, if it's on disk: a jar or the asset pack has no file to
+        // watch, the tuning is only loaded once. Benchmarks and replays keep the values they started with, spectators
+        // only show the host's
+        FileHandle tuningFile = Gdx.files.local(Assets.TUNING_DATA);
+        tuning = new TuningWatcher(tuningFile.file(), assets.loadTuning());
+        if (tuningFile.exists() && benchmark == null && replay == null && spectator == null) {
+            tuning.start();
+        }
+
         // init audio manager
-        audioManager = new AudioManager(assets.manager);
+        audioManager = new AudioManager(assets.manager, profiler);
+        if (!settings.isMusicEnabled()) {
+            audioManager.disableMusic();
+        }
+        if (!settings.isSoundsEnabled()) {
+            audioManager.disableSounds();
+        }
         audioManager.playMusic();
+        audioManager.flush();
+
+        // start recording match events in the background. Benchmark and soak matches aren't recorded, they would pass
+        // for the player's in the balance stats and push the player's replays out. Without the writer thread events
+        // are dropped once the buffer is full
+        telemetry = new TelemetryLog(Gdx.files.external(TELEMETRY_DIRECTORY).file());
+        if (benchmark == null && soak == null) {
+            telemetry.start();
+        }
+        if (benchmark == null && soak == null && replay == null && spectator == null) {
+            replays = new ReplayRecorder(Gdx.files.external(REPLAY_DIRECTORY).file());
+        }
 
         // init fighters
-        player = new Fighter(this, "El Tipo", new Color(1f, 0.2f, 0.2f, 1f));
-        opponent = new Fighter(this, "El Otro Tipo", new Color(0.25f, 0.7f, 1f, 1f));
+        fighterChoices = assets.loadFighterChoices();
+        player = new Fighter(this, fighterChoices.get(0).name, fighterChoices.get(0).getColor());
+        opponent = new Fighter(this, fighterChoices.get(1).name, fighterChoices.get(1).getColor());
 
-        // init game screen and switch to it
-        gameScreen = new GameScreen(this);
-        setScreen(gameScreen);
+        if (broadcaster != null) {
+            broadcaster.start();
+        }
+
+        // init every screen and show the first one. Benchmarks, soaks, replays and spectators go straight to a match,
+        // scripted ones without the fade so their first frames are measured like the rest
+        screens = new ScreenManager(this);
+        screens.start(isInteractive() && replay == null && spectator == null ? ScreenManager.ScreenType.MAIN_MENU
+            : ScreenManager.ScreenType.GAME, isInteractive());
 
     }
 
+    /**
+     * false while a benchmark or a soak plays by itself
+     */
+    private boolean isInteractive() {
+        return benchmark == null && soak == null;
+    }
+
+    /**
+     * switch between full screen and a window as the settings say
+     */
+    public void applyFullScreen() {
+        if (settings.isFullScreenEnabled()) {
+            Gdx.graphics.setFullscreenMode(Gdx.graphics.getDisplayMode());
+        } else if (Gdx.graphics.isFullscreen()) {
+            Gdx.graphics.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
+        }
+    }
+
     @Override
     public void render() {
+        // the time between two render calls is spent swapping buffers, waiting for vsync and polling events
+        profiler.end(FramePhase.BUFFER_SWAP);
+        pacer.beginFrame();
         super.render();
+        screens.render(Gdx.graphics.getDeltaTime()); // the fade between two screens goes over them
+        audioManager.flush(); // the sounds of this frame in one go
+        profiler.begin(FramePhase.BUFFER_SWAP);
+    }
+
+    @Override
+    public void pause() {
+        super.pause();
+        audioManager.flush(); // no frames while minimized
+    }
+
+    @Override
+    public void resume() {
+        super.resume();
+        audioManager.flush();
     }
 
     @Override
     public void dispose() {
+        if (inputLatency.getCount() > 0) {
+            Gdx.app.log("InputLatency", inputLatency.report(pacer.getName()));
+        }
+        tuning.dispose();
         batch.dispose();
+        audioManager.dispose(); // stops the audio thread before the sounds it plays are disposed
         assets.dispose();
         shapeRenderer.dispose();
+        screens.dispose(); // stops the match simulation before the telemetry, replays and broadcast it writes to
+        if (broadcaster != null) {
+            broadcaster.dispose();
+        }
+        if (spectator != null) {
+            spectator.dispose();
+        }
+        telemetry.dispose();
+        if (replays != null) {
+            replays.dispose();
+        }
     }
 }
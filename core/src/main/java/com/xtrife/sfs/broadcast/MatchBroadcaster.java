@@ -0,0 +1,346 @@
+package com.xtrife.sfs.broadcast;
+
+import com.badlogic.gdx.utils.Array;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:58 PM.
+ * Streams the matches of this game to spectators over TCP. The simulation thread codes every tick with a
+ * {@link SnapshotCodec} and packs a few ticks into a frame, written once into a ring of frames shared by all
+ * spectators; a broadcast thread sends each spectator the frames it hasn't had yet with non-blocking writes. Coding
+ * never depends on how many are watching, an extra spectator only costs its socket writes.
+ * <p>
+ * Every second of ticks starts with a keyframe. A spectator that connects starts at the newest one, and one that can't
+ * keep up (its socket stays full) skips ahead to the newest one instead of holding anybody up; the simulation thread
+ * never waits for the network.
+ * <p>
+ * Stream layout (little endian): a hello of magic, version, tick rate and ticks per frame, then frames of
+ * {@code int length (of the rest), byte kind, int first tick, byte records} followed by the records' bits.
+ */
+public class MatchBroadcaster {
+    public static final int MAGIC = 0x53465342; // "SFSB"
+    public static final short VERSION = 1;
+    public static final int DEFAULT_PORT = 7421;
+    public static final int HELLO_SIZE = 9;
+    public static final int FRAME_HEADER_SIZE = 10;
+    public static final byte KEYFRAME = 1;
+    public static final byte DELTA = 2;
+    public static final int BATCH_TICKS = 4; // ticks per frame, 30 frames a second
+    public static final int KEYFRAME_INTERVAL = MatchRunner.TICK_RATE; // ticks
+    public static final int MAX_FRAME_SIZE = 1024; // a keyframe and three deltas take about 450 bytes
+
+    private static final int RING_FRAMES = 128; // must be a power of 2, about 4 seconds
+    // a spectator further behind skips to the newest keyframe. Well below RING_FRAMES, so the frame a spectator is
+    // sent is never the one being written
+    private static final int MAX_LAG_FRAMES = 2 * KEYFRAME_INTERVAL / BATCH_TICKS;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final ByteBuffer hello = ByteBuffer.allocateDirect(HELLO_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    // frame ring, written only by the simulation thread and read only by the broadcast thread
+    private final ByteBuffer ring = ByteBuffer.allocateDirect(RING_FRAMES * MAX_FRAME_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    private final int[] frameSizes = new int[RING_FRAMES];
+    private final AtomicLong published = new AtomicLong(); // frames ready to send
+    private volatile long newestKeyframe = -1;
+
+    // simulation thread
+    private final SnapshotCodec encoder = new SnapshotCodec();
+    private long ticks;
+    private long nextKeyframeTick; // a flushed frame can leave keyframes off the interval's multiples
+    private int frameTicks; // records in the frame being written
+    private int frameStart;
+    private boolean frameKeyframe;
+    private int frameFirstTick;
+
+    // broadcast thread
+    private final Array<Spectator> spectators = new Array<>(false, 16);
+    private final ByteBuffer discarded = ByteBuffer.allocate(256); // spectators have nothing to say
+    private Thread broadcastThread;
+    private volatile boolean running;
+    private volatile int spectatorCount;
+    private volatile long bytesSent;
+    private volatile long skippedFrames; // by spectators that fell behind
+    private volatile long droppedSpectators;
+
+    /**
+     * one connection and how far it got
+     */
+    private class Spectator {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer hello = MatchBroadcaster.this.hello.duplicate();
+        final ByteBuffer frames = ring.duplicate(); // its own position and limit in the shared ring
+        long next = -1; // frame to send next, -1 until it starts at a keyframe
+        boolean sendingFrame; // part of frame 'next' is out already
+
+        Spectator(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+    }
+
+    /**
+     * listen for spectators on {@code address}, see {@link #start()}
+     */
+    public MatchBroadcaster(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        hello.putInt(MAGIC).putShort(VERSION).putShort((short) MatchRunner.TICK_RATE).put((byte) BATCH_TICKS);
+        hello.flip();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * start the broadcast thread
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        broadcastThread = new Thread(this::broadcastLoop, "match-broadcast");
+        broadcastThread.setDaemon(true);
+        broadcastThread.start();
+    }
+
+    public long getBroadcastThreadId() {
+        return broadcastThread.getId();
+    }
+
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    /**
+     * to all spectators so far
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getFramesPublished() {
+        return published.get();
+    }
+
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    public long getDroppedSpectators() {
+        return droppedSpectators;
+    }
+
+    /**
+     * code the state after a tick, on the simulation thread. Every {@link #BATCH_TICKS} ticks a frame goes out. Never
+     * blocks and never allocates
+     */
+    public void tick(MatchSnapshot snapshot) {
+        if (frameTicks == 0) {
+            frameStart = (int) (published.get() & (RING_FRAMES - 1)) * MAX_FRAME_SIZE;
+            frameKeyframe = ticks >= nextKeyframeTick;
+            if (frameKeyframe) {
+                nextKeyframeTick = ticks + KEYFRAME_INTERVAL;
+            }
+            frameFirstTick = (int) snapshot.tick;
+            encoder.beginWrite(ring, frameStart + FRAME_HEADER_SIZE);
+        }
+        if (frameTicks == 0 && frameKeyframe) {
+            encoder.writeKeyframe(snapshot);
+        } else {
+            encoder.writeDelta(snapshot);
+        }
+        frameTicks++;
+        ticks++;
+        if (frameTicks == BATCH_TICKS) {
+            publishFrame();
+        }
+    }
+
+    /**
+     * send the ticks of an unfinished frame now, e.g. before the match pauses. On the simulation thread
+     */
+    public void flush() {
+        if (frameTicks > 0) {
+            publishFrame();
+        }
+    }
+
+    private void publishFrame() {
+        int size = encoder.endWrite() - frameStart;
+        ring.putInt(frameStart, size - 4);
+        ring.put(frameStart + 4, frameKeyframe ? KEYFRAME : DELTA);
+        ring.putInt(frameStart + 5, frameFirstTick);
+        ring.put(frameStart + 9, (byte) frameTicks);
+        long frame = published.get();
+        frameSizes[(int) (frame & (RING_FRAMES - 1))] = size;
+        published.lazySet(frame + 1); // hand the frame to the broadcast thread
+        if (frameKeyframe) {
+            newestKeyframe = frame;
+        }
+        frameTicks = 0;
+        if (spectatorCount > 0) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * disconnect everybody and stop the broadcast thread
+     */
+    public void dispose() {
+        running = false;
+        selector.wakeup();
+        if (broadcastThread != null) {
+            try {
+                broadcastThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // backwards, closing one removes it
+        for (int i = spectators.size - 1; i >= 0; i--) {
+            close(spectators.get(i));
+        }
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    private void broadcastLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Spectator) key.attachment());
+                    }
+                }
+                // new frames and sockets that have room again, a spectator still full waits for OP_WRITE
+                for (int i = spectators.size - 1; i >= 0; i--) {
+                    send(spectators.get(i));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Broadcast stopped: " + e.getMessage());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // frames are already batched
+        spectators.add(new Spectator(channel));
+        spectatorCount = spectators.size;
+    }
+
+    /**
+     * anything a spectator sends is ignored, reading only notices it's gone
+     */
+    private void read(Spectator spectator) {
+        try {
+            discarded.clear();
+            if (spectator.channel.read(discarded) < 0) {
+                close(spectator);
+            }
+        } catch (IOException e) {
+            close(spectator);
+        }
+    }
+
+    /**
+     * write as many frames as the spectator's socket takes
+     */
+    private void send(Spectator spectator) {
+        if (!spectator.key.isValid()) return;
+        try {
+            if (spectator.hello.hasRemaining()) {
+                bytesSent += spectator.channel.write(spectator.hello);
+                if (spectator.hello.hasRemaining()) {
+                    waitForRoom(spectator, true);
+                    return;
+                }
+            }
+
+            long newest = published.get();
+            if (!spectator.sendingFrame && (spectator.next < 0 || newest - spectator.next > MAX_LAG_FRAMES)) {
+                long keyframe = newestKeyframe;
+                if (keyframe < 0) return; // nothing to start from yet
+                if (spectator.next >= 0) {
+                    skippedFrames += keyframe - spectator.next;
+                }
+                spectator.next = keyframe;
+            }
+
+            while (spectator.next < newest) {
+                int slot = (int) (spectator.next & (RING_FRAMES - 1));
+                if (!spectator.sendingFrame) {
+                    spectator.frames.limit(slot * MAX_FRAME_SIZE + frameSizes[slot]);
+                    spectator.frames.position(slot * MAX_FRAME_SIZE);
+                    spectator.sendingFrame = true;
+                }
+                bytesSent += spectator.channel.write(spectator.frames);
+                if (published.get() - spectator.next >= RING_FRAMES - 1) {
+                    // stuck inside a frame for seconds, it may have been overwritten while being sent
+                    droppedSpectators++;
+                    close(spectator);
+                    return;
+                }
+                if (spectator.frames.hasRemaining()) {
+                    waitForRoom(spectator, true);
+                    return;
+                }
+                spectator.sendingFrame = false;
+                spectator.next++;
+            }
+            waitForRoom(spectator, false);
+        } catch (IOException e) {
+            close(spectator);
+        }
+    }
+
+    private void waitForRoom(Spectator spectator, boolean full) {
+        int ops = full ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (spectator.key.interestOps() != ops) {
+            spectator.key.interestOps(ops);
+        }
+    }
+
+    private void close(Spectator spectator) {
+        spectator.key.cancel();
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            // gone either way
+        }
+        spectators.removeValue(spectator, true);
+        spectatorCount = spectators.size;
+    }
+}
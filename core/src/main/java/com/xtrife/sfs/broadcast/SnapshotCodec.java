@@ -0,0 +1,312 @@
+package com.xtrife.sfs.broadcast;
+
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:45 PM.
+ * Bit-packed coding of the {@link MatchSnapshot} of every tick, for the spectator broadcast. Every drawn value is
+ * quantized to a fixed number of bits (positions to 1/64 world unit, times to a quarter tick, life to 1/100), then
+ * coded against what the other side already has: a keyframe writes every value, a delta only the ones that differ
+ * from their prediction. Discrete values are predicted to stay the same, continuous ones (positions, timers) to move
+ * by as much as in the tick before, so a walking fighter or a running clock costs one bit. Values come in groups (each
+ * fighter, each blood splatter, the HUD), a group where everything went as predicted is a single bit.
+ * <p>
+ * An encoder and a decoder keep the same quantized history, so they stay in step as long as the decoder sees every
+ * record since the last keyframe. One instance codes in one direction, on one thread.
+ */
+public class SnapshotCodec {
+    // quantization
+    private static final float POSITION_SCALE = 64f; // steps per world unit
+    private static final float TIME_SCALE = MatchRunner.TICK_RATE * 4f; // steps per second
+    private static final float LIFE_SCALE = 100f;
+
+    private static final Fighter.State[] STATES = Fighter.State.values();
+    private static final Match.RoundState[] ROUND_STATES = Match.RoundState.values();
+    private static final GlobalVariables.Difficulty[] DIFFICULTIES = GlobalVariables.Difficulty.values();
+
+    // fields of a fighter
+    private static final int X = 0, Y = 1, STATE = 2, STATE_TIME = 3, FACING = 4, LIFE = 5;
+    private static final int FIGHTER_FIELDS = 6;
+    // fields of a blood splatter
+    private static final int BLOOD_ACTIVE = 0, BLOOD_X = 1, BLOOD_Y = 2, BLOOD_TIME = 3;
+    private static final int BLOOD_FIELDS = 4;
+    private static final int BLOOD_SPLATTERS = MatchRunner.BLOOD_SPLATTER_AMOUNT * 2;
+    // fields of the HUD
+    private static final int ROUND_STATE = 0, ROUND_STATE_TIME = 1, CURRENT_ROUND = 2, ROUNDS_WON = 3,
+        ROUNDS_LOST = 4, ROUND_TIMER = 5, DIFFICULTY = 6, OVER = 7, HITS = 8, BLOCKS = 9, ROUND_WINS = 10,
+        ROUND_LOSSES = 11, GENERATION = 12;
+    private static final int HUD_FIELDS = 13;
+
+    // where each group's fields start
+    private static final int PLAYER = 0;
+    private static final int OPPONENT = PLAYER + FIGHTER_FIELDS;
+    private static final int BLOOD = OPPONENT + FIGHTER_FIELDS;
+    private static final int HUD = BLOOD + BLOOD_SPLATTERS * BLOOD_FIELDS;
+    private static final int FIELD_COUNT = HUD + HUD_FIELDS;
+    private static final int[] GROUP_STARTS = new int[2 + BLOOD_SPLATTERS + 2]; // the last one is FIELD_COUNT
+
+    // per field: bits and whether it's predicted to keep moving. Signed fields are sign extended when decoded
+    private static final int[] WIDTHS = new int[FIELD_COUNT];
+    private static final boolean[] MOVING = new boolean[FIELD_COUNT];
+
+    static {
+        int group = 0;
+        for (int fighter = PLAYER; fighter <= OPPONENT; fighter += FIGHTER_FIELDS) {
+            GROUP_STARTS[group++] = fighter;
+            define(fighter + X, 16, true); // +-512 world units
+            define(fighter + Y, 16, true);
+            define(fighter + STATE, bitsFor(STATES.length), false);
+            define(fighter + STATE_TIME, 20, true); // 36 minutes
+            define(fighter + FACING, 1, false);
+            define(fighter + LIFE, 14, false); // 163.83
+        }
+        for (int i = 0; i < BLOOD_SPLATTERS; i++) {
+            int blood = BLOOD + i * BLOOD_FIELDS;
+            GROUP_STARTS[group++] = blood;
+            define(blood + BLOOD_ACTIVE, 1, false);
+            define(blood + BLOOD_X, 16, false);
+            define(blood + BLOOD_Y, 16, false);
+            define(blood + BLOOD_TIME, 16, true); // 2 minutes
+        }
+        GROUP_STARTS[group++] = HUD;
+        define(HUD + ROUND_STATE, bitsFor(ROUND_STATES.length), false);
+        define(HUD + ROUND_STATE_TIME, 20, true);
+        define(HUD + CURRENT_ROUND, 8, false);
+        define(HUD + ROUNDS_WON, 4, false);
+        define(HUD + ROUNDS_LOST, 4, false);
+        define(HUD + ROUND_TIMER, 18, true); // +-273 seconds, it ends a bit below 0
+        define(HUD + DIFFICULTY, bitsFor(DIFFICULTIES.length), false);
+        define(HUD + OVER, 1, false);
+        // running counts wrap around, the renderer only looks for changes
+        define(HUD + HITS, 16, false);
+        define(HUD + BLOCKS, 16, false);
+        define(HUD + ROUND_WINS, 16, false);
+        define(HUD + ROUND_LOSSES, 16, false);
+        define(HUD + GENERATION, 16, false);
+        GROUP_STARTS[group] = FIELD_COUNT;
+    }
+
+    // quantized values of the last two coded ticks, masked to their widths
+    private final int[] values = new int[FIELD_COUNT];
+    private final int[] previous = new int[FIELD_COUNT];
+    private final int[] current = new int[FIELD_COUNT];
+
+    // bit stream, least significant bits first
+    private ByteBuffer buffer;
+    private int position;
+    private long bits;
+    private int bitCount;
+
+    private static void define(int field, int width, boolean moving) {
+        WIDTHS[field] = width;
+        MOVING[field] = moving;
+    }
+
+    private static int bitsFor(int count) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(count - 1));
+    }
+
+    /**
+     * start writing records at {@code position} of {@code buffer}
+     */
+    public void beginWrite(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+        bits = 0;
+        bitCount = 0;
+    }
+
+    /**
+     * write every value of a snapshot, the decoder can start from here
+     */
+    public void writeKeyframe(MatchSnapshot snapshot) {
+        quantize(snapshot, current);
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            write(current[field], WIDTHS[field]);
+        }
+        System.arraycopy(current, 0, values, 0, FIELD_COUNT);
+        System.arraycopy(current, 0, previous, 0, FIELD_COUNT); // nothing moves until the next tick says so
+    }
+
+    /**
+     * write what changed since the last record, other than predicted
+     */
+    public void writeDelta(MatchSnapshot snapshot) {
+        quantize(snapshot, current);
+        for (int group = 0; group < GROUP_STARTS.length - 1; group++) {
+            int start = GROUP_STARTS[group], end = GROUP_STARTS[group + 1];
+            boolean predicted = true;
+            for (int field = start; field < end && predicted; field++) {
+                predicted = current[field] == predict(field);
+            }
+            write(predicted ? 1 : 0, 1);
+            if (predicted) continue;
+
+            for (int field = start; field < end; field++) {
+                if (current[field] == predict(field)) {
+                    write(1, 1);
+                } else {
+                    write(0, 1);
+                    write(current[field], WIDTHS[field]);
+                }
+            }
+        }
+        System.arraycopy(values, 0, previous, 0, FIELD_COUNT);
+        System.arraycopy(current, 0, values, 0, FIELD_COUNT);
+    }
+
+    /**
+     * write the last partial byte, returns the position after it
+     */
+    public int endWrite() {
+        if (bitCount > 0) {
+            buffer.put(position++, (byte) bits);
+        }
+        bits = 0;
+        bitCount = 0;
+        return position;
+    }
+
+    /**
+     * start reading records at {@code position} of {@code buffer}
+     */
+    public void beginRead(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+        bits = 0;
+        bitCount = 0;
+    }
+
+    public void readKeyframe(MatchSnapshot snapshot) {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            values[field] = read(WIDTHS[field]);
+        }
+        System.arraycopy(values, 0, previous, 0, FIELD_COUNT);
+        dequantize(values, snapshot);
+    }
+
+    public void readDelta(MatchSnapshot snapshot) {
+        for (int group = 0; group < GROUP_STARTS.length - 1; group++) {
+            int start = GROUP_STARTS[group], end = GROUP_STARTS[group + 1];
+            boolean predicted = read(1) == 1;
+            for (int field = start; field < end; field++) {
+                current[field] = predicted || read(1) == 1 ? predict(field) : read(WIDTHS[field]);
+            }
+        }
+        System.arraycopy(values, 0, previous, 0, FIELD_COUNT);
+        System.arraycopy(current, 0, values, 0, FIELD_COUNT);
+        dequantize(values, snapshot);
+    }
+
+    private int predict(int field) {
+        int value = MOVING[field] ? values[field] + (values[field] - previous[field]) : values[field];
+        return value & mask(field);
+    }
+
+    private static int mask(int field) {
+        return (int) ((1L << WIDTHS[field]) - 1);
+    }
+
+    private void write(int value, int width) {
+        bits |= (value & ((1L << width) - 1)) << bitCount;
+        bitCount += width;
+        while (bitCount >= 8) {
+            buffer.put(position++, (byte) bits);
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+    }
+
+    private int read(int width) {
+        while (bitCount < width) {
+            bits |= (buffer.get(position++) & 0xFFL) << bitCount;
+            bitCount += 8;
+        }
+        int value = (int) (bits & ((1L << width) - 1));
+        bits >>>= width;
+        bitCount -= width;
+        return value;
+    }
+
+    private static void quantize(MatchSnapshot snapshot, int[] out) {
+        quantizeFighter(snapshot.player, out, PLAYER);
+        quantizeFighter(snapshot.opponent, out, OPPONENT);
+        for (int i = 0; i < BLOOD_SPLATTERS; i++) {
+            int blood = BLOOD + i * BLOOD_FIELDS;
+            out[blood + BLOOD_ACTIVE] = snapshot.bloodActive[i] ? 1 : 0;
+            out[blood + BLOOD_X] = Math.round(snapshot.bloodX[i] * POSITION_SCALE);
+            out[blood + BLOOD_Y] = Math.round(snapshot.bloodY[i] * POSITION_SCALE);
+            out[blood + BLOOD_TIME] = Math.round(snapshot.bloodTime[i] * TIME_SCALE);
+        }
+        out[HUD + ROUND_STATE] = snapshot.roundState.ordinal();
+        out[HUD + ROUND_STATE_TIME] = Math.round(snapshot.roundStateTime * TIME_SCALE);
+        out[HUD + CURRENT_ROUND] = snapshot.currentRound;
+        out[HUD + ROUNDS_WON] = snapshot.roundsWon;
+        out[HUD + ROUNDS_LOST] = snapshot.roundsLost;
+        out[HUD + ROUND_TIMER] = Math.round(snapshot.roundTimer * TIME_SCALE);
+        out[HUD + DIFFICULTY] = snapshot.difficulty.ordinal();
+        out[HUD + OVER] = snapshot.over ? 1 : 0;
+        out[HUD + HITS] = snapshot.hits;
+        out[HUD + BLOCKS] = snapshot.blocks;
+        out[HUD + ROUND_WINS] = snapshot.roundWins;
+        out[HUD + ROUND_LOSSES] = snapshot.roundLosses;
+        out[HUD + GENERATION] = snapshot.generation;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            out[field] &= mask(field);
+        }
+    }
+
+    private static void quantizeFighter(MatchSnapshot.FighterSnapshot fighter, int[] out, int start) {
+        out[start + X] = Math.round(fighter.x * POSITION_SCALE);
+        out[start + Y] = Math.round(fighter.y * POSITION_SCALE);
+        out[start + STATE] = fighter.state.ordinal();
+        out[start + STATE_TIME] = Math.round(fighter.stateTime * TIME_SCALE);
+        out[start + FACING] = fighter.facing < 0 ? 0 : 1;
+        out[start + LIFE] = Math.round(fighter.life * LIFE_SCALE);
+    }
+
+    private static void dequantize(int[] in, MatchSnapshot snapshot) {
+        dequantizeFighter(in, PLAYER, snapshot.player);
+        dequantizeFighter(in, OPPONENT, snapshot.opponent);
+        for (int i = 0; i < BLOOD_SPLATTERS; i++) {
+            int blood = BLOOD + i * BLOOD_FIELDS;
+            snapshot.bloodActive[i] = in[blood + BLOOD_ACTIVE] != 0;
+            snapshot.bloodX[i] = signed(in, blood + BLOOD_X) / POSITION_SCALE;
+            snapshot.bloodY[i] = signed(in, blood + BLOOD_Y) / POSITION_SCALE;
+            snapshot.bloodTime[i] = in[blood + BLOOD_TIME] / TIME_SCALE;
+        }
+        snapshot.roundState = ROUND_STATES[Math.min(in[HUD + ROUND_STATE], ROUND_STATES.length - 1)];
+        snapshot.roundStateTime = in[HUD + ROUND_STATE_TIME] / TIME_SCALE;
+        snapshot.currentRound = in[HUD + CURRENT_ROUND];
+        snapshot.roundsWon = in[HUD + ROUNDS_WON];
+        snapshot.roundsLost = in[HUD + ROUNDS_LOST];
+        snapshot.roundTimer = signed(in, HUD + ROUND_TIMER) / TIME_SCALE;
+        snapshot.difficulty = DIFFICULTIES[Math.min(in[HUD + DIFFICULTY], DIFFICULTIES.length - 1)];
+        snapshot.over = in[HUD + OVER] != 0;
+        snapshot.hits = in[HUD + HITS];
+        snapshot.blocks = in[HUD + BLOCKS];
+        snapshot.roundWins = in[HUD + ROUND_WINS];
+        snapshot.roundLosses = in[HUD + ROUND_LOSSES];
+        snapshot.generation = in[HUD + GENERATION];
+    }
+
+    private static void dequantizeFighter(int[] in, int start, MatchSnapshot.FighterSnapshot fighter) {
+        fighter.x = signed(in, start + X) / POSITION_SCALE;
+        fighter.y = signed(in, start + Y) / POSITION_SCALE;
+        fighter.state = STATES[Math.min(in[start + STATE], STATES.length - 1)];
+        fighter.stateTime = in[start + STATE_TIME] / TIME_SCALE;
+        fighter.facing = in[start + FACING] == 0 ? -1 : 1;
+        fighter.life = in[start + LIFE] / LIFE_SCALE;
+    }
+
+    private static int signed(int[] in, int field) {
+        int shift = 32 - WIDTHS[field];
+        return in[field] << shift >> shift;
+    }
+}
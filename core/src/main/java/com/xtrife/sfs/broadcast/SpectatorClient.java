@@ -0,0 +1,235 @@
+package com.xtrife.sfs.broadcast;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:09 PM.
+ * Watches a match a {@link MatchBroadcaster} streams. A reader thread takes the frames off the socket into a ring; the
+ * render thread decodes one tick of them per simulation tick of real time with {@link #update(float)}, into a
+ * {@link MatchSnapshot} the game screen draws like its own. A few ticks are held back to even out the network, and a
+ * spectator that got too far behind (after a stall) plays the backlog faster until it caught up.
+ * <p>
+ * If the ring fills up because the render thread stopped, the reader drops frames until the next keyframe.
+ */
+public class SpectatorClient {
+    private static final int RING_FRAMES = 64; // must be a power of 2
+    private static final int TARGET_DELAY_TICKS = 2 * MatchBroadcaster.BATCH_TICKS; // held back against jitter
+    private static final int MAX_DELAY_TICKS = TARGET_DELAY_TICKS + MatchRunner.TICK_RATE / 4; // then catch up
+    // nothing new for this long, the host paused or the match is over: show the ticks held back
+    private static final float STALL_SECONDS = 0.25f;
+
+    private Socket socket;
+    private DataInputStream in;
+    private Thread readerThread;
+    private volatile boolean connected;
+
+    // frames as they came in, written by the reader thread and read by the render thread
+    private final byte[] ring = new byte[RING_FRAMES * MatchBroadcaster.MAX_FRAME_SIZE];
+    private final ByteBuffer ringView = ByteBuffer.wrap(ring).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] discarded = new byte[MatchBroadcaster.MAX_FRAME_SIZE];
+    private final AtomicLong received = new AtomicLong(); // frames in the ring so far
+    private final AtomicLong receivedTicks = new AtomicLong();
+    private volatile long consumedPublished; // frames the render thread is done with, their slots are free again
+    private volatile long droppedFrames;
+
+    // render thread
+    private final SnapshotCodec decoder = new SnapshotCodec();
+    private final MatchSnapshot snapshot = new MatchSnapshot();
+    private long consumed; // frames decoded from so far
+    private long decodedTicks;
+    private int records; // left in the frame being decoded
+    private long frameTick;
+    private boolean frameKeyframe;
+    private boolean buffering = true; // waiting for the delay to fill up
+    private float bufferingTime;
+    private float ticksDue;
+
+    /**
+     * connect and read up to the first tick, so {@link #update(float)} has a snapshot from the start
+     * @throws IOException if nothing broadcasts there or it doesn't answer within {@code timeoutMillis}
+     */
+    public void connect(InetSocketAddress address, int timeoutMillis) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address, timeoutMillis);
+        socket.setSoTimeout(timeoutMillis);
+        in = new DataInputStream(socket.getInputStream());
+
+        byte[] hello = new byte[MatchBroadcaster.HELLO_SIZE];
+        in.readFully(hello);
+        ByteBuffer helloView = ByteBuffer.wrap(hello).order(ByteOrder.LITTLE_ENDIAN);
+        if (helloView.getInt() != MatchBroadcaster.MAGIC) {
+            socket.close();
+            throw new GdxRuntimeException(address + " isn't a match broadcast");
+        }
+        short version = helloView.getShort();
+        short tickRate = helloView.getShort();
+        byte batchTicks = helloView.get();
+        if (version != MatchBroadcaster.VERSION || tickRate != MatchRunner.TICK_RATE ||
+            batchTicks != MatchBroadcaster.BATCH_TICKS) {
+            socket.close();
+            throw new GdxRuntimeException("Broadcast version " + version + " at " + tickRate + " ticks per second, " +
+                "this game needs version " + MatchBroadcaster.VERSION + " at " + MatchRunner.TICK_RATE);
+        }
+
+        // broadcasts start every spectator at a keyframe
+        while (received.get() == 0) {
+            readFrame(false);
+        }
+        decodeTick();
+        socket.setSoTimeout(0); // the match may pause for as long as it likes
+
+        connected = true;
+        readerThread = new Thread(this::readLoop, "spectator-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * false once the broadcast ended or the connection broke; the last snapshot stays
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getFramesReceived() {
+        return received.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * ticks received but not shown yet
+     */
+    public int getDelayTicks() {
+        return (int) (receivedTicks.get() - decodedTicks);
+    }
+
+    /**
+     * advance by a frame's real time, on the render thread. Returns the snapshot to draw, the same instance every
+     * time; never blocks and never allocates
+     */
+    public MatchSnapshot update(float delta) {
+        int delay = getDelayTicks();
+        if (buffering) {
+            bufferingTime += delta;
+            if (delay < TARGET_DELAY_TICKS && (delay == 0 || bufferingTime < STALL_SECONDS)) return snapshot;
+            buffering = false;
+            bufferingTime = 0;
+            ticksDue = 0;
+        }
+        ticksDue += delta * MatchRunner.TICK_RATE;
+        if (delay > MAX_DELAY_TICKS) {
+            ticksDue += delay - TARGET_DELAY_TICKS; // fell behind, skip to the target delay in one go
+        }
+        while (ticksDue >= 1f) {
+            if (!decodeTick()) {
+                buffering = connected; // ran dry, wait for the delay to build up again
+                ticksDue = 0;
+                break;
+            }
+            ticksDue--;
+        }
+        return snapshot;
+    }
+
+    /**
+     * disconnect and stop the reader thread
+     */
+    public void dispose() {
+        connected = false;
+        try {
+            if (socket != null) socket.close(); // wakes the reader thread up
+        } catch (IOException e) {
+            // closing anyway
+        }
+        if (readerThread != null) {
+            try {
+                readerThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void readLoop() {
+        try {
+            boolean waitForKeyframe = false;
+            while (connected) {
+                waitForKeyframe = readFrame(waitForKeyframe);
+            }
+        } catch (IOException e) {
+            // broadcast over
+        }
+        connected = false;
+    }
+
+    /**
+     * read one frame into the ring, or drop it when the ring is full or a keyframe is needed. Returns whether the
+     * next one still has to be a keyframe
+     */
+    private boolean readFrame(boolean waitForKeyframe) throws IOException {
+        int length = Integer.reverseBytes(in.readInt()); // little endian
+        if (length < MatchBroadcaster.FRAME_HEADER_SIZE - 4 || length > MatchBroadcaster.MAX_FRAME_SIZE - 4) {
+            throw new IOException("Broken broadcast frame of " + length + " bytes");
+        }
+        long frame = received.get();
+        int start = (int) (frame & (RING_FRAMES - 1)) * MatchBroadcaster.MAX_FRAME_SIZE;
+        boolean full = frame - consumedPublished >= RING_FRAMES; // its slot still holds a frame to decode
+        if (full) {
+            in.readFully(discarded, 0, length);
+            droppedFrames++;
+            return true;
+        }
+        ringView.putInt(start, length);
+        in.readFully(ring, start + 4, length);
+        if (waitForKeyframe && ring[start + 4] != MatchBroadcaster.KEYFRAME) {
+            droppedFrames++;
+            return true;
+        }
+        receivedTicks.addAndGet(ring[start + 9]);
+        received.lazySet(frame + 1); // hand the frame to the render thread
+        return false;
+    }
+
+    /**
+     * the next tick into the snapshot, false if none has arrived yet
+     */
+    private boolean decodeTick() {
+        if (records == 0) {
+            if (consumed == received.get()) return false;
+            int start = (int) (consumed & (RING_FRAMES - 1)) * MatchBroadcaster.MAX_FRAME_SIZE;
+            frameKeyframe = ring[start + 4] == MatchBroadcaster.KEYFRAME;
+            frameTick = ringView.getInt(start + 5);
+            records = ring[start + 9];
+            decoder.beginRead(ringView, start + MatchBroadcaster.FRAME_HEADER_SIZE);
+        }
+        if (frameKeyframe) {
+            decoder.readKeyframe(snapshot);
+            frameKeyframe = false;
+        } else {
+            decoder.readDelta(snapshot);
+        }
+        snapshot.tick = frameTick++;
+        snapshot.tuning = Tuning.DEFAULT; // only the host's simulation is tuned
+        decodedTicks++;
+        if (--records == 0) {
+            consumed++;
+            consumedPublished = consumed; // frees the slot
+        }
+        return true;
+    }
+}
@@ -2,30 +2,24 @@ package com.xtrife.sfs.objects;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.Vector2;
 import com.xtrife.sfs.Main;
+import com.xtrife.sfs.rendering.RenderQueue;
 import com.xtrife.sfs.resources.Assets;
-import com.xtrife.sfs.resources.GlobalVariables;
 
 /**
  * Created by 9S on 2/26/2025 - 12:32 PM.
  */
 public class BloodSplatter {
-    // state
-    private float stateTime;
-    private boolean active;
-    private final Vector2 position = new Vector2();
+    public static final float FRAME_DURATION = 0.03f;
 
-    // animation
+    // animation; where and when splatters play is part of the match simulation, see MatchRunner
     private Animation<TextureRegion> splatterAnimation;
+    private final float textureScale;
 
     public BloodSplatter(Main game) {
-        // init state
-        stateTime = 0f;
-        active = false;
+        textureScale = game.assets.getTextureScale();
 
         // init splatter animation
         initializeSplatterAnimation(game.assets.manager);
@@ -33,39 +27,20 @@ public class BloodSplatter {
 
     private void initializeSplatterAnimation(AssetManager assetManager) {
         TextureAtlas bloodAtlas = assetManager.get(Assets.BLOOD_ATLAS);
-        splatterAnimation = new Animation<>(0.03f, bloodAtlas.findRegions("BloodSplatter"));
+        splatterAnimation = new Animation<>(FRAME_DURATION, bloodAtlas.findRegions("BloodSplatter"));
     }
 
-    public void activate(float posX, float posY) {
-        active = true;
-        stateTime = 0f;
-        position.set(posX, posY);
+    /**
+     * how long a splatter plays before it disappears
+     */
+    public float getDuration() {
+        return splatterAnimation.getAnimationDuration();
     }
 
-    public void deactivate() {
-        active = false;
-    }
-
-    public void update(float delta) {
-        // if not active, dont update
-        if (!active) return;
-
-        // increment state time
-        stateTime += delta;
-
-        // if splatter animation has finished, deactive splatter
-        if (splatterAnimation.isAnimationFinished(stateTime)) {
-            deactivate();
-        }
-    }
-
-    public void render(SpriteBatch batch) {
-        if (!active) return;
-
-        // draw the current animation frame
+    public void render(RenderQueue queue, float depth, float x, float y, float stateTime) {
+        // queue the current animation frame
         TextureRegion currentFrame = splatterAnimation.getKeyFrame(stateTime);
-        batch.draw(currentFrame, position.x, position.y,
-            currentFrame.getRegionWidth() * GlobalVariables.WORLD_SCALE,
-            currentFrame.getRegionHeight() * GlobalVariables.WORLD_SCALE);
+        queue.add(RenderQueue.LAYER_ACTORS, depth, RenderQueue.SUB_LAYER_EFFECT, currentFrame, x, y, 0, 0,
+            currentFrame.getRegionWidth() * textureScale, currentFrame.getRegionHeight() * textureScale, 1, 1, 0);
     }
 }
@@ -0,0 +1,253 @@
+package com.xtrife.sfs.objects;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Disposable;
+import com.xtrife.sfs.resources.StageData;
+
+/**
+ * Created by 9S on 10/19/2026 - 6:08 PM.
+ * Spectators in the stands behind the ring, reacting to hits, won rounds (cheering) and lost rounds (booing).
+ * All geometry is baked into a {@link SpriteCache} once per stage: the back rows as one static cache, the front rows
+ * split into a few groups with a cache per pose. A frame only picks each group's pose cache and moves it up and
+ * down with a transform, so the cost per frame is a handful of draw calls however many spectators there are.
+ */
+public class Crowd implements Disposable {
+    public enum Pose {IDLE, CHEER, BOO}
+
+    private static final Pose[] POSES = Pose.values();
+    public static final int MAX_SPECTATORS = 2000; // every animated spectator is baked once per pose
+
+    // spectator silhouette, in pixels
+    private static final int FRAME_WIDTH = 12, FRAME_HEIGHT = 20;
+    private static final float SPECTATOR_WIDTH = 1.9f, SPECTATOR_HEIGHT = 3.2f; // world units
+
+    // animation
+    private static final int ANIMATED_GROUPS = 4;
+    private static final int VERTEX_BYTES_PER_SPRITE = 6 * 5 * 4; // 6 vertices of 5 floats, the cache has no indices
+    private static final float BOUNCE_SPEED = 9f; // radians per second
+    private static final float IDLE_BOUNCE_HEIGHT = 0.08f;
+    private static final float EXCITED_BOUNCE_HEIGHT = 0.9f;
+    private static final float EXCITEMENT_PER_HIT = 0.35f;
+    private static final float EXCITEMENT_DECAY = 0.6f; // per second
+    private static final float REACTION_DURATION = 3f;
+    private static final float REACTION_WAVE_DELAY = 0.15f; // between groups, so reactions ripple through the stands
+
+    private final Texture texture;
+    private final SpriteCache cache;
+    private final int staticCache;
+    private final int[][] poseCaches = new int[ANIMATED_GROUPS][POSES.length];
+    private final int spectators;
+    private final long nativeBytes;
+
+    // per group
+    private final Pose[] poses = new Pose[ANIMATED_GROUPS];
+    private final float[] reactionTimes = new float[ANIMATED_GROUPS]; // < 0 while waiting for the wave
+    private final float[] phases = new float[ANIMATED_GROUPS];
+    private Pose reaction = Pose.IDLE;
+    private float excitement;
+    private float time;
+    private final Matrix4 transform = new Matrix4();
+    private int renderCalls;
+
+    public Crowd(StageData.CrowdData data) {
+        texture = createTexture();
+        TextureRegion[] frames = new TextureRegion[POSES.length];
+        for (int i = 0; i < POSES.length; i++) {
+            frames[i] = new TextureRegion(texture, i * FRAME_WIDTH, 0, FRAME_WIDTH, FRAME_HEIGHT);
+        }
+
+        float x0 = data.area[0], y0 = data.area[1], width = data.area[2], height = data.area[3];
+        int requested = MathUtils.clamp(data.spectators, 0, MAX_SPECTATORS);
+        // jittered grid, about as many columns per row as the area is wider than high
+        int columns = Math.max(1, MathUtils.ceil((float) Math.sqrt(requested * width / Math.max(height, 0.01f))));
+        int rows = Math.max(1, MathUtils.ceil(requested / (float) columns));
+        float columnWidth = width / columns, rowHeight = height / rows;
+
+        // the same stage always gets the same crowd
+        RandomXS128 random = new RandomXS128(data.seed);
+        float[] x = new float[requested], y = new float[requested], shade = new float[requested];
+        int[] group = new int[requested];
+        int count = 0;
+        // back rows first so front rows overlap them
+        for (int row = rows - 1; row >= 0 && count < requested; row--) {
+            for (int column = 0; column < columns && count < requested; column++) {
+                float spectatorX = x0 + (column + random.nextFloat()) * columnWidth - SPECTATOR_WIDTH * 0.5f;
+                if (inGap(data.gaps, spectatorX)) continue;
+                x[count] = spectatorX;
+                y[count] = y0 + (row + random.nextFloat() * 0.5f) * rowHeight;
+                // far rows are darker
+                shade[count] = 0.08f + 0.18f * (1f - row / (float) rows) + random.nextFloat() * 0.08f;
+                // back half never moves
+                group[count] = row >= rows / 2 ? -1 : random.nextInt(ANIMATED_GROUPS);
+                count++;
+            }
+        }
+        spectators = count;
+
+        // bake the static rows once and every animated group once per pose
+        int animated = 0;
+        for (int i = 0; i < count; i++) {
+            if (group[i] >= 0) animated++;
+        }
+        int cacheSize = Math.max(1, count - animated + animated * POSES.length);
+        cache = new SpriteCache(cacheSize, false);
+        nativeBytes = (long) cacheSize * VERTEX_BYTES_PER_SPRITE
+            + (long) texture.getWidth() * texture.getHeight() * 4;
+        staticCache = bake(frames[Pose.IDLE.ordinal()], -1, x, y, shade, group, count, random);
+        for (int g = 0; g < ANIMATED_GROUPS; g++) {
+            for (Pose pose : POSES) {
+                poseCaches[g][pose.ordinal()] = bake(frames[pose.ordinal()], g, x, y, shade, group, count, random);
+            }
+            poses[g] = Pose.IDLE;
+            phases[g] = random.nextFloat() * MathUtils.PI2;
+        }
+    }
+
+    private int bake(TextureRegion frame, int group, float[] x, float[] y, float[] shade, int[] groups, int count,
+                     RandomXS128 random) {
+        cache.beginCache();
+        for (int i = 0; i < count; i++) {
+            if (groups[i] != group) continue;
+            // a little tint so the stands aren't all the same grey
+            float tint = (random.nextFloat() - 0.5f) * 0.06f;
+            cache.setColor(shade[i] + tint, shade[i], shade[i] - tint, 1f);
+            cache.add(frame, x[i], y[i], SPECTATOR_WIDTH, SPECTATOR_HEIGHT);
+        }
+        return cache.endCache();
+    }
+
+    private static boolean inGap(float[] gaps, float x) {
+        if (gaps == null) return false;
+        // gaps are x ranges (e.g. ring posts) kept free of spectators
+        for (int i = 0; i + 1 < gaps.length; i += 2) {
+            if (x + SPECTATOR_WIDTH > gaps[i] && x < gaps[i + 1]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * white silhouettes, one frame per pose, tinted per spectator when baked
+     */
+    private static Texture createTexture() {
+        Pixmap pixmap = new Pixmap(FRAME_WIDTH * POSES.length, FRAME_HEIGHT, Pixmap.Format.RGBA8888);
+        pixmap.setColor(1f, 1f, 1f, 1f);
+        for (Pose pose : POSES) {
+            int left = pose.ordinal() * FRAME_WIDTH;
+            int headY = pose == Pose.BOO ? 6 : 4; // booing spectators slump
+            pixmap.fillCircle(left + 6, headY, 3);
+            // shoulders and body
+            pixmap.fillCircle(left + 3, 11, 2);
+            pixmap.fillCircle(left + 8, 11, 2);
+            pixmap.fillRectangle(left + 1, 11, 10, FRAME_HEIGHT - 11);
+            if (pose == Pose.CHEER) {
+                // arms up
+                pixmap.fillRectangle(left, 1, 2, 10);
+                pixmap.fillRectangle(left + 10, 1, 2, 10);
+            } else if (pose == Pose.BOO) {
+                // arm stretched out, thumb down
+                pixmap.fillRectangle(left + 10, 10, 2, 6);
+            }
+        }
+        Texture texture = new Texture(pixmap);
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        pixmap.dispose();
+        return texture;
+    }
+
+    /**
+     * a landed hit gets the stands going for a bit
+     */
+    public void excite() {
+        excitement = Math.min(1f, excitement + EXCITEMENT_PER_HIT);
+    }
+
+    public void cheer() {
+        react(Pose.CHEER);
+    }
+
+    public void boo() {
+        react(Pose.BOO);
+    }
+
+    private void react(Pose pose) {
+        reaction = pose;
+        excitement = 1f;
+        for (int g = 0; g < ANIMATED_GROUPS; g++) {
+            reactionTimes[g] = -g * REACTION_WAVE_DELAY;
+        }
+    }
+
+    public void update(float delta) {
+        time += delta;
+        excitement = Math.max(0f, excitement - EXCITEMENT_DECAY * delta);
+        for (int g = 0; g < ANIMATED_GROUPS; g++) {
+            if (reaction == Pose.IDLE) {
+                poses[g] = Pose.IDLE;
+                continue;
+            }
+            reactionTimes[g] += delta;
+            poses[g] = reactionTimes[g] >= 0f && reactionTimes[g] < REACTION_DURATION ? reaction : Pose.IDLE;
+        }
+        if (reactionTimes[ANIMATED_GROUPS - 1] >= REACTION_DURATION) {
+            reaction = Pose.IDLE; // the last group is done
+        }
+    }
+
+    /**
+     * draw the stands with their own cache, outside of any sprite batch begin() / end()
+     */
+    public void render(Matrix4 projection) {
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.setProjectionMatrix(projection);
+
+        transform.idt();
+        cache.setTransformMatrix(transform);
+        cache.begin();
+        cache.draw(staticCache);
+        cache.end();
+        renderCalls = cache.renderCalls;
+
+        float bounceHeight = IDLE_BOUNCE_HEIGHT + (EXCITED_BOUNCE_HEIGHT - IDLE_BOUNCE_HEIGHT) * excitement;
+        for (int g = 0; g < ANIMATED_GROUPS; g++) {
+            float bounce = Math.abs(MathUtils.sin(time * BOUNCE_SPEED + phases[g])) * bounceHeight;
+            cache.setTransformMatrix(transform.setToTranslation(0f, bounce, 0f));
+            cache.begin();
+            cache.draw(poseCaches[g][poses[g].ordinal()]);
+            cache.end();
+            renderCalls += cache.renderCalls;
+        }
+    }
+
+    public int getSpectators() {
+        return spectators;
+    }
+
+    /**
+     * GPU memory of the silhouette texture and the baked vertices
+     */
+    public long getNativeBytes() {
+        return nativeBytes;
+    }
+
+    /**
+     * draw calls of the last {@link #render}, to add to the sprite batch's
+     */
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    @Override
+    public void dispose() {
+        cache.dispose();
+        texture.dispose();
+    }
+}
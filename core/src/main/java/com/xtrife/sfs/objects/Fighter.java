@@ -4,12 +4,16 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.xtrife.sfs.Main;
+import com.xtrife.sfs.rendering.RenderQueue;
 import com.xtrife.sfs.resources.Assets;
 import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.StateHash;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.nio.ByteBuffer;
 
 /**
  * Created by 9S on 2/24/2025 - 11:31 PM.
@@ -18,6 +22,8 @@ public class Fighter {
     // num of frame rows and columns in each anim sprite sheet
     public static final int FRAME_ROWS = 2, FRAME_COLS = 3;
 
+    // defaults of the tunable values, see Tuning
+
     // how fast a fighter can move
     public static final float MOVEMENT_SPEED = 15f;
 
@@ -25,13 +31,25 @@ public class Fighter {
     public static final float MAX_LIFE = 100f;
 
     public static final float HIT_STRENGTH = 5f;
+    public static final float SPECIAL_ATTACK_FACTOR = 1.6f; // attacks that finish a motion input hit harder
     // Damage decrease when blocking
     public static final float BLOCK_DAMAGE_FACTOR = 0.2f; // 5 * 0.2 = 1 damage reduction
 
+    // duration in seconds for each animation frame
+    public static final float BLOCK_FRAME_DURATION = 0.05f;
+    public static final float HURT_FRAME_DURATION = 0.03f;
+    public static final float IDLE_FRAME_DURATION = 0.1f;
+    public static final float KICK_FRAME_DURATION = 0.05f;
+    public static final float LOSE_FRAME_DURATION = 0.05f;
+    public static final float PUNCH_FRAME_DURATION = 0.05f;
+    public static final float WALK_FRAME_DURATION = 0.08f;
+    public static final float WIN_FRAME_DURATION = 0.05f;
 
     // distinguishing details
     private String name;
     private Color color;
+    private float textureScale = GlobalVariables.WORLD_SCALE; // world units per sprite sheet texel
+    private Tuning tuning = Tuning.DEFAULT;
 
     // state
     public enum State {
@@ -45,6 +63,8 @@ public class Fighter {
         WIN
     }
 
+    private static final State[] STATES = State.values();
+
     private State state;
     private float stateTime;
     private State renderState;
@@ -54,6 +74,7 @@ public class Fighter {
     private float life; // HP
     private int facing;
     private boolean madeContact; // attack hit or miss
+    private boolean specialAttack; // the running attack finished a motion input
 
     // animations
     private Animation<TextureRegion> blockAnimation;
@@ -68,6 +89,7 @@ public class Fighter {
     public Fighter(Main game, String name, Color color) {
         this.name = name;
         this.color = color;
+        textureScale = game.assets.getTextureScale();
 
         // init animations
         initializeBlockAnimation(game.assets.manager);
@@ -80,6 +102,40 @@ public class Fighter {
         initializeWinAnimation(game.assets.manager);
     }
 
+    /**
+     * Creates a fighter without any textures so matches can be simulated headless (no GL context).
+     * The animations keep their frame timings, so state changes behave exactly as in game, but the fighter can't be rendered.
+     */
+    public Fighter(String name, Color color) {
+        this.name = name;
+        this.color = color;
+
+        // timing only animations, every key frame is empty
+        blockAnimation = new Animation<>(BLOCK_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        hurtAnimation = new Animation<>(HURT_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        idleAnimation = new Animation<>(IDLE_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        kickAnimation = new Animation<>(KICK_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        loseAnimation = new Animation<>(LOSE_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        punchAnimation = new Animation<>(PUNCH_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        walkAnimation = new Animation<>(WALK_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+        winAnimation = new Animation<>(WIN_FRAME_DURATION, new TextureRegion[FRAME_ROWS * FRAME_COLS]);
+    }
+
+    /**
+     * speed, damage and animation timings from now on, only call between simulation ticks
+     */
+    public void setTuning(Tuning tuning) {
+        this.tuning = tuning;
+        blockAnimation.setFrameDuration(tuning.getFrameDuration(State.BLOCK));
+        hurtAnimation.setFrameDuration(tuning.getFrameDuration(State.HURT));
+        idleAnimation.setFrameDuration(tuning.getFrameDuration(State.IDLE));
+        kickAnimation.setFrameDuration(tuning.getFrameDuration(State.KICK));
+        loseAnimation.setFrameDuration(tuning.getFrameDuration(State.LOSE));
+        punchAnimation.setFrameDuration(tuning.getFrameDuration(State.PUNCH));
+        walkAnimation.setFrameDuration(tuning.getFrameDuration(State.WALK));
+        winAnimation.setFrameDuration(tuning.getFrameDuration(State.WIN));
+    }
+
     public Vector2 getPosition() {
         return position;
     }
@@ -88,6 +144,26 @@ public class Fighter {
         return life;
     }
 
+    public State getState() {
+        return state;
+    }
+
+    public float getStateTime() {
+        return stateTime;
+    }
+
+    public State getRenderState() {
+        return renderState;
+    }
+
+    public float getRenderStateTime() {
+        return renderStateTime;
+    }
+
+    public int getFacing() {
+        return facing;
+    }
+
     public void getReady(float positionX, float positionY) {
         state = renderState = State.IDLE;
         stateTime = renderStateTime = 0f; // shorthand to set both vars to 0f
@@ -95,9 +171,13 @@ public class Fighter {
         movementDirection.set(0, 0);
         life = MAX_LIFE;
         madeContact = false;
+        specialAttack = false;
     }
 
-    public void render(SpriteBatch batch) {
+    /**
+     * queue the animation frame of the given state, the fighter's y is its depth on the stage
+     */
+    public void render(RenderQueue queue, float x, float y, State renderState, float stateTime, int facing) {
         // get the current animation frame
         TextureRegion currentFrame;
         switch (renderState) {
@@ -127,13 +207,13 @@ public class Fighter {
                 break;
         }
 
-        batch.setColor(color);
-        batch.draw(currentFrame, position.x, position.y,
-            currentFrame.getRegionWidth() * 0.5f * GlobalVariables.WORLD_SCALE, 0,
-            currentFrame.getRegionWidth() * GlobalVariables.WORLD_SCALE,
-            currentFrame.getRegionHeight() * GlobalVariables.WORLD_SCALE,
+        queue.setColor(color);
+        queue.add(RenderQueue.LAYER_ACTORS, y, RenderQueue.SUB_LAYER_BODY, currentFrame, x, y,
+            currentFrame.getRegionWidth() * 0.5f * textureScale, 0,
+            currentFrame.getRegionWidth() * textureScale,
+            currentFrame.getRegionHeight() * textureScale,
             facing, 1, 0);
-        batch.setColor(1, 1, 1, 1); // stop coloring
+        queue.setColor(1, 1, 1, 1); // stop coloring
     }
 
     public void update(float delta) {
@@ -148,8 +228,8 @@ public class Fighter {
 
         if (state == State.WALK) {
             // if fighter is walking, move in the direction of the movement vector
-            position.x += movementDirection.x * MOVEMENT_SPEED * delta;
-            position.y += movementDirection.y * MOVEMENT_SPEED * delta;
+            position.x += movementDirection.x * tuning.movementSpeed * delta;
+            position.y += movementDirection.y * tuning.movementSpeed * delta;
         } else if (
             // Go back to idling or walking after attacking or getting hit
             (state == State.PUNCH && punchAnimation.isAnimationFinished(stateTime)) ||
@@ -226,9 +306,16 @@ public class Fighter {
         }
     }
 
+    /**
+     * idle or walking, the only states that take new attacks and blocks
+     */
+    public boolean canAct() {
+        return state == State.IDLE || state == State.WALK;
+    }
+
     public void block() {
         // can only block while idle or walking
-        if (state == State.IDLE || state == State.WALK) {
+        if (canAct()) {
             changeState(State.BLOCK);
         }
     }
@@ -249,21 +336,40 @@ public class Fighter {
     }
 
     public void punch() {
-        if (state == State.IDLE || state == State.WALK) {
-            changeState(State.PUNCH);
-            // just started attacking, no contact made yet
-            madeContact = false;
-        }
+        punch(false);
+    }
+
+    /**
+     * @param special the punch finished a motion input, see {@link #SPECIAL_ATTACK_FACTOR}
+     */
+    public void punch(boolean special) {
+        attack(State.PUNCH, special);
     }
 
     public void kick() {
-        if (state == State.IDLE || state == State.WALK) {
-            changeState(State.KICK);
+        kick(false);
+    }
+
+    public void kick(boolean special) {
+        attack(State.KICK, special);
+    }
+
+    private void attack(State attackState, boolean special) {
+        if (canAct()) {
+            changeState(attackState);
             // just started attacking, no contact made yet
             madeContact = false;
+            specialAttack = special;
         }
     }
 
+    /**
+     * damage the running attack does on contact
+     */
+    public float getAttackStrength() {
+        return specialAttack ? tuning.hitStrength * tuning.specialAttackFactor : tuning.hitStrength;
+    }
+
     public void makeContact() {
         madeContact = true;
     }
@@ -295,7 +401,7 @@ public class Fighter {
         if (state == State.HURT || state == State.WIN || state == State.LOSE) return;
 
         // reduce HP by full damage or partial damage if blocking
-        life -= state == State.BLOCK ? damage * BLOCK_DAMAGE_FACTOR : damage;
+        life -= state == State.BLOCK ? damage * tuning.blockDamageFactor : damage;
 
         if (life <= 0f) {
             lose(); // defeated
@@ -321,49 +427,49 @@ public class Fighter {
     private void initializeBlockAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.BLOCK_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        blockAnimation = new Animation<>(0.05f, frames); // duration in seconds for each frame
+        blockAnimation = new Animation<>(BLOCK_FRAME_DURATION, frames);
     }
 
     private void initializeHurtAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.HURT_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        hurtAnimation = new Animation<>(0.03f, frames); // duration in seconds for each frame
+        hurtAnimation = new Animation<>(HURT_FRAME_DURATION, frames);
     }
 
     private void initializeIdleAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.IDLE_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        idleAnimation = new Animation<>(0.1f, frames); // duration in seconds for each frame
+        idleAnimation = new Animation<>(IDLE_FRAME_DURATION, frames);
     }
 
     private void initializeKickAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.KICK_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        kickAnimation = new Animation<>(0.05f, frames); // duration in seconds for each frame
+        kickAnimation = new Animation<>(KICK_FRAME_DURATION, frames);
     }
 
     private void initializeLoseAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.LOSE_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        loseAnimation = new Animation<>(0.05f, frames); // duration in seconds for each frame
+        loseAnimation = new Animation<>(LOSE_FRAME_DURATION, frames);
     }
 
     private void initializePunchAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.PUNCH_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        punchAnimation = new Animation<>(0.05f, frames); // duration in seconds for each frame
+        punchAnimation = new Animation<>(PUNCH_FRAME_DURATION, frames);
     }
 
     private void initializeWalkAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.WALK_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        walkAnimation = new Animation<>(0.08f, frames); // duration in seconds for each frame
+        walkAnimation = new Animation<>(WALK_FRAME_DURATION, frames);
     }
 
     private void initializeWinAnimation(AssetManager assetManager) {
         Texture spriteSheet = assetManager.get(Assets.WIN_SPRITE_SHEET);
         TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        winAnimation = new Animation<>(0.05f, frames); // duration in seconds for each frame
+        winAnimation = new Animation<>(WIN_FRAME_DURATION, frames);
     }
 
     private TextureRegion[] getAnimationFrames(Texture spriteSheet) {
@@ -396,5 +502,54 @@ public class Fighter {
         this.color = color;
     }
 
-
+    /**
+     * add everything the simulation changes to a state hash, render state included since the match snapshots it
+     */
+    public void hash(StateHash hash) {
+        hash.add("state", state);
+        hash.add("stateTime", stateTime);
+        hash.add("renderState", renderState);
+        hash.add("renderStateTime", renderStateTime);
+        hash.add("x", position.x);
+        hash.add("y", position.y);
+        hash.add("movementX", movementDirection.x);
+        hash.add("movementY", movementDirection.y);
+        hash.add("life", life);
+        hash.add("facing", facing);
+        hash.add("madeContact", madeContact);
+        hash.add("specialAttack", specialAttack);
+    }
+
+    /**
+     * write the same fields {@link #hash} covers, e.g. for a replay keyframe
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.put((byte) state.ordinal());
+        buffer.putFloat(stateTime);
+        buffer.put((byte) renderState.ordinal());
+        buffer.putFloat(renderStateTime);
+        buffer.putFloat(position.x);
+        buffer.putFloat(position.y);
+        buffer.putFloat(movementDirection.x);
+        buffer.putFloat(movementDirection.y);
+        buffer.putFloat(life);
+        buffer.put((byte) facing);
+        buffer.put((byte) (madeContact ? 1 : 0));
+        buffer.put((byte) (specialAttack ? 1 : 0));
+    }
+
+    public void restore(ByteBuffer buffer) {
+        state = STATES[buffer.get()];
+        stateTime = buffer.getFloat();
+        renderState = STATES[buffer.get()];
+        renderStateTime = buffer.getFloat();
+        position.x = buffer.getFloat();
+        position.y = buffer.getFloat();
+        movementDirection.x = buffer.getFloat();
+        movementDirection.y = buffer.getFloat();
+        life = buffer.getFloat();
+        facing = buffer.get();
+        madeContact = buffer.get() != 0;
+        specialAttack = buffer.get() != 0;
+    }
 }
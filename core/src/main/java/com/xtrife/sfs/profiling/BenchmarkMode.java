@@ -0,0 +1,19 @@
+package com.xtrife.sfs.profiling;
+
+import com.xtrife.sfs.resources.GlobalVariables;
+
+/**
+ * Created by 9S on 10/19/2026 - 6:41 PM.
+ * Scripted match for benchmark runs: the AI plays both fighters from a fixed seed, the match advances exactly one
+ * simulation tick per rendered frame and restarts when it's over. Every run draws the same frames however fast the
+ * machine renders them, so runs of different builds can be compared.
+ */
+public class BenchmarkMode {
+    public static final GlobalVariables.Difficulty DIFFICULTY = GlobalVariables.Difficulty.HARD; // both fighters
+
+    public final long seed;
+
+    public BenchmarkMode(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,126 @@
+package com.xtrife.sfs.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:18 PM.
+ * {@link Profiler} that keeps running counters and a {@link TimeHistogram} per frame phase, cheap enough to stay on
+ * in release builds. Readable from any thread, the desktop launcher exposes it over JMX.
+ */
+public class FrameMetrics extends Profiler {
+    private static final FramePhase[] PHASES = FramePhase.values();
+
+    private final TimeHistogram[] phaseTimes = new TimeHistogram[PHASES.length];
+    // start of the running phase; every phase runs on a single thread, so each slot has only one writer
+    private final long[] phaseStarts = new long[PHASES.length];
+
+    private final TimeHistogram frameTimes = new TimeHistogram();
+    private long lastFrameEnd;
+    private volatile int lastRenderCalls, lastActiveEffects;
+    private final AtomicLong maxRenderCalls = new AtomicLong();
+
+    private final AtomicLong roundsStarted = new AtomicLong();
+    private final AtomicLong soundsPlayed = new AtomicLong();
+    private final AtomicLong assetsLoaded = new AtomicLong();
+    private final AtomicLong assetLoadNanos = new AtomicLong();
+
+    public FrameMetrics() {
+        for (int i = 0; i < phaseTimes.length; i++) {
+            phaseTimes[i] = new TimeHistogram();
+        }
+    }
+
+    @Override
+    public void begin(FramePhase phase) {
+        phaseStarts[phase.ordinal()] = System.nanoTime();
+    }
+
+    @Override
+    public void end(FramePhase phase) {
+        long start = phaseStarts[phase.ordinal()];
+        if (start == 0) return; // ended without a begin, e.g. the buffer swap before the first frame
+        phaseTimes[phase.ordinal()].record(System.nanoTime() - start);
+        phaseStarts[phase.ordinal()] = 0;
+    }
+
+    @Override
+    public void frameEnded(int renderCalls, int activeEffects) {
+        long now = System.nanoTime();
+        if (lastFrameEnd != 0) {
+            frameTimes.record(now - lastFrameEnd);
+        }
+        lastFrameEnd = now;
+        lastRenderCalls = renderCalls;
+        lastActiveEffects = activeEffects;
+        if (renderCalls > maxRenderCalls.get()) {
+            maxRenderCalls.set(renderCalls);
+        }
+    }
+
+    @Override
+    public void roundStarted(int round) {
+        roundsStarted.incrementAndGet();
+    }
+
+    @Override
+    public void assetLoaded(String fileName, long decodeNanos, long uploadNanos) {
+        assetsLoaded.incrementAndGet();
+        assetLoadNanos.addAndGet(decodeNanos + uploadNanos);
+    }
+
+    @Override
+    public void soundPlayed(String soundAsset) {
+        soundsPlayed.incrementAndGet();
+    }
+
+    public TimeHistogram getPhaseTimes(FramePhase phase) {
+        return phaseTimes[phase.ordinal()];
+    }
+
+    public TimeHistogram getFrameTimes() {
+        return frameTimes;
+    }
+
+    public int getLastRenderCalls() {
+        return lastRenderCalls;
+    }
+
+    public long getMaxRenderCalls() {
+        return maxRenderCalls.get();
+    }
+
+    public int getLastActiveEffects() {
+        return lastActiveEffects;
+    }
+
+    public long getRoundsStarted() {
+        return roundsStarted.get();
+    }
+
+    public long getSoundsPlayed() {
+        return soundsPlayed.get();
+    }
+
+    public long getAssetsLoaded() {
+        return assetsLoaded.get();
+    }
+
+    public long getAssetLoadNanos() {
+        return assetLoadNanos.get();
+    }
+
+    /**
+     * start counting over, e.g. right before the part of a session that should be measured
+     */
+    public void reset() {
+        for (TimeHistogram histogram : phaseTimes) {
+            histogram.reset();
+        }
+        frameTimes.reset();
+        maxRenderCalls.set(0);
+        roundsStarted.set(0);
+        soundsPlayed.set(0);
+        assetsLoaded.set(0);
+        assetLoadNanos.set(0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.xtrife.sfs.profiling;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:59 PM.
+ * Decides when a frame starts. This base class starts it as soon as the backend calls, leaving the pacing to vsync and
+ * the backend's frame cap; the desktop launcher has a low latency pacer that waits until just before the frame is due
+ * and reads input right before drawing it.
+ */
+public class FramePacer {
+    public static final FramePacer BACKEND = new FramePacer();
+
+    /**
+     * called at the start of every render call, before the frame reads any state
+     */
+    public void beginFrame() {
+    }
+
+    public String getName() {
+        return "vsync";
+    }
+}
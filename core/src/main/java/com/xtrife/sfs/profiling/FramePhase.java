@@ -0,0 +1,17 @@
+package com.xtrife.sfs.profiling;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:05 PM.
+ * Timed parts of a frame. Each phase is only ever timed on one thread: input and drawing on the render thread,
+ * simulation, AI and hits on the match simulation thread.
+ */
+public enum FramePhase {
+    INPUT, // handling one input event
+    SIMULATION, // one match tick
+    AI, // AI decisions within a tick
+    HIT_RESOLUTION, // contact checks and hits within a tick
+    FIGHTER_RENDER, // fighters and blood splatters
+    HUD, // health bars, timer, texts and the pause button
+    OVERLAYS, // round start text, pause and game over menus
+    BUFFER_SWAP // from the end of one render call to the start of the next: buffer swap, vsync and event polling
+}
@@ -0,0 +1,100 @@
+package com.xtrife.sfs.profiling;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:56 PM.
+ * How long the player's controls take to show up, each stage measured from the moment the backend delivered the
+ * input event: until the simulation applied it to the fighter, until the first frame drawing the result was handed to
+ * the backend, and until that frame's buffer swap returned, the closest the game gets to the photons. Kept in half
+ * millisecond bins, a {@link TimeHistogram} is too coarse to tell a frame of latency apart. Render thread only.
+ */
+public class InputLatency {
+    public enum Stage {APPLIED, SUBMITTED, PRESENTED}
+
+    private static final Stage[] STAGES = Stage.values();
+    public static final long BIN_NANOS = 500_000L;
+    private static final int BINS = 200; // up to 100 ms, the last bin also holds everything slower
+
+    private final long[][] bins = new long[STAGES.length][BINS];
+    private final long[] maxNanos = new long[STAGES.length];
+    private long count;
+
+    /**
+     * one control through the whole pipeline, all times are System.nanoTime()
+     */
+    public void record(long eventTime, long appliedTime, long submittedTime, long presentedTime) {
+        add(Stage.APPLIED, appliedTime - eventTime);
+        add(Stage.SUBMITTED, submittedTime - eventTime);
+        add(Stage.PRESENTED, presentedTime - eventTime);
+        count++;
+    }
+
+    private void add(Stage stage, long nanos) {
+        nanos = Math.max(0L, nanos);
+        bins[stage.ordinal()][(int) Math.min(BINS - 1, nanos / BIN_NANOS)]++;
+        maxNanos[stage.ordinal()] = Math.max(maxNanos[stage.ordinal()], nanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos(Stage stage) {
+        return maxNanos[stage.ordinal()];
+    }
+
+    /**
+     * upper bound of the bin holding the given percentile (0 - 100), capped at the max recorded latency
+     */
+    public long getPercentileNanos(Stage stage, double percentile) {
+        if (count == 0) return 0;
+        long[] stageBins = bins[stage.ordinal()];
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += stageBins[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * BIN_NANOS, maxNanos[stage.ordinal()]);
+            }
+        }
+        return maxNanos[stage.ordinal()];
+    }
+
+    /**
+     * number of latencies of a stage from {@code fromNanos} up to but not including {@code toNanos}, both rounded to
+     * whole bins
+     */
+    public long getSamples(Stage stage, long fromNanos, long toNanos) {
+        long[] stageBins = bins[stage.ordinal()];
+        long samples = 0;
+        int last = (int) Math.min(BINS, toNanos / BIN_NANOS);
+        for (int i = (int) Math.min(BINS, fromNanos / BIN_NANOS); i < last; i++) {
+            samples += stageBins[i];
+        }
+        return samples;
+    }
+
+    /**
+     * median and p99 of every stage in milliseconds, e.g. for the log at exit
+     */
+    public String report(String pacing) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%d inputs, %s pacing", count, pacing));
+        for (Stage stage : STAGES) {
+            builder.append(String.format(Locale.ROOT, "%n  %-9s median %6.1f ms   p99 %6.1f ms   max %6.1f ms",
+                stage, getPercentileNanos(stage, 50) / 1e6, getPercentileNanos(stage, 99) / 1e6,
+                getMaxNanos(stage) / 1e6));
+        }
+        return builder.toString();
+    }
+
+    public void reset() {
+        for (int i = 0; i < STAGES.length; i++) {
+            Arrays.fill(bins[i], 0L);
+            maxNanos[i] = 0;
+        }
+        count = 0;
+    }
+}
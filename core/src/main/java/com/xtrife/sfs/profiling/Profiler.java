@@ -0,0 +1,35 @@
+package com.xtrife.sfs.profiling;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:08 PM.
+ * Hooks the game calls at the start and end of each {@link FramePhase} and on notable events. This base class does
+ * nothing, so it costs nothing on platforms without profiling; {@link FrameMetrics} aggregates the calls and the
+ * desktop launcher adds Flight Recorder events on top when the JVM has them.
+ */
+public class Profiler {
+    public static final Profiler NONE = new Profiler();
+
+    public void begin(FramePhase phase) {
+    }
+
+    public void end(FramePhase phase) {
+    }
+
+    /**
+     * called once per rendered frame with the sprite batch flushes and the effects that were drawn
+     */
+    public void frameEnded(int renderCalls, int activeEffects) {
+    }
+
+    public void roundStarted(int round) {
+    }
+
+    public void roundEnded(int round, boolean playerWon, float roundTime) {
+    }
+
+    public void assetLoaded(String fileName, long decodeNanos, long uploadNanos) {
+    }
+
+    public void soundPlayed(String soundAsset) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.xtrife.sfs.profiling;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.GLTexture;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.glutils.GLFrameBuffer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:22 PM.
+ * Counts the live native objects of the game (GL textures, frame buffers and meshes, OpenAL buffers and sources,
+ * FreeType faces) and their sizes, by type and by origin. Whatever the asset manager has loaded is read from it on
+ * {@link #refresh}; everything a screen or game object creates itself is registered with {@link #track} and
+ * {@link #release}. When an owner is disposed, {@link #ownerDisposed} flags everything it still has alive as a leak.
+ * Render thread only.
+ */
+public class ResourceTracker {
+    public enum Type {TEXTURE, FRAME_BUFFER, MESH, FONT, AUDIO}
+
+    private static final Type[] TYPES = Type.values();
+    public static final String ASSETS_ORIGIN = "assets";
+
+    public static class Resource {
+        public final Type type;
+        public final String origin;
+        public final String name;
+        public final long bytes; // estimated native size, 0 when the backend doesn't tell
+        private final Object object;
+        private boolean leaked;
+
+        Resource(Object object, Type type, String origin, String name, long bytes) {
+            this.object = object;
+            this.type = type;
+            this.origin = origin;
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        public boolean isLeaked() {
+            return leaked;
+        }
+    }
+
+    private final IdentityHashMap<Object, Resource> tracked = new IdentityHashMap<>();
+    private final List<Resource> assetResources = new ArrayList<>();
+    private AssetManager assets;
+
+    // totals of the last refresh
+    private final int[] counts = new int[TYPES.length];
+    private final long[] bytes = new long[TYPES.length];
+    private int leaks;
+
+    /**
+     * also count everything loaded by this manager, under {@link #ASSETS_ORIGIN}
+     */
+    public void setAssetManager(AssetManager assets) {
+        this.assets = assets;
+    }
+
+    public void track(Object resource, Type type, String origin, String name, long bytes) {
+        tracked.put(resource, new Resource(resource, type, origin, name, bytes));
+    }
+
+    /**
+     * stop counting a resource, call when disposing it
+     */
+    public void release(Object resource) {
+        tracked.remove(resource);
+    }
+
+    /**
+     * flag everything of the owner that is still alive, and log it. Leaks stay counted until they are released
+     *
+     * @return number of leaked resources
+     */
+    public int ownerDisposed(String origin) {
+        dropDisposed();
+        int leaked = 0;
+        for (Resource resource : tracked.values()) {
+            if (!resource.origin.equals(origin) || resource.leaked) continue;
+            resource.leaked = true;
+            leaked++;
+            Gdx.app.error("ResourceTracker", origin + " was disposed but its " + resource.type + " '" + resource.name
+                + "' (" + formatBytes(resource.bytes) + ") is still alive");
+        }
+        refresh();
+        return leaked;
+    }
+
+    /**
+     * recount everything, the getters return the counts of the last refresh
+     */
+    public void refresh() {
+        dropDisposed();
+        scanAssets();
+        for (int i = 0; i < TYPES.length; i++) {
+            counts[i] = 0;
+            bytes[i] = 0;
+        }
+        leaks = 0;
+        for (Resource resource : tracked.values()) {
+            add(resource);
+            if (resource.leaked) leaks++;
+        }
+        for (Resource resource : assetResources) {
+            add(resource);
+        }
+    }
+
+    private void add(Resource resource) {
+        counts[resource.type.ordinal()]++;
+        bytes[resource.type.ordinal()] += resource.bytes;
+    }
+
+    public int getCount(Type type) {
+        return counts[type.ordinal()];
+    }
+
+    public long getBytes(Type type) {
+        return bytes[type.ordinal()];
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (long typeBytes : bytes) {
+            total += typeBytes;
+        }
+        return total;
+    }
+
+    public int getLeakCount() {
+        return leaks;
+    }
+
+    /**
+     * every live resource grouped by type, largest first, for the log
+     */
+    public String dump() {
+        refresh();
+        List<Resource> all = new ArrayList<>(tracked.values());
+        all.addAll(assetResources);
+        // by type, then by size
+        Collections.sort(all, (a, b) -> a.type != b.type ? a.type.compareTo(b.type) : Long.compare(b.bytes, a.bytes));
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%d native resources, %s", all.size(), formatBytes(getTotalBytes())));
+        if (leaks > 0) {
+            builder.append(", ").append(leaks).append(" leaked");
+        }
+        Type type = null;
+        for (Resource resource : all) {
+            if (resource.type != type) {
+                type = resource.type;
+                builder.append(String.format(Locale.ROOT, "%n%s: %d, %s", type, getCount(type), formatBytes(getBytes(type))));
+            }
+            builder.append(String.format(Locale.ROOT, "%n  %-10s %-40s %10s%s", resource.origin, resource.name,
+                formatBytes(resource.bytes), resource.leaked ? "  LEAKED" : ""));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * GL objects know when they were deleted, so tracked ones disposed without a release don't count as alive
+     */
+    private void dropDisposed() {
+        Iterator<Resource> iterator = tracked.values().iterator();
+        while (iterator.hasNext()) {
+            Object object = iterator.next().object;
+            if (object instanceof GLTexture && ((GLTexture) object).getTextureObjectHandle() == 0
+                || object instanceof GLFrameBuffer
+                && ((GLFrameBuffer<?>) object).getColorBufferTexture().getTextureObjectHandle() == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void scanAssets() {
+        assetResources.clear();
+        if (assets == null) return;
+        Array<String> names = assets.getAssetNames();
+        for (String name : names) {
+            if (!assets.isLoaded(name)) continue;
+            Object asset = assets.get(name);
+            if (asset instanceof Texture) {
+                assetResources.add(new Resource(asset, Type.TEXTURE, ASSETS_ORIGIN, name, textureBytes((Texture) asset)));
+            } else if (asset instanceof BitmapFont) {
+                // glyph pages generated at load, they aren't assets of their own
+                long fontBytes = 0;
+                ObjectSet<Texture> pages = new ObjectSet<>();
+                for (TextureRegion region : ((BitmapFont) asset).getRegions()) {
+                    if (pages.add(region.getTexture())) {
+                        fontBytes += textureBytes(region.getTexture());
+                    }
+                }
+                assetResources.add(new Resource(asset, Type.FONT, ASSETS_ORIGIN, name, fontBytes));
+            } else if (asset instanceof FreeTypeFontGenerator) {
+                // FreeType keeps the whole font file in native memory while the face is open
+                String fontFile = name.endsWith(".gen") ? name.substring(0, name.length() - 4) : name;
+                long fontBytes = assets.getFileHandleResolver().resolve(fontFile).length();
+                assetResources.add(new Resource(asset, Type.FONT, ASSETS_ORIGIN, name, fontBytes));
+            } else if (asset instanceof Sound || asset instanceof Music) {
+                // the backend's OpenAL buffers aren't visible from here, count them without a size
+                assetResources.add(new Resource(asset, Type.AUDIO, ASSETS_ORIGIN, name, 0));
+            }
+        }
+    }
+
+    /**
+     * GPU memory of a texture, mipmaps included
+     */
+    public static long textureBytes(GLTexture texture) {
+        TextureData data = texture instanceof Texture ? ((Texture) texture).getTextureData() : null;
+        Pixmap.Format format = data != null ? data.getFormat() : null;
+        long textureBytes = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel(format);
+        return data != null && data.useMipMaps() ? textureBytes * 4 / 3 : textureBytes;
+    }
+
+    private static int bytesPerPixel(Pixmap.Format format) {
+        if (format == null) return 4;
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,58 @@
+package com.xtrife.sfs.profiling;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:08 PM.
+ * Script of an unattended soak run, a game left running for hours: the AI plays both fighters match after match on
+ * the simulation thread, and every few seconds the script restarts the match, pauses and resumes, cycles the
+ * difficulty, toggles the music or switches the stage, in a seeded order. The desktop launcher's soak profiler samples
+ * memory and frame times meanwhile.
+ */
+public class SoakMode {
+    public enum Action {NONE, RESTART, PAUSE, RESUME, CYCLE_DIFFICULTY, TOGGLE_MUSIC, SWITCH_STAGE}
+
+    public static final GlobalVariables.Difficulty DIFFICULTY = GlobalVariables.Difficulty.HARD; // the player's AI
+
+    // seconds between scripted actions
+    private static final float MIN_ACTION_DELAY = 5f;
+    private static final float MAX_ACTION_DELAY = 30f;
+    private static final float PAUSE_DURATION = 3f;
+    private static final Action[] SCRIPTED = {Action.RESTART, Action.PAUSE, Action.CYCLE_DIFFICULTY,
+        Action.TOGGLE_MUSIC, Action.SWITCH_STAGE};
+
+    public final long seed;
+    private final RandomXS128 random;
+    private float time;
+    private float nextActionTime;
+    private boolean paused;
+
+    public SoakMode(long seed) {
+        this.seed = seed;
+        random = new RandomXS128(seed);
+        nextActionTime = nextDelay();
+    }
+
+    /**
+     * advance the script by a frame, returns the action due now if any. A pause is always followed by its resume
+     */
+    public Action update(float delta) {
+        time += delta;
+        if (time < nextActionTime) return Action.NONE;
+
+        if (paused) {
+            paused = false;
+            nextActionTime = time + nextDelay();
+            return Action.RESUME;
+        }
+        Action action = SCRIPTED[random.nextInt(SCRIPTED.length)];
+        paused = action == Action.PAUSE;
+        nextActionTime = time + (paused ? PAUSE_DURATION : nextDelay());
+        return action;
+    }
+
+    private float nextDelay() {
+        return MIN_ACTION_DELAY + random.nextFloat() * (MAX_ACTION_DELAY - MIN_ACTION_DELAY);
+    }
+}
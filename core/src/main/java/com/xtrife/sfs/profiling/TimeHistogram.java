@@ -0,0 +1,72 @@
+package com.xtrife.sfs.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:12 PM.
+ * Durations bucketed by powers of two microseconds, enough to tell a 2 ms hitch from a 30 ms one without keeping
+ * samples. Recorded by one thread and read from any other (e.g. JMX), percentiles are bucket upper bounds.
+ */
+public class TimeHistogram {
+    private static final int BUCKETS = 32; // the last bucket holds everything from 2^30 us (~18 minutes) up
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1000L);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)); // 0 for < 1 us, i for < 2^i us
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.set(nanos); // single writer, no need to retry
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getAverageNanos() {
+        long samples = count.get();
+        return samples == 0 ? 0 : (double) totalNanos.get() / samples;
+    }
+
+    /**
+     * upper bound of the bucket holding the given percentile (0 - 100), capped at the max recorded duration
+     */
+    public long getPercentileNanos(double percentile) {
+        long samples = count.get();
+        if (samples == 0) return 0;
+        long rank = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) * 1000L, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.xtrife.sfs.rendering;
+
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:49 PM.
+ * The HUD's text for a {@link MatchSnapshot}, built into reused builders and only rebuilt when a shown value changes,
+ * so drawing the HUD creates no strings. Needs no GL context, the headless PerformanceCheck measures it.
+ */
+public class HudText {
+    private static final String[] DIFFICULTY_TEXTS = new String[GlobalVariables.Difficulty.values().length];
+
+    static {
+        for (GlobalVariables.Difficulty difficulty : GlobalVariables.Difficulty.values()) {
+            DIFFICULTY_TEXTS[difficulty.ordinal()] = "DIFFICULTY: " + difficulty.name();
+        }
+    }
+
+    private final StringBuilder wins = new StringBuilder();
+    private final StringBuilder roundTimer = new StringBuilder();
+    private final StringBuilder roundAnnouncement = new StringBuilder();
+    private String difficulty = DIFFICULTY_TEXTS[0];
+
+    // values the text was last built for, -1 until the first update
+    private int roundsWon = -1, roundsLost = -1;
+    private int roundTimerSeconds = -1;
+    private int announcedRound = -1; // 0 while the announcement reads FIGHT!
+
+    /**
+     * bring the texts up to date with a snapshot
+     */
+    public void update(MatchSnapshot snapshot) {
+        if (snapshot.roundsWon != roundsWon || snapshot.roundsLost != roundsLost) {
+            roundsWon = snapshot.roundsWon;
+            roundsLost = snapshot.roundsLost;
+            wins.setLength(0);
+            wins.append("WINS: ").append(roundsWon).append(" - ").append(roundsLost);
+        }
+
+        difficulty = DIFFICULTY_TEXTS[snapshot.difficulty.ordinal()];
+
+        int seconds = (int) snapshot.roundTimer;
+        if (seconds != roundTimerSeconds) {
+            roundTimerSeconds = seconds;
+            roundTimer.setLength(0);
+            if (seconds < 10 && seconds >= 0) {
+                roundTimer.append('0'); // pad numbers less than 10 with a leading 0
+            }
+            roundTimer.append(seconds);
+        }
+
+        // the round number shows for the first half of the start round delay
+        int round = snapshot.roundStateTime < snapshot.tuning.startRoundDelay * 0.5f ? snapshot.currentRound : 0;
+        if (round != announcedRound) {
+            announcedRound = round;
+            roundAnnouncement.setLength(0);
+            if (round > 0) {
+                roundAnnouncement.append("ROUND ").append(round);
+            } else {
+                roundAnnouncement.append("FIGHT!");
+            }
+        }
+    }
+
+    public CharSequence getWins() {
+        return wins;
+    }
+
+    public CharSequence getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * whole seconds left in the round, two digits
+     */
+    public CharSequence getRoundTimer() {
+        return roundTimer;
+    }
+
+    /**
+     * "ROUND n" or "FIGHT!" while a round is starting
+     */
+    public CharSequence getRoundAnnouncement() {
+        return roundAnnouncement;
+    }
+}
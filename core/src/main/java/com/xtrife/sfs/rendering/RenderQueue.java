@@ -0,0 +1,189 @@
+package com.xtrife.sfs.rendering;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Created by 9S on 10/19/2026 - 5:52 PM.
+ * Collects the world's sprites for a frame and draws them back to front. Every sprite gets a 32 bit key of
+ * layer, depth, sub layer and texture; a stable radix sort on the keys gives the draw order, so sprites are layered
+ * correctly and sprites at the same depth come out grouped by texture, which keeps the sprite batch from flushing.
+ * Sprite data lives in preallocated primitive arrays, queueing and submitting allocate nothing once warmed up.
+ */
+public class RenderQueue {
+    // draw order of whole layers
+    public static final int LAYER_BACKGROUND = 0;
+    public static final int LAYER_ACTORS = 1;
+    public static final int LAYER_FOREGROUND = 2;
+
+    // draw order of sprites at the same depth, e.g. a fighter's blood in front of the fighter
+    public static final int SUB_LAYER_BODY = 0;
+    public static final int SUB_LAYER_EFFECT = 1;
+
+    // key bits: 3 layer | 16 depth | 2 sub layer | 11 texture
+    private static final int TEXTURE_BITS = 11;
+    private static final int SUB_LAYER_BITS = 2;
+    private static final int DEPTH_BITS = 16;
+    private static final int MAX_TEXTURE_ID = (1 << TEXTURE_BITS) - 1;
+    private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+    private static final float DEPTH_PRECISION = 64f; // depth steps per world unit, covers y up to ~1000 units
+
+    private static final int FLOATS_PER_SPRITE = 10;
+    private static final int INITIAL_CAPACITY = 512;
+
+    private TextureRegion[] regions = new TextureRegion[INITIAL_CAPACITY];
+    private float[] sprites = new float[INITIAL_CAPACITY * FLOATS_PER_SPRITE];
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int[] sortKeys = new int[INITIAL_CAPACITY];
+    private int[] sortOrder = new int[INITIAL_CAPACITY];
+    private final int[] counts = new int[256];
+    private int size;
+
+    // small ids for textures, so they fit into the key
+    private final ObjectIntMap<Texture> textureIds = new ObjectIntMap<>();
+    private float color = Color.WHITE_FLOAT_BITS;
+
+    /**
+     * tint for the sprites queued after this, like {@link SpriteBatch#setColor}
+     */
+    public void setColor(Color color) {
+        this.color = color.toFloatBits();
+    }
+
+    public void setColor(float r, float g, float b, float a) {
+        color = Color.toFloatBits(r, g, b, a);
+    }
+
+    /**
+     * queue a sprite that covers the whole layer, e.g. the stage background
+     */
+    public void add(int layer, TextureRegion region, float x, float y, float width, float height) {
+        add(layer, 0f, SUB_LAYER_BODY, region, x, y, 0f, 0f, width, height, 1f, 1f, 0f);
+    }
+
+    /**
+     * queue a sprite, arguments as in {@link SpriteBatch#draw(TextureRegion, float, float, float, float, float, float,
+     * float, float, float)}. Within a layer sprites with a higher depth (world y, further up the stage) are drawn first
+     */
+    public void add(int layer, float depth, int subLayer, TextureRegion region, float x, float y,
+                    float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        if (size == keys.length) {
+            grow();
+        }
+
+        int depthKey = MAX_DEPTH - Math.max(0, Math.min(MAX_DEPTH, (int) (depth * DEPTH_PRECISION)));
+        keys[size] = layer << (DEPTH_BITS + SUB_LAYER_BITS + TEXTURE_BITS)
+            | depthKey << (SUB_LAYER_BITS + TEXTURE_BITS)
+            | subLayer << TEXTURE_BITS
+            | textureId(region.getTexture());
+        regions[size] = region;
+
+        int offset = size * FLOATS_PER_SPRITE;
+        sprites[offset] = x;
+        sprites[offset + 1] = y;
+        sprites[offset + 2] = originX;
+        sprites[offset + 3] = originY;
+        sprites[offset + 4] = width;
+        sprites[offset + 5] = height;
+        sprites[offset + 6] = scaleX;
+        sprites[offset + 7] = scaleY;
+        sprites[offset + 8] = rotation;
+        sprites[offset + 9] = color;
+        size++;
+    }
+
+    /**
+     * draw everything queued in key order and empty the queue. The batch must have been begun
+     */
+    public void submit(SpriteBatch batch) {
+        sort();
+
+        float batchColor = batch.getPackedColor();
+        for (int i = 0; i < size; i++) {
+            int sprite = order[i];
+            int offset = sprite * FLOATS_PER_SPRITE;
+            batch.setPackedColor(sprites[offset + 9]);
+            batch.draw(regions[sprite], sprites[offset], sprites[offset + 1], sprites[offset + 2], sprites[offset + 3],
+                sprites[offset + 4], sprites[offset + 5], sprites[offset + 6], sprites[offset + 7], sprites[offset + 8]);
+            regions[sprite] = null; // don't keep regions of unloaded stages alive
+        }
+        batch.setPackedColor(batchColor);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * stable LSD radix sort of the sprite indices by key, a byte per pass. Passes where every key has the same byte
+     * (usually the layer byte) are skipped
+     */
+    private void sort() {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (size < 2) return;
+
+        int[] keysIn = keys, orderIn = order, keysOut = sortKeys, orderOut = sortOrder;
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(keysIn[i] >>> shift) & 0xFF]++;
+            }
+            if (counts[(keysIn[0] >>> shift) & 0xFF] == size) continue; // nothing to reorder
+
+            int total = 0;
+            for (int b = 0; b < 256; b++) {
+                int count = counts[b];
+                counts[b] = total;
+                total += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int position = counts[(keysIn[i] >>> shift) & 0xFF]++;
+                keysOut[position] = keysIn[i];
+                orderOut[position] = orderIn[i];
+            }
+
+            int[] swap = keysIn;
+            keysIn = keysOut;
+            keysOut = swap;
+            swap = orderIn;
+            orderIn = orderOut;
+            orderOut = swap;
+        }
+
+        // keep the sorted order in order[], the keys aren't needed anymore
+        if (orderIn != order) {
+            System.arraycopy(orderIn, 0, order, 0, size);
+        }
+    }
+
+    private int textureId(Texture texture) {
+        int id = textureIds.get(texture, -1);
+        if (id == -1) {
+            if (textureIds.size > MAX_TEXTURE_ID) {
+                textureIds.clear(); // textures come and go with stages, start numbering again
+            }
+            id = textureIds.size;
+            textureIds.put(texture, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        regions = Arrays.copyOf(regions, capacity);
+        sprites = Arrays.copyOf(sprites, capacity * FLOATS_PER_SPRITE);
+        keys = Arrays.copyOf(keys, capacity);
+        order = new int[capacity];
+        sortKeys = new int[capacity];
+        sortOrder = new int[capacity];
+    }
+}
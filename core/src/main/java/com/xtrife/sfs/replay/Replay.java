@@ -0,0 +1,264 @@
+package com.xtrife.sfs.replay;
+
+import com.xtrife.sfs.simulation.Arena;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:06 PM.
+ * Read side of a recorded match, see {@link ReplayRecorder}. The file is memory-mapped, so only the pages around the
+ * keyframe being jumped to and the events after it are ever read from disk. Jumping to a tick restores the closest
+ * keyframe before it and simulates the few ticks in between, see {@link com.xtrife.sfs.simulation.MatchRunner#seek}.
+ * <p>
+ * Layout (big endian): header {@code int magic, short version, short tick rate, int keyframe interval, long seed,
+ * long recording start (ms since epoch), short arena vertex count, float x, y per vertex, the tuning}, then one
+ * segment per keyframe: {@code long tick, long rolling state hash, short state length, the state}, followed by the
+ * events of the ticks up to the next keyframe and {@link #END_OF_SEGMENT}. An event is {@code byte code, varint ticks
+ * since the previous event (or the keyframe)}, difficulty changes add a {@code byte difficulty} and tuning changes the
+ * new tuning. The tuning is written by {@link Tuning#save}, it's also part of every keyframe's state. The file ends
+ * with the index, {@code long tick, long segment offset} per keyframe, and a trailer of {@code long index offset,
+ * int keyframe count, long tick count, int magic}.
+ * <p>
+ * Only use one replay from one thread, its event cursor is shared.
+ */
+public class Replay {
+    public static final int MAGIC = 0x53465352; // "SFSR"
+    public static final short VERSION = 2;
+    public static final String FILE_PREFIX = "replay-";
+    public static final String FILE_EXTENSION = ".sfsr";
+    public static final int TRAILER_SIZE = 24;
+    public static final int INDEX_ENTRY_SIZE = 16;
+
+    // event codes, 0 up to the last InputCommand ordinal are player controls
+    public static final int EVENT_PAUSE = 100;
+    public static final int EVENT_RESUME = 101;
+    public static final int EVENT_DIFFICULTY = 102; // followed by the difficulty ordinal
+    public static final int EVENT_TUNING = 103; // followed by the tuning
+    public static final int END_OF_SEGMENT = 0xFF;
+
+    private final ByteBuffer data;
+    private final int tickRate;
+    private final int keyframeInterval;
+    private final long seed;
+    private final long recordedAt;
+    private final Arena arena;
+    private final Tuning tuning;
+    private final int indexOffset;
+    private final int keyframeCount;
+    private final long tickCount;
+
+    // event cursor
+    private final ByteBuffer events;
+    private long nextEventTick;
+    private int nextEvent = END_OF_SEGMENT, nextEventArgument;
+    private int eventArgument; // of the last polled event, the offset of its tuning for a tuning change
+
+    private Replay(ByteBuffer data) {
+        this.data = data;
+        tickRate = data.getShort(6);
+        keyframeInterval = data.getInt(8);
+        seed = data.getLong(12);
+        recordedAt = data.getLong(20);
+        float[] vertices = new float[data.getShort(28) * 2];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = data.getFloat(30 + i * 4);
+        }
+        arena = new Arena(vertices);
+        ByteBuffer header = data.duplicate();
+        header.position(30 + vertices.length * 4);
+        tuning = Tuning.restore(header, Tuning.DEFAULT);
+
+        int trailer = data.limit() - TRAILER_SIZE;
+        indexOffset = (int) data.getLong(trailer);
+        keyframeCount = data.getInt(trailer + 8);
+        tickCount = data.getLong(trailer + 12);
+        events = data.duplicate();
+    }
+
+    public static Replay open(File file) throws IOException {
+        ByteBuffer data;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (data.remaining() < TRAILER_SIZE || data.getInt(0) != MAGIC || data.getInt(data.limit() - 4) != MAGIC) {
+            throw new IOException(file + " is not a replay or wasn't finished");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new IOException(file + " has unsupported version " + data.getShort(4));
+        }
+        return new Replay(data);
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * when the match started, in ms since the epoch
+     */
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * the gameplay values the match started with
+     */
+    public Tuning getTuning() {
+        return tuning;
+    }
+
+    /**
+     * ticks the match ran for, the last state of the replay is at this tick
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    public long getKeyframeTick(int keyframe) {
+        return data.getLong(indexOffset + keyframe * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * rolling state hash of the match up to the keyframe's tick, to check a replay plays the same
+     */
+    public long getKeyframeHash(int keyframe) {
+        return data.getLong(getSegmentOffset(keyframe) + 8);
+    }
+
+    /**
+     * the last keyframe at or before {@code tick}
+     */
+    public int findKeyframe(long tick) {
+        // binary search in the index
+        int low = 0, high = keyframeCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (getKeyframeTick(middle) <= tick) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * saved simulation state of a keyframe, a view of the mapping (no copy). Also moves the event cursor to the
+     * events right after the keyframe
+     */
+    public ByteBuffer startAt(int keyframe) {
+        int offset = getSegmentOffset(keyframe);
+        int stateLength = data.getShort(offset + 16) & 0xFFFF;
+        ByteBuffer state = data.duplicate();
+        state.position(offset + 18);
+        state.limit(offset + 18 + stateLength);
+
+        events.position(offset + 18 + stateLength);
+        nextEventTick = getKeyframeTick(keyframe);
+        readEvent();
+        return state.slice();
+    }
+
+    /**
+     * true if the cursor's next event happens at {@code tick}
+     */
+    public boolean hasEvent(long tick) {
+        return nextEvent != END_OF_SEGMENT && nextEventTick == tick;
+    }
+
+    /**
+     * the next event's code, moving the cursor past it. Read its argument before polling the next one
+     */
+    public int pollEvent() {
+        int event = nextEvent;
+        eventArgument = nextEventArgument;
+        readEvent();
+        return event;
+    }
+
+    /**
+     * difficulty ordinal of the last polled {@link #EVENT_DIFFICULTY}
+     */
+    public int getEventArgument() {
+        return eventArgument;
+    }
+
+    /**
+     * the new tuning of the last polled {@link #EVENT_TUNING}, {@code current} if it has the same values
+     */
+    public Tuning getEventTuning(Tuning current) {
+        ByteBuffer tuning = data.duplicate();
+        tuning.position(eventArgument);
+        return Tuning.restore(tuning, current);
+    }
+
+    private int getSegmentOffset(int keyframe) {
+        return (int) data.getLong(indexOffset + keyframe * INDEX_ENTRY_SIZE + 8);
+    }
+
+    /**
+     * decode the event after the cursor, moving on to the next segment at the end of one
+     */
+    private void readEvent() {
+        while (events.position() < indexOffset) {
+            int code = events.get() & 0xFF;
+            if (code == END_OF_SEGMENT) {
+                if (events.position() >= indexOffset) break;
+                // the next segment's events continue the stream, skip its keyframe
+                nextEventTick = events.getLong();
+                events.position(events.position() + 8);
+                int stateLength = events.getShort() & 0xFFFF;
+                events.position(events.position() + stateLength);
+                continue;
+            }
+            nextEvent = code;
+            nextEventTick += readVarLong();
+            if (code == EVENT_DIFFICULTY) {
+                nextEventArgument = events.get();
+            } else if (code == EVENT_TUNING) {
+                nextEventArgument = events.position();
+                events.position(events.position() + Tuning.SIZE);
+            } else {
+                nextEventArgument = 0;
+            }
+            return;
+        }
+        nextEvent = END_OF_SEGMENT; // end of the replay
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = events.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,205 @@
+package com.xtrife.sfs.replay;
+
+import com.badlogic.gdx.utils.LongArray;
+import com.xtrife.sfs.simulation.Arena;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:14 PM.
+ * Write side of {@link Replay}, fed by {@link com.xtrife.sfs.simulation.MatchRunner} on the simulation thread. A match
+ * is recorded into a reused in-memory buffer, only a few hundred bytes per second of play, and handed to a background
+ * thread that writes it to its own file once the match is over or abandoned, so the simulation never waits for the
+ * disk. The oldest replays are deleted to keep at most {@link #MAX_FILES}.
+ */
+public class ReplayRecorder {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 120; // ticks, 1 s
+    public static final int MAX_STATE_SIZE = 4096; // bytes, a saved match state is far smaller
+    private static final int INITIAL_CAPACITY = 256 * 1024; // a full three round match fits
+    private static final int MAX_FILES = 50;
+
+    private final File directory;
+    private final int keyframeInterval;
+    private final ExecutorService writer;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private final LongArray keyframeTicks = new LongArray();
+    private final LongArray keyframeOffsets = new LongArray();
+    private boolean recording;
+    private long recordedAt;
+    private long lastEventTick;
+    private int stateStart;
+
+    public ReplayRecorder(File directory) {
+        this(directory, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param keyframeInterval ticks between keyframes, the most a jump has to simulate
+     */
+    public ReplayRecorder(File directory, int keyframeInterval) {
+        this.directory = directory;
+        this.keyframeInterval = keyframeInterval;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replay-writer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * start recording a match, its first keyframe follows right away
+     */
+    public void begin(long seed, Arena arena, int tickRate, Tuning tuning) {
+        buffer.clear();
+        keyframeTicks.clear();
+        keyframeOffsets.clear();
+        recordedAt = System.currentTimeMillis();
+        recording = true;
+
+        float[] vertices = arena.getVertices();
+        buffer.putInt(Replay.MAGIC).putShort(Replay.VERSION).putShort((short) tickRate).putInt(keyframeInterval)
+            .putLong(seed).putLong(recordedAt).putShort((short) (vertices.length / 2));
+        for (float vertex : vertices) {
+            buffer.putFloat(vertex);
+        }
+        tuning.save(buffer);
+    }
+
+    /**
+     * start a keyframe of the state before {@code tick}. Write the state into the returned buffer, then call
+     * {@link #endKeyframe}
+     */
+    public ByteBuffer beginKeyframe(long tick, long rollingHash) {
+        ensureCapacity(MAX_STATE_SIZE + 32);
+        if (keyframeTicks.size > 0) {
+            buffer.put((byte) Replay.END_OF_SEGMENT);
+        }
+        keyframeTicks.add(tick);
+        keyframeOffsets.add(buffer.position());
+        buffer.putLong(tick).putLong(rollingHash).putShort((short) 0); // length filled in by endKeyframe
+        stateStart = buffer.position();
+        lastEventTick = tick;
+        return buffer;
+    }
+
+    public void endKeyframe() {
+        buffer.putShort(stateStart - 2, (short) (buffer.position() - stateStart));
+    }
+
+    /**
+     * an event that happens before the simulation of {@code tick}, see the event codes in {@link Replay}
+     */
+    public void event(long tick, int code) {
+        ensureCapacity(16);
+        buffer.put((byte) code);
+        putVarLong(tick - lastEventTick);
+        lastEventTick = tick;
+    }
+
+    public void event(long tick, int code, int argument) {
+        event(tick, code);
+        buffer.put((byte) argument);
+    }
+
+    /**
+     * the simulation switched to new gameplay values before {@code tick}
+     */
+    public void tuning(long tick, Tuning tuning) {
+        ensureCapacity(16 + Tuning.SIZE);
+        event(tick, Replay.EVENT_TUNING);
+        tuning.save(buffer);
+    }
+
+    /**
+     * end the recording after {@code tickCount} ticks and write it out in the background
+     */
+    public void finish(long tickCount) {
+        if (!recording) return;
+        recording = false;
+        if (tickCount == 0) return; // restarted before it began, nothing to watch
+
+        ensureCapacity(keyframeTicks.size * Replay.INDEX_ENTRY_SIZE + Replay.TRAILER_SIZE + 1);
+        buffer.put((byte) Replay.END_OF_SEGMENT);
+        long indexOffset = buffer.position();
+        for (int i = 0; i < keyframeTicks.size; i++) {
+            buffer.putLong(keyframeTicks.get(i)).putLong(keyframeOffsets.get(i));
+        }
+        buffer.putLong(indexOffset).putInt(keyframeTicks.size).putLong(tickCount).putInt(Replay.MAGIC);
+
+        final byte[] bytes = Arrays.copyOf(buffer.array(), buffer.position());
+        final File file = new File(directory, Replay.FILE_PREFIX + recordedAt + Replay.FILE_EXTENSION);
+        writer.execute(() -> write(file, bytes));
+    }
+
+    /**
+     * wait for the replays still being written, call once the simulation has stopped
+     */
+    public void dispose() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(File file, byte[] bytes) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Replay not saved, can't create " + directory);
+            return;
+        }
+        deleteOldFiles();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(bytes);
+        } catch (IOException e) {
+            System.err.println("Replay not saved: " + e.getMessage());
+        }
+    }
+
+    private void deleteOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(Replay.FILE_PREFIX) &&
+            name.endsWith(Replay.FILE_EXTENSION));
+        if (files == null || files.length < MAX_FILES) return;
+        // oldest first, keep room for the new file
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i <= files.length - MAX_FILES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        // rare, e.g. a match paused and resumed over and over
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,182 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Created by 9S on 10/19/2026 - 1:15 PM.
+ * Read side of the single file asset pack built by the packAssets task. The whole file is memory-mapped once and
+ * entries are handed out as slices of that mapping, so stored entries are never copied on the Java side.
+ * <p>
+ * Layout (big endian): header {@code int magic, int version, int entry count, long index offset}, the entry data,
+ * then the index: per entry {@code short path length, path (UTF-8), long offset, int stored length, int length,
+ * byte compression, long content hash}. Entries with the same content share their data.
+ */
+public class AssetPack {
+    public static final int MAGIC = 0x53465350; // "SFSP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 20;
+    public static final byte STORED = 0;
+    public static final byte DEFLATED = 1;
+
+    public static class Entry {
+        public final String path;
+        public final long offset;
+        public final int storedLength; // size in the pack
+        public final int length; // size once decompressed
+        public final byte compression;
+        public final long contentHash; // first 8 bytes of the SHA-256 of the decompressed content
+
+        public Entry(String path, long offset, int storedLength, int length, byte compression, long contentHash) {
+            this.path = path;
+            this.offset = offset;
+            this.storedLength = storedLength;
+            this.length = length;
+            this.compression = compression;
+            this.contentHash = contentHash;
+        }
+    }
+
+    private final ByteBuffer data;
+    private final ObjectMap<String, Entry> entries;
+
+    private AssetPack(ByteBuffer data, ObjectMap<String, Entry> entries) {
+        this.data = data;
+        this.entries = entries;
+    }
+
+    public static AssetPack open(File file) throws IOException {
+        ByteBuffer data;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not an asset pack");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException(file + " has unsupported version " + data.getInt(4));
+        }
+        int entryCount = data.getInt(8);
+        ByteBuffer index = data.duplicate();
+        index.position((int) data.getLong(12));
+
+        ObjectMap<String, Entry> entries = new ObjectMap<>(entryCount);
+        byte[] pathBytes = new byte[256];
+        for (int i = 0; i < entryCount; i++) {
+            int pathLength = index.getShort() & 0xFFFF;
+            if (pathBytes.length < pathLength) {
+                pathBytes = new byte[pathLength];
+            }
+            index.get(pathBytes, 0, pathLength);
+            String path = new String(pathBytes, 0, pathLength, StandardCharsets.UTF_8);
+            Entry entry = new Entry(path, index.getLong(), index.getInt(), index.getInt(), index.get(), index.getLong());
+            entries.put(path, entry);
+        }
+        return new AssetPack(data, entries);
+    }
+
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public ObjectMap.Keys<String> paths() {
+        return entries.keys();
+    }
+
+    /**
+     * whether any entry is inside the directory, "" being the root. Safe to call while iterating {@link #paths()}
+     */
+    public boolean containsDirectory(String path) {
+        if (path.isEmpty()) return entries.size > 0;
+        String prefix = path + "/";
+        for (String entryPath : new ObjectMap.Keys<>(entries)) {
+            if (entryPath.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * raw bytes of an entry as stored in the pack, a view of the mapping (no copy)
+     */
+    public ByteBuffer slice(Entry entry) {
+        ByteBuffer view = data.duplicate(); // own position and limit, safe to use from the loader thread
+        view.position((int) entry.offset);
+        view.limit((int) entry.offset + entry.storedLength);
+        return view.slice();
+    }
+
+    public InputStream read(Entry entry) {
+        InputStream stored = new ByteBufferInputStream(slice(entry));
+        return entry.compression == DEFLATED ? new InflaterInputStream(stored) : stored;
+    }
+
+    public byte[] readBytes(Entry entry) {
+        byte[] bytes = new byte[entry.length];
+        ByteBuffer stored = slice(entry);
+        if (entry.compression == STORED) {
+            stored.get(bytes);
+            return bytes;
+        }
+
+        byte[] compressed = new byte[entry.storedLength];
+        stored.get(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            inflater.inflate(bytes);
+        } catch (DataFormatException e) {
+            throw new GdxRuntimeException("Corrupt pack entry " + entry.path, e);
+        } finally {
+            inflater.end();
+        }
+        return bytes;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
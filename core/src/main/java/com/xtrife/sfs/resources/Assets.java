@@ -1,28 +1,48 @@
 package com.xtrife.sfs.resources;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.assets.loaders.TextureLoader;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Scaling;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.IOException;
 
 /**
  * Created by 9S on 2/24/2025 - 10:43 PM.
  */
 public class Assets {
-    // asset manager
-    public final AssetManager manager = new AssetManager();
+    // single file pack looked for in the working directory, loose internal files are used without it
+    public static final String PACK_FILE = "assets.pack";
+
+    // downscaled, mipmapped copies of every image and atlas made by the AssetVariants tool, smallest first.
+    // Tier 1 is the authored files
+    public static final float[] TEXTURE_TIERS = {0.25f, 0.5f, 1f};
+    public static final String TIERS_FOLDER = "tiers/";
+
+    // asset manager, everything is resolved through the pack resolver when a pack is present
+    public final FileHandleResolver resolver;
+    public final AssetManager manager;
+    private final ParallelTextureLoader textureLoader;
+    private final float textureTier;
 
     // gameplay assets
-    public static final String BACKGROUND_TEXTURE = "textures/Background.png";
-    public static final String FRONT_ROPES_TEXTURE = "textures/FrontRopes.png";
     public static final String IDLE_SPRITE_SHEET = "sprites/IdleSpriteSheet.png";
     public static final String WALK_SPRITE_SHEET = "sprites/WalkSpriteSheet.png";
     public static final String PUNCH_SPRITE_SHEET = "sprites/PunchSpriteSheet.png";
@@ -51,30 +71,125 @@ public class Assets {
     // menu assets
     public static final String MENU_ITEMS_ATLAS = "textures/MenuItems.atlas";
 
+    // data
+    public static final String STAGES_DATA = "data/stages.json";
+    public static final String FIGHTER_CHOICES_DATA = "data/fighter_choices.json";
+    public static final String TUNING_DATA = "data/tuning.json";
+
+    /**
+     * @param textureTier one of {@link #TEXTURE_TIERS}, see {@link #chooseTextureTier}
+     */
+    public Assets(Profiler profiler, float textureTier) {
+        this.textureTier = textureTier;
+        FileHandleResolver files = createResolver();
+        resolver = textureTier < 1f ? new TieredFileHandleResolver(files, getTierFolder(textureTier)) : files;
+        manager = new AssetManager(resolver);
+
+        // images are decoded on worker threads, the manager only uploads them
+        textureLoader = new ParallelTextureLoader(resolver, profiler);
+        manager.setLoader(Texture.class, textureLoader);
+    }
+
+    private static FileHandleResolver createResolver() {
+        FileHandle packFile = Gdx.files.local(PACK_FILE);
+        if (packFile.exists()) {
+            try {
+                return new PackFileHandleResolver(AssetPack.open(packFile.file()));
+            } catch (IOException e) {
+                Gdx.app.error("Assets", "Could not open " + PACK_FILE + ", using loose files", e);
+            }
+        }
+        return new InternalFileHandleResolver();
+    }
+
+    /**
+     * the smallest texture tier that still has a texel for every pixel of a back buffer this size, so small windows
+     * don't upload and sample textures at a resolution they can't show
+     */
+    public static float chooseTextureTier(int backBufferWidth, int backBufferHeight) {
+        if (backBufferWidth <= 0 || backBufferHeight <= 0) return 1f; // e.g. started minimized
+        // the game screen's ExtendViewport fits its minimum world size into the window first, that sets the zoom
+        Vector2 fitted = Scaling.fit.apply(GlobalVariables.WORLD_WIDTH, GlobalVariables.MIN_WORLD_HEIGHT,
+            backBufferWidth, backBufferHeight);
+        float pixelsPerUnit = fitted.x / GlobalVariables.WORLD_WIDTH;
+        // authored images are drawn at WORLD_SCALE world units per texel
+        float texelsPerPixel = pixelsPerUnit * GlobalVariables.WORLD_SCALE;
+        for (float tier : TEXTURE_TIERS) {
+            if (tier >= texelsPerPixel) return tier;
+        }
+        return 1f;
+    }
+
+    public static String getTierFolder(float tier) {
+        return TIERS_FOLDER + tier + "x/";
+    }
+
+    public float getTextureTier() {
+        return textureTier;
+    }
+
+    /**
+     * world units per texel of the loaded images, use instead of {@link GlobalVariables#WORLD_SCALE} when sizing
+     * sprites from their regions so they keep their size on every tier
+     */
+    public float getTextureScale() {
+        return GlobalVariables.WORLD_SCALE / textureTier;
+    }
+
     public void load() {
         // load all assets
         loadGameplayAssets();
+        loadMenuAssets(); // every screen's assets up front, switching screens never waits for a load
         loadFonts();
         loadAudio();
     }
 
-    private void loadGameplayAssets() {
+    private TextureLoader.TextureParameter createTextureParameter() {
         TextureLoader.TextureParameter parameter = new TextureLoader.TextureParameter();
         parameter.minFilter = Texture.TextureFilter.Linear;
         parameter.magFilter = Texture.TextureFilter.Linear;
+        if (textureTier < 1f) {
+            // downscaled tiers are sampled close to 1:1, mipmaps smooth out the rest
+            parameter.genMipMaps = true;
+            parameter.minFilter = Texture.TextureFilter.MipMapLinearLinear;
+        }
+        return parameter;
+    }
 
-        manager.load(BACKGROUND_TEXTURE, Texture.class, parameter);
-        manager.load(FRONT_ROPES_TEXTURE, Texture.class, parameter);
-        manager.load(IDLE_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WALK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(PUNCH_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(KICK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(HURT_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(BLOCK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WIN_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(LOSE_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(GAMEPLAY_BUTTONS_ATLAS, TextureAtlas.class);
-        manager.load(BLOOD_ATLAS, TextureAtlas.class);
+    private void loadGameplayAssets() {
+        TextureLoader.TextureParameter parameter = createTextureParameter();
+
+        loadTexture(IDLE_SPRITE_SHEET, parameter);
+        loadTexture(WALK_SPRITE_SHEET, parameter);
+        loadTexture(PUNCH_SPRITE_SHEET, parameter);
+        loadTexture(KICK_SPRITE_SHEET, parameter);
+        loadTexture(HURT_SPRITE_SHEET, parameter);
+        loadTexture(BLOCK_SPRITE_SHEET, parameter);
+        loadTexture(WIN_SPRITE_SHEET, parameter);
+        loadTexture(LOSE_SPRITE_SHEET, parameter);
+        loadAtlas(GAMEPLAY_BUTTONS_ATLAS);
+        loadAtlas(BLOOD_ATLAS);
+    }
+
+    private void loadMenuAssets() {
+        loadAtlas(MENU_ITEMS_ATLAS);
+    }
+
+    /**
+     * queue a texture and start decoding it right away, so all queued images decode in parallel
+     */
+    private void loadTexture(String fileName, TextureLoader.TextureParameter parameter) {
+        if (!manager.contains(fileName)) {
+            textureLoader.prefetch(fileName); // already loaded textures only get their reference count increased
+        }
+        manager.load(fileName, Texture.class, parameter);
+    }
+
+    private void loadAtlas(String fileName) {
+        if (!manager.contains(fileName)) {
+            textureLoader.prefetchAtlasPages(fileName, manager);
+        }
+        manager.load(fileName, TextureAtlas.class);
     }
 
     private void loadAudio() {
@@ -87,7 +202,6 @@ public class Assets {
     }
 
     private void loadFonts() {
-        FileHandleResolver resolver = new InternalFileHandleResolver();
         manager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
         manager.setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
 
@@ -118,8 +232,61 @@ public class Assets {
         manager.load(LARGE_FONT, BitmapFont.class, largeFont);
     }
 
+    /**
+     * read the list of stages; their textures are only loaded once a stage is selected
+     */
+    @SuppressWarnings("unchecked")
+    public Array<StageData> loadStageData() {
+        return new Json().fromJson(Array.class, StageData.class, resolver.resolve(STAGES_DATA));
+    }
+
+    /**
+     * read the fighters the player can pick from
+     */
+    @SuppressWarnings("unchecked")
+    public Array<FighterChoice> loadFighterChoices() {
+        return new Json().fromJson(Array.class, FighterChoice.class, resolver.resolve(FIGHTER_CHOICES_DATA));
+    }
+
+    /**
+     * read the gameplay values, the defaults if the file is missing or broken. See {@link TuningWatcher} for changes
+     * while the game runs
+     */
+    public Tuning loadTuning() {
+        FileHandle file = resolver.resolve(TUNING_DATA);
+        if (!file.exists()) return Tuning.DEFAULT;
+        try {
+            return Tuning.parse(file.readString("UTF-8"));
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("Assets", "Using the default tuning, " + TUNING_DATA + ": " + e.getMessage());
+            return Tuning.DEFAULT;
+        }
+    }
+
+    /**
+     * queue the textures of a stage. They are loaded with the next manager.update() or finishLoading() calls
+     */
+    public void loadStage(StageData stage) {
+        TextureLoader.TextureParameter parameter = createTextureParameter();
+        loadTexture(stage.background, parameter);
+        if (stage.foreground != null) {
+            loadTexture(stage.foreground, parameter);
+        }
+    }
+
+    /**
+     * free the textures of a stage. Textures shared with a loaded stage stay since the manager counts references
+     */
+    public void unloadStage(StageData stage) {
+        manager.unload(stage.background);
+        if (stage.foreground != null) {
+            manager.unload(stage.foreground);
+        }
+    }
+
     public void dispose() {
         manager.dispose();
+        textureLoader.dispose();
     }
 
 }
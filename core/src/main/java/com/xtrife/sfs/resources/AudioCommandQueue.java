@@ -0,0 +1,99 @@
+package com.xtrife.sfs.resources;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:14 PM.
+ * Single producer / single consumer queue of fixed size audio commands from the render thread to the audio thread.
+ * Commands offered during a frame stay invisible to the audio thread until {@link #flush()} publishes them together,
+ * so the audio thread wakes up once per frame at most. Never blocks and never allocates; commands are dropped if the
+ * queue is full.
+ */
+public class AudioCommandQueue {
+    private static final int CAPACITY = 256; // must be a power of 2
+
+    private final int[] commands = new int[CAPACITY];
+    private final int[] arguments = new int[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(); // next command to publish
+    private final AtomicLong head = new AtomicLong(); // next command to take
+    private long pending; // next command to write, only touched by the producer
+    private long dropped;
+    private long maxDepth;
+
+    /**
+     * add a command issued at {@code time} (System.nanoTime()), only seen by the consumer after the next flush. Only
+     * call from the producer thread
+     */
+    public boolean offer(int command, int argument, long time) {
+        if (pending - head.get() >= CAPACITY) {
+            dropped++; // the audio thread stopped taking commands, nothing to do but drop it
+            return false;
+        }
+        int index = (int) (pending & (CAPACITY - 1));
+        commands[index] = command;
+        arguments[index] = argument;
+        times[index] = time;
+        pending++;
+        return true;
+    }
+
+    /**
+     * publish everything offered since the last flush
+     *
+     * @return true if there was anything to publish
+     */
+    public boolean flush() {
+        if (pending == tail.get()) return false;
+        maxDepth = Math.max(maxDepth, pending - head.get());
+        tail.lazySet(pending);
+        return true;
+    }
+
+    /**
+     * only call from the consumer thread
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * command of the oldest published entry, only valid if the queue isn't empty
+     */
+    public int getCommand() {
+        return commands[(int) (head.get() & (CAPACITY - 1))];
+    }
+
+    public int getArgument() {
+        return arguments[(int) (head.get() & (CAPACITY - 1))];
+    }
+
+    public long getTime() {
+        return times[(int) (head.get() & (CAPACITY - 1))];
+    }
+
+    /**
+     * done with the oldest published entry
+     */
+    public void remove() {
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * published commands the consumer hasn't finished yet, readable from any thread
+     */
+    public int getDepth() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * most commands waiting at once, as seen by the producer
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -1,15 +1,26 @@
 package com.xtrife.sfs.resources;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.profiling.TimeHistogram;
 
-import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Created by 9S on 2/25/2025 - 9:52 PM.
+ * Music and sounds are played on a dedicated audio thread: the methods below only queue a command, and the commands
+ * of a frame are handed over together on {@link #flush()}, so a slow backend call never shows up in frame time. When
+ * the backend is a {@link ThreadedAudio} the audio thread also runs its update.
  */
 public class AudioManager {
+    // commands
+    private static final int PLAY_SOUND = 0, PAUSE_GAME_SOUNDS = 1, RESUME_GAME_SOUNDS = 2, STOP_GAME_SOUNDS = 3,
+        PLAY_MUSIC = 4, PAUSE_MUSIC = 5, STOP_MUSIC = 6;
+    private static final long BACKEND_UPDATE_NANOS = 10_000_000L; // music streams a few hundred ms ahead
+
     // settings
     private boolean musicEnabled = true;
     private boolean soundsEnabled = true;
@@ -17,48 +28,53 @@ public class AudioManager {
     // music
     private final Music music;
 
-    // UI sounds
-    private final Sound clickSound;
+    // sounds, the argument of PLAY_SOUND is an index into these
+    private final Sound[] sounds;
+    private static final int CLICK = 0, BLOCK = 1, BOO = 2, CHEER = 3, HIT = 4;
 
-    // Game sounds
-    private final Sound blockSound;
-    private final Sound booSound;
-    private final Sound cheerSound;
-    private final Sound hitSound;
+    private final Profiler profiler;
 
-    private final ArrayList<Sound> allGameSounds;
+    // audio thread
+    private final AudioCommandQueue commands = new AudioCommandQueue();
+    private final TimeHistogram commandLatency = new TimeHistogram(); // from queueing a command to running it
+    private final ThreadedAudio backend; // null if the backend updates itself
+    private final Thread thread;
+    private volatile boolean running = true;
 
-    public AudioManager(AssetManager assetManager) {
+    public AudioManager(AssetManager assetManager, Profiler profiler) {
+        this.profiler = profiler;
         music = assetManager.get(Assets.MUSIC);
-        clickSound = assetManager.get(Assets.CLICK_SOUND);
-        blockSound = assetManager.get(Assets.BLOCK_SOUND);
-        booSound = assetManager.get(Assets.BOO_SOUND);
-        cheerSound = assetManager.get(Assets.CHEER_SOUND);
-        hitSound = assetManager.get(Assets.HIT_SOUND);
-
-        // array list with all sounds for easy playback of all sounds at once
-        allGameSounds = new ArrayList<>();
-        allGameSounds.add(clickSound);
-        allGameSounds.add(blockSound);
-        allGameSounds.add(booSound);
-        allGameSounds.add(cheerSound);
-        allGameSounds.add(hitSound);
+        sounds = new Sound[5];
+        sounds[CLICK] = assetManager.get(Assets.CLICK_SOUND);
+        sounds[BLOCK] = assetManager.get(Assets.BLOCK_SOUND);
+        sounds[BOO] = assetManager.get(Assets.BOO_SOUND);
+        sounds[CHEER] = assetManager.get(Assets.CHEER_SOUND);
+        sounds[HIT] = assetManager.get(Assets.HIT_SOUND);
 
         music.setLooping(true);
+
+        backend = Gdx.audio instanceof ThreadedAudio ? (ThreadedAudio) Gdx.audio : null;
+        thread = new Thread(this::run, "audio");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     public void enableMusic() {
         musicEnabled = true;
-        if (!music.isPlaying()) {
-            music.play();
-        }
+        queue(PLAY_MUSIC, 0);
     }
 
     public void disableMusic() {
         musicEnabled = false;
-        if (music.isPlaying()) {
-            music.stop();
-        }
+        queue(STOP_MUSIC, 0);
+    }
+
+    public boolean isMusicEnabled() {
+        return musicEnabled;
+    }
+
+    public boolean isSoundsEnabled() {
+        return soundsEnabled;
     }
 
     public void toggleMusic() {
@@ -74,14 +90,14 @@ public class AudioManager {
      * play game music without enabling it / switching it on
      */
     public void playMusic() {
-        if (musicEnabled && !music.isPlaying()) {
-            music.play();
+        if (musicEnabled) {
+            queue(PLAY_MUSIC, 0);
         }
     }
 
     public void pauseMusic() {
-        if (musicEnabled && music.isPlaying()) {
-            music.pause();
+        if (musicEnabled) {
+            queue(PAUSE_MUSIC, 0);
         }
     }
 
@@ -95,21 +111,22 @@ public class AudioManager {
 
     public void playSound(String soundAsset) {
         if (soundsEnabled) {
+            profiler.soundPlayed(soundAsset);
             switch (soundAsset) {
                 case Assets.CLICK_SOUND:
-                    clickSound.play();
+                    queue(PLAY_SOUND, CLICK);
                     break;
                 case Assets.BLOCK_SOUND:
-                    blockSound.play();
+                    queue(PLAY_SOUND, BLOCK);
                     break;
                 case Assets.BOO_SOUND:
-                    booSound.play();
+                    queue(PLAY_SOUND, BOO);
                     break;
                 case Assets.CHEER_SOUND:
-                    cheerSound.play();
+                    queue(PLAY_SOUND, CHEER);
                     break;
                 case Assets.HIT_SOUND:
-                    hitSound.play();
+                    queue(PLAY_SOUND, HIT);
                     break;
             }
         }
@@ -117,20 +134,123 @@ public class AudioManager {
 
     public void pauseGameSounds() {
         // pause any instances of game sounds
-        for (Sound sound : allGameSounds) {
-            sound.pause();
-        }
+        queue(PAUSE_GAME_SOUNDS, 0);
     }
 
     public void resumeGameSounds() {
-        for (Sound sound : allGameSounds) {
-            sound.resume();
-        }
+        queue(RESUME_GAME_SOUNDS, 0);
     }
 
     public void stopGameSounds() {
-        for (Sound sound : allGameSounds) {
-            sound.stop();
+        queue(STOP_GAME_SOUNDS, 0);
+    }
+
+    private void queue(int command, int argument) {
+        commands.offer(command, argument, System.nanoTime());
+    }
+
+    /**
+     * hand the commands queued since the last flush to the audio thread, once per frame and whenever commands are
+     * queued outside of a frame (e.g. when the game is minimized)
+     */
+    public void flush() {
+        if (commands.flush()) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * published commands the audio thread hasn't run yet
+     */
+    public int getQueueDepth() {
+        return commands.getDepth();
+    }
+
+    public long getMaxQueueDepth() {
+        return commands.getMaxDepth();
+    }
+
+    public long getDroppedCommands() {
+        return commands.getDropped();
+    }
+
+    public TimeHistogram getCommandLatency() {
+        return commandLatency;
+    }
+
+    /**
+     * run what's still queued and stop the audio thread, before the backend's audio is disposed
+     */
+    public void dispose() {
+        flush();
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long nextUpdate = System.nanoTime();
+        while (true) {
+            boolean stopping = !running; // read before draining, so commands flushed before stopping still run
+            while (!commands.isEmpty()) {
+                execute(commands.getCommand(), commands.getArgument());
+                commandLatency.record(System.nanoTime() - commands.getTime());
+                commands.remove();
+            }
+            if (stopping) return;
+
+            if (backend == null) {
+                LockSupport.park(this); // until the next flush
+            } else {
+                long now = System.nanoTime();
+                if (now - nextUpdate >= 0) {
+                    backend.updateOnAudioThread();
+                    nextUpdate = now + BACKEND_UPDATE_NANOS;
+                }
+                LockSupport.parkNanos(this, nextUpdate - now);
+            }
+        }
+    }
+
+    private void execute(int command, int argument) {
+        switch (command) {
+            case PLAY_SOUND:
+                sounds[argument].play();
+                break;
+            case PAUSE_GAME_SOUNDS:
+                for (Sound sound : sounds) {
+                    sound.pause();
+                }
+                break;
+            case RESUME_GAME_SOUNDS:
+                for (Sound sound : sounds) {
+                    sound.resume();
+                }
+                break;
+            case STOP_GAME_SOUNDS:
+                for (Sound sound : sounds) {
+                    sound.stop();
+                }
+                break;
+            case PLAY_MUSIC:
+                if (!music.isPlaying()) {
+                    music.play();
+                }
+                break;
+            case PAUSE_MUSIC:
+                if (music.isPlaying()) {
+                    music.pause();
+                }
+                break;
+            case STOP_MUSIC:
+                if (music.isPlaying()) {
+                    music.stop();
+                }
+                break;
         }
     }
 }
@@ -0,0 +1,21 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:38 PM.
+ * A fighter the player can pick on the fighter select screen, as described in {@link Assets#FIGHTER_CHOICES_DATA}.
+ */
+public class FighterChoice {
+    public String name;
+    public float[] colorValues; // r, g, b
+
+    private transient Color color;
+
+    public Color getColor() {
+        if (color == null) {
+            color = new Color(colorValues[0], colorValues[1], colorValues[2], 1f);
+        }
+        return color;
+    }
+}
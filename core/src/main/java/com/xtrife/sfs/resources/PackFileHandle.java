@@ -0,0 +1,90 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Created by 9S on 10/19/2026 - 1:32 PM.
+ * Read-only file inside an {@link AssetPack}. A handle without an entry stands for a directory, so loaders that
+ * resolve siblings (e.g. atlas pages next to the .atlas file) stay inside the pack. It only exists if the pack has
+ * files in it.
+ */
+public class PackFileHandle extends FileHandle {
+    private final PackFileHandleResolver resolver;
+    private final AssetPack pack;
+    private final AssetPack.Entry entry;
+
+    PackFileHandle(PackFileHandleResolver resolver, AssetPack pack, String path, AssetPack.Entry entry) {
+        super(path, Files.FileType.Internal);
+        this.resolver = resolver;
+        this.pack = pack;
+        this.entry = entry;
+    }
+
+    @Override
+    public InputStream read() {
+        if (entry == null) throw new GdxRuntimeException("Cannot read a directory: " + path());
+        return pack.read(entry);
+    }
+
+    @Override
+    public byte[] readBytes() {
+        if (entry == null) throw new GdxRuntimeException("Cannot read a directory: " + path());
+        return pack.readBytes(entry);
+    }
+
+    /**
+     * stored entries are returned as a view of the memory-mapped pack, e.g. FreeType reads the font straight from it
+     */
+    @Override
+    public ByteBuffer map(FileChannel.MapMode mode) {
+        if (entry == null || entry.compression != AssetPack.STORED || mode != FileChannel.MapMode.READ_ONLY) {
+            throw new GdxRuntimeException("Cannot map " + path());
+        }
+        return pack.slice(entry);
+    }
+
+    @Override
+    public long length() {
+        return entry == null ? 0 : entry.length;
+    }
+
+    @Override
+    public boolean exists() {
+        return entry != null || pack.containsDirectory(path());
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return entry == null;
+    }
+
+    @Override
+    public FileHandle child(String name) {
+        String path = path();
+        return resolver.resolve(path.isEmpty() ? name : path + "/" + name);
+    }
+
+    @Override
+    public FileHandle sibling(String name) {
+        return parent().child(name);
+    }
+
+    @Override
+    public FileHandle parent() {
+        String path = path();
+        int separator = path.lastIndexOf('/');
+        return new PackFileHandle(resolver, pack, separator < 0 ? "" : path.substring(0, separator), null);
+    }
+
+    @Override
+    public OutputStream write(boolean append) {
+        throw new GdxRuntimeException("Cannot write to a packed file: " + path());
+    }
+}
@@ -0,0 +1,28 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Created by 9S on 10/19/2026 - 1:40 PM.
+ * Serves assets from an {@link AssetPack}; anything not in the pack falls back to the loose internal files.
+ */
+public class PackFileHandleResolver implements FileHandleResolver {
+    private final AssetPack pack;
+    private final FileHandleResolver fallback = new InternalFileHandleResolver();
+
+    public PackFileHandleResolver(AssetPack pack) {
+        this.pack = pack;
+    }
+
+    @Override
+    public FileHandle resolve(String fileName) {
+        String path = fileName.replace('\\', '/');
+        if (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        AssetPack.Entry entry = pack.get(path);
+        return entry != null ? new PackFileHandle(this, pack, path, entry) : fallback.resolve(fileName);
+    }
+}
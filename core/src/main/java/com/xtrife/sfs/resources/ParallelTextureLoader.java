@@ -0,0 +1,188 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.profiling.Profiler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by 9S on 10/19/2026 - 2:35 PM.
+ * Drop-in replacement for {@link TextureLoader} that decodes images on all cores. {@link #prefetch} starts decoding
+ * a file to a {@link Pixmap} as soon as it is queued; when the {@link AssetManager} gets to the texture, loadAsync
+ * only picks up the finished pixmap and loadSync does the GL upload on the render thread. Textures that were never
+ * prefetched are decoded the usual way.
+ */
+public class ParallelTextureLoader extends AsynchronousAssetLoader<Texture, TextureLoader.TextureParameter> {
+    private final ExecutorService decoder;
+    private final ConcurrentHashMap<String, Future<DecodedImage>> decoding = new ConcurrentHashMap<>();
+    private final Profiler profiler;
+
+    // texture data between loadAsync and loadSync, the manager loads one asset at a time
+    private TextureData data;
+    private long decodeNanos;
+
+    private static class DecodedImage {
+        final Pixmap pixmap;
+        final long nanos; // time spent decoding
+
+        DecodedImage(Pixmap pixmap, long nanos) {
+            this.pixmap = pixmap;
+            this.nanos = nanos;
+        }
+    }
+
+    public ParallelTextureLoader(FileHandleResolver resolver, Profiler profiler) {
+        this(resolver, profiler, Math.max(1, Runtime.getRuntime().availableProcessors() - 1)); // leave a core to the render thread
+    }
+
+    public ParallelTextureLoader(FileHandleResolver resolver, Profiler profiler, int threads) {
+        super(resolver);
+        this.profiler = profiler;
+        final AtomicInteger threadCount = new AtomicInteger();
+        decoder = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "texture-decoder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * start decoding an image in the background, call right after queueing it in the asset manager
+     */
+    public void prefetch(final String fileName) {
+        if (!canDecode(fileName)) return;
+        decoding.computeIfAbsent(fileName, name -> decoder.submit(() -> decode(resolve(name))));
+    }
+
+    /**
+     * read an atlas and start decoding all of its pages, which the atlas loader later requests as dependencies. Call
+     * right after queueing the atlas: the pages are queued before the manager can get to them, so every decoded page
+     * is taken. Pages the manager already has aren't decoded, nothing would take them
+     */
+    public void prefetchAtlasPages(String atlasFileName, AssetManager manager) {
+        FileHandle atlasFile = resolve(atlasFileName);
+        TextureAtlas.TextureAtlasData atlasData = new TextureAtlas.TextureAtlasData(atlasFile, atlasFile.parent(), false);
+        for (TextureAtlas.TextureAtlasData.Page page : atlasData.getPages()) {
+            String pageFileName = page.textureFile.path().replace('\\', '/');
+            if (!manager.contains(pageFileName)) {
+                prefetch(pageFileName);
+            }
+        }
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        Pixmap.Format format = parameter != null ? parameter.format : null;
+        boolean genMipMaps = parameter != null && parameter.genMipMaps;
+
+        long start = System.nanoTime();
+        if (parameter != null && parameter.textureData != null) {
+            data = parameter.textureData;
+            decodeNanos = 0;
+        } else if (canDecode(fileName)) {
+            // file data keeps the texture managed, it's reloaded from the file if the GL context is lost
+            DecodedImage image = takeImage(fileName, file);
+            data = new FileTextureData(file, image.pixmap, format, genMipMaps);
+            decodeNanos = image.nanos;
+        } else {
+            data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+            decodeNanos = System.nanoTime() - start;
+        }
+        if (!data.isPrepared()) {
+            data.prepare(); // converts the pixmap if a different format was asked for
+        }
+    }
+
+    @Override
+    public Texture loadSync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        long start = System.nanoTime();
+        Texture texture = parameter != null ? parameter.texture : null;
+        if (texture != null) {
+            texture.load(data);
+        } else {
+            texture = new Texture(data);
+        }
+        data = null;
+
+        if (parameter != null) {
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            texture.setWrap(parameter.wrapU, parameter.wrapV);
+        }
+        profiler.assetLoaded(fileName, decodeNanos, System.nanoTime() - start);
+        return texture;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        return null;
+    }
+
+    @Override
+    public void unloadAsync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        data = null;
+    }
+
+    /**
+     * stop the decoder threads and free pixmaps that were prefetched but never loaded
+     */
+    public void dispose() {
+        decoder.shutdownNow();
+        for (Future<DecodedImage> pending : decoding.values()) {
+            try {
+                if (pending.isDone() && !pending.isCancelled()) {
+                    pending.get().pixmap.dispose();
+                }
+            } catch (InterruptedException | ExecutionException ignored) {
+            }
+        }
+        decoding.clear();
+    }
+
+    private DecodedImage takeImage(String fileName, FileHandle file) {
+        Future<DecodedImage> pending = decoding.remove(fileName);
+        if (pending == null) {
+            return decode(file); // not prefetched, decode on the loader thread
+        }
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while decoding " + fileName, e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Couldn't decode " + fileName, e.getCause());
+        }
+    }
+
+    private static DecodedImage decode(FileHandle file) {
+        long start = System.nanoTime();
+        byte[] bytes = file.readBytes();
+        Pixmap pixmap = new Pixmap(bytes, 0, bytes.length);
+        return new DecodedImage(pixmap, System.nanoTime() - start);
+    }
+
+    /**
+     * formats the native image decoder reads; compressed GPU formats (.ktx, .etc1, .cim) go through TextureData.Factory
+     */
+    private static boolean canDecode(String fileName) {
+        String name = fileName.toLowerCase();
+        return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".bmp");
+    }
+}
@@ -0,0 +1,79 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:36 PM.
+ * The player's settings from the settings screen, kept in the platform's preferences so they survive a restart.
+ */
+public class SettingsManager {
+    private static final String PREFERENCES_NAME = "com.xtrife.sfs.settings";
+    private static final String MUSIC = "music";
+    private static final String SOUNDS = "sounds";
+    private static final String FULL_SCREEN = "fullScreen";
+    private static final String SHOW_BLOOD = "showBlood";
+    private static final String DIFFICULTY = "difficulty";
+
+    private final Preferences preferences;
+    private boolean musicEnabled, soundsEnabled, fullScreenEnabled, bloodShown;
+    private GlobalVariables.Difficulty difficulty;
+
+    public SettingsManager() {
+        preferences = Gdx.app.getPreferences(PREFERENCES_NAME);
+        musicEnabled = preferences.getBoolean(MUSIC, true);
+        soundsEnabled = preferences.getBoolean(SOUNDS, true);
+        fullScreenEnabled = preferences.getBoolean(FULL_SCREEN, false);
+        bloodShown = preferences.getBoolean(SHOW_BLOOD, true);
+        difficulty = GlobalVariables.Difficulty.EASY;
+        String savedDifficulty = preferences.getString(DIFFICULTY, difficulty.name());
+        for (GlobalVariables.Difficulty value : GlobalVariables.Difficulty.values()) {
+            if (value.name().equals(savedDifficulty)) difficulty = value; // anything else keeps the default
+        }
+    }
+
+    public boolean isMusicEnabled() {
+        return musicEnabled;
+    }
+
+    public void setMusicEnabled(boolean enabled) {
+        musicEnabled = enabled;
+        preferences.putBoolean(MUSIC, enabled).flush();
+    }
+
+    public boolean isSoundsEnabled() {
+        return soundsEnabled;
+    }
+
+    public void setSoundsEnabled(boolean enabled) {
+        soundsEnabled = enabled;
+        preferences.putBoolean(SOUNDS, enabled).flush();
+    }
+
+    public boolean isFullScreenEnabled() {
+        return fullScreenEnabled;
+    }
+
+    public void setFullScreenEnabled(boolean enabled) {
+        fullScreenEnabled = enabled;
+        preferences.putBoolean(FULL_SCREEN, enabled).flush();
+    }
+
+    public boolean isBloodShown() {
+        return bloodShown;
+    }
+
+    public void setBloodShown(boolean shown) {
+        bloodShown = shown;
+        preferences.putBoolean(SHOW_BLOOD, shown).flush();
+    }
+
+    public GlobalVariables.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(GlobalVariables.Difficulty difficulty) {
+        this.difficulty = difficulty;
+        preferences.putString(DIFFICULTY, difficulty.name()).flush();
+    }
+}
@@ -0,0 +1,34 @@
+package com.xtrife.sfs.resources;
+
+import com.xtrife.sfs.simulation.Arena;
+
+/**
+ * Created by 9S on 10/19/2026 - 12:41 PM.
+ * A stage as described in {@link Assets#STAGES_DATA}: its texture layers and the area fighters can walk on.
+ */
+public class StageData {
+    public String name;
+    public String background; // drawn behind the fighters
+    public String foreground; // optional, drawn over the fighters (e.g. the front ropes)
+    public float[] walkableArea; // x, y pairs of a convex polygon in world units
+    public CrowdData crowd; // optional, spectators in the stands
+
+    /**
+     * where the {@link com.xtrife.sfs.objects.Crowd} stands, all in world units
+     */
+    public static class CrowdData {
+        public float[] area; // x, y, width, height of the area the spectators' feet are spread over
+        public int spectators;
+        public float[] gaps; // optional, x ranges kept free (e.g. ring posts in front of the stands)
+        public long seed = 1; // same seed, same crowd
+    }
+
+    private transient Arena arena;
+
+    public Arena getArena() {
+        if (arena == null) {
+            arena = new Arena(walkableArea);
+        }
+        return arena;
+    }
+}
@@ -0,0 +1,10 @@
+package com.xtrife.sfs.resources;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:16 PM.
+ * Audio backend that leaves its regular update (e.g. refilling the buffers of playing music) to the
+ * {@link AudioManager}'s audio thread instead of doing it on the render thread, so only one thread ever touches it.
+ */
+public interface ThreadedAudio {
+    void updateOnAudioThread();
+}
@@ -0,0 +1,49 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Created by 9S on 10/19/2026 - 6:58 PM.
+ * Serves images and atlases from a downscaled texture tier (see {@link Assets#TEXTURE_TIERS}) when the tier has a
+ * variant of the file, everything else and files without a variant come from the wrapped resolver as usual.
+ */
+public class TieredFileHandleResolver implements FileHandleResolver {
+    private static final String[] TIERED_EXTENSIONS = {".png", ".jpg", ".atlas"};
+
+    private final FileHandleResolver resolver;
+    private final String folder;
+
+    /**
+     * @param folder tier folder, see {@link Assets#getTierFolder}
+     */
+    public TieredFileHandleResolver(FileHandleResolver resolver, String folder) {
+        this.resolver = resolver;
+        this.folder = folder;
+    }
+
+    @Override
+    public FileHandle resolve(String fileName) {
+        if (hasVariants(fileName)) {
+            FileHandle variant = resolver.resolve(folder + fileName);
+            if (variant.exists()) {
+                return variant;
+            }
+        }
+        return resolver.resolve(fileName);
+    }
+
+    /**
+     * whether the texture tiers have downscaled copies of a file. Atlas pages are found next to their atlas, so
+     * paths already inside a tier folder are used as they are
+     */
+    public static boolean hasVariants(String fileName) {
+        String path = fileName.replace('\\', '/');
+        if (path.startsWith(Assets.TIERS_FOLDER)) return false;
+        String lowerCase = path.toLowerCase();
+        for (String extension : TIERED_EXTENSIONS) {
+            if (lowerCase.endsWith(extension)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,144 @@
+package com.xtrife.sfs.resources;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:34 PM.
+ * Reloads the {@link Tuning} while the game runs. A background thread waits on a {@link WatchService} for the tuning
+ * file to change, reads and parses it and publishes the result through a volatile field; the render thread picks it up
+ * with {@link #poll()}, a single volatile read, and hands it to the simulation to swap in between two ticks. A file
+ * that doesn't parse is reported and the current tuning stays.
+ * <p>
+ * Only loose files can be watched, not ones inside the asset pack.
+ */
+public class TuningWatcher {
+    private static final long SETTLE_MILLIS = 100; // editors save in several writes, read after the last one
+
+    private final File file;
+    private volatile Tuning tuning; // newest, replaced by the watcher thread
+    private Tuning polled; // the last one poll() handed out, render thread only
+
+    // watcher thread
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    /**
+     * @param tuning the one the game started with, read from {@code file}
+     */
+    public TuningWatcher(File file, Tuning tuning) {
+        this.file = file.getAbsoluteFile();
+        this.tuning = tuning;
+        polled = tuning;
+    }
+
+    public void start() {
+        if (watcherThread != null) return;
+        if (!file.isFile()) {
+            Gdx.app.log("Tuning", "Not watching " + file + ", it isn't a loose file");
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            // a directory is the smallest thing that can be watched, its other files are filtered out
+            file.getParentFile().toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            Gdx.app.error("Tuning", "Tuning changes need a restart, can't watch " + file + ": " + e.getMessage());
+            return;
+        }
+        watcherThread = new Thread(this::watchLoop, "tuning-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.setPriority(Thread.MIN_PRIORITY);
+        watcherThread.start();
+    }
+
+    /**
+     * the newest tuning
+     */
+    public Tuning getTuning() {
+        return tuning;
+    }
+
+    /**
+     * the newest tuning if it changed since the last call, null otherwise. Only call from one thread; never blocks
+     * and never allocates
+     */
+    public Tuning poll() {
+        Tuning latest = tuning;
+        if (latest == polled) return null;
+        polled = latest;
+        return latest;
+    }
+
+    /**
+     * stop the watcher thread
+     */
+    public void dispose() {
+        if (watcherThread == null) return;
+        try {
+            watchService.close(); // wakes the watcher thread up
+        } catch (IOException e) {
+            // nothing to clean up then
+        }
+        try {
+            watcherThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                boolean changed = takeEvents(watchService.take());
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= takeEvents(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // disposed
+        }
+    }
+
+    /**
+     * true if any of the key's events is about the tuning file
+     */
+    private boolean takeEvents(WatchKey key) {
+        Path name = file.toPath().getFileName();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // after an overflow it's unknown which files changed
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            tuning = Tuning.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            Gdx.app.log("Tuning", "Reloaded " + file.getName());
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("Tuning", "Keeping the current tuning, " + file.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.xtrife.sfs.Main;
+import com.xtrife.sfs.resources.Assets;
+import com.xtrife.sfs.resources.FighterChoice;
+
+/**
+ * Created by 9S on 10/20/2026 - 12:03 AM.
+ * The player picks one of the {@link FighterChoice}s with the arrows, the opponent gets one of the others.
+ */
+public class FighterSelectScreen extends MenuScreen {
+    private static final float MARGIN = 2f;
+    private static final float ARROW_SPACING = 2f;
+    private static final float PLAY_BUTTON_MARGIN_TOP = 3f;
+    // the display sits in the middle of its background, the name goes in the space under it
+    private static final float NAME_AREA_HEIGHT = 89f / 374f;
+    private static final Color NAME_COLOR = new Color(0.24f, 0.21f, 0.06f, 1f); // like the text in the menu art
+    private static final Color DEFAULT_FONT_COLOR = Color.WHITE;
+
+    private final Array<FighterChoice> choices;
+    private int choice; // the player's
+
+    private final Sprite displayBackgroundSprite;
+    private final Sprite fighterDisplaySprite;
+    private final Button previousButton, nextButton;
+    private final Button playGameButton;
+    private final Button backButton;
+    private final BitmapFont smallFont;
+    private float nameX, nameY;
+
+    public FighterSelectScreen(Main game) {
+        super(game);
+        choices = game.fighterChoices;
+        displayBackgroundSprite = createSprite("FighterDisplayBackground");
+        fighterDisplaySprite = createSprite("FighterDisplay");
+        previousButton = createButton("TriangleButton");
+        previousButton.setFlip(true); // the arrow points right in the atlas
+        nextButton = createButton("TriangleButton");
+        playGameButton = createButton("PlayGameButton");
+        backButton = createButton("BackButton");
+        smallFont = game.assets.manager.get(Assets.SMALL_FONT); // set up by the game screen
+        showChoice(0);
+    }
+
+    private void showChoice(int index) {
+        choice = (index + choices.size) % choices.size;
+        fighterDisplaySprite.setColor(choices.get(choice).getColor());
+    }
+
+    @Override
+    protected void layout() {
+        float worldWidth = viewport.getWorldWidth();
+        float worldHeight = viewport.getWorldHeight();
+        backButton.setPosition(MARGIN, worldHeight - MARGIN - backButton.getHeight());
+
+        // from bottom to top, centered
+        float layoutHeight = playGameButton.getHeight() + PLAY_BUTTON_MARGIN_TOP + displayBackgroundSprite.getHeight();
+        float centerX = worldWidth / 2f;
+        float y = worldHeight / 2f - layoutHeight / 2f;
+        playGameButton.setPosition(centerX - playGameButton.getWidth() / 2f, y);
+        y += playGameButton.getHeight() + PLAY_BUTTON_MARGIN_TOP;
+        displayBackgroundSprite.setPosition(centerX - displayBackgroundSprite.getWidth() / 2f, y);
+
+        float centerY = y + displayBackgroundSprite.getHeight() / 2f;
+        fighterDisplaySprite.setPosition(centerX - fighterDisplaySprite.getWidth() / 2f,
+            centerY - fighterDisplaySprite.getHeight() / 2f);
+        previousButton.setPosition(displayBackgroundSprite.getX() - ARROW_SPACING - previousButton.getWidth(),
+            centerY - previousButton.getHeight() / 2f);
+        nextButton.setPosition(displayBackgroundSprite.getX() + displayBackgroundSprite.getWidth() + ARROW_SPACING,
+            centerY - nextButton.getHeight() / 2f);
+
+        nameX = centerX;
+        nameY = y + displayBackgroundSprite.getHeight() * NAME_AREA_HEIGHT / 2f + smallFont.getCapHeight() / 2f;
+    }
+
+    @Override
+    protected void draw(SpriteBatch batch) {
+        backButton.draw(batch);
+        displayBackgroundSprite.draw(batch);
+        fighterDisplaySprite.draw(batch);
+        previousButton.draw(batch);
+        nextButton.draw(batch);
+        playGameButton.draw(batch);
+
+        smallFont.setColor(NAME_COLOR);
+        smallFont.draw(batch, choices.get(choice).name, nameX, nameY, 0, Align.center, false);
+        smallFont.setColor(DEFAULT_FONT_COLOR);
+    }
+
+    @Override
+    protected Button findButton(float x, float y) {
+        if (backButton.contains(x, y)) return backButton;
+        if (previousButton.contains(x, y)) return previousButton;
+        if (nextButton.contains(x, y)) return nextButton;
+        if (playGameButton.contains(x, y)) return playGameButton;
+        return null;
+    }
+
+    @Override
+    protected void clicked(Button button) {
+        if (button == backButton) {
+            back();
+        } else if (button == previousButton) {
+            showChoice(choice - 1);
+        } else if (button == nextButton) {
+            showChoice(choice + 1);
+        } else {
+            startGame();
+        }
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
+            showChoice(choice - 1);
+            redraw();
+        } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
+            showChoice(choice + 1);
+            redraw();
+        } else if (keycode == Input.Keys.ENTER) {
+            startGame();
+        } else {
+            return super.keyDown(keycode);
+        }
+        return true;
+    }
+
+    private void startGame() {
+        FighterChoice player = choices.get(choice);
+        game.player.setName(player.name);
+        game.player.setColor(player.getColor());
+
+        // any of the others for the opponent
+        int opponentIndex = MathUtils.random(choices.size - 2);
+        if (opponentIndex >= choice) opponentIndex++;
+        FighterChoice opponent = choices.get(opponentIndex);
+        game.opponent.setName(opponent.name);
+        game.opponent.setColor(opponent.getColor());
+
+        game.screens.show(ScreenManager.ScreenType.GAME);
+    }
+
+    @Override
+    protected void back() {
+        game.screens.show(ScreenManager.ScreenType.MAIN_MENU);
+    }
+}
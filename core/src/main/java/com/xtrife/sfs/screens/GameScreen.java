@@ -3,32 +3,53 @@ package com.xtrife.sfs.screens;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.xtrife.sfs.Main;
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.broadcast.SpectatorClient;
 import com.xtrife.sfs.objects.BloodSplatter;
+import com.xtrife.sfs.objects.Crowd;
 import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.profiling.BenchmarkMode;
+import com.xtrife.sfs.profiling.FramePhase;
+import com.xtrife.sfs.profiling.InputLatency;
+import com.xtrife.sfs.profiling.ResourceTracker;
+import com.xtrife.sfs.profiling.SoakMode;
+import com.xtrife.sfs.rendering.HudText;
+import com.xtrife.sfs.rendering.RenderQueue;
+import com.xtrife.sfs.replay.Replay;
 import com.xtrife.sfs.resources.Assets;
+import com.xtrife.sfs.resources.AudioManager;
 import com.xtrife.sfs.resources.GlobalVariables;
-
+import com.xtrife.sfs.resources.StageData;
+import com.xtrife.sfs.simulation.InputCommand;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+import com.xtrife.sfs.simulation.Tuning;
+
+import java.io.IOException;
 import java.util.Locale;
 
 /**
  * Created by 9S on 2/24/2025 - 10:28 PM.
  */
-public class GameScreen implements Screen, InputProcessor {
+public class GameScreen implements ManagedScreen, InputProcessor {
 
     private final Main game;
     private final ExtendViewport viewport;
@@ -37,21 +58,41 @@ public class GameScreen implements Screen, InputProcessor {
     private enum GameState {RUNNING, PAUSED, GAME_OVER}
 
     private GameState gameState;
-    private GlobalVariables.Difficulty difficulty = GlobalVariables.Difficulty.EASY;
 
+    // the match runs on its own thread, each frame draws the newest snapshot of it
+    private final MatchRunner matchRunner;
+    private MatchSnapshot snapshot;
+    private int matchGeneration; // counts restarts, so a snapshot of the previous match can't end the new one
+    private final RandomXS128 matchSeeds; // every match gets its own seed from here
+
+    // replay viewer, null unless watching a replay. Playback runs on this thread, jumps restore the nearest keyframe
+    private final Replay replay;
+    private static final float REPLAY_FAST_SPEED = 4f; // while the arrow keys are held
+    private float replaySpeed = 1f; // negative rewinds
+    private boolean replayPaused;
+    private double replayTicks; // playback position, in fractional ticks
+    private final StringBuilder replayText = new StringBuilder();
+
+    // another game's broadcast, null unless spectating. Its snapshots replace the runner's, nothing is simulated here
+    private final SpectatorClient spectator;
+
+    // event counts of the last snapshot whose sounds were played
+    private int playedHits, playedBlocks, playedRoundWins, playedRoundLosses;
+
+    // input latency of one control at a time: taken from the snapshot that first applied it, submitted with the frame
+    // drawing that snapshot and presented when a runnable posted after the frame runs, right after its buffer swap
+    private long latencyEventTime, latencyAppliedTime, latencySubmittedTime;
+    private boolean latencyPending;
+    private final Runnable recordPresentedInput = this::recordPresentedInput;
+
+    // sprite batch flushes counted up to the end of the last frame
+    private int lastTotalRenderCalls;
+
+    // while paused or game over nothing moves, the scene is drawn once into this buffer and shown again until then
+    private FrameBuffer frozenFrame;
+    private boolean frameFrozen;
 
     // rounds
-    private enum RoundState {STARTING, IN_PROGRESS, ENDING}
-
-    private RoundState roundState;
-    private float roundStateTime;
-    private static final float START_ROUND_DELAY = 2f; // 2 sec delay
-    private static final float END_ROUND_DELAY = 2f;
-    private int currentRound;
-    private static final int MAX_ROUNDS = 3;
-    private int roundsWon = 0, roundsLost = 0;
-    private static final float MAX_ROUND_TIME = 99.99f;
-    private float roundTimer = MAX_ROUND_TIME;
     private static final float CRITICAL_ROUND_TIME = 10f;
     private static final Color CRITICAL_ROUND_TIME_COLOR = Color.RED;
 
@@ -64,23 +105,11 @@ public class GameScreen implements Screen, InputProcessor {
     private static final Color HEALTH_BAR_COLOR = Color.RED;
     private static final Color HEALTH_BAR_BACKGROUND_COLOR = GlobalVariables.GOLD;
 
-    // background/ring
-    private Texture backgroundTexture;
-    private Texture frontRopeTexture;
-
-    // ring boundaries
-    private static final float RING_MIN_X = 18f;
-    private static final float RING_MAX_X = 144f;
-    private static final float RING_MIN_Y = 11f;
-    private static final float RING_MAX_Y = 50f;
-    private static final float RING_SLOPE = 3.16f;
-
-    // fighters
-    private static final float PLAYER_START_POSITION_X = 60f;
-    private static final float OPPONENT_START_POSITION_X = 100f;
-    private static final float FIGHTER_START_POSITION_Y = 35f;
-    private static final float FIGHTER_CONTACT_DISTANCE_X = 17f;
-    private static final float FIGHTER_CONTACT_DISTANCE_Y = 3f;
+    // stage, the next one streams in while the current one is still shown
+    private StageData stage;
+    private StageData pendingStage;
+    private TextureRegion backgroundRegion;
+    private TextureRegion foregroundRegion;
 
     // menu buttons
     private Sprite playAgainButtonSprite;
@@ -89,29 +118,30 @@ public class GameScreen implements Screen, InputProcessor {
     private Sprite pauseButtonSprite;
     private static final float PAUSE_BUTTON_MARGIN = 1.5f;
 
-    // opponent AI
-    private float opponentAiTimer;
-    private boolean opponentAiMakingcontactDecision;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_EASY = 1f;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM = 0.07f;
-    private static final float OPPONENT_AI_CONTACT_DECISION_DELAY_HARD = 0.01f;
-    private static final float OPPONENT_AI_BLOCK_CHANCE = 0.4f; // decision chance
-    private static final float OPPONENT_AI_ATTACK_CHANCE = 0.8f; // 8 out of 10 times
-    private static final float OPPONENT_AI_NON_CONTACT_DECISION_DELAY = 0.5f;
-    private boolean opponentAiPursuingPlayer;
-    private static final float OPPONENT_AI_PURSUE_CHANCE_EASY = 0.2f; // 20% of time
-    private static final float OPPONENT_AI_PURSUE_CHANCE_MEDIUM = 0.5f;
-    private static final float OPPONENT_AI_PURSUE_CHANCE_HARD = 1f; // opponent is always going after the player
-
-    // blood
+    // blood, from the settings when a match starts
     private boolean showingBlood = true;
-    private BloodSplatter[] playerBloodSplatters;
-    private BloodSplatter[] opponentBloodSplatters;
-    private int currentPlayerBloodSplatterIndex;
-    private int currentOpponentBloodSplatterIndex;
-    public static final int BLOOD_SPLATTER_AMOUNT = 5;
-    private static final float BLOOD_SPLATTER_OFFSET_X = 10f;
-    private static final float BLOOD_SPLATTER_OFFSET_Y = 25f;
+    private BloodSplatter bloodSplatter;
+
+    // world sprites of a frame, drawn sorted by depth and texture
+    private final RenderQueue renderQueue = new RenderQueue();
+    private final HudText hudText = new HudText();
+
+    // spectators of the current stage, null if it has none
+    private Crowd crowd;
+    private int crowdRenderCalls; // this frame
+
+    // debug overlay (F3), the resource counts are refreshed a few times a second while it's shown
+    private static final String RESOURCE_ORIGIN = "GameScreen";
+    private static final float DEBUG_OVERLAY_REFRESH_INTERVAL = 0.5f;
+    private boolean showingDebugOverlay;
+    private float debugOverlayTime;
+    private final StringBuilder debugOverlayText = new StringBuilder();
+    private int debugOverlayLines;
+    private int lastRenderCalls;
+    // presented input latency histogram, a row per 8 ms
+    private static final int LATENCY_ROWS = 7;
+    private static final long LATENCY_ROW_NANOS = 8_000_000L;
+    private static final int LATENCY_BAR_LENGTH = 40;
 
 
     public GameScreen(Main game) {
@@ -121,23 +151,90 @@ public class GameScreen implements Screen, InputProcessor {
         viewport = new ExtendViewport(GlobalVariables.WORLD_WIDTH, GlobalVariables.MIN_WORLD_HEIGHT,
             GlobalVariables.WORLD_WIDTH, 0);
 
+        // create the blood splatter animation
+        bloodSplatter = new BloodSplatter(game);
+
+        // set up the match, the runner simulates it and keeps the blood splatters
+        Match match = new Match(game.player, game.opponent);
+        match.setTuning(game.tuning.getTuning());
+        if (game.replay != null) {
+            try {
+                replay = Replay.open(game.replay);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Can't open replay " + game.replay, e);
+            }
+        } else {
+            replay = null;
+        }
+        if (game.soak != null) {
+            // the AI fights for both while the soak script plays with the game, see SoakMode
+            matchSeeds = new RandomXS128(game.soak.seed);
+            match.setPlayerAi(match.getTuning().getAiSettings(SoakMode.DIFFICULTY));
+        } else if (game.benchmark == null) {
+            matchSeeds = new RandomXS128();
+        } else {
+            // the AI fights for both from a fixed seed, see BenchmarkMode
+            matchSeeds = new RandomXS128(game.benchmark.seed);
+            match.setPlayerAi(match.getTuning().getAiSettings(BenchmarkMode.DIFFICULTY));
+            match.setDifficulty(BenchmarkMode.DIFFICULTY);
+        }
+        matchRunner = new MatchRunner(match, game.telemetry, bloodSplatter.getDuration());
+        matchRunner.setProfiler(game.profiler);
+        matchRunner.setReplayRecorder(game.replays);
+        spectator = game.spectator;
+        if (replay == null && spectator == null) {
+            matchRunner.setBroadcaster(game.broadcaster);
+        }
+
         // create the game area
-        createGameArea();
+        setStage(game.stages.first());
 
         // set up the fonts
         setupFonts();
 
         // set up the buttons
         createButtons();
+    }
 
-        // create bloodsplatters and pools
-        createBlood();
+    private void setStage(StageData stage) {
+        this.stage = stage;
+        // get the stage textures from the asset manager, they have to be loaded already
+        backgroundRegion = new TextureRegion(game.assets.manager.get(stage.background, Texture.class));
+        foregroundRegion = stage.foreground == null ? null
+            : new TextureRegion(game.assets.manager.get(stage.foreground, Texture.class));
+        matchRunner.setArena(stage.getArena());
+
+        // build the new stage's stands
+        if (crowd != null) {
+            crowd.dispose();
+            game.resources.release(crowd);
+        }
+        crowd = stage.crowd == null ? null : new Crowd(stage.crowd);
+        if (crowd != null) {
+            game.resources.track(crowd, ResourceTracker.Type.MESH, RESOURCE_ORIGIN, "crowd", crowd.getNativeBytes());
+        }
     }
 
-    private void createGameArea() {
-        // get the ring textures from the asset manager
-        backgroundTexture = game.assets.manager.get(Assets.BACKGROUND_TEXTURE);
-        frontRopeTexture = game.assets.manager.get(Assets.FRONT_ROPES_TEXTURE);
+    private void switchToNextStage() {
+        if (pendingStage != null || game.stages.size < 2) return;
+
+        // start loading the next stage in the background, updateStageLoading() swaps once it's ready
+        pendingStage = game.stages.get((game.stages.indexOf(stage, true) + 1) % game.stages.size);
+        game.assets.loadStage(pendingStage);
+    }
+
+    private void updateStageLoading() {
+        // manager.update() loads a bit more each frame and returns true when everything queued is done
+        if (pendingStage == null || !game.assets.manager.update()) return;
+
+        StageData previousStage = stage;
+        setStage(pendingStage);
+        pendingStage = null;
+        // free the previous stage's textures so only one stage is ever in memory
+        game.assets.unloadStage(previousStage);
+
+        // fighters may be outside the new walkable area, start over
+        startGame();
     }
 
     private void setupFonts() {
@@ -160,41 +257,33 @@ public class GameScreen implements Screen, InputProcessor {
     private void createButtons() {
         // get button texture atlas from asset manager
         TextureAtlas buttonTextureAtlas = game.assets.manager.get(Assets.GAMEPLAY_BUTTONS_ATLAS);
+        float textureScale = game.assets.getTextureScale();
 
         // END OF ROUND MENU
         // create the 'play again' button
         playAgainButtonSprite = new Sprite(buttonTextureAtlas.findRegion("PlayAgainButton")); // this text is inside the atlas file
-        playAgainButtonSprite.setSize(playAgainButtonSprite.getWidth() * GlobalVariables.WORLD_SCALE,
-            playAgainButtonSprite.getHeight() * GlobalVariables.WORLD_SCALE);
+        playAgainButtonSprite.setSize(playAgainButtonSprite.getWidth() * textureScale,
+            playAgainButtonSprite.getHeight() * textureScale);
         // create Main menu button
         mainMenuButtonSprite = new Sprite(buttonTextureAtlas.findRegion("MainMenuButton"));
-        mainMenuButtonSprite.setSize(mainMenuButtonSprite.getWidth() * GlobalVariables.WORLD_SCALE,
-            mainMenuButtonSprite.getHeight() * GlobalVariables.WORLD_SCALE);
+        mainMenuButtonSprite.setSize(mainMenuButtonSprite.getWidth() * textureScale,
+            mainMenuButtonSprite.getHeight() * textureScale);
 
         // PAUSE MENU
         // create continue menu button
         continueButtonSprite = new Sprite(buttonTextureAtlas.findRegion("ContinueButton"));
-        continueButtonSprite.setSize(continueButtonSprite.getWidth() * GlobalVariables.WORLD_SCALE,
-            continueButtonSprite.getHeight() * GlobalVariables.WORLD_SCALE);
+        continueButtonSprite.setSize(continueButtonSprite.getWidth() * textureScale,
+            continueButtonSprite.getHeight() * textureScale);
         // create pause menu button
         pauseButtonSprite = new Sprite(buttonTextureAtlas.findRegion("PauseButton"));
-        pauseButtonSprite.setSize(pauseButtonSprite.getWidth() * GlobalVariables.WORLD_SCALE,
-            pauseButtonSprite.getHeight() * GlobalVariables.WORLD_SCALE);
+        pauseButtonSprite.setSize(pauseButtonSprite.getWidth() * textureScale,
+            pauseButtonSprite.getHeight() * textureScale);
     }
 
-    private void createBlood() {
-        // init splatters
-        playerBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-        opponentBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i] = new BloodSplatter(game);
-            opponentBloodSplatters[i] = new BloodSplatter(game);
-        }
-
-        // set current blood splatter indexes to the start of the arrays
-        currentOpponentBloodSplatterIndex = 0;
-        currentPlayerBloodSplatterIndex = 0;
+    @Override
+    public boolean prepare() {
+        // a stage that was still streaming in when the menu came up finishes during the fade
+        return pendingStage == null || game.assets.manager.update();
     }
 
     @Override
@@ -202,21 +291,49 @@ public class GameScreen implements Screen, InputProcessor {
         // have this GameScreen handle inputs
         Gdx.input.setInputProcessor(this);
 
-        // start the game
+        if (replay != null) {
+            // no simulation thread, render() plays the replay
+            gameState = GameState.RUNNING;
+            matchRunner.startReplay(replay);
+            return;
+        }
+        if (spectator != null) {
+            // no simulation at all, render() shows the broadcast. Sounds only for what happens from now on
+            gameState = GameState.RUNNING;
+            snapshot = spectator.update(0f);
+            playedHits = snapshot.hits;
+            playedBlocks = snapshot.blocks;
+            playedRoundWins = snapshot.roundWins;
+            playedRoundLosses = snapshot.roundLosses;
+            return;
+        }
+
+        if (game.benchmark == null && game.soak == null) {
+            // a new match from the menus, with what the settings screen says
+            showingBlood = game.settings.isBloodShown();
+            matchRunner.setDifficulty(game.settings.getDifficulty());
+        }
+
+        // start the simulation thread, the second time from the menus it's already running
+        if (game.benchmark == null) {
+            matchRunner.start(matchSeeds.nextLong());
+        } else {
+            matchRunner.startStepped(matchSeeds.nextLong()); // one tick per frame, see render()
+        }
         startGame();
     }
 
     private void startGame() {
         gameState = GameState.RUNNING;
-        roundsWon = roundsLost = 0;
+        thawFrame();
 
         // start round 1
-        currentRound = 1;
-        startRound();
+        matchRunner.startMatch(++matchGeneration, matchSeeds.nextLong());
     }
 
     private void pauseGame() {
         gameState = GameState.PAUSED;
+        matchRunner.setPaused(true);
 
         // pause game sounds and music
         game.audioManager.pauseGameSounds();
@@ -225,55 +342,231 @@ public class GameScreen implements Screen, InputProcessor {
 
     private void resumeGame() {
         gameState = GameState.RUNNING;
+        thawFrame();
+        matchRunner.setPaused(false);
         // resume game sounds and music if enabled
         game.audioManager.resumeGameSounds();
         game.audioManager.playMusic();
     }
 
-    private void startRound() {
-        // ready fighters
-        game.player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
-        game.opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
-        // start the round
-        roundState = RoundState.STARTING;
-        roundStateTime = 0f;
-        roundTimer = MAX_ROUND_TIME;
+    /**
+     * play sounds and get the crowd going for match events that happened since the last snapshot
+     */
+    private void reactToMatchEvents() {
+        if (snapshot.blocks != playedBlocks) {
+            game.audioManager.playSound(Assets.BLOCK_SOUND);
+        }
+        if (snapshot.hits != playedHits) {
+            game.audioManager.playSound(Assets.HIT_SOUND);
+            if (crowd != null) crowd.excite();
+        }
+        if (snapshot.roundWins != playedRoundWins) {
+            // play cheer sound
+            game.audioManager.playSound(Assets.CHEER_SOUND);
+            if (crowd != null) crowd.cheer();
+        }
+        if (snapshot.roundLosses != playedRoundLosses) {
+            // play boo sound
+            game.audioManager.playSound(Assets.BOO_SOUND);
+            if (crowd != null) crowd.boo();
+        }
+        playedBlocks = snapshot.blocks;
+        playedHits = snapshot.hits;
+        playedRoundWins = snapshot.roundWins;
+        playedRoundLosses = snapshot.roundLosses;
+    }
+
+    @Override
+    public void render(float delta) {
+        if (game.soak != null) {
+            updateSoak(delta);
+        }
+
+        // the tuning file was edited, the simulation switches over between two ticks
+        Tuning tuning = game.tuning.poll();
+        if (tuning != null) {
+            matchRunner.setTuning(tuning);
+        }
+
+        // swap in the next stage once its textures are loaded
+        if (pendingStage != null) {
+            updateStageLoading();
+            Gdx.graphics.requestRendering(); // keep frames coming while loading, even when paused
+        }
+
+        if (gameState == GameState.RUNNING || snapshot == null) {
+            // pick up the newest state of the match, the simulation thread keeps going on its own
+            if (replay != null) {
+                updateReplay(delta);
+            } else if (game.benchmark != null && gameState == GameState.RUNNING) {
+                matchRunner.step(); // benchmark runs have no simulation thread
+            }
+            snapshot = spectator == null ? matchRunner.getSnapshot() : spectator.update(delta);
+            if (snapshot.inputEventTime != 0 && snapshot.inputEventTime != latencyEventTime && !latencyPending) {
+                latencyEventTime = snapshot.inputEventTime;
+                latencyAppliedTime = snapshot.inputAppliedTime;
+                latencyPending = true;
+            }
+            reactToMatchEvents();
+            if (crowd != null) {
+                // benchmark frames are a tick apart whatever the frame rate
+                crowd.update(game.benchmark == null ? delta : MatchRunner.TICK_DURATION);
+            }
+            if (replay == null && spectator == null && gameState == GameState.RUNNING && snapshot.over &&
+                snapshot.generation == matchGeneration) {
+                if (game.benchmark == null && game.soak == null) {
+                    gameState = GameState.GAME_OVER;
+                } else {
+                    startGame(); // scripted matches go on until the benchmark or soak is done
+                }
+            }
+        }
+
+        if (gameState == GameState.RUNNING) {
+            renderScene();
+        } else {
+            // paused or game over, the scene only changes on input
+            if (!frameFrozen) {
+                freezeFrame();
+            }
+            presentFrozenFrame();
+        }
+
+        lastRenderCalls = game.batch.totalRenderCalls - lastTotalRenderCalls + crowdRenderCalls;
+        game.profiler.frameEnded(lastRenderCalls, countActiveEffects());
+        lastTotalRenderCalls = game.batch.totalRenderCalls;
+        crowdRenderCalls = 0;
+
+        if (latencyPending && latencySubmittedTime == 0) {
+            // the backend swaps buffers once render returns, then runs the posted runnables
+            latencySubmittedTime = System.nanoTime();
+            Gdx.app.postRunnable(recordPresentedInput);
+        }
+
+        if (showingDebugOverlay) {
+            updateDebugOverlay(delta);
+        }
     }
 
-    private void endRound() {
-        roundState = RoundState.ENDING;
-        roundStateTime = 0f;
+    /**
+     * do what the soak script says, like a player would with the keyboard
+     */
+    private void updateSoak(float delta) {
+        switch (game.soak.update(delta)) {
+            case RESTART:
+                if (gameState == GameState.RUNNING) startGame();
+                break;
+            case PAUSE:
+                if (gameState == GameState.RUNNING) pauseGame();
+                break;
+            case RESUME:
+                if (gameState == GameState.PAUSED) resumeGame();
+                break;
+            case CYCLE_DIFFICULTY:
+                cycleDifficulty();
+                break;
+            case TOGGLE_MUSIC:
+                game.audioManager.toggleMusic();
+                break;
+            case SWITCH_STAGE:
+                switchToNextStage();
+                break;
+            default:
+                break;
+        }
+        if (gameState != GameState.RUNNING) {
+            Gdx.graphics.requestRendering(); // the script's clock runs on frames, keep them coming while paused
+        }
     }
 
-    private void winRound() {
-        // player wins the round
-        game.player.win();
-        game.opponent.lose();
-        roundsWon++;
+    /**
+     * move the replay on by the frame's time at the playback speed. Short steps forward are simulated tick by tick,
+     * anything else jumps
+     */
+    private void updateReplay(float delta) {
+        long tickCount = replay.getTickCount();
+        if (!replayPaused) {
+            replayTicks += delta * replaySpeed * MatchRunner.TICK_RATE;
+        }
+        if (replayTicks <= 0 || replayTicks >= tickCount) {
+            // stop at either end
+            replayTicks = Math.max(0, Math.min(replayTicks, tickCount));
+            replaySpeed = 1f;
+            replayPaused = replayPaused || replayTicks >= tickCount;
+        }
 
-        // play cheer sound
-        game.audioManager.playSound(Assets.CHEER_SOUND);
+        long target = (long) replayTicks;
+        long current = matchRunner.getSnapshot().matchTick;
+        if (target > current && target - current <= replay.getKeyframeInterval()) {
+            for (long tick = current; tick < target; tick++) {
+                matchRunner.step();
+            }
+        } else if (target != current) {
+            matchRunner.seek(target);
+            // no sounds for everything that happened on the way
+            MatchSnapshot jumped = matchRunner.getSnapshot();
+            playedHits = jumped.hits;
+            playedBlocks = jumped.blocks;
+            playedRoundWins = jumped.roundWins;
+            playedRoundLosses = jumped.roundLosses;
+        }
+    }
 
-        endRound();
+    /**
+     * move the paused replay by whole ticks
+     */
+    private void stepReplay(int ticks) {
+        replayPaused = true;
+        replayTicks = Math.max(0, Math.min((long) replayTicks + ticks, replay.getTickCount()));
     }
 
-    private void loseRound() {
-        game.player.lose();
-        game.opponent.win();
-        roundsLost++;
+    /**
+     * draw the scene once into the frozen frame buffer and stop continuous rendering. Input events still trigger
+     * frames, they only re-present the buffer
+     */
+    private void freezeFrame() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if (frozenFrame == null || frozenFrame.getWidth() != width || frozenFrame.getHeight() != height) {
+            if (frozenFrame != null) {
+                frozenFrame.dispose();
+                game.resources.release(frozenFrame);
+            }
+            frozenFrame = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+            game.resources.track(frozenFrame, ResourceTracker.Type.FRAME_BUFFER, RESOURCE_ORIGIN, "frozen frame",
+                ResourceTracker.textureBytes(frozenFrame.getColorBufferTexture()));
+        }
 
-        // play boo sound
-        game.audioManager.playSound(Assets.BOO_SOUND);
+        frozenFrame.begin();
+        renderScene();
+        frozenFrame.end(); // also resets the GL viewport to the whole window
 
-        endRound();
+        frameFrozen = true;
+        Gdx.graphics.setContinuousRendering(false);
     }
 
-    @Override
-    public void render(float delta) {
+    private void presentFrozenFrame() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
         ScreenUtils.clear(0, 0, 0, 1);
+        game.batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        game.batch.begin();
+        // frame buffer textures are upside down
+        game.batch.draw(frozenFrame.getColorBufferTexture(), 0, 0, width, height, 0, 0, width, height, false, true);
+        game.batch.end();
+    }
 
-        // update the game if not paused
-        update(gameState == GameState.RUNNING ? delta : 0f); // 0f freezes the game
+    /**
+     * go back to drawing every frame
+     */
+    private void thawFrame() {
+        frameFrozen = false;
+        Gdx.graphics.setContinuousRendering(true);
+    }
+
+    private void renderScene() {
+        ScreenUtils.clear(0, 0, 0, 1);
+        viewport.apply(); // the frozen frame draws to the whole window
 
         // set the sprite batch and the shape renderer to use our camera
         game.batch.setProjectionMatrix(viewport.getCamera().combined);
@@ -282,27 +575,50 @@ public class GameScreen implements Screen, InputProcessor {
         // begin drawing
         game.batch.begin();
 
-        // draw the background at half its image size
-        game.batch.draw(backgroundTexture, 0, 0, backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE, backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE);
-
-        // draw the fighters
+        // queue the world and draw it sorted by layer and depth
+        game.profiler.begin(FramePhase.FIGHTER_RENDER);
+        // the background at its image size in world units
+        float textureScale = game.assets.getTextureScale();
+        renderQueue.add(RenderQueue.LAYER_BACKGROUND, backgroundRegion, 0, 0,
+            backgroundRegion.getRegionWidth() * textureScale, backgroundRegion.getRegionHeight() * textureScale);
+        if (crowd != null) {
+            // the stands go between the background and the ring, drawn from their own sprite cache
+            renderQueue.submit(game.batch);
+            game.batch.end();
+            crowd.render(viewport.getCamera().combined);
+            crowdRenderCalls += crowd.getRenderCalls();
+            game.batch.begin();
+        }
         renderFighters();
-
-        // draw the front ropes layer after righters so that it is rendered over them
-        game.batch.draw(frontRopeTexture, 0, 0, frontRopeTexture.getWidth() * GlobalVariables.WORLD_SCALE, frontRopeTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        // the foreground layer (e.g. front ropes) goes over the fighters
+        if (foregroundRegion != null) {
+            renderQueue.add(RenderQueue.LAYER_FOREGROUND, foregroundRegion, 0, 0,
+                foregroundRegion.getRegionWidth() * textureScale, foregroundRegion.getRegionHeight() * textureScale);
+        }
+        renderQueue.submit(game.batch);
+        game.profiler.end(FramePhase.FIGHTER_RENDER);
 
         // draw the HUD
+        game.profiler.begin(FramePhase.HUD);
         renderHud();
 
-        // draw pause menu
-        renderPauseButtons();
+        // draw pause menu, a replay has its own controls and spectators can't pause
+        if (replay != null) {
+            renderReplayControls();
+        } else if (spectator != null) {
+            renderSpectatorStatus();
+        } else {
+            renderPauseButtons();
+        }
+        game.profiler.end(FramePhase.HUD);
 
         // handle Round Over
+        game.profiler.begin(FramePhase.OVERLAYS);
         if (gameState == GameState.GAME_OVER) {
             renderGameOverOverlay();
         } else {
             // if the round starting, draw the start round text
-            if (roundState == RoundState.STARTING) {
+            if (snapshot.roundState == Match.RoundState.STARTING) {
                 renderStartRoundText();
             }
 
@@ -311,55 +627,59 @@ public class GameScreen implements Screen, InputProcessor {
                 renderPauseOverlay();
             }
         }
+        if (showingDebugOverlay) {
+            renderDebugOverlay();
+        }
 
         // end drawing
         game.batch.end();
+        game.profiler.end(FramePhase.OVERLAYS);
+    }
 
+    private int countActiveEffects() {
+        if (!showingBlood) return 0;
+        int activeEffects = 0;
+        for (boolean active : snapshot.bloodActive) {
+            if (active) activeEffects++;
+        }
+        return activeEffects;
     }
 
     private void renderFighters() {
-        // use the y coordinates to determine which fighter and bloodsplatter sprite is in front
-        if (game.player.getPosition().y > game.opponent.getPosition().y) {
-            game.player.render(game.batch);  // draw player first
-            renderBloodSplatters(playerBloodSplatters); // render bloodsplatters if enabled
-            game.opponent.render(game.batch);
-            renderBloodSplatters(opponentBloodSplatters);
-        } else {
-            game.opponent.render(game.batch);  // draw opponent first
-            renderBloodSplatters(opponentBloodSplatters);
-            game.player.render(game.batch);
-            renderBloodSplatters(playerBloodSplatters);
-        }
+        // the render queue puts whichever fighter is further up the stage behind the other
+        renderFighter(game.player, snapshot.player);
+        renderBloodSplatters(0, snapshot.player.y); // render bloodsplatters if enabled
+        renderFighter(game.opponent, snapshot.opponent);
+        renderBloodSplatters(MatchRunner.BLOOD_SPLATTER_AMOUNT, snapshot.opponent.y);
+    }
 
+    private void renderFighter(Fighter fighter, MatchSnapshot.FighterSnapshot fighterSnapshot) {
+        fighter.render(renderQueue, fighterSnapshot.x, fighterSnapshot.y, fighterSnapshot.state,
+            fighterSnapshot.stateTime, fighterSnapshot.facing);
     }
 
-    private void renderBloodSplatters(BloodSplatter[] bloodSplatters) {
+    /**
+     * queue a side's splatters at the depth of their fighter, so they stay in front of it
+     */
+    private void renderBloodSplatters(int firstIndex, float depth) {
         if (showingBlood) {
-            for (BloodSplatter bloodSplatter : bloodSplatters) {
-                bloodSplatter.render(game.batch);
+            for (int i = firstIndex; i < firstIndex + MatchRunner.BLOOD_SPLATTER_AMOUNT; i++) {
+                if (snapshot.bloodActive[i]) {
+                    bloodSplatter.render(renderQueue, depth, snapshot.bloodX[i], snapshot.bloodY[i], snapshot.bloodTime[i]);
+                }
             }
         }
     }
 
     private void renderHud() {
         float HUDMargin = 1f;
+        hudText.update(snapshot);
 
         // Draw the rounds won / lost ratio
-        smallFont.draw(game.batch, "WINS: " + roundsWon + " - " + roundsLost, HUDMargin, viewport.getWorldHeight() - HUDMargin);
+        smallFont.draw(game.batch, hudText.getWins(), HUDMargin, viewport.getWorldHeight() - HUDMargin);
 
         // draw difficulty setting
-        String text = "DIFFICULTY: ";
-        switch (difficulty) {
-            case EASY:
-                text += "EASY";
-                break;
-            case MEDIUM:
-                text += "MEDIUM";
-                break;
-            default:
-                text += "HARD";
-        }
-        smallFont.draw(game.batch, text, viewport.getWorldWidth() - HUDMargin,
+        smallFont.draw(game.batch, hudText.getDifficulty(), viewport.getWorldWidth() - HUDMargin,
             viewport.getWorldHeight() - HUDMargin, 0, Align.right, false);
 
         // setup layout sizes and positioning
@@ -386,9 +706,9 @@ public class GameScreen implements Screen, InputProcessor {
 
         // draw health bar rectangles
         game.shapeRenderer.setColor(HEALTH_BAR_COLOR);
-        float healthbarWidth = healthbarMaxWidth * game.player.getLife() / Fighter.MAX_LIFE;
+        float healthbarWidth = healthbarMaxWidth * snapshot.player.life / Fighter.MAX_LIFE;
         game.shapeRenderer.rect(HUDMargin + healthbarBackgroundPadding, healthbarPosY, healthbarWidth, healthbarHeight);
-        healthbarWidth = healthbarMaxWidth * game.opponent.getLife() / Fighter.MAX_LIFE;
+        healthbarWidth = healthbarMaxWidth * snapshot.opponent.life / Fighter.MAX_LIFE;
         game.shapeRenderer.rect(viewport.getWorldWidth() - HUDMargin - healthbarBackgroundPadding - healthbarWidth,
             healthbarPosY, healthbarWidth, healthbarHeight);
 
@@ -402,10 +722,10 @@ public class GameScreen implements Screen, InputProcessor {
             healthbarBackgroundPadding - healthbarPadding, fighterNamePosY, 0, Align.right, false);
 
         // draw the round timer
-        if (roundTimer < CRITICAL_ROUND_TIME) {
+        if (snapshot.roundTimer < CRITICAL_ROUND_TIME) {
             mediumFont.setColor(CRITICAL_ROUND_TIME_COLOR);
         }
-        mediumFont.draw(game.batch, String.format(Locale.getDefault(), "%02d", (int) roundTimer), // pad numbers less than 10 with a leading 0
+        mediumFont.draw(game.batch, hudText.getRoundTimer(),
             viewport.getWorldWidth() / 2f - mediumFont.getSpaceXadvance() * 2.3f, // makes digits not move around due to size diff
             viewport.getWorldHeight() - HUDMargin);
         mediumFont.setColor(DEFAULT_FONT_COLOR); // reset font color in case it was turned red due to crit round timer
@@ -413,13 +733,8 @@ public class GameScreen implements Screen, InputProcessor {
     }
 
     private void renderStartRoundText() {
-        String text;
-        if (roundStateTime < START_ROUND_DELAY * 0.5f) { // text lasts only half of the start round delay duration
-            text = "ROUND " + currentRound;
-        } else {
-            text = "FIGHT!";
-        }
-        mediumFont.draw(game.batch, text, viewport.getWorldWidth() / 2f, viewport.getWorldHeight() / 2f,
+        // "ROUND n" for half of the start round delay, then "FIGHT!"
+        mediumFont.draw(game.batch, hudText.getRoundAnnouncement(), viewport.getWorldWidth() / 2f, viewport.getWorldHeight() / 2f,
             0, Align.center, false);
     }
 
@@ -429,6 +744,38 @@ public class GameScreen implements Screen, InputProcessor {
         pauseButtonSprite.draw(game.batch);
     }
 
+    private void renderReplayControls() {
+        replayText.setLength(0);
+        replayText.append("REPLAY ");
+        appendReplayTime(snapshot.matchTick);
+        replayText.append(" / ");
+        appendReplayTime(replay.getTickCount());
+        if (replayPaused) {
+            replayText.append("   PAUSED");
+        } else if (replaySpeed != 1f) {
+            replayText.append("   ").append(replaySpeed < 0f ? "<< " : ">> ").append((int) Math.abs(replaySpeed)).append('x');
+        }
+        if (matchRunner.getReplayDesyncTick() >= 0) {
+            // the rules changed since it was recorded
+            replayText.append("   PLAYS DIFFERENTLY FROM ");
+            appendReplayTime(matchRunner.getReplayDesyncTick());
+        }
+        smallFont.draw(game.batch, replayText, viewport.getWorldWidth() / 2f, PAUSE_BUTTON_MARGIN + smallFont.getCapHeight(),
+            0, Align.center, false);
+    }
+
+    private void renderSpectatorStatus() {
+        smallFont.draw(game.batch, spectator.isConnected() ? "SPECTATING" : "BROADCAST ENDED",
+            viewport.getWorldWidth() / 2f, PAUSE_BUTTON_MARGIN + smallFont.getCapHeight(), 0, Align.center, false);
+    }
+
+    private void appendReplayTime(long ticks) {
+        long tenths = ticks * 10 / MatchRunner.TICK_RATE;
+        long seconds = tenths / 10 % 60;
+        replayText.append(tenths / 600).append(':').append(seconds < 10 ? "0" : "").append(seconds)
+            .append('.').append(tenths % 10);
+    }
+
     private void renderGameOverOverlay() {
         // darken screen and add transparency
         game.batch.end();
@@ -460,7 +807,7 @@ public class GameScreen implements Screen, InputProcessor {
         playAgainButtonSprite.draw(game.batch);
 
         // draw the end of fight text
-        String text = roundsWon > roundsLost ? "YOU WON!" : "YOU LOST!";
+        String text = snapshot.roundsWon > snapshot.roundsLost ? "YOU WON!" : "YOU LOST!";
         largeFont.draw(game.batch, text, viewport.getWorldWidth() / 2f,
             playAgainButtonSprite.getY() + playAgainButtonSprite.getHeight() +
                 textMarginBottom + largeFont.getCapHeight(), 0, Align.center, false);
@@ -502,326 +849,114 @@ public class GameScreen implements Screen, InputProcessor {
                 textMarginBottom + largeFont.getCapHeight(), 0, Align.center, false);
     }
 
-    private void update(float delta) {
-        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
-            // if start round delay has been reached, start the fight
-            roundState = RoundState.IN_PROGRESS;
-            roundStateTime = 0f;
-        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
-            // if end round delay has been reached and player has won or lost more than half of the max number of rounds
-            // end the game; otherwise start the next round
-            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
-                gameState = GameState.GAME_OVER;
-            } else {
-                currentRound++;
-                startRound();
-            }
-        } else {
-            // increment the round state time by delta time
-            roundStateTime += delta;
+    /**
+     * frame rate, live native resources, audio queue and input latency, rebuilt every refresh interval so the overlay doesn't allocate each frame
+     */
+    private void updateDebugOverlay(float delta) {
+        debugOverlayTime -= delta;
+        if (debugOverlayTime > 0f) return;
+        debugOverlayTime = DEBUG_OVERLAY_REFRESH_INTERVAL;
+
+        ResourceTracker resources = game.resources;
+        resources.refresh();
+        debugOverlayText.setLength(0);
+        debugOverlayLines = ResourceTracker.Type.values().length + 2;
+        debugOverlayText.append("FPS ").append(Gdx.graphics.getFramesPerSecond())
+            .append("   RENDER CALLS ").append(lastRenderCalls)
+            .append("   TEXTURE TIER ").append(game.assets.getTextureTier()).append('x');
+        for (ResourceTracker.Type type : ResourceTracker.Type.values()) {
+            debugOverlayText.append('\n').append(type).append(' ').append(resources.getCount(type))
+                .append("   ").append(ResourceTracker.formatBytes(resources.getBytes(type)));
         }
-
-
-        game.player.update(delta); // delta is the elapsed time since last screen render
-        game.opponent.update(delta);
-
-        // update the blood splatters
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i].update(delta);
-            opponentBloodSplatters[i].update(delta);
+        debugOverlayText.append("\nTOTAL ").append(ResourceTracker.formatBytes(resources.getTotalBytes()));
+        if (resources.getLeakCount() > 0) {
+            debugOverlayText.append("   LEAKED ").append(resources.getLeakCount());
         }
-
-        // make sure fighters are facing each other
-        if (game.player.getPosition().x <= game.opponent.getPosition().x) {
-            game.player.faceRight();
-            game.opponent.faceLeft();
-        } else {
-            game.player.faceLeft();
-            game.opponent.faceRight();
+        debugOverlayText.append("\nMATCH TICK ").append(snapshot.matchTick)
+            .append("   STATE HASH ").append(Long.toHexString(snapshot.stateHash).toUpperCase(Locale.ROOT));
+        debugOverlayLines++;
+        if (spectator != null) {
+            debugOverlayText.append("\nBROADCAST DELAY ").append(spectator.getDelayTicks()).append(" TICKS   FRAMES ")
+                .append(spectator.getFramesReceived()).append("   DROPPED ").append(spectator.getDroppedFrames());
+            debugOverlayLines++;
+        } else if (game.broadcaster != null) {
+            MatchBroadcaster broadcaster = game.broadcaster;
+            debugOverlayText.append("\nSPECTATORS ").append(broadcaster.getSpectatorCount()).append("   SENT ")
+                .append(ResourceTracker.formatBytes(broadcaster.getBytesSent()))
+                .append("   SKIPPED ").append(broadcaster.getSkippedFrames());
+            debugOverlayLines++;
         }
-
-        // keep fighters within ring boundaries
-        keepWithinRingBounds(game.player.getPosition());
-        keepWithinRingBounds(game.opponent.getPosition());
-
-        if (roundState == RoundState.IN_PROGRESS) {
-            // decrease timer if round in progress
-            roundTimer -= delta;
-            if (roundTimer <= 0f) {
-                // timout win decided by highest HP
-                if (game.player.getLife() >= game.opponent.getLife()) {
-                    winRound();
-                } else {
-                    loseRound();
-                }
-            }
-
-            // perform opponent AI action
-            performOpponentAi(delta);
-
-            // round in progress. Check if fighters are within contact distance
-            if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                if (game.player.isAttackActive()) {
-                    // PLAYER HITSCAN LOGIC
-                    // if within contact distance AND while attacking, apply hit
-                    game.opponent.getHit(Fighter.HIT_STRENGTH);
-
-                    if (game.opponent.isBlocking()) {
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-                        spillBlood(game.opponent);
-                    }
-
-                    // deactivate player attack after contact
-                    game.player.makeContact();
-
-                    // check if opponent has lost
-                    if (game.opponent.hasLost()) {
-                        winRound();
-                    }
-                } else if (game.opponent.isAttackActive()) {
-                    // OPPONENT HITSCAN LOGIC
-                    // if within contact distance AND while attacking, apply hit
-                    game.player.getHit(Fighter.HIT_STRENGTH);
-
-                    if (game.player.isBlocking()) {
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-                        spillBlood(game.player);
-                    }
-
-                    // deactivate opponent attack after contact
-                    game.opponent.makeContact();
-
-                    // check if player has lost
-                    if (game.player.hasLost()) {
-                        loseRound();
-                    }
-                }
-            }
+        AudioManager audio = game.audioManager;
+        debugOverlayText.append("\nAUDIO QUEUE ").append(audio.getQueueDepth())
+            .append(" MAX ").append(audio.getMaxQueueDepth()).append("   LATENCY ");
+        appendMillis(audio.getCommandLatency().getPercentileNanos(50));
+        debugOverlayText.append(" / ");
+        appendMillis(audio.getCommandLatency().getPercentileNanos(99));
+        debugOverlayText.append(" MS");
+        if (audio.getDroppedCommands() > 0) {
+            debugOverlayText.append("   DROPPED ").append(audio.getDroppedCommands());
         }
+        debugOverlayLines++;
+        appendInputLatency();
     }
 
-    private void spillBlood(Fighter fighter) {
-        // use given fighter to use the correct splatter array and current index
-        BloodSplatter[] bloodSplatters;
-        int currentBloodSplatterIndex;
-
-        if (fighter.equals(game.player)) {
-            bloodSplatters = playerBloodSplatters;
-            currentBloodSplatterIndex = currentPlayerBloodSplatterIndex;
-        } else {
-            bloodSplatters = opponentBloodSplatters;
-            currentBloodSplatterIndex = currentOpponentBloodSplatterIndex;
-        }
-
-        // activate current blood splatter in the array
-        bloodSplatters[currentBloodSplatterIndex].activate(
-            fighter.getPosition().x + BLOOD_SPLATTER_OFFSET_X,
-            fighter.getPosition().y + BLOOD_SPLATTER_OFFSET_Y);
-
-        // increment the correct current blood splatter index or return to the first if at end of the array
-        if (fighter.equals(game.player)) {
-            if (currentPlayerBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentPlayerBloodSplatterIndex++;
-            } else {
-                currentPlayerBloodSplatterIndex = 0; // reset back to the first
-            }
-        } else {
-            if (currentOpponentBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentOpponentBloodSplatterIndex++;
-            } else {
-                currentOpponentBloodSplatterIndex = 0; // reset back to the first
-            }
-        }
+    private void recordPresentedInput() {
+        game.inputLatency.record(latencyEventTime, latencyAppliedTime, latencySubmittedTime, System.nanoTime());
+        latencySubmittedTime = 0;
+        latencyPending = false;
     }
 
-    private void keepWithinRingBounds(Vector2 position) {
-        if (position.y < RING_MIN_Y) {
-            position.y = RING_MIN_Y;
-        } else if (position.y > RING_MAX_Y) {
-            position.y = RING_MAX_Y;
-        }
-        if (position.x < position.y / RING_SLOPE + RING_MIN_X) {
-            position.x = position.y / RING_SLOPE + RING_MIN_X;
-        } else if (position.x > position.y / -RING_SLOPE + RING_MAX_X) {
-            position.x = position.y / -RING_SLOPE + RING_MAX_X;
+    /**
+     * median and p99 of every input latency stage, and a histogram of the presented latency
+     */
+    private void appendInputLatency() {
+        InputLatency latency = game.inputLatency;
+        debugOverlayText.append("\nINPUT LATENCY   MEDIAN / P99");
+        debugOverlayLines++;
+        for (InputLatency.Stage stage : InputLatency.Stage.values()) {
+            debugOverlayText.append('\n').append(stage).append(' ');
+            appendMillis(latency.getPercentileNanos(stage, 50));
+            debugOverlayText.append(" / ");
+            appendMillis(latency.getPercentileNanos(stage, 99));
+            debugOverlayText.append(" MS");
+            debugOverlayLines++;
         }
-    }
-
-    private boolean areWithinContactDistance(Vector2 position1, Vector2 position2) {
-        // determine if contact is possible
-        float xDistance = Math.abs(position1.x - position2.x); // we want positive values only
-        float yDistance = Math.abs(position1.y - position2.y);
-        return xDistance <= FIGHTER_CONTACT_DISTANCE_X && yDistance <= FIGHTER_CONTACT_DISTANCE_Y;
-    }
 
-    private void performOpponentAi(float delta) {
-        // check if opponent is making a contact decision (attack, block, etc.)
-        if (opponentAiMakingcontactDecision) {
-            if (game.opponent.isBlocking()) {
-                // stop blocking if not within contact distance, if player isnt attacking or player has attacked and already made contact
-                if (!areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition()) ||
-                    !game.player.isAttacking() || game.player.hasMadeContact()) {
-                    game.opponent.stopBlocking();
-                }
-            } else if (!game.opponent.isAttacking()) {
-                // if opponent isnt currently attacking, check if within contact distance
-                if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                    if (opponentAiTimer <= 0f) {
-                        // make an AI contact decision after delay timer is up
-                        opponentAiMakeContactDecision();
-                    } else {
-                        // decrease the opponent AI timer by delta time
-                        opponentAiTimer -= delta;
-                    }
-                } else {
-                    // no decision if not within contact distance
-                    opponentAiMakingcontactDecision = false;
-                }
-            }
-        } else {
-            if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                // if within contact AND AI not currently making a decision
-                opponentAiMakeContactDecision();
-            } else {
-                if (opponentAiTimer <= 0f) {
-                    // pursue player or move to a random direction
-                    float pursueChance = difficulty == GlobalVariables.Difficulty.EASY ? OPPONENT_AI_PURSUE_CHANCE_EASY :
-                        difficulty == GlobalVariables.Difficulty.MEDIUM ? OPPONENT_AI_PURSUE_CHANCE_MEDIUM :
-                            OPPONENT_AI_PURSUE_CHANCE_HARD;
-                    if (MathUtils.random() <= pursueChance) {
-                        // opponent is pursuing player
-                        opponentAiPursuingPlayer = true;
-                        // move in the direction of the player
-                        opponentAiMoveTowardPlayer();
-                    } else {
-                        opponentAiPursuingPlayer = false;
-                        // move in a random direction
-                        opponentAiMoveRandomly();
-                    }
-                    // set timer to non-contact decision delay
-                    opponentAiTimer = OPPONENT_AI_NON_CONTACT_DECISION_DELAY;
-                } else {
-                    // if opponent is pursuing player, move in direction of the player
-                    if (opponentAiPursuingPlayer) {
-                        opponentAiMoveTowardPlayer();
-                    }
-                    opponentAiTimer -= delta; // decrease opponent AI Timer
-                }
+        long count = latency.getCount();
+        if (count == 0) return;
+        for (int row = 0; row < LATENCY_ROWS; row++) {
+            // the last row also holds everything slower
+            long from = row * LATENCY_ROW_NANOS;
+            long to = row == LATENCY_ROWS - 1 ? Long.MAX_VALUE : from + LATENCY_ROW_NANOS;
+            long samples = latency.getSamples(InputLatency.Stage.PRESENTED, from, to);
+            debugOverlayText.append('\n').append(row == LATENCY_ROWS - 1 ? ">" : "<");
+            appendMillis(row == LATENCY_ROWS - 1 ? from : to);
+            debugOverlayText.append(" MS ");
+            for (int i = (int) (samples * LATENCY_BAR_LENGTH / count); i > 0; i--) {
+                debugOverlayText.append('|');
             }
+            debugOverlayLines++;
         }
     }
 
-    private void opponentAiMakeContactDecision() {
-        opponentAiMakingcontactDecision = true;
-
-        //check if player is attacking
-        if (game.player.isAttacking()) {
-            // block or move away if attack hasnt made contact yet
-            if (!game.player.hasMadeContact()) {
-                if (MathUtils.random() <= OPPONENT_AI_BLOCK_CHANCE) {
-                    game.opponent.block();
-                } else {
-                    opponentAiMoveAwayFromPlayer();
-                }
-            }
-        } else {
-            // attack or move away if player isnt attacking
-            if (MathUtils.random() <= OPPONENT_AI_ATTACK_CHANCE) {
-                if (MathUtils.random(1) == 0) {
-                    game.opponent.punch();
-                } else { // 50/50 chance to punch or kick
-                    game.opponent.kick();
-                }
-            } else {
-                opponentAiMoveAwayFromPlayer();
-            }
-        }
-
-        // set the opponent AI timer based on difficulty
-        switch (difficulty) {
-            case EASY:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_EASY;
-                break;
-            case MEDIUM:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM;
-                break;
-            case HARD:
-            default:
-                opponentAiTimer = OPPONENT_AI_CONTACT_DECISION_DELAY_HARD;
-        }
+    private void appendMillis(long nanos) {
+        debugOverlayText.append(nanos / 1_000_000L).append('.').append(nanos / 100_000L % 10);
     }
 
-    private void opponentAiMoveTowardPlayer() {
-        Vector2 playerPos = game.player.getPosition();
-        Vector2 opponentPos = game.opponent.getPosition();
-
-        // check X position
-        if (opponentPos.x > playerPos.x + FIGHTER_CONTACT_DISTANCE_X) {
-            game.opponent.moveLeft();
-        } else if (opponentPos.x < playerPos.x - FIGHTER_CONTACT_DISTANCE_X) {
-            game.opponent.moveRight();
-        } else {
-            game.opponent.stopMovingLeft();
-            game.opponent.stopMovingRight();
-        }
-        // check Y position
-        if (opponentPos.y < playerPos.y + FIGHTER_CONTACT_DISTANCE_Y) {
-            game.opponent.moveUp();
-        } else if (opponentPos.y > playerPos.y - FIGHTER_CONTACT_DISTANCE_Y) {
-            game.opponent.moveDown();
-        } else {
-            game.opponent.stopMovingUp();
-            game.opponent.stopMovingDown();
-        }
+    private void renderDebugOverlay() {
+        float margin = 1f;
+        smallFont.draw(game.batch, debugOverlayText, margin, margin + smallFont.getLineHeight() * debugOverlayLines);
     }
 
-    private void opponentAiMoveRandomly() {
-        // random x move
-        switch (MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveLeft();
-                break;
-            case 1:
-                game.opponent.moveRight();
-                break;
-            case 2:
-            default:
-                game.opponent.stopMovingLeft();
-                game.opponent.stopMovingRight();
-        }
-        // random y move
-        switch (MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveUp();
-                break;
-            case 1:
-                game.opponent.moveDown();
-                break;
-            case 2:
-            default:
-                game.opponent.stopMovingUp();
-                game.opponent.stopMovingDown();
-        }
-    }
-
-    private void opponentAiMoveAwayFromPlayer() {
-        Vector2 playerPos = game.player.getPosition();
-        Vector2 opponentPos = game.opponent.getPosition();
-
-        if (opponentPos.x > playerPos.x) {
-            game.opponent.moveRight();
-        } else {
-            game.opponent.moveLeft();
-        }
-        if (opponentPos.y > playerPos.y) {
-            game.opponent.moveUp();
-        } else {
-            game.opponent.moveDown();
+    private void toggleDebugOverlay() {
+        showingDebugOverlay = !showingDebugOverlay;
+        debugOverlayTime = 0f; // refresh right away
+        if (showingDebugOverlay) {
+            updateDebugOverlay(0f);
         }
+        // a paused game shows the frozen frame, draw it again with or without the overlay
+        frameFrozen = false;
+        Gdx.graphics.requestRendering();
     }
 
     @Override
@@ -829,12 +964,16 @@ public class GameScreen implements Screen, InputProcessor {
         // this method is also called the first time the game 8window is opened
         // update the viewport with the new screen size
         viewport.update(width, height, true);
+        // redraw the frozen frame at the new size
+        frameFrozen = false;
     }
 
     @Override
     public void pause() {
         // pause game when minimized
-        if (gameState == GameState.RUNNING) {
+        if (replay != null) {
+            replayPaused = true;
+        } else if (spectator == null && gameState == GameState.RUNNING) {
             pauseGame();
         }
 
@@ -849,24 +988,42 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void hide() {
-
+        // back to the menus, the simulation thread sleeps until show() starts the next match
+        if (replay == null && spectator == null && gameState == GameState.RUNNING) {
+            matchRunner.setPaused(true);
+        }
+        game.audioManager.stopGameSounds();
+        game.audioManager.playMusic(); // the pause menu paused it
+        thawFrame();
     }
 
     @Override
     public void dispose() {
-
+        // stop the simulation thread
+        matchRunner.stop();
+        if (frozenFrame != null) {
+            frozenFrame.dispose();
+            game.resources.release(frozenFrame);
+        }
+        if (crowd != null) {
+            crowd.dispose();
+            game.resources.release(crowd);
+        }
+        // anything of this screen still alive now is a leak
+        game.resources.ownerDisposed(RESOURCE_ORIGIN);
     }
 
     @Override
     public boolean keyDown(int keycode) {
-        if (keycode == Input.Keys.ENTER) {
+        game.profiler.begin(FramePhase.INPUT);
+        if (replay != null) {
+            replayKeyDown(keycode);
+        } else if (spectator != null) {
+            spectatorKeyDown(keycode);
+        } else if (keycode == Input.Keys.ENTER) {
             if (gameState == GameState.RUNNING) {
                 // skip round delay
-                if (roundState == RoundState.STARTING) {
-                    roundStateTime = START_ROUND_DELAY;
-                } else if (roundState == RoundState.ENDING) {
-                    roundStateTime = END_ROUND_DELAY;
-                }
+                sendInput(InputCommand.SKIP_ROUND_DELAY);
             } else if (gameState == GameState.GAME_OVER) {
                 // if game over and key is pressed, restart the game
                 startGame();
@@ -881,74 +1038,157 @@ public class GameScreen implements Screen, InputProcessor {
         } else if (keycode == Input.Keys.M) {
             // togle music on or off
             game.audioManager.toggleMusic();
+        } else if (keycode == Input.Keys.F3) {
+            toggleDebugOverlay();
+        } else if (keycode == Input.Keys.F4) {
+            // log every live native resource
+            Gdx.app.log("ResourceTracker", game.resources.dump());
+        } else if (keycode == Input.Keys.B) {
+            // switch to the next stage
+            switchToNextStage();
         } else if (keycode == Input.Keys.N) {
-            // switch difficulty
-            switch (difficulty) {
-                case EASY:
-                    difficulty = GlobalVariables.Difficulty.MEDIUM;
-                    break;
-                case MEDIUM:
-                    difficulty = GlobalVariables.Difficulty.HARD;
-                    break;
-                case HARD:
-                default:
-                    difficulty = GlobalVariables.Difficulty.EASY;
-                    break;
-            }
+            cycleDifficulty();
         } else {
-            // Enable fight controls
-            if (roundState == RoundState.IN_PROGRESS) {
-                // check for player movement key
-                if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-                    game.player.moveLeft();
-                } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-                    game.player.moveRight();
-                }
-                // separate if for vertical movement to allow players to move both horiz or vert simultaneously
-                if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-                    game.player.moveUp();
-                } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-                    game.player.moveDown();
-                }
+            // fight controls, the simulation only starts movement while the round is in progress
+            // check for player movement key
+            if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
+                sendInput(InputCommand.MOVE_LEFT);
+            } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
+                sendInput(InputCommand.MOVE_RIGHT);
+            }
+            // separate if for vertical movement to allow players to move both horiz or vert simultaneously
+            if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
+                sendInput(InputCommand.MOVE_UP);
+            } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
+                sendInput(InputCommand.MOVE_DOWN);
             }
 
 
             // attack / block
             if (keycode == Input.Keys.SPACE) {
-                game.player.block();
+                sendInput(InputCommand.BLOCK);
             } else if (keycode == Input.Keys.K) {
-                game.player.kick();
+                sendInput(InputCommand.KICK);
             } else if (keycode == Input.Keys.J) {
-                game.player.punch();
+                sendInput(InputCommand.PUNCH);
             }
         }
+        game.profiler.end(FramePhase.INPUT);
         return true; // means we have handled the key input here
     }
 
+    private void cycleDifficulty() {
+        // switch difficulty
+        switch (snapshot.difficulty) {
+            case EASY:
+                matchRunner.setDifficulty(GlobalVariables.Difficulty.MEDIUM);
+                break;
+            case MEDIUM:
+                matchRunner.setDifficulty(GlobalVariables.Difficulty.HARD);
+                break;
+            case HARD:
+            default:
+                matchRunner.setDifficulty(GlobalVariables.Difficulty.EASY);
+                break;
+        }
+    }
+
+    /**
+     * space pauses, the arrow keys held fast forward or rewind, period and comma step a tick while paused and home
+     * goes back to the start. Music and the debug keys work as in a match, nothing else changes a replay
+     */
+    private void replayKeyDown(int keycode) {
+        switch (keycode) {
+            case Input.Keys.SPACE:
+            case Input.Keys.P:
+                if (replayPaused && replayTicks >= replay.getTickCount()) {
+                    replayTicks = 0; // watch it again
+                }
+                replayPaused = !replayPaused;
+                break;
+            case Input.Keys.RIGHT:
+                replayPaused = false;
+                replaySpeed = REPLAY_FAST_SPEED;
+                break;
+            case Input.Keys.LEFT:
+                replayPaused = false;
+                replaySpeed = -REPLAY_FAST_SPEED;
+                break;
+            case Input.Keys.PERIOD:
+                stepReplay(1);
+                break;
+            case Input.Keys.COMMA:
+                stepReplay(-1);
+                break;
+            case Input.Keys.HOME:
+                replayTicks = 0;
+                break;
+            case Input.Keys.M:
+                game.audioManager.toggleMusic();
+                break;
+            case Input.Keys.F3:
+                toggleDebugOverlay();
+                break;
+            case Input.Keys.F4:
+                Gdx.app.log("ResourceTracker", game.resources.dump());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * spectators only get the keys that don't touch the match
+     */
+    private void spectatorKeyDown(int keycode) {
+        if (keycode == Input.Keys.M) {
+            game.audioManager.toggleMusic();
+        } else if (keycode == Input.Keys.F3) {
+            toggleDebugOverlay();
+        } else if (keycode == Input.Keys.F4) {
+            Gdx.app.log("ResourceTracker", game.resources.dump());
+        }
+    }
+
     @Override
     public boolean keyUp(int keycode) {
+        if (spectator != null) return true;
+        if (replay != null) {
+            if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.LEFT) {
+                replaySpeed = 1f;
+            }
+            return true;
+        }
+        game.profiler.begin(FramePhase.INPUT);
         // stop movement on key release
         if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-            game.player.stopMovingLeft();
+            sendInput(InputCommand.STOP_MOVING_LEFT);
         } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-            game.player.stopMovingRight();
+            sendInput(InputCommand.STOP_MOVING_RIGHT);
         }
         // separate if for vertical movement to allow players to move both horiz or vert simultaneously
         if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-            game.player.stopMovingUp();
+            sendInput(InputCommand.STOP_MOVING_UP);
         } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-            game.player.stopMovingDown();
+            sendInput(InputCommand.STOP_MOVING_DOWN);
         }
 
         // stop blocking on key release
         if (keycode == Input.Keys.SPACE) {
-            game.player.stopBlocking();
+            sendInput(InputCommand.STOP_BLOCKING);
         }
 
-
+        game.profiler.end(FramePhase.INPUT);
         return true;
     }
 
+    /**
+     * pass a control to the simulation thread, stamped with the time the input event happened
+     */
+    private void sendInput(InputCommand command) {
+        matchRunner.input(command, Gdx.input.getCurrentEventTime());
+    }
+
     @Override
     public boolean keyTyped(char character) {
         return false;
@@ -956,6 +1196,8 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        if (replay != null || spectator != null) return true; // keyboard only
+        game.profiler.begin(FramePhase.INPUT);
         // convert from top left pixels into world coordinates
         Vector3 position = new Vector3(screenX, screenY, 0);
         viewport.getCamera().unproject(position, viewport.getScreenX(), viewport.getScreenY(),
@@ -967,11 +1209,9 @@ public class GameScreen implements Screen, InputProcessor {
                 pauseGame();
                 // play click sound
                 game.audioManager.playSound(Assets.CLICK_SOUND);
-            } else if (roundState == RoundState.STARTING) {
-                // if the round is starting and screen has been clicked/touched, skip start round delay
-                roundStateTime = START_ROUND_DELAY;
-            } else if (roundState == RoundState.ENDING) {
-                roundStateTime = END_ROUND_DELAY; // same for round ending delay
+            } else {
+                // if the round is starting or ending and screen has been clicked/touched, skip the round delay
+                sendInput(InputCommand.SKIP_ROUND_DELAY);
             }
         } else {
             if (gameState == GameState.GAME_OVER &&
@@ -985,10 +1225,15 @@ public class GameScreen implements Screen, InputProcessor {
                 resumeGame();
                 // play click sound
                 game.audioManager.playSound(Assets.CLICK_SOUND);
+            } else if (mainMenuButtonSprite.getBoundingRectangle().contains(position.x, position.y)) {
+                // 'main menu' button clicked on the pause or game over overlay
+                game.audioManager.playSound(Assets.CLICK_SOUND);
+                game.screens.show(ScreenManager.ScreenType.MAIN_MENU);
             }
         }
 
 
+        game.profiler.end(FramePhase.INPUT);
         return true; // let system know our code has handled the key event
     }
 
@@ -0,0 +1,71 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.xtrife.sfs.Main;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:51 PM.
+ * The logo and the play, settings and quit buttons.
+ */
+public class MainMenuScreen extends MenuScreen {
+    private static final float LOGO_MARGIN_BOTTOM = 3f;
+    private static final float BUTTON_SPACING = 2f;
+
+    private final Sprite logoSprite;
+    private final Button playGameButton;
+    private final Button settingsButton;
+    private final Button quitGameButton;
+
+    public MainMenuScreen(Main game) {
+        super(game);
+        logoSprite = createSprite("Logo");
+        playGameButton = createButton("PlayGameButton");
+        settingsButton = createButton("SettingsButton");
+        quitGameButton = createButton("QuitGameButton");
+    }
+
+    @Override
+    protected void layout() {
+        // from bottom to top, centered
+        float layoutHeight = quitGameButton.getHeight() + settingsButton.getHeight() + playGameButton.getHeight() +
+            BUTTON_SPACING * 2f + LOGO_MARGIN_BOTTOM + logoSprite.getHeight();
+        float centerX = viewport.getWorldWidth() / 2f;
+        float y = viewport.getWorldHeight() / 2f - layoutHeight / 2f;
+        quitGameButton.setPosition(centerX - quitGameButton.getWidth() / 2f, y);
+        y += quitGameButton.getHeight() + BUTTON_SPACING;
+        settingsButton.setPosition(centerX - settingsButton.getWidth() / 2f, y);
+        y += settingsButton.getHeight() + BUTTON_SPACING;
+        playGameButton.setPosition(centerX - playGameButton.getWidth() / 2f, y);
+        y += playGameButton.getHeight() + LOGO_MARGIN_BOTTOM;
+        logoSprite.setPosition(centerX - logoSprite.getWidth() / 2f, y);
+    }
+
+    @Override
+    protected void draw(SpriteBatch batch) {
+        logoSprite.draw(batch);
+        playGameButton.draw(batch);
+        settingsButton.draw(batch);
+        quitGameButton.draw(batch);
+    }
+
+    @Override
+    protected Button findButton(float x, float y) {
+        if (playGameButton.contains(x, y)) return playGameButton;
+        if (settingsButton.contains(x, y)) return settingsButton;
+        if (quitGameButton.contains(x, y)) return quitGameButton;
+        return null;
+    }
+
+    @Override
+    protected void clicked(Button button) {
+        if (button == playGameButton) {
+            game.screens.show(ScreenManager.ScreenType.FIGHTER_SELECT);
+        } else if (button == settingsButton) {
+            game.screens.show(ScreenManager.ScreenType.SETTINGS);
+        } else {
+            Gdx.app.exit();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.Screen;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:40 PM.
+ * A screen the {@link ScreenManager} keeps for the whole game and switches to with a fade.
+ */
+public interface ManagedScreen extends Screen {
+    /**
+     * called every frame of the fade to this screen, after {@link #resize(int, int)}, until it returns true. Do the
+     * layout and finish any asset loads here a bit per frame, so {@link #show()} has nothing left to wait for
+     */
+    boolean prepare();
+}
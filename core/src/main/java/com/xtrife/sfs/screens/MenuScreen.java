@@ -0,0 +1,224 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.ExtendViewport;
+import com.xtrife.sfs.Main;
+import com.xtrife.sfs.resources.Assets;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:45 PM.
+ * Base of the menu screens: a still picture of sprites from the menu atlas, laid out once per window size and drawn
+ * only when input changes it. Buttons show their pressed sprite while held and act when released over them.
+ */
+public abstract class MenuScreen extends InputAdapter implements ManagedScreen {
+    private static final Color BACKGROUND_COLOR = new Color(0.12f, 0.1f, 0.08f, 1f);
+    // the menu art is drawn a bit smaller than the gameplay art, so the main menu fits the shortest world
+    private static final float MENU_ITEM_SCALE = 0.8f;
+
+    protected final Main game;
+    protected final ExtendViewport viewport;
+    private final TextureAtlas menuItemsAtlas;
+    private final float spriteScale;
+
+    private final Vector3 touch = new Vector3();
+    private Button pressedButton;
+    private int lastTotalRenderCalls;
+
+    protected MenuScreen(Main game) {
+        this.game = game;
+        // the same world as the game screen, so fonts and sprites have the same size on both
+        viewport = new ExtendViewport(GlobalVariables.WORLD_WIDTH, GlobalVariables.MIN_WORLD_HEIGHT,
+            GlobalVariables.WORLD_WIDTH, 0);
+        menuItemsAtlas = game.assets.manager.get(Assets.MENU_ITEMS_ATLAS);
+        spriteScale = game.assets.getTextureScale() * MENU_ITEM_SCALE;
+    }
+
+    /**
+     * a sprite of a menu atlas region at its size in world units
+     */
+    protected Sprite createSprite(String regionName) {
+        Sprite sprite = new Sprite(menuItemsAtlas.findRegion(regionName));
+        sprite.setSize(sprite.getWidth() * spriteScale, sprite.getHeight() * spriteScale);
+        return sprite;
+    }
+
+    protected Button createButton(String regionName) {
+        return new Button(createSprite(regionName), createSprite(regionName + "Down"));
+    }
+
+    /**
+     * place the sprites for the viewport's world size
+     */
+    protected abstract void layout();
+
+    protected abstract void draw(SpriteBatch batch);
+
+    /**
+     * the button under a touch, or null
+     */
+    protected abstract Button findButton(float x, float y);
+
+    protected abstract void clicked(Button button);
+
+    /**
+     * escape, nothing by default
+     */
+    protected void back() {
+    }
+
+    /**
+     * draw again, the screen only renders on input otherwise
+     */
+    protected void redraw() {
+        Gdx.graphics.requestRendering();
+    }
+
+    @Override
+    public boolean prepare() {
+        // laid out by resize(), and nothing to load: every menu sprite is in an atlas loaded at startup
+        return true;
+    }
+
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(this);
+        // nothing moves on a menu
+        Gdx.graphics.setContinuousRendering(false);
+        redraw();
+    }
+
+    @Override
+    public void render(float delta) {
+        ScreenUtils.clear(BACKGROUND_COLOR);
+        viewport.apply();
+        game.batch.setProjectionMatrix(viewport.getCamera().combined);
+        game.batch.begin();
+        draw(game.batch);
+        game.batch.end();
+
+        game.profiler.frameEnded(game.batch.totalRenderCalls - lastTotalRenderCalls, 0);
+        lastTotalRenderCalls = game.batch.totalRenderCalls;
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+        layout();
+    }
+
+    @Override
+    public void pause() {
+        game.audioManager.pauseMusic();
+    }
+
+    @Override
+    public void resume() {
+        game.audioManager.playMusic();
+    }
+
+    @Override
+    public void hide() {
+        if (pressedButton != null) {
+            pressedButton.pressed = false;
+            pressedButton = null;
+        }
+        Gdx.graphics.setContinuousRendering(true);
+    }
+
+    @Override
+    public void dispose() {
+        // the sprites only point into the menu atlas, the asset manager owns it
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        if (keycode == Input.Keys.ESCAPE || keycode == Input.Keys.BACK) {
+            back();
+        } else if (keycode == Input.Keys.M) {
+            game.audioManager.toggleMusic();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        if (pointer > 0) return true;
+        unproject(screenX, screenY);
+        pressedButton = findButton(touch.x, touch.y);
+        if (pressedButton != null) {
+            pressedButton.pressed = true;
+            redraw();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        if (pointer > 0 || pressedButton == null) return true;
+        Button released = pressedButton;
+        released.pressed = false;
+        pressedButton = null;
+        unproject(screenX, screenY);
+        if (released.contains(touch.x, touch.y)) {
+            game.audioManager.playSound(Assets.CLICK_SOUND);
+            clicked(released);
+        }
+        redraw();
+        return true;
+    }
+
+    private void unproject(int screenX, int screenY) {
+        // convert from top left pixels into world coordinates
+        touch.set(screenX, screenY, 0);
+        viewport.getCamera().unproject(touch, viewport.getScreenX(), viewport.getScreenY(),
+            viewport.getScreenWidth(), viewport.getScreenHeight());
+    }
+
+    /**
+     * a menu atlas button, drawn with its "Down" region while pressed
+     */
+    protected static class Button {
+        final Sprite up, down;
+        boolean pressed;
+
+        Button(Sprite up, Sprite down) {
+            this.up = up;
+            this.down = down;
+        }
+
+        float getWidth() {
+            return up.getWidth();
+        }
+
+        float getHeight() {
+            return up.getHeight();
+        }
+
+        void setPosition(float x, float y) {
+            up.setPosition(x, y);
+            down.setPosition(x, y);
+        }
+
+        void setFlip(boolean x) {
+            up.setFlip(x, false);
+            down.setFlip(x, false);
+        }
+
+        boolean contains(float x, float y) {
+            return up.getBoundingRectangle().contains(x, y);
+        }
+
+        void draw(SpriteBatch batch) {
+            (pressed ? down : up).draw(batch);
+        }
+    }
+}
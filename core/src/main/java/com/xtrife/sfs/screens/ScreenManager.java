@@ -0,0 +1,115 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.xtrife.sfs.Main;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:42 PM.
+ * Owns every screen of the game. They are all created once, with their sprites, fonts and effect pools, and kept
+ * until the game closes, so switching screens never loads or allocates anything. A switch fades to black; while it
+ * fades the next screen is resized and {@link ManagedScreen#prepare() prepared}, and it's only shown once that's done
+ * and the screen is black, so its first frame has nothing left to catch up on.
+ */
+public class ScreenManager {
+    public enum ScreenType {MAIN_MENU, SETTINGS, FIGHTER_SELECT, GAME}
+
+    private static final float FADE_DURATION = 0.15f; // each way
+    private static final float MAX_FADE_STEP = 1f / 30f; // the first frame after an idle menu can be seconds late
+
+    private final Main game;
+    private final ManagedScreen[] screens = new ManagedScreen[ScreenType.values().length];
+    private final Matrix4 fadeProjection = new Matrix4();
+
+    // the screen being faded to, null when no switch is going on
+    private ManagedScreen next;
+    private boolean prepared;
+    private float fade; // 0 is clear, 1 is black
+
+    public ScreenManager(Main game) {
+        this.game = game;
+        screens[ScreenType.GAME.ordinal()] = new GameScreen(game);
+        screens[ScreenType.MAIN_MENU.ordinal()] = new MainMenuScreen(game);
+        screens[ScreenType.SETTINGS.ordinal()] = new SettingsScreen(game);
+        screens[ScreenType.FIGHTER_SELECT.ordinal()] = new FighterSelectScreen(game);
+    }
+
+    public ManagedScreen get(ScreenType type) {
+        return screens[type.ordinal()];
+    }
+
+    /**
+     * the first screen, faded in from black or shown right away. Everything is loaded by then
+     */
+    public void start(ScreenType type, boolean fadeIn) {
+        if (fadeIn) {
+            fade = 1f;
+            show(type);
+        } else {
+            game.setScreen(get(type));
+        }
+    }
+
+    /**
+     * fade over to a screen. Input is ignored until it's shown
+     */
+    public void show(ScreenType type) {
+        ManagedScreen screen = get(type);
+        if (screen == next || (next == null && screen == game.getScreen())) return;
+        next = screen;
+        prepared = false;
+        next.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        Gdx.input.setInputProcessor(null); // no clicks on the screen fading out
+        Gdx.graphics.requestRendering();
+    }
+
+    /**
+     * advance the switch and draw the fade over the current screen, after it rendered
+     */
+    public void render(float delta) {
+        if (next == null && fade == 0f) return;
+        delta = Math.min(delta, MAX_FADE_STEP);
+        if (next != null) {
+            if (!prepared) {
+                prepared = next.prepare();
+            }
+            fade = Math.min(fade + delta / FADE_DURATION, 1f);
+            if (fade == 1f && prepared) {
+                game.setScreen(next); // hides the current screen, shows and resizes the next one
+                next = null;
+            }
+        } else {
+            fade = Math.max(fade - delta / FADE_DURATION, 0f);
+        }
+        if (fade > 0f) {
+            renderFade();
+        }
+        // screens that only draw on input still get every frame of the fade
+        Gdx.graphics.requestRendering();
+    }
+
+    private void renderFade() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        Gdx.gl.glViewport(0, 0, width, height);
+        fadeProjection.setToOrtho2D(0, 0, width, height);
+        game.shapeRenderer.setProjectionMatrix(fadeProjection);
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        game.shapeRenderer.setColor(0, 0, 0, fade);
+        game.shapeRenderer.rect(0, 0, width, height);
+        game.shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    public void dispose() {
+        // the game screen first, it stops the match simulation before the telemetry, replays and broadcast it writes to
+        for (int i = ScreenType.values().length - 1; i >= 0; i--) {
+            screens[i].dispose();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.xtrife.sfs.screens;
+
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.xtrife.sfs.Main;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.resources.SettingsManager;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:56 PM.
+ * Music, sounds, full screen, blood and difficulty. Changes apply right away and are saved by the
+ * {@link SettingsManager}; the next match picks up blood and difficulty.
+ */
+public class SettingsScreen extends MenuScreen {
+    private static final float MARGIN = 2f;
+    private static final float ROW_SPACING = 1.5f;
+    private static final float TITLE_MARGIN_BOTTOM = 4f;
+    private static final float CONTROL_PADDING = 1.5f; // from the right end of a row background
+    private static final float ARROW_SPACING = 1f;
+
+    private final Sprite titleSprite;
+    private final Button backButton;
+
+    // the art has two settings per row for music and sounds, and full screen and blood
+    private final Sprite musicBackground, soundsBackground;
+    private final Sprite fullScreenBackground, bloodBackground;
+    private final Sprite difficultyBackground;
+    private final Switch musicSwitch, soundsSwitch;
+    private final Switch fullScreenSwitch, bloodSwitch;
+
+    // difficulty, one sprite per level between two arrows
+    private final Sprite[] difficultySprites = new Sprite[GlobalVariables.Difficulty.values().length];
+    private final Button previousDifficultyButton, nextDifficultyButton;
+
+    public SettingsScreen(Main game) {
+        super(game);
+        titleSprite = createSprite("Settings");
+        backButton = createButton("BackButton");
+
+        musicBackground = createSprite("MusicSettingBackground");
+        soundsBackground = createSprite("SoundsSettingBackground");
+        fullScreenBackground = createSprite("FullScreenSettingBackground");
+        bloodBackground = createSprite("BloodSettingBackground");
+        difficultyBackground = createSprite("DifficultySettingBackground");
+        musicSwitch = new Switch(createSprite("ToggleButtonOff"), createSprite("ToggleButtonOn"));
+        soundsSwitch = new Switch(createSprite("ToggleButtonOff"), createSprite("ToggleButtonOn"));
+        fullScreenSwitch = new Switch(createSprite("CheckButtonOff"), createSprite("CheckButtonOn"));
+        bloodSwitch = new Switch(createSprite("CheckButtonOff"), createSprite("CheckButtonOn"));
+
+        difficultySprites[GlobalVariables.Difficulty.EASY.ordinal()] = createSprite("Easy");
+        difficultySprites[GlobalVariables.Difficulty.MEDIUM.ordinal()] = createSprite("Medium");
+        difficultySprites[GlobalVariables.Difficulty.HARD.ordinal()] = createSprite("Hard");
+        previousDifficultyButton = createButton("TriangleButton");
+        previousDifficultyButton.setFlip(true); // the arrow points right in the atlas
+        nextDifficultyButton = createButton("TriangleButton");
+    }
+
+    @Override
+    public boolean prepare() {
+        // music can also be switched with M while playing
+        SettingsManager settings = game.settings;
+        musicSwitch.on = game.audioManager.isMusicEnabled();
+        soundsSwitch.on = settings.isSoundsEnabled();
+        fullScreenSwitch.on = settings.isFullScreenEnabled();
+        bloodSwitch.on = settings.isBloodShown();
+        return super.prepare();
+    }
+
+    @Override
+    protected void layout() {
+        float worldWidth = viewport.getWorldWidth();
+        float worldHeight = viewport.getWorldHeight();
+        backButton.setPosition(MARGIN, worldHeight - MARGIN - backButton.getHeight());
+
+        // rows from the top, left aligned on the widest one
+        float rowWidth = difficultyBackground.getWidth();
+        float rowsHeight = musicBackground.getHeight() + fullScreenBackground.getHeight() +
+            difficultyBackground.getHeight() + ROW_SPACING * 2f;
+        float layoutHeight = titleSprite.getHeight() + TITLE_MARGIN_BOTTOM + rowsHeight;
+        float left = worldWidth / 2f - rowWidth / 2f;
+        float y = worldHeight / 2f + layoutHeight / 2f - titleSprite.getHeight();
+        titleSprite.setPosition(worldWidth / 2f - titleSprite.getWidth() / 2f, y);
+
+        y -= TITLE_MARGIN_BOTTOM + musicBackground.getHeight();
+        musicBackground.setPosition(left, y);
+        soundsBackground.setPosition(left + rowWidth - soundsBackground.getWidth(), y);
+        placeControl(musicSwitch, musicBackground);
+        placeControl(soundsSwitch, soundsBackground);
+
+        y -= ROW_SPACING + fullScreenBackground.getHeight();
+        fullScreenBackground.setPosition(left, y);
+        bloodBackground.setPosition(left + rowWidth - bloodBackground.getWidth(), y);
+        placeControl(fullScreenSwitch, fullScreenBackground);
+        placeControl(bloodSwitch, bloodBackground);
+
+        y -= ROW_SPACING + difficultyBackground.getHeight();
+        difficultyBackground.setPosition(left, y);
+        float centerY = y + difficultyBackground.getHeight() / 2f;
+        float x = left + rowWidth - CONTROL_PADDING - nextDifficultyButton.getWidth();
+        nextDifficultyButton.setPosition(x, centerY - nextDifficultyButton.getHeight() / 2f);
+        for (Sprite sprite : difficultySprites) {
+            sprite.setPosition(x - ARROW_SPACING - sprite.getWidth(), centerY - sprite.getHeight() / 2f);
+        }
+        x -= ARROW_SPACING * 2f + difficultySprites[0].getWidth() + previousDifficultyButton.getWidth();
+        previousDifficultyButton.setPosition(x, centerY - previousDifficultyButton.getHeight() / 2f);
+    }
+
+    /**
+     * at the right end of its row background, vertically centered
+     */
+    private static void placeControl(Switch control, Sprite background) {
+        control.setPosition(background.getX() + background.getWidth() - CONTROL_PADDING - control.getWidth(),
+            background.getY() + background.getHeight() / 2f - control.getHeight() / 2f);
+    }
+
+    @Override
+    protected void draw(SpriteBatch batch) {
+        titleSprite.draw(batch);
+        backButton.draw(batch);
+        musicBackground.draw(batch);
+        soundsBackground.draw(batch);
+        fullScreenBackground.draw(batch);
+        bloodBackground.draw(batch);
+        difficultyBackground.draw(batch);
+        musicSwitch.draw(batch);
+        soundsSwitch.draw(batch);
+        fullScreenSwitch.draw(batch);
+        bloodSwitch.draw(batch);
+        previousDifficultyButton.draw(batch);
+        difficultySprites[game.settings.getDifficulty().ordinal()].draw(batch);
+        nextDifficultyButton.draw(batch);
+    }
+
+    @Override
+    protected Button findButton(float x, float y) {
+        if (backButton.contains(x, y)) return backButton;
+        if (musicSwitch.contains(x, y)) return musicSwitch;
+        if (soundsSwitch.contains(x, y)) return soundsSwitch;
+        if (fullScreenSwitch.contains(x, y)) return fullScreenSwitch;
+        if (bloodSwitch.contains(x, y)) return bloodSwitch;
+        if (previousDifficultyButton.contains(x, y)) return previousDifficultyButton;
+        if (nextDifficultyButton.contains(x, y)) return nextDifficultyButton;
+        return null;
+    }
+
+    @Override
+    protected void clicked(Button button) {
+        SettingsManager settings = game.settings;
+        if (button == backButton) {
+            back();
+        } else if (button == musicSwitch) {
+            musicSwitch.on = !musicSwitch.on;
+            settings.setMusicEnabled(musicSwitch.on);
+            if (musicSwitch.on) {
+                game.audioManager.enableMusic();
+            } else {
+                game.audioManager.disableMusic();
+            }
+        } else if (button == soundsSwitch) {
+            soundsSwitch.on = !soundsSwitch.on;
+            settings.setSoundsEnabled(soundsSwitch.on);
+            if (soundsSwitch.on) {
+                game.audioManager.enableSounds();
+            } else {
+                game.audioManager.disableSounds();
+            }
+        } else if (button == fullScreenSwitch) {
+            fullScreenSwitch.on = !fullScreenSwitch.on;
+            settings.setFullScreenEnabled(fullScreenSwitch.on);
+            game.applyFullScreen();
+        } else if (button == bloodSwitch) {
+            bloodSwitch.on = !bloodSwitch.on;
+            settings.setBloodShown(bloodSwitch.on);
+        } else {
+            // the arrows stop at the easiest and hardest level
+            GlobalVariables.Difficulty[] difficulties = GlobalVariables.Difficulty.values();
+            int level = settings.getDifficulty().ordinal() + (button == nextDifficultyButton ? 1 : -1);
+            settings.setDifficulty(difficulties[Math.max(0, Math.min(level, difficulties.length - 1))]);
+        }
+    }
+
+    @Override
+    protected void back() {
+        game.screens.show(ScreenManager.ScreenType.MAIN_MENU);
+    }
+
+    /**
+     * a toggle or check button, drawn on or off instead of pressed
+     */
+    private static class Switch extends Button {
+        boolean on;
+
+        Switch(Sprite off, Sprite on) {
+            super(off, on);
+        }
+
+        @Override
+        void draw(SpriteBatch batch) {
+            (on ? down : up).draw(batch);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.xtrife.sfs.simulation;
+
+import com.xtrife.sfs.resources.GlobalVariables;
+
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:12 AM.
+ * Tunable constants driving a {@link FighterAi}. Immutable, so one instance can be shared between matches and threads.
+ */
+public class AiSettings {
+    // default values the game shipped with
+    public static final float OPPONENT_AI_CONTACT_DECISION_DELAY_EASY = 1f;
+    public static final float OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM = 0.07f;
+    public static final float OPPONENT_AI_CONTACT_DECISION_DELAY_HARD = 0.01f;
+    public static final float OPPONENT_AI_BLOCK_CHANCE = 0.4f; // decision chance
+    public static final float OPPONENT_AI_ATTACK_CHANCE = 0.8f; // 8 out of 10 times
+    public static final float OPPONENT_AI_NON_CONTACT_DECISION_DELAY = 0.5f;
+    public static final float OPPONENT_AI_PURSUE_CHANCE_EASY = 0.2f; // 20% of time
+    public static final float OPPONENT_AI_PURSUE_CHANCE_MEDIUM = 0.5f;
+    public static final float OPPONENT_AI_PURSUE_CHANCE_HARD = 1f; // opponent is always going after the player
+
+    public static final AiSettings EASY = new AiSettings(OPPONENT_AI_BLOCK_CHANCE, OPPONENT_AI_ATTACK_CHANCE,
+        OPPONENT_AI_PURSUE_CHANCE_EASY, OPPONENT_AI_CONTACT_DECISION_DELAY_EASY, OPPONENT_AI_NON_CONTACT_DECISION_DELAY);
+    public static final AiSettings MEDIUM = new AiSettings(OPPONENT_AI_BLOCK_CHANCE, OPPONENT_AI_ATTACK_CHANCE,
+        OPPONENT_AI_PURSUE_CHANCE_MEDIUM, OPPONENT_AI_CONTACT_DECISION_DELAY_MEDIUM, OPPONENT_AI_NON_CONTACT_DECISION_DELAY);
+    public static final AiSettings HARD = new AiSettings(OPPONENT_AI_BLOCK_CHANCE, OPPONENT_AI_ATTACK_CHANCE,
+        OPPONENT_AI_PURSUE_CHANCE_HARD, OPPONENT_AI_CONTACT_DECISION_DELAY_HARD, OPPONENT_AI_NON_CONTACT_DECISION_DELAY);
+
+    public final float blockChance; // chance to block an incoming attack
+    public final float attackChance; // chance to attack when within contact distance
+    public final float pursueChance; // chance to go after the other fighter instead of moving randomly
+    public final float contactDecisionDelay; // seconds between decisions within contact distance
+    public final float nonContactDecisionDelay; // seconds between movement decisions
+
+    public AiSettings(float blockChance, float attackChance, float pursueChance,
+                      float contactDecisionDelay, float nonContactDecisionDelay) {
+        this.blockChance = blockChance;
+        this.attackChance = attackChance;
+        this.pursueChance = pursueChance;
+        this.contactDecisionDelay = contactDecisionDelay;
+        this.nonContactDecisionDelay = nonContactDecisionDelay;
+    }
+
+    public static AiSettings forDifficulty(GlobalVariables.Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return EASY;
+            case MEDIUM:
+                return MEDIUM;
+            case HARD:
+            default:
+                return HARD;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "block=%.3f attack=%.3f pursue=%.3f contactDelay=%.3fs nonContactDelay=%.3fs",
+            blockChance, attackChance, pursueChance, contactDecisionDelay, nonContactDecisionDelay);
+    }
+}
@@ -0,0 +1,124 @@
+package com.xtrife.sfs.simulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Created by 9S on 10/19/2026 - 12:20 PM.
+ * Convex walkable area of a stage, in world units. Every edge is stored as a half-plane
+ * {@code normalX * x + normalY * y <= offset}, so checking a position is a handful of multiply-adds.
+ */
+public class Arena {
+    // the original ring: a trapezoid with its sides sloped by 3.16
+    public static final float[] RING_WALKABLE_AREA = {
+        21.4810f, 11f,
+        140.5190f, 11f,
+        128.1772f, 50f,
+        33.8228f, 50f,
+    };
+
+    private static final float EPSILON = 0.0001f;
+
+    private final float[] vertices;
+    private final int edgeCount;
+    private final float[] normalX;
+    private final float[] normalY;
+    private final float[] offset;
+    private final float[] inverseNormalX;
+    private final float minY, maxY;
+
+    /**
+     * @param vertices x, y pairs of a convex polygon, in either winding order
+     */
+    public Arena(float[] vertices) {
+        if (vertices == null || vertices.length < 6 || vertices.length % 2 != 0) {
+            throw new GdxRuntimeException("A walkable area needs at least 3 x, y vertex pairs");
+        }
+        this.vertices = vertices.clone();
+        edgeCount = vertices.length / 2;
+        normalX = new float[edgeCount];
+        normalY = new float[edgeCount];
+        offset = new float[edgeCount];
+        inverseNormalX = new float[edgeCount];
+
+        // counter-clockwise polygons have a positive area, their inside is left of every edge
+        float doubleArea = 0f;
+        for (int i = 0; i < edgeCount; i++) {
+            int next = (i + 1) % edgeCount;
+            doubleArea += vertices[i * 2] * vertices[next * 2 + 1] - vertices[next * 2] * vertices[i * 2 + 1];
+        }
+        float winding = doubleArea > 0f ? 1f : -1f;
+
+        float lowest = Float.MAX_VALUE, highest = -Float.MAX_VALUE;
+        for (int i = 0; i < edgeCount; i++) {
+            int next = (i + 1) % edgeCount;
+            float x1 = vertices[i * 2], y1 = vertices[i * 2 + 1];
+            float x2 = vertices[next * 2], y2 = vertices[next * 2 + 1];
+            // outward normal
+            normalX[i] = (y2 - y1) * winding;
+            normalY[i] = (x1 - x2) * winding;
+            offset[i] = normalX[i] * x1 + normalY[i] * y1;
+            inverseNormalX[i] = Math.abs(normalX[i]) > EPSILON ? 1f / normalX[i] : 0f;
+            lowest = Math.min(lowest, y1);
+            highest = Math.max(highest, y1);
+        }
+        minY = lowest;
+        maxY = highest;
+
+        // every vertex has to be inside the half-planes of the other edges
+        for (int v = 0; v < edgeCount; v++) {
+            for (int i = 0; i < edgeCount; i++) {
+                if (normalX[i] * vertices[v * 2] + normalY[i] * vertices[v * 2 + 1] > offset[i] + EPSILON * 100f) {
+                    throw new GdxRuntimeException("Walkable area is not convex");
+                }
+            }
+        }
+    }
+
+    /**
+     * x, y pairs the area was made from, e.g. to save it in a replay. Don't change them
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    public boolean contains(float x, float y) {
+        for (int i = 0; i < edgeCount; i++) {
+            if (normalX[i] * x + normalY[i] * y > offset[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * move the position back inside the area. Like the original ring bounds, y is clamped first and then x to the
+     * width of the area at that height, so fighters slide along sloped edges instead of sticking to them
+     */
+    public void clamp(Vector2 position) {
+        if (contains(position.x, position.y)) return;
+
+        if (position.y < minY) {
+            position.y = minY;
+        } else if (position.y > maxY) {
+            position.y = maxY;
+        }
+
+        float minX = -Float.MAX_VALUE, maxX = Float.MAX_VALUE;
+        for (int i = 0; i < edgeCount; i++) {
+            // horizontal edges (no x component) are already handled by the y clamp
+            if (inverseNormalX[i] == 0f) continue;
+            float edgeX = (offset[i] - normalY[i] * position.y) * inverseNormalX[i];
+            if (normalX[i] > 0f) {
+                maxX = Math.min(maxX, edgeX);
+            } else {
+                minX = Math.max(minX, edgeX);
+            }
+        }
+        if (position.x < minX) {
+            position.x = minX;
+        } else if (position.x > maxX) {
+            position.x = maxX;
+        }
+    }
+}
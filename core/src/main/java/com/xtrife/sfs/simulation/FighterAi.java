@@ -0,0 +1,245 @@
+package com.xtrife.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.xtrife.sfs.objects.Fighter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:20 AM.
+ * Computer controlled fighter. Drives {@code fighter} against {@code target} using the given {@link AiSettings}.
+ * Its controls go through the fighter's {@link InputBuffer} like a player's.
+ */
+public class FighterAi {
+    private final Fighter fighter;
+    private final InputBuffer input;
+    private final Fighter target;
+    private final RandomXS128 random;
+    private AiSettings settings;
+    private Tuning tuning = Tuning.DEFAULT; // contact distances
+
+    // state
+    private float timer;
+    private boolean makingContactDecision;
+    private boolean pursuingTarget;
+
+    public FighterAi(Fighter fighter, InputBuffer input, Fighter target, AiSettings settings, RandomXS128 random) {
+        this.fighter = fighter;
+        this.input = input;
+        this.target = target;
+        this.settings = settings;
+        this.random = random;
+    }
+
+    public void reset() {
+        timer = 0f;
+        makingContactDecision = false;
+        pursuingTarget = false;
+    }
+
+    public AiSettings getSettings() {
+        return settings;
+    }
+
+    public void setSettings(AiSettings settings) {
+        this.settings = settings;
+    }
+
+    public void setTuning(Tuning tuning) {
+        this.tuning = tuning;
+    }
+
+    public void update(float delta) {
+        // check if fighter is making a contact decision (attack, block, etc.)
+        if (makingContactDecision) {
+            if (fighter.isBlocking()) {
+                // stop blocking if not within contact distance, if target isnt attacking or target has attacked and already made contact
+                if (!tuning.areWithinContactDistance(target.getPosition(), fighter.getPosition()) ||
+                    !target.isAttacking() || target.hasMadeContact()) {
+                    input.add(InputCommand.STOP_BLOCKING);
+                }
+            } else if (!fighter.isAttacking()) {
+                // if fighter isnt currently attacking, check if within contact distance
+                if (tuning.areWithinContactDistance(target.getPosition(), fighter.getPosition())) {
+                    if (timer <= 0f) {
+                        // make an AI contact decision after delay timer is up
+                        makeContactDecision();
+                    } else {
+                        // decrease the AI timer by delta time
+                        timer -= delta;
+                    }
+                } else {
+                    // no decision if not within contact distance
+                    makingContactDecision = false;
+                }
+            }
+        } else {
+            if (tuning.areWithinContactDistance(target.getPosition(), fighter.getPosition())) {
+                // if within contact AND AI not currently making a decision
+                makeContactDecision();
+            } else {
+                if (timer <= 0f) {
+                    // pursue target or move to a random direction
+                    if (random.nextFloat() <= settings.pursueChance) {
+                        // fighter is pursuing target
+                        pursuingTarget = true;
+                        // move in the direction of the target
+                        moveTowardTarget();
+                    } else {
+                        pursuingTarget = false;
+                        // move in a random direction
+                        moveRandomly();
+                    }
+                    // set timer to non-contact decision delay
+                    timer = settings.nonContactDecisionDelay;
+                } else {
+                    // if fighter is pursuing target, move in direction of the target
+                    if (pursuingTarget) {
+                        moveTowardTarget();
+                    }
+                    timer -= delta; // decrease AI Timer
+                }
+            }
+        }
+    }
+
+    private void makeContactDecision() {
+        makingContactDecision = true;
+
+        //check if target is attacking
+        if (target.isAttacking()) {
+            // block or move away if attack hasnt made contact yet
+            if (!target.hasMadeContact()) {
+                if (random.nextFloat() <= settings.blockChance) {
+                    input.add(InputCommand.BLOCK);
+                } else {
+                    moveAwayFromTarget();
+                }
+            }
+        } else {
+            // attack or move away if target isnt attacking
+            if (random.nextFloat() <= settings.attackChance) {
+                if (random.nextInt(2) == 0) {
+                    input.add(InputCommand.PUNCH);
+                } else { // 50/50 chance to punch or kick
+                    input.add(InputCommand.KICK);
+                }
+            } else {
+                moveAwayFromTarget();
+            }
+        }
+
+        // wait before the next contact decision
+        timer = settings.contactDecisionDelay;
+    }
+
+    private void moveTowardTarget() {
+        Vector2 targetPos = target.getPosition();
+        Vector2 fighterPos = fighter.getPosition();
+
+        // check X position
+        if (fighterPos.x > targetPos.x + tuning.contactDistanceX) {
+            input.add(InputCommand.MOVE_LEFT);
+        } else if (fighterPos.x < targetPos.x - tuning.contactDistanceX) {
+            input.add(InputCommand.MOVE_RIGHT);
+        } else {
+            input.add(InputCommand.STOP_MOVING_LEFT);
+            input.add(InputCommand.STOP_MOVING_RIGHT);
+        }
+        // check Y position
+        if (fighterPos.y < targetPos.y + tuning.contactDistanceY) {
+            input.add(InputCommand.MOVE_UP);
+        } else if (fighterPos.y > targetPos.y - tuning.contactDistanceY) {
+            input.add(InputCommand.MOVE_DOWN);
+        } else {
+            input.add(InputCommand.STOP_MOVING_UP);
+            input.add(InputCommand.STOP_MOVING_DOWN);
+        }
+    }
+
+    private void moveRandomly() {
+        // random x move
+        switch (random.nextInt(3)) {
+            case 0:
+                input.add(InputCommand.MOVE_LEFT);
+                break;
+            case 1:
+                input.add(InputCommand.MOVE_RIGHT);
+                break;
+            case 2:
+            default:
+                input.add(InputCommand.STOP_MOVING_LEFT);
+                input.add(InputCommand.STOP_MOVING_RIGHT);
+        }
+        // random y move
+        switch (random.nextInt(3)) {
+            case 0:
+                input.add(InputCommand.MOVE_UP);
+                break;
+            case 1:
+                input.add(InputCommand.MOVE_DOWN);
+                break;
+            case 2:
+            default:
+                input.add(InputCommand.STOP_MOVING_UP);
+                input.add(InputCommand.STOP_MOVING_DOWN);
+        }
+    }
+
+    private void moveAwayFromTarget() {
+        Vector2 targetPos = target.getPosition();
+        Vector2 fighterPos = fighter.getPosition();
+
+        if (fighterPos.x > targetPos.x) {
+            input.add(InputCommand.MOVE_RIGHT);
+        } else {
+            input.add(InputCommand.MOVE_LEFT);
+        }
+        if (fighterPos.y > targetPos.y) {
+            input.add(InputCommand.MOVE_UP);
+        } else {
+            input.add(InputCommand.MOVE_DOWN);
+        }
+    }
+
+    public void hash(StateHash hash) {
+        hash.add("blockChance", settings.blockChance);
+        hash.add("attackChance", settings.attackChance);
+        hash.add("pursueChance", settings.pursueChance);
+        hash.add("contactDecisionDelay", settings.contactDecisionDelay);
+        hash.add("nonContactDecisionDelay", settings.nonContactDecisionDelay);
+        hash.add("timer", timer);
+        hash.add("makingContactDecision", makingContactDecision);
+        hash.add("pursuingTarget", pursuingTarget);
+    }
+
+    public void save(ByteBuffer buffer) {
+        buffer.putFloat(settings.blockChance);
+        buffer.putFloat(settings.attackChance);
+        buffer.putFloat(settings.pursueChance);
+        buffer.putFloat(settings.contactDecisionDelay);
+        buffer.putFloat(settings.nonContactDecisionDelay);
+        buffer.putFloat(timer);
+        buffer.put((byte) (makingContactDecision ? 1 : 0));
+        buffer.put((byte) (pursuingTarget ? 1 : 0));
+    }
+
+    public void restore(ByteBuffer buffer) {
+        float blockChance = buffer.getFloat();
+        float attackChance = buffer.getFloat();
+        float pursueChance = buffer.getFloat();
+        float contactDecisionDelay = buffer.getFloat();
+        float nonContactDecisionDelay = buffer.getFloat();
+        // settings rarely change, keep the current ones if they match
+        if (blockChance != settings.blockChance || attackChance != settings.attackChance ||
+            pursueChance != settings.pursueChance || contactDecisionDelay != settings.contactDecisionDelay ||
+            nonContactDecisionDelay != settings.nonContactDecisionDelay) {
+            settings = new AiSettings(blockChance, attackChance, pursueChance, contactDecisionDelay,
+                nonContactDecisionDelay);
+        }
+        timer = buffer.getFloat();
+        makingContactDecision = buffer.get() != 0;
+        pursuingTarget = buffer.get() != 0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.xtrife.sfs.simulation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 5:24 PM.
+ * Turns fixed simulation ticks into the delta times of each part of the game, so gameplay and effects can run at
+ * their own speed: hitstop freezes the fighters for a few ticks on contact while blood keeps flying, slow-motion
+ * slows both down for a KO finish and pause stops both. Hitstop and slow-motion last a number of real ticks,
+ * so they end on the same tick however fast the game itself runs. Only used by the simulation thread; the HUD and
+ * menus run on the render thread with its unscaled frame time.
+ */
+public class GameClock {
+    public enum Channel {GAMEPLAY, EFFECTS}
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    private final float tickDuration;
+    private final float[] timeScales = new float[CHANNELS.length];
+    private final float[] deltas = new float[CHANNELS.length];
+    private boolean paused;
+    private int hitstopTicks;
+    private int slowMotionTicks;
+    private float slowMotionScale = 1f;
+
+    public GameClock(float tickDuration) {
+        this.tickDuration = tickDuration;
+        for (int i = 0; i < timeScales.length; i++) {
+            timeScales[i] = 1f;
+        }
+    }
+
+    /**
+     * work out the deltas of the next tick. Call once per tick, before reading {@link #getDelta}
+     */
+    public void tick() {
+        for (int i = 0; i < CHANNELS.length; i++) {
+            deltas[i] = paused ? 0f : tickDuration * timeScales[i];
+        }
+        if (paused) return;
+
+        if (slowMotionTicks > 0) {
+            deltas[Channel.GAMEPLAY.ordinal()] *= slowMotionScale;
+            deltas[Channel.EFFECTS.ordinal()] *= slowMotionScale;
+            slowMotionTicks--;
+        }
+        if (hitstopTicks > 0) {
+            deltas[Channel.GAMEPLAY.ordinal()] = 0f; // effects keep going
+            hitstopTicks--;
+        }
+    }
+
+    /**
+     * seconds the channel moves forward in the current tick, 0f while it's frozen
+     */
+    public float getDelta(Channel channel) {
+        return deltas[channel.ordinal()];
+    }
+
+    /**
+     * constant speed of a channel, 1f is real time
+     */
+    public void setTimeScale(Channel channel, float timeScale) {
+        timeScales[channel.ordinal()] = timeScale;
+    }
+
+    /**
+     * freeze gameplay for the next ticks, a longer hitstop already running isn't cut short
+     */
+    public void hitstop(int ticks) {
+        hitstopTicks = Math.max(hitstopTicks, ticks);
+    }
+
+    /**
+     * run gameplay and effects at {@code scale} for the next ticks
+     */
+    public void slowMotion(float scale, int ticks) {
+        slowMotionScale = scale;
+        slowMotionTicks = ticks;
+    }
+
+    public boolean isSlowMotion() {
+        return slowMotionTicks > 0;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * stop every channel. Hitstop and slow-motion pick up where they left off when unpaused
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * drop any hitstop or slow-motion still running, e.g. when a new match starts
+     */
+    public void reset() {
+        paused = false;
+        hitstopTicks = 0;
+        slowMotionTicks = 0;
+    }
+
+    public void hash(StateHash hash) {
+        hash.section("clock");
+        for (int i = 0; i < CHANNELS.length; i++) {
+            hash.add("timeScale", timeScales[i]);
+            hash.add("delta", deltas[i]);
+        }
+        hash.add("paused", paused);
+        hash.add("hitstopTicks", hitstopTicks);
+        hash.add("slowMotionTicks", slowMotionTicks);
+        hash.add("slowMotionScale", slowMotionScale);
+    }
+
+    public void save(ByteBuffer buffer) {
+        for (int i = 0; i < CHANNELS.length; i++) {
+            buffer.putFloat(timeScales[i]);
+            buffer.putFloat(deltas[i]);
+        }
+        buffer.put((byte) (paused ? 1 : 0));
+        buffer.putInt(hitstopTicks);
+        buffer.putInt(slowMotionTicks);
+        buffer.putFloat(slowMotionScale);
+    }
+
+    public void restore(ByteBuffer buffer) {
+        for (int i = 0; i < CHANNELS.length; i++) {
+            timeScales[i] = buffer.getFloat();
+            deltas[i] = buffer.getFloat();
+        }
+        paused = buffer.get() != 0;
+        hitstopTicks = buffer.getInt();
+        slowMotionTicks = buffer.getInt();
+        slowMotionScale = buffer.getFloat();
+    }
+}
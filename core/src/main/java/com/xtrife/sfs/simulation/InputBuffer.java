@@ -0,0 +1,271 @@
+package com.xtrife.sfs.simulation;
+
+import com.xtrife.sfs.objects.Fighter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:48 PM.
+ * Every control of one fighter, player or AI, goes through its input buffer on the simulation thread. Events are kept
+ * in a fixed ring stamped with the match tick they came in on. Attacks and blocks pressed while the fighter can't act
+ * (still punching, kicking or hurt) wait in the buffer for up to the buffer window and go off on the first tick the
+ * fighter can act again, instead of being dropped. A {@link MotionRecognizer} watches the same events and turns the
+ * attack that finishes a motion into a special attack. Never allocates.
+ */
+public class InputBuffer {
+    private static final int CAPACITY = 64; // must be a power of 2
+    public static final int DEFAULT_BUFFER_WINDOW = 12; // ticks, 100 ms
+
+    private final Fighter fighter;
+    private final MotionRecognizer motions = new MotionRecognizer();
+    private int bufferWindow = DEFAULT_BUFFER_WINDOW;
+
+    // ring of events
+    private final long[] ticks = new long[CAPACITY];
+    private final byte[] commands = new byte[CAPACITY];
+    private final byte[] directions = new byte[CAPACITY]; // numpad direction after the event
+    private long size; // events ever added, the next one goes to size % CAPACITY
+
+    private long tick;
+    private int directionX, directionY; // stick as the events left it, like the fighter's movement direction
+    private boolean blockHeld;
+
+    // the attack or block waiting for the fighter to recover, -1 if none
+    private long pendingEvent = -1;
+    private boolean pendingSpecial;
+
+    public InputBuffer(Fighter fighter) {
+        this.fighter = fighter;
+    }
+
+    /**
+     * how many ticks a press waits for the fighter to be able to act
+     */
+    public void setBufferWindow(int ticks) {
+        bufferWindow = ticks;
+    }
+
+    public MotionRecognizer getMotions() {
+        return motions;
+    }
+
+    /**
+     * move on to the next match tick and fire a buffered press if the fighter has recovered. Call once per simulated
+     * tick, after the fighters were updated
+     */
+    public void update() {
+        tick++;
+        if (pendingEvent < 0) return;
+        if (pendingEvent < size - CAPACITY || tick - ticks[index(pendingEvent)] > bufferWindow) {
+            pendingEvent = -1; // waited too long
+        } else if (fighter.canAct()) {
+            InputCommand command = InputCommand.fromOrdinal(commands[index(pendingEvent)]);
+            pendingEvent = -1;
+            perform(command, pendingSpecial);
+        }
+    }
+
+    /**
+     * a control of the fighter, applied right away when it can be and buffered otherwise
+     */
+    public void add(InputCommand command) {
+        switch (command) {
+            case MOVE_LEFT:
+                fighter.moveLeft();
+                setDirection(-1, directionY, command);
+                break;
+            case MOVE_RIGHT:
+                fighter.moveRight();
+                setDirection(1, directionY, command);
+                break;
+            case MOVE_UP:
+                fighter.moveUp();
+                setDirection(directionX, 1, command);
+                break;
+            case MOVE_DOWN:
+                fighter.moveDown();
+                setDirection(directionX, -1, command);
+                break;
+            case STOP_MOVING_LEFT:
+                fighter.stopMovingLeft();
+                if (directionX == -1) setDirection(0, directionY, command);
+                break;
+            case STOP_MOVING_RIGHT:
+                fighter.stopMovingRight();
+                if (directionX == 1) setDirection(0, directionY, command);
+                break;
+            case STOP_MOVING_UP:
+                fighter.stopMovingUp();
+                if (directionY == 1) setDirection(directionX, 0, command);
+                break;
+            case STOP_MOVING_DOWN:
+                fighter.stopMovingDown();
+                if (directionY == -1) setDirection(directionX, 0, command);
+                break;
+            case STOP_BLOCKING:
+                fighter.stopBlocking();
+                if (blockHeld) record(command);
+                blockHeld = false;
+                break;
+            case BLOCK:
+            case PUNCH:
+            case KICK:
+                if (command == InputCommand.BLOCK) {
+                    blockHeld = true;
+                }
+                long event = record(command);
+                boolean special = motions.button(command, tick) != null;
+                if (fighter.canAct()) {
+                    pendingEvent = -1;
+                    perform(command, special);
+                } else {
+                    // the newest press wins
+                    pendingEvent = event;
+                    pendingSpecial = special;
+                }
+                break;
+            default:
+                break; // not a fighter control
+        }
+    }
+
+    private void perform(InputCommand command, boolean special) {
+        switch (command) {
+            case BLOCK:
+                if (blockHeld) fighter.block(); // unless it was released while waiting
+                break;
+            case PUNCH:
+                fighter.punch(special);
+                break;
+            case KICK:
+                fighter.kick(special);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void setDirection(int x, int y, InputCommand command) {
+        if (x == directionX && y == directionY) return; // e.g. the AI repeating itself
+        directionX = x;
+        directionY = y;
+        record(command);
+        motions.direction(getDirection(), tick);
+    }
+
+    /**
+     * numpad direction of the stick relative to the fighter's facing, see {@link MotionRecognizer}
+     */
+    public int getDirection() {
+        return 5 + directionX * fighter.getFacing() + 3 * directionY;
+    }
+
+    private long record(InputCommand command) {
+        int index = index(size);
+        ticks[index] = tick;
+        commands[index] = (byte) command.ordinal();
+        directions[index] = (byte) getDirection();
+        return size++;
+    }
+
+    /**
+     * drop everything buffered and forget held controls, e.g. when the fighters get ready for a round
+     */
+    public void clear() {
+        size = 0;
+        pendingEvent = -1;
+        directionX = directionY = 0;
+        blockHeld = false;
+        motions.reset();
+    }
+
+    /**
+     * number of events in the ring, at most its capacity
+     */
+    public int size() {
+        return (int) Math.min(size, CAPACITY);
+    }
+
+    /**
+     * command of an event, 0 is the newest
+     */
+    public InputCommand getCommand(int age) {
+        return InputCommand.fromOrdinal(commands[index(size - 1 - age)]);
+    }
+
+    /**
+     * match tick an event came in on, 0 is the newest
+     */
+    public long getTick(int age) {
+        return ticks[index(size - 1 - age)];
+    }
+
+    /**
+     * numpad direction right after an event, 0 is the newest
+     */
+    public int getDirection(int age) {
+        return directions[index(size - 1 - age)];
+    }
+
+    public long getCurrentTick() {
+        return tick;
+    }
+
+    /**
+     * the buffer's own state, not the events it has already passed on
+     */
+    public void hash(StateHash hash) {
+        hash.add("tick", tick);
+        hash.add("size", size);
+        hash.add("bufferWindow", bufferWindow);
+        hash.add("directionX", directionX);
+        hash.add("directionY", directionY);
+        hash.add("blockHeld", blockHeld);
+        hash.add("pendingEvent", pendingEvent);
+        hash.add("pendingSpecial", pendingSpecial);
+        motions.hash(hash);
+    }
+
+    /**
+     * write the buffer's own state. Of the events only the pending one is saved, the older ones are just history
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.putLong(tick);
+        buffer.putLong(size);
+        buffer.putInt(bufferWindow);
+        buffer.put((byte) directionX);
+        buffer.put((byte) directionY);
+        buffer.put((byte) (blockHeld ? 1 : 0));
+        buffer.putLong(pendingEvent);
+        if (pendingEvent >= 0) {
+            int index = index(pendingEvent);
+            buffer.putLong(ticks[index]);
+            buffer.put(commands[index]);
+            buffer.put(directions[index]);
+            buffer.put((byte) (pendingSpecial ? 1 : 0));
+        }
+        motions.save(buffer);
+    }
+
+    public void restore(ByteBuffer buffer) {
+        tick = buffer.getLong();
+        size = buffer.getLong();
+        bufferWindow = buffer.getInt();
+        directionX = buffer.get();
+        directionY = buffer.get();
+        blockHeld = buffer.get() != 0;
+        pendingEvent = buffer.getLong();
+        if (pendingEvent >= 0) {
+            int index = index(pendingEvent);
+            ticks[index] = buffer.getLong();
+            commands[index] = buffer.get();
+            directions[index] = buffer.get();
+            pendingSpecial = buffer.get() != 0;
+        }
+        motions.restore(buffer);
+    }
+
+    private static int index(long event) {
+        return (int) (event & (CAPACITY - 1));
+    }
+}
@@ -0,0 +1,31 @@
+package com.xtrife.sfs.simulation;
+
+/**
+ * Created by 9S on 10/19/2026 - 3:26 PM.
+ * Fighter controls as they reach the simulation thread, see {@link InputQueue} and {@link InputBuffer}.
+ */
+public enum InputCommand {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    MOVE_UP,
+    MOVE_DOWN,
+    STOP_MOVING_LEFT,
+    STOP_MOVING_RIGHT,
+    STOP_MOVING_UP,
+    STOP_MOVING_DOWN,
+    BLOCK,
+    STOP_BLOCKING,
+    PUNCH,
+    KICK,
+    SKIP_ROUND_DELAY;
+
+    private static final InputCommand[] VALUES = values();
+
+    public static InputCommand fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public boolean startsMoving() {
+        return this == MOVE_LEFT || this == MOVE_RIGHT || this == MOVE_UP || this == MOVE_DOWN;
+    }
+}
@@ -0,0 +1,58 @@
+package com.xtrife.sfs.simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 3:28 PM.
+ * Single producer / single consumer queue of timestamped {@link InputCommand}s from the input thread to the
+ * simulation thread. The timestamps let the simulation apply each command in the tick it happened in, however late
+ * the simulation thread gets to it. Never blocks and never allocates; commands are dropped if the queue is full.
+ */
+public class InputQueue {
+    private static final int CAPACITY = 256; // must be a power of 2
+
+    private final long[] times = new long[CAPACITY];
+    private final int[] commands = new int[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(); // next command to publish
+    private final AtomicLong head = new AtomicLong(); // next command to take
+
+    /**
+     * add a command that happened at {@code time} (System.nanoTime()). Only call from the input thread
+     */
+    public boolean offer(InputCommand command, long time) {
+        long position = tail.get();
+        if (position - head.get() >= CAPACITY) {
+            return false; // the simulation stopped taking input, nothing to do but drop it
+        }
+        int index = (int) (position & (CAPACITY - 1));
+        times[index] = time;
+        commands[index] = command.ordinal();
+        tail.lazySet(position + 1); // publish the command
+        return true;
+    }
+
+    /**
+     * true if the oldest queued command happened at or before {@code time}. Only call from the simulation thread
+     */
+    public boolean hasCommandUntil(long time) {
+        long position = head.get();
+        return position < tail.get() && times[(int) (position & (CAPACITY - 1))] - time <= 0;
+    }
+
+    /**
+     * time of the oldest queued command, only valid after {@link #hasCommandUntil} returned true
+     */
+    public long peekTime() {
+        return times[(int) (head.get() & (CAPACITY - 1))];
+    }
+
+    /**
+     * take the oldest queued command, only valid after {@link #hasCommandUntil} returned true
+     */
+    public InputCommand poll() {
+        long position = head.get();
+        InputCommand command = InputCommand.fromOrdinal(commands[(int) (position & (CAPACITY - 1))]);
+        head.lazySet(position + 1);
+        return command;
+    }
+}
@@ -0,0 +1,485 @@
+package com.xtrife.sfs.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.profiling.FramePhase;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:35 AM.
+ * Rules of a best of three fight between the player and the opponent: rounds, timer, arena bounds, hits and the opponent AI.
+ * Does not touch graphics or audio, so it runs the same inside {@link com.xtrife.sfs.screens.GameScreen} and headless.
+ * Every match draws its random numbers from its own generator seeded in {@link #start}, so the same seed and inputs
+ * play the same match.
+ */
+public class Match {
+    // rounds
+    public enum RoundState {STARTING, IN_PROGRESS, ENDING}
+
+    // defaults of the tunable values, see Tuning
+    public static final float START_ROUND_DELAY = 2f; // 2 sec delay
+    public static final float END_ROUND_DELAY = 2f;
+    public static final int MAX_ROUNDS = 3;
+    public static final float MAX_ROUND_TIME = 99.99f;
+
+    // fighters
+    public static final float PLAYER_START_POSITION_X = 60f;
+    public static final float OPPONENT_START_POSITION_X = 100f;
+    public static final float FIGHTER_START_POSITION_Y = 35f;
+    public static final float FIGHTER_CONTACT_DISTANCE_X = 17f;
+    public static final float FIGHTER_CONTACT_DISTANCE_Y = 3f;
+
+    private static final RoundState[] ROUND_STATES = RoundState.values();
+    private static final GlobalVariables.Difficulty[] DIFFICULTIES = GlobalVariables.Difficulty.values();
+
+    private final Fighter player;
+    private final Fighter opponent;
+    private final InputBuffer playerInput, opponentInput;
+    private final FighterAi opponentAi;
+    private FighterAi playerAi; // only set when the player is computer controlled
+    private final RandomXS128 random = new RandomXS128(); // everything random in the match, the AI included
+    private long seed;
+    private MatchListener listener;
+    private Profiler profiler = Profiler.NONE;
+    private Arena arena = new Arena(Arena.RING_WALKABLE_AREA);
+    private Tuning tuning = Tuning.DEFAULT;
+
+    private GlobalVariables.Difficulty difficulty = GlobalVariables.Difficulty.EASY;
+    private RoundState roundState;
+    private float roundStateTime;
+    private int currentRound;
+    private int roundsWon = 0, roundsLost = 0;
+    private float roundTimer = MAX_ROUND_TIME;
+    private boolean over;
+
+    // round delays are scheduled instead of checked every update
+    private final TimerWheel timers = new TimerWheel(MatchRunner.TICK_DURATION);
+    private TimerWheel.Timer roundDelay;
+    private final Runnable startFight = this::startFight;
+    private final Runnable finishRound = this::finishRound;
+
+    public Match(Fighter player, Fighter opponent) {
+        this.player = player;
+        this.opponent = opponent;
+        playerInput = new InputBuffer(player);
+        opponentInput = new InputBuffer(opponent);
+        opponentAi = new FighterAi(opponent, opponentInput, player, AiSettings.forDifficulty(difficulty), random);
+    }
+
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * area the fighters are kept in, the original ring unless a stage sets its own
+     */
+    public void setArena(Arena arena) {
+        this.arena = arena;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * play by these values from the next update on, e.g. a tuning file that was just edited. Only call between
+     * updates, the fighters and the AI switch over together
+     */
+    public void setTuning(Tuning tuning) {
+        this.tuning = tuning;
+        player.setTuning(tuning);
+        opponent.setTuning(tuning);
+        opponentAi.setTuning(tuning);
+        opponentAi.setSettings(tuning.getAiSettings(difficulty));
+        if (playerAi != null) {
+            playerAi.setTuning(tuning);
+        }
+    }
+
+    public Tuning getTuning() {
+        return tuning;
+    }
+
+    /**
+     * let the AI fight for the player too, e.g. for simulated matches. Pass null to give control back.
+     */
+    public void setPlayerAi(AiSettings settings) {
+        playerAi = settings == null ? null : new FighterAi(player, playerInput, opponent, settings, random);
+        if (playerAi != null) {
+            playerAi.setTuning(tuning);
+        }
+    }
+
+    public void setOpponentAi(AiSettings settings) {
+        opponentAi.setSettings(settings);
+    }
+
+    /**
+     * start over from round 1, with the random numbers of {@code seed}
+     */
+    public void start(long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+        over = false;
+        timers.clear();
+        roundsWon = roundsLost = 0;
+        opponentAi.reset();
+        if (playerAi != null) {
+            playerAi.reset();
+        }
+
+        // start round 1
+        currentRound = 1;
+        startRound();
+    }
+
+    private void startRound() {
+        // ready fighters
+        player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
+        opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
+        playerInput.clear();
+        opponentInput.clear();
+        // start the round
+        roundState = RoundState.STARTING;
+        roundStateTime = 0f;
+        roundTimer = tuning.maxRoundTime;
+        roundDelay = timers.schedule(tuning.startRoundDelay, startFight);
+        profiler.roundStarted(currentRound);
+    }
+
+    private void startFight() {
+        roundState = RoundState.IN_PROGRESS;
+        roundStateTime = 0f;
+    }
+
+    private void endRound() {
+        roundState = RoundState.ENDING;
+        roundStateTime = 0f;
+        roundDelay = timers.schedule(tuning.endRoundDelay, finishRound);
+    }
+
+    private void finishRound() {
+        // if player has won or lost more than half of the max number of rounds end the game; otherwise start the next round
+        if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
+            over = true;
+        } else {
+            currentRound++;
+            startRound();
+        }
+    }
+
+    private void winRound() {
+        // player wins the round
+        player.win();
+        opponent.lose();
+        roundsWon++;
+        profiler.roundEnded(currentRound, true, tuning.maxRoundTime - roundTimer);
+
+        if (listener != null) {
+            listener.onRoundWon();
+        }
+
+        endRound();
+    }
+
+    private void loseRound() {
+        player.lose();
+        opponent.win();
+        roundsLost++;
+        profiler.roundEnded(currentRound, false, tuning.maxRoundTime - roundTimer);
+
+        if (listener != null) {
+            listener.onRoundLost();
+        }
+
+        endRound();
+    }
+
+    /**
+     * skip the delay at the start or end of a round
+     */
+    public void skipRoundDelay() {
+        if (roundState == RoundState.IN_PROGRESS || roundDelay == null || !roundDelay.isScheduled()) return;
+        timers.cancel(roundDelay);
+        if (roundState == RoundState.STARTING) {
+            startFight();
+        } else {
+            finishRound();
+        }
+    }
+
+    /**
+     * advance the match by delta seconds. A delta of 0f freezes the match
+     */
+    public void update(float delta) {
+        if (over) return;
+
+        // increment the round state time by delta time, the round delays run out in here
+        roundStateTime += delta;
+        timers.advance(delta);
+        if (over) return;
+
+        player.update(delta); // delta is the elapsed time since last screen render
+        opponent.update(delta);
+        // fighters that just recovered take their buffered attacks
+        playerInput.update();
+        opponentInput.update();
+
+        // make sure fighters are facing each other
+        if (player.getPosition().x <= opponent.getPosition().x) {
+            player.faceRight();
+            opponent.faceLeft();
+        } else {
+            player.faceLeft();
+            opponent.faceRight();
+        }
+
+        // keep fighters within the stage's walkable area
+        arena.clamp(player.getPosition());
+        arena.clamp(opponent.getPosition());
+
+        if (roundState == RoundState.IN_PROGRESS) {
+            // decrease timer if round in progress
+            roundTimer -= delta;
+            if (roundTimer <= 0f) {
+                // timout win decided by highest HP
+                if (player.getLife() >= opponent.getLife()) {
+                    winRound();
+                } else {
+                    loseRound();
+                }
+            }
+
+            // perform AI actions
+            profiler.begin(FramePhase.AI);
+            opponentAi.update(delta);
+            if (playerAi != null) {
+                playerAi.update(delta);
+            }
+            profiler.end(FramePhase.AI);
+
+            // round in progress. Check if fighters are within contact distance
+            profiler.begin(FramePhase.HIT_RESOLUTION);
+            if (tuning.areWithinContactDistance(player.getPosition(), opponent.getPosition())) {
+                if (player.isAttackActive()) {
+                    // PLAYER HITSCAN LOGIC
+                    // if within contact distance AND while attacking, apply hit
+                    hit(player, opponent);
+
+                    // check if opponent has lost
+                    if (opponent.hasLost()) {
+                        winRound();
+                    }
+                } else if (opponent.isAttackActive()) {
+                    // OPPONENT HITSCAN LOGIC
+                    hit(opponent, player);
+
+                    // check if player has lost
+                    if (player.hasLost()) {
+                        loseRound();
+                    }
+                }
+            }
+            profiler.end(FramePhase.HIT_RESOLUTION);
+        }
+    }
+
+    private void hit(Fighter attacker, Fighter defender) {
+        defender.getHit(attacker.getAttackStrength());
+
+        if (listener != null) {
+            listener.onFighterHit(defender, defender.isBlocking());
+        }
+
+        // deactivate attack after contact
+        attacker.makeContact();
+    }
+
+    public GlobalVariables.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(GlobalVariables.Difficulty difficulty) {
+        this.difficulty = difficulty;
+        opponentAi.setSettings(tuning.getAiSettings(difficulty));
+    }
+
+    public Fighter getPlayer() {
+        return player;
+    }
+
+    public Fighter getOpponent() {
+        return opponent;
+    }
+
+    /**
+     * where the player's controls go, on the simulation thread
+     */
+    public InputBuffer getPlayerInput() {
+        return playerInput;
+    }
+
+    public InputBuffer getOpponentInput() {
+        return opponentInput;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public RoundState getRoundState() {
+        return roundState;
+    }
+
+    public float getRoundStateTime() {
+        return roundStateTime;
+    }
+
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getRoundsLost() {
+        return roundsLost;
+    }
+
+    public float getRoundTimer() {
+        return roundTimer;
+    }
+
+    /**
+     * seconds the current round has been fought, up to its tuned max round time
+     */
+    public float getRoundTime() {
+        return tuning.maxRoundTime - Math.max(0f, roundTimer);
+    }
+
+    /**
+     * true once a fighter has won more than half of the max rounds and the end round delay has passed
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * add the state of the match, its fighters, their inputs and AIs and the random generator to a state hash
+     */
+    public void hash(StateHash hash) {
+        hash.section("match");
+        hash.add("seed", seed);
+        hash.add("random0", random.getState(0));
+        hash.add("random1", random.getState(1));
+        hash.add("difficulty", difficulty);
+        hash.add("tuning", tuning.getHash());
+        hash.add("roundState", roundState);
+        hash.add("roundStateTime", roundStateTime);
+        hash.add("currentRound", currentRound);
+        hash.add("roundsWon", roundsWon);
+        hash.add("roundsLost", roundsLost);
+        hash.add("roundTimer", roundTimer);
+        hash.add("over", over);
+        timers.hash(hash);
+        boolean delayed = roundDelay != null && roundDelay.isScheduled();
+        hash.add("roundDelay", delayed ? roundDelay.getDeadline() : -1L);
+
+        hash.section("player");
+        player.hash(hash);
+        hash.section("playerInput");
+        playerInput.hash(hash);
+        hash.section("playerAi");
+        hash.add("enabled", playerAi != null);
+        if (playerAi != null) {
+            playerAi.hash(hash);
+        }
+
+        hash.section("opponent");
+        opponent.hash(hash);
+        hash.section("opponentInput");
+        opponentInput.hash(hash);
+        hash.section("opponentAi");
+        opponentAi.hash(hash);
+    }
+
+    /**
+     * write everything {@link #hash} covers, e.g. for a replay keyframe. The arena isn't part of it
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.putLong(seed);
+        buffer.putLong(random.getState(0));
+        buffer.putLong(random.getState(1));
+        buffer.put((byte) difficulty.ordinal());
+        tuning.save(buffer);
+        buffer.put((byte) roundState.ordinal());
+        buffer.putFloat(roundStateTime);
+        buffer.putInt(currentRound);
+        buffer.putInt(roundsWon);
+        buffer.putInt(roundsLost);
+        buffer.putFloat(roundTimer);
+        buffer.put((byte) (over ? 1 : 0));
+        timers.save(buffer);
+        boolean delayed = roundDelay != null && roundDelay.isScheduled();
+        buffer.putLong(delayed ? roundDelay.getDeadline() : -1L);
+
+        player.save(buffer);
+        playerInput.save(buffer);
+        buffer.put((byte) (playerAi != null ? 1 : 0));
+        if (playerAi != null) {
+            playerAi.save(buffer);
+        }
+        opponent.save(buffer);
+        opponentInput.save(buffer);
+        opponentAi.save(buffer);
+    }
+
+    /**
+     * continue from a saved state. A saved computer controlled player gets its AI back, so replays of AI vs AI
+     * matches play the same
+     */
+    public void restore(ByteBuffer buffer) {
+        seed = buffer.getLong();
+        random.setState(buffer.getLong(), buffer.getLong());
+        difficulty = DIFFICULTIES[buffer.get()];
+        Tuning savedTuning = Tuning.restore(buffer, tuning);
+        if (savedTuning != tuning) {
+            setTuning(savedTuning); // before the AI is restored, its saved settings win over the ones set here
+        }
+        roundState = ROUND_STATES[buffer.get()];
+        roundStateTime = buffer.getFloat();
+        currentRound = buffer.getInt();
+        roundsWon = buffer.getInt();
+        roundsLost = buffer.getInt();
+        roundTimer = buffer.getFloat();
+        over = buffer.get() != 0;
+        timers.restore(buffer);
+        // the round delays are the only timers, put back the one that was waiting
+        long roundDelayDeadline = buffer.getLong();
+        roundDelay = roundDelayDeadline < 0 ? null
+            : timers.scheduleAt(roundDelayDeadline, roundState == RoundState.STARTING ? startFight : finishRound);
+
+        player.restore(buffer);
+        playerInput.restore(buffer);
+        if (buffer.get() != 0) {
+            if (playerAi == null) {
+                playerAi = new FighterAi(player, playerInput, opponent, tuning.getAiSettings(difficulty), random);
+                playerAi.setTuning(tuning);
+            }
+            playerAi.restore(buffer);
+        } else {
+            playerAi = null;
+        }
+        opponent.restore(buffer);
+        opponentInput.restore(buffer);
+        opponentAi.restore(buffer);
+    }
+}
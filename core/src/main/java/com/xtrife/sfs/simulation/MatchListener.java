@@ -0,0 +1,18 @@
+package com.xtrife.sfs.simulation;
+
+import com.xtrife.sfs.objects.Fighter;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:31 AM.
+ * Receives the events of a {@link Match} that need sound or visuals, so the simulation itself can run headless.
+ */
+public interface MatchListener {
+    /**
+     * an attack landed on {@code fighter}, {@code blocked} is true if it was blocked
+     */
+    void onFighterHit(Fighter fighter, boolean blocked);
+
+    void onRoundWon();
+
+    void onRoundLost();
+}
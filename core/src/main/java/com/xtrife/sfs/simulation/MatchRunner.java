@@ -0,0 +1,629 @@
+package com.xtrife.sfs.simulation;
+
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.profiling.FramePhase;
+import com.xtrife.sfs.profiling.Profiler;
+import com.xtrife.sfs.replay.Replay;
+import com.xtrife.sfs.replay.ReplayRecorder;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.telemetry.TelemetryEvent;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by 9S on 10/19/2026 - 3:40 PM.
+ * Runs a {@link Match} on its own thread at a fixed tick rate, so a slow frame never delays input handling or the AI
+ * and the render frame rate doesn't change how the match plays. After every batch of ticks the runner publishes a
+ * {@link MatchSnapshot} through a {@link TripleBuffer}; player input comes in through a timestamped {@link InputQueue}
+ * and everything else (restart, pause, difficulty, arena, tuning) as commands run between ticks.
+ * <p>
+ * The match, its fighters and the telemetry log belong to the simulation thread once {@link #start()} was called.
+ * <p>
+ * With a {@link ReplayRecorder} every match is recorded: a keyframe of the whole state every few ticks plus every
+ * control and command in between. {@link #startReplay} plays such a recording back instead, stepped by the caller,
+ * and {@link #seek} jumps to any tick of it.
+ * <p>
+ * With a {@link MatchBroadcaster} the state after every live tick is streamed to spectators.
+ */
+public class MatchRunner implements MatchListener {
+    public static final int TICK_RATE = 120;
+    public static final float TICK_DURATION = 1f / TICK_RATE;
+    private static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+    // after a longer stall (e.g. a debugger or GC pause) the simulation skips ahead instead of fast forwarding
+    private static final int MAX_CATCH_UP_TICKS = 12;
+
+    // blood
+    public static final int BLOOD_SPLATTER_AMOUNT = 5;
+    private static final float BLOOD_SPLATTER_OFFSET_X = 10f;
+    private static final float BLOOD_SPLATTER_OFFSET_Y = 25f;
+
+    // time effects, in ticks
+    private static final int HITSTOP_TICKS = 8;
+    private static final int BLOCK_HITSTOP_TICKS = 4; // blocked hits land softer
+    private static final float KO_SLOW_MOTION_SCALE = 0.25f;
+    private static final int KO_SLOW_MOTION_TICKS = TICK_RATE; // one real second
+
+    private static final GlobalVariables.Difficulty[] DIFFICULTIES = GlobalVariables.Difficulty.values();
+
+    private final Match match;
+    private final TelemetryLog telemetry;
+    private final float bloodSplatterDuration;
+    private Profiler profiler = Profiler.NONE;
+
+    // thread hand over
+    private final TripleBuffer<MatchSnapshot> snapshots =
+        new TripleBuffer<>(new MatchSnapshot(), new MatchSnapshot(), new MatchSnapshot());
+    private final InputQueue inputs = new InputQueue();
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private Thread thread;
+    private volatile boolean running;
+
+    // simulation thread state
+    private final GameClock clock = new GameClock(TICK_DURATION);
+    private int generation;
+    private long tick;
+    private int hits, blocks, roundWins, roundLosses;
+    private final boolean[] bloodActive = new boolean[BLOOD_SPLATTER_AMOUNT * 2];
+    private final float[] bloodX = new float[BLOOD_SPLATTER_AMOUNT * 2];
+    private final float[] bloodY = new float[BLOOD_SPLATTER_AMOUNT * 2];
+    private final float[] bloodTime = new float[BLOOD_SPLATTER_AMOUNT * 2];
+    private final int[] nextBloodSplatter = new int[2]; // per side, cycles through that side's splatters
+    // desync detection, see StateHash
+    private final StateHash stateHash = new StateHash();
+    private final StateHashHistory hashHistory = new StateHashHistory();
+    private long matchTick; // ticks since the match started
+    private boolean observed = true; // hashed and captured after every tick, see setObserved
+    // oldest control applied since the last snapshot, for the input latency. 0 if none
+    private long inputEventTime, inputAppliedTime;
+    // recording, null if matches aren't recorded
+    private ReplayRecorder recorder;
+    // playback, null unless playing a replay
+    private Replay replay;
+    private int nextKeyframe; // the next keyframe playback passes, its hash is checked
+    private long replayDesyncTick = -1;
+    // spectators, null if the match isn't broadcast
+    private MatchBroadcaster broadcaster;
+    private final MatchSnapshot broadcastSnapshot = new MatchSnapshot();
+
+    public MatchRunner(Match match, TelemetryLog telemetry, float bloodSplatterDuration) {
+        this.match = match;
+        this.telemetry = telemetry;
+        this.bloodSplatterDuration = bloodSplatterDuration;
+        match.setListener(this);
+    }
+
+    /**
+     * time the ticks and the match inside them, set before {@link #start()}
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+        match.setProfiler(profiler);
+    }
+
+    /**
+     * record every match from now on, set before {@link #start()}
+     */
+    public void setReplayRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * stream every live tick to spectators from now on, set before {@link #start()}
+     */
+    public void setBroadcaster(MatchBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * false skips the state hash and the snapshots, for tools that step through many matches and only read the match
+     * itself, e.g. the AI tuner. The rules, hitstop and slow-motion stay the same. Set before {@link #startStepped},
+     * not for recorded or broadcast matches
+     */
+    public void setObserved(boolean observed) {
+        this.observed = observed;
+    }
+
+    /**
+     * start a match and the simulation thread. The first snapshot is ready when this returns
+     */
+    public void start(long seed) {
+        if (running) return;
+        startHashing(seed);
+        capture(snapshots.back());
+        snapshots.publish();
+
+        running = true;
+        thread = new Thread(this::run, "match-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * start a match without the simulation thread, {@link #step()} advances it instead. For runs that have to draw
+     * the same frames every time, e.g. benchmarks
+     */
+    public void startStepped(long seed) {
+        if (running) return;
+        startHashing(seed);
+        capture(snapshots.back());
+        snapshots.publish();
+    }
+
+    /**
+     * advance the match by one tick and publish its snapshot on the calling thread, only after {@link #startStepped()}
+     * or {@link #startReplay}. A replay stops at its last tick
+     */
+    public void step() {
+        if (replay == null) {
+            tick(System.nanoTime());
+        } else if (matchTick < replay.getTickCount()) {
+            replayTick();
+        }
+        if (observed) {
+            capture(snapshots.back());
+            snapshots.publish();
+        }
+    }
+
+    /**
+     * play back a recorded match instead, stepped on the calling thread like {@link #startStepped}. Starts at its
+     * first tick
+     */
+    public void startReplay(Replay replay) {
+        if (running) return;
+        this.replay = replay;
+        match.setArena(replay.getArena());
+        match.setTuning(replay.getTuning()); // not the viewer's, the keyframes and events change it from there on
+        seek(0);
+    }
+
+    /**
+     * jump to the state of the replay before {@code tick}: restore the last keyframe before it and simulate the ticks
+     * in between, at most a keyframe interval. Publishes the snapshot of that tick
+     */
+    public void seek(long tick) {
+        tick = Math.max(0, Math.min(tick, replay.getTickCount()));
+        int keyframe = replay.findKeyframe(tick);
+        restore(replay.startAt(keyframe));
+        hashHistory.restart(replay.getKeyframeHash(keyframe));
+        nextKeyframe = keyframe + 1;
+        while (matchTick < tick) {
+            replayTick();
+        }
+        capture(snapshots.back());
+        snapshots.publish();
+    }
+
+    /**
+     * the replay being played, null if none
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * first keyframe tick whose state hash didn't match the one played back, -1 if they all did. A replay plays
+     * differently if the rules changed since it was recorded
+     */
+    public long getReplayDesyncTick() {
+        return replayDesyncTick;
+    }
+
+    /**
+     * stop the simulation thread, a match still being recorded is saved as far as it got
+     */
+    public void stop() {
+        if (running) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (recorder != null) {
+            recorder.finish(matchTick);
+        }
+    }
+
+    /**
+     * newest published state of the match, only call from the render thread
+     */
+    public MatchSnapshot getSnapshot() {
+        return snapshots.front();
+    }
+
+    /**
+     * queue a player control that happened at {@code time} (System.nanoTime()), only call from the input thread
+     */
+    public void input(InputCommand command, long time) {
+        inputs.offer(command, time);
+    }
+
+    /**
+     * start over from round 1 with the random numbers of {@code seed}. Snapshots of the new match carry the given
+     * generation
+     */
+    public void startMatch(final int generation, final long seed) {
+        post(() -> {
+            this.generation = generation;
+            clock.reset();
+            clearBlood();
+            startHashing(seed);
+        });
+    }
+
+    /**
+     * start the match and hash its state from its first tick on
+     */
+    private void startHashing(long seed) {
+        if (recorder != null) {
+            recorder.finish(matchTick); // the previous match, unless it was already over
+        }
+        match.start(seed);
+        matchTick = 0;
+        hashHistory.clear();
+        if (recorder != null) {
+            recorder.begin(seed, match.getArena(), TICK_RATE, match.getTuning());
+            saveKeyframe();
+        }
+    }
+
+    /**
+     * hash everything that decides how the match goes from here, blood is only for show. Only call on the simulation
+     * thread, e.g. with field recording on to see which field two runs disagree on
+     */
+    public void hashState(StateHash hash) {
+        hash.reset();
+        clock.hash(hash);
+        match.hash(hash);
+    }
+
+    /**
+     * rolling state hashes of the last ticks of the match, by match tick. Only use on the simulation thread, e.g. to
+     * compare them with a peer's
+     */
+    public StateHashHistory getHashHistory() {
+        return hashHistory;
+    }
+
+    public void setPaused(final boolean paused) {
+        post(() -> {
+            clock.setPaused(paused);
+            recordEvent(paused ? Replay.EVENT_PAUSE : Replay.EVENT_RESUME);
+            logEvent(paused ? TelemetryEvent.PAUSE : TelemetryEvent.RESUME, TelemetryLog.SIDE_NONE, 0f);
+        });
+    }
+
+    public void setDifficulty(final GlobalVariables.Difficulty difficulty) {
+        post(() -> {
+            match.setDifficulty(difficulty);
+            if (recorder != null && recorder.isRecording()) {
+                recorder.event(matchTick, Replay.EVENT_DIFFICULTY, difficulty.ordinal());
+            }
+            logEvent(TelemetryEvent.DIFFICULTY_CHANGE, TelemetryLog.SIDE_NONE, 0f);
+        });
+    }
+
+    public void setArena(final Arena arena) {
+        post(() -> match.setArena(arena));
+    }
+
+    /**
+     * switch the match to new gameplay values between two ticks, see {@link Match#setTuning}. Recorded, so the replay
+     * switches at the same tick
+     */
+    public void setTuning(final Tuning tuning) {
+        post(() -> {
+            match.setTuning(tuning);
+            if (recorder != null && recorder.isRecording()) {
+                recorder.tuning(matchTick, tuning);
+            }
+        });
+    }
+
+    /**
+     * run a command on the simulation thread before its next tick, waking it up if it's idle
+     */
+    private void post(Runnable command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime() + TICK_NANOS;
+        while (running) {
+            if ((clock.isPaused() || match.isOver()) && commands.isEmpty()) {
+                // nothing moves until a command comes in, sleep instead of ticking a frozen match
+                if (broadcaster != null) {
+                    broadcaster.flush(); // spectators see the last ticks before the pause
+                }
+                LockSupport.park(this);
+                nextTick = System.nanoTime() + TICK_NANOS;
+                continue;
+            }
+
+            long now = System.nanoTime();
+            int ticks = 0;
+            while (now - nextTick >= 0 && ticks < MAX_CATCH_UP_TICKS) {
+                tick(nextTick);
+                nextTick += TICK_NANOS;
+                ticks++;
+            }
+            if (now - nextTick >= 0) {
+                nextTick = now + TICK_NANOS; // too far behind, drop the missed time
+            }
+
+            if (ticks > 0) {
+                capture(snapshots.back());
+                snapshots.publish();
+            }
+            LockSupport.parkNanos(this, nextTick - System.nanoTime());
+        }
+    }
+
+    /**
+     * advance the match by one tick that ends at {@code tickEnd} (System.nanoTime())
+     */
+    private void tick(long tickEnd) {
+        profiler.begin(FramePhase.SIMULATION);
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+
+        // hand the controls that happened before the end of this tick to the player's input buffer, in order
+        while (inputs.hasCommandUntil(tickEnd)) {
+            if (inputEventTime == 0) {
+                inputEventTime = inputs.peekTime();
+                inputAppliedTime = System.nanoTime();
+            }
+            apply(inputs.poll());
+        }
+
+        simulate();
+        profiler.end(FramePhase.SIMULATION);
+
+        if (broadcaster != null) {
+            fill(broadcastSnapshot);
+            broadcaster.tick(broadcastSnapshot);
+        }
+    }
+
+    /**
+     * play the next tick of the replay: its recorded events, then the same simulation as when it was recorded
+     */
+    private void replayTick() {
+        profiler.begin(FramePhase.SIMULATION);
+        while (replay.hasEvent(matchTick)) {
+            int event = replay.pollEvent();
+            if (event == Replay.EVENT_PAUSE || event == Replay.EVENT_RESUME) {
+                clock.setPaused(event == Replay.EVENT_PAUSE);
+            } else if (event == Replay.EVENT_DIFFICULTY) {
+                match.setDifficulty(DIFFICULTIES[replay.getEventArgument()]);
+            } else if (event == Replay.EVENT_TUNING) {
+                match.setTuning(replay.getEventTuning(match.getTuning()));
+            } else {
+                apply(InputCommand.fromOrdinal(event));
+            }
+        }
+        simulate();
+
+        // keyframes on the way show whether the replay still plays the way it was recorded
+        if (nextKeyframe < replay.getKeyframeCount() && replay.getKeyframeTick(nextKeyframe) == matchTick) {
+            if (replay.getKeyframeHash(nextKeyframe) != hashHistory.getRollingHash() && replayDesyncTick < 0) {
+                replayDesyncTick = matchTick;
+            }
+            nextKeyframe++;
+        }
+        profiler.end(FramePhase.SIMULATION);
+    }
+
+    /**
+     * advance the match by one tick, whatever controls and commands it gets were applied already
+     */
+    private void simulate() {
+        clock.tick();
+        float delta = clock.getDelta(GameClock.Channel.GAMEPLAY);
+        if (delta > 0f) { // frozen by hitstop or pause, nothing to simulate
+            match.update(delta);
+        }
+        updateBlood(clock.getDelta(GameClock.Channel.EFFECTS));
+
+        if (observed) {
+            hashState(stateHash);
+            hashHistory.add(matchTick, stateHash.get());
+        }
+        matchTick++;
+        tick++;
+
+        if (recorder != null && recorder.isRecording()) {
+            if (match.isOver()) {
+                recorder.finish(matchTick);
+            } else if (matchTick % recorder.getKeyframeInterval() == 0) {
+                saveKeyframe();
+            }
+        }
+    }
+
+    private void saveKeyframe() {
+        save(recorder.beginKeyframe(matchTick, hashHistory.getRollingHash()));
+        recorder.endKeyframe();
+    }
+
+    private void recordEvent(int code) {
+        if (recorder != null && recorder.isRecording()) {
+            recorder.event(matchTick, code);
+        }
+    }
+
+    /**
+     * write the state the next tick starts from: the clock, the match and the blood, see {@link #restore}
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.putLong(matchTick);
+        clock.save(buffer);
+        match.save(buffer);
+        buffer.putInt(hits).putInt(blocks).putInt(roundWins).putInt(roundLosses);
+        for (int i = 0; i < bloodActive.length; i++) {
+            buffer.put((byte) (bloodActive[i] ? 1 : 0));
+            buffer.putFloat(bloodX[i]);
+            buffer.putFloat(bloodY[i]);
+            buffer.putFloat(bloodTime[i]);
+        }
+        buffer.put((byte) nextBloodSplatter[0]).put((byte) nextBloodSplatter[1]);
+    }
+
+    /**
+     * continue from a state written by {@link #save}. Only call on the simulation thread
+     */
+    public void restore(ByteBuffer buffer) {
+        matchTick = buffer.getLong();
+        clock.restore(buffer);
+        match.restore(buffer);
+        hits = buffer.getInt();
+        blocks = buffer.getInt();
+        roundWins = buffer.getInt();
+        roundLosses = buffer.getInt();
+        for (int i = 0; i < bloodActive.length; i++) {
+            bloodActive[i] = buffer.get() != 0;
+            bloodX[i] = buffer.getFloat();
+            bloodY[i] = buffer.getFloat();
+            bloodTime[i] = buffer.getFloat();
+        }
+        nextBloodSplatter[0] = buffer.get();
+        nextBloodSplatter[1] = buffer.get();
+    }
+
+    private void apply(InputCommand command) {
+        recordEvent(command.ordinal());
+        if (command == InputCommand.SKIP_ROUND_DELAY) {
+            if (!clock.isPaused()) match.skipRoundDelay();
+            return;
+        }
+        // movement only starts while fighting, stopping always works so keys released between rounds aren't stuck
+        if (command.startsMoving() && match.getRoundState() != Match.RoundState.IN_PROGRESS) return;
+        match.getPlayerInput().add(command);
+    }
+
+    @Override
+    public void onFighterHit(Fighter fighter, boolean blocked) {
+        logEvent(blocked ? TelemetryEvent.BLOCK : TelemetryEvent.HIT, sideOf(fighter), fighter.getLife());
+
+        if (blocked) {
+            blocks++;
+            clock.hitstop(BLOCK_HITSTOP_TICKS);
+        } else {
+            hits++;
+            clock.hitstop(HITSTOP_TICKS);
+            spillBlood(fighter);
+        }
+    }
+
+    @Override
+    public void onRoundWon() {
+        logEvent(TelemetryEvent.ROUND_ENDED, TelemetryLog.SIDE_NONE, match.getRoundTime());
+        logEvent(TelemetryEvent.ROUND_WON, TelemetryLog.SIDE_PLAYER, match.getPlayer().getLife());
+        roundWins++;
+        knockout();
+    }
+
+    @Override
+    public void onRoundLost() {
+        logEvent(TelemetryEvent.ROUND_ENDED, TelemetryLog.SIDE_NONE, match.getRoundTime());
+        logEvent(TelemetryEvent.ROUND_LOST, TelemetryLog.SIDE_OPPONENT, match.getOpponent().getLife());
+        roundLosses++;
+        knockout();
+    }
+
+    private void knockout() {
+        // let the finishing blow play out in slow-motion, a timeout ends at normal speed
+        if (match.getRoundTimer() <= 0f) return;
+        clock.slowMotion(KO_SLOW_MOTION_SCALE, KO_SLOW_MOTION_TICKS);
+    }
+
+    private void spillBlood(Fighter fighter) {
+        int side = sideOf(fighter);
+        logEvent(TelemetryEvent.BLOOD, side, fighter.getLife());
+
+        // activate the side's next blood splatter, reusing the oldest one
+        int index = side * BLOOD_SPLATTER_AMOUNT + nextBloodSplatter[side];
+        bloodActive[index] = true;
+        bloodX[index] = fighter.getPosition().x + BLOOD_SPLATTER_OFFSET_X;
+        bloodY[index] = fighter.getPosition().y + BLOOD_SPLATTER_OFFSET_Y;
+        bloodTime[index] = 0f;
+        nextBloodSplatter[side] = (nextBloodSplatter[side] + 1) % BLOOD_SPLATTER_AMOUNT;
+    }
+
+    private void updateBlood(float delta) {
+        for (int i = 0; i < bloodActive.length; i++) {
+            if (!bloodActive[i]) continue;
+            bloodTime[i] += delta;
+            // deactivate splatters once their animation has finished
+            if (bloodTime[i] > bloodSplatterDuration) {
+                bloodActive[i] = false;
+            }
+        }
+    }
+
+    private void clearBlood() {
+        for (int i = 0; i < bloodActive.length; i++) {
+            bloodActive[i] = false;
+        }
+        nextBloodSplatter[0] = nextBloodSplatter[1] = 0;
+    }
+
+    private void capture(MatchSnapshot snapshot) {
+        fill(snapshot);
+        snapshot.inputEventTime = inputEventTime;
+        snapshot.inputAppliedTime = inputAppliedTime;
+        inputEventTime = inputAppliedTime = 0;
+    }
+
+    /**
+     * the match's state into a snapshot, without the input latency
+     */
+    private void fill(MatchSnapshot snapshot) {
+        snapshot.player.set(match.getPlayer());
+        snapshot.opponent.set(match.getOpponent());
+
+        System.arraycopy(bloodActive, 0, snapshot.bloodActive, 0, bloodActive.length);
+        System.arraycopy(bloodX, 0, snapshot.bloodX, 0, bloodX.length);
+        System.arraycopy(bloodY, 0, snapshot.bloodY, 0, bloodY.length);
+        System.arraycopy(bloodTime, 0, snapshot.bloodTime, 0, bloodTime.length);
+
+        snapshot.roundState = match.getRoundState();
+        snapshot.roundStateTime = match.getRoundStateTime();
+        snapshot.currentRound = match.getCurrentRound();
+        snapshot.roundsWon = match.getRoundsWon();
+        snapshot.roundsLost = match.getRoundsLost();
+        snapshot.roundTimer = match.getRoundTimer();
+        snapshot.difficulty = match.getDifficulty();
+        snapshot.tuning = match.getTuning();
+        snapshot.over = match.isOver();
+
+        snapshot.hits = hits;
+        snapshot.blocks = blocks;
+        snapshot.roundWins = roundWins;
+        snapshot.roundLosses = roundLosses;
+
+        snapshot.generation = generation;
+        snapshot.tick = tick;
+        snapshot.matchTick = matchTick;
+        snapshot.stateHash = hashHistory.getRollingHash();
+    }
+
+    private int sideOf(Fighter fighter) {
+        return fighter == match.getPlayer() ? TelemetryLog.SIDE_PLAYER : TelemetryLog.SIDE_OPPONENT;
+    }
+
+    private void logEvent(TelemetryEvent event, int side, float value) {
+        if (replay != null) return; // already logged when it was played
+        telemetry.log(event, side, match.getDifficulty(), match.getCurrentRound(), value, match.getRoundTimer());
+    }
+}
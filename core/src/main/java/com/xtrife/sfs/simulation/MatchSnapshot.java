@@ -0,0 +1,59 @@
+package com.xtrife.sfs.simulation;
+
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+/**
+ * Created by 9S on 10/19/2026 - 3:34 PM.
+ * Everything the game screen draws from a match at the end of one simulation tick. Filled by {@link MatchRunner} on
+ * the simulation thread and handed to the render thread through a {@link TripleBuffer}; once published it is never
+ * written again until the reader has moved on to a newer one, so the render thread can read it without locking.
+ */
+public class MatchSnapshot {
+    public static class FighterSnapshot {
+        public float x, y;
+        public Fighter.State state;
+        public float stateTime;
+        public int facing;
+        public float life;
+
+        void set(Fighter fighter) {
+            x = fighter.getPosition().x;
+            y = fighter.getPosition().y;
+            state = fighter.getRenderState();
+            stateTime = fighter.getRenderStateTime();
+            facing = fighter.getFacing();
+            life = fighter.getLife();
+        }
+    }
+
+    public final FighterSnapshot player = new FighterSnapshot();
+    public final FighterSnapshot opponent = new FighterSnapshot();
+
+    // blood splatters, the player's first then the opponent's
+    public final boolean[] bloodActive = new boolean[MatchRunner.BLOOD_SPLATTER_AMOUNT * 2];
+    public final float[] bloodX = new float[MatchRunner.BLOOD_SPLATTER_AMOUNT * 2];
+    public final float[] bloodY = new float[MatchRunner.BLOOD_SPLATTER_AMOUNT * 2];
+    public final float[] bloodTime = new float[MatchRunner.BLOOD_SPLATTER_AMOUNT * 2];
+
+    // HUD
+    public Match.RoundState roundState;
+    public float roundStateTime;
+    public int currentRound;
+    public int roundsWon, roundsLost;
+    public float roundTimer;
+    public GlobalVariables.Difficulty difficulty;
+    public Tuning tuning; // e.g. how long a round takes to start
+    public boolean over;
+
+    // running event counts, the renderer plays a sound for each one it hasn't seen yet
+    public int hits, blocks, roundWins, roundLosses;
+
+    public int generation; // which startMatch() call this match comes from
+    public long tick;
+    public long matchTick; // ticks since the match started
+    public long stateHash; // rolling hash of the match state up to matchTick, see StateHash
+
+    // the oldest control applied since the previous snapshot (System.nanoTime()), 0 if none
+    public long inputEventTime, inputAppliedTime;
+}
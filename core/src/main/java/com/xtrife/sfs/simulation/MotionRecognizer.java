@@ -0,0 +1,102 @@
+package com.xtrife.sfs.simulation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:41 PM.
+ * Spots special move inputs, a sequence of stick directions followed by a button, in the events of an
+ * {@link InputBuffer}. Every motion keeps how far along its sequence the fighter got, so each direction change or
+ * button press is checked in constant time however long the buffer is. Directions are numpad notation relative to
+ * the way the fighter faces: 6 is forward, 4 back, 8 up the stage, 2 down it and 5 neutral.
+ */
+public class MotionRecognizer {
+    public enum Motion {
+        QUARTER_CIRCLE_FORWARD_PUNCH(InputCommand.PUNCH, 2, 3, 6),
+        QUARTER_CIRCLE_BACK_KICK(InputCommand.KICK, 2, 1, 4);
+
+        public final InputCommand button;
+        final int[] directions;
+
+        Motion(InputCommand button, int... directions) {
+            this.button = button;
+            this.directions = directions;
+        }
+    }
+
+    private static final Motion[] MOTIONS = Motion.values();
+    public static final int DEFAULT_STEP_WINDOW = 18; // ticks between the steps of a motion, 150 ms
+
+    private final int[] steps = new int[MOTIONS.length]; // directions of each motion done so far
+    private final long[] stepTicks = new long[MOTIONS.length]; // when the last of them was
+    private int stepWindow = DEFAULT_STEP_WINDOW;
+
+    public void setStepWindow(int ticks) {
+        stepWindow = ticks;
+    }
+
+    /**
+     * the stick moved to {@code direction} at {@code tick}. Directions that don't continue a motion are skipped over,
+     * so rolling through e.g. 1 on the way from 2 to 3 doesn't break it
+     */
+    public void direction(int direction, long tick) {
+        for (int i = 0; i < MOTIONS.length; i++) {
+            int[] directions = MOTIONS[i].directions;
+            if (steps[i] > 0 && tick - stepTicks[i] > stepWindow) {
+                steps[i] = 0; // too slow, start over
+            }
+            if (steps[i] < directions.length && directions[steps[i]] == direction) {
+                steps[i]++;
+                stepTicks[i] = tick;
+            } else if (directions[0] == direction) {
+                steps[i] = 1;
+                stepTicks[i] = tick;
+            }
+        }
+    }
+
+    /**
+     * a button was pressed at {@code tick}
+     *
+     * @return the motion it completes, or null for a plain press
+     */
+    public Motion button(InputCommand button, long tick) {
+        for (int i = 0; i < MOTIONS.length; i++) {
+            Motion motion = MOTIONS[i];
+            if (motion.button == button && steps[i] == motion.directions.length && tick - stepTicks[i] <= stepWindow) {
+                reset(); // one special per motion
+                return motion;
+            }
+        }
+        return null;
+    }
+
+    public void reset() {
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = 0;
+        }
+    }
+
+    public void hash(StateHash hash) {
+        hash.add("stepWindow", stepWindow);
+        for (int i = 0; i < steps.length; i++) {
+            hash.add("motionSteps", steps[i]);
+            hash.add("motionStepTick", stepTicks[i]);
+        }
+    }
+
+    public void save(ByteBuffer buffer) {
+        buffer.putInt(stepWindow);
+        for (int i = 0; i < steps.length; i++) {
+            buffer.put((byte) steps[i]);
+            buffer.putLong(stepTicks[i]);
+        }
+    }
+
+    public void restore(ByteBuffer buffer) {
+        stepWindow = buffer.getInt();
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = buffer.get();
+            stepTicks[i] = buffer.getLong();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.xtrife.sfs.simulation;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:38 PM.
+ * Hash of the whole simulation state after one tick, built by every stateful part of the match adding its fields in a
+ * fixed order. Floats are hashed by their exact bits, so two runs only agree if they computed the very same values.
+ * Cheap enough to run every tick: a multiply and a rotate per field, no allocation. When two runs disagree on a tick,
+ * running that tick again with {@link #setRecordingFields} on tells which field differs.
+ */
+public class StateHash {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final int MAX_FIELDS = 128;
+
+    private long hash = SEED;
+
+    // field values of the last hash, only kept while recording
+    private boolean recordingFields;
+    private String section = "";
+    private final String[] sections = new String[MAX_FIELDS];
+    private final String[] names = new String[MAX_FIELDS];
+    private final long[] values = new long[MAX_FIELDS];
+    private int fields;
+
+    public void setRecordingFields(boolean recordingFields) {
+        this.recordingFields = recordingFields;
+    }
+
+    /**
+     * start hashing a new state
+     */
+    public void reset() {
+        hash = SEED;
+        section = "";
+        fields = 0;
+    }
+
+    /**
+     * name of the part of the state the next fields belong to, e.g. "player", only used for recorded fields
+     */
+    public void section(String section) {
+        this.section = section;
+    }
+
+    public void add(String name, long value) {
+        hash = mix(hash, value);
+        if (recordingFields && fields < MAX_FIELDS) {
+            sections[fields] = section;
+            names[fields] = name;
+            values[fields] = value;
+            fields++;
+        }
+    }
+
+    public void add(String name, int value) {
+        add(name, (long) value);
+    }
+
+    public void add(String name, float value) {
+        add(name, (long) Float.floatToRawIntBits(value));
+    }
+
+    public void add(String name, double value) {
+        add(name, Double.doubleToRawLongBits(value));
+    }
+
+    public void add(String name, boolean value) {
+        add(name, value ? 1L : 0L);
+    }
+
+    public void add(String name, Enum<?> value) {
+        add(name, value == null ? -1L : value.ordinal());
+    }
+
+    public long get() {
+        return hash;
+    }
+
+    public static long mix(long hash, long value) {
+        return Long.rotateLeft((hash ^ value) * MULTIPLIER, 29) + SEED;
+    }
+
+    public int getFieldCount() {
+        return fields;
+    }
+
+    /**
+     * "section.name" of a recorded field
+     */
+    public String getFieldName(int field) {
+        return sections[field].isEmpty() ? names[field] : sections[field] + "." + names[field];
+    }
+
+    public long getFieldValue(int field) {
+        return values[field];
+    }
+
+    /**
+     * first recorded field that differs from the other hash's, -1 if they all match
+     */
+    public int findMismatch(StateHash other) {
+        int count = Math.min(fields, other.fields);
+        for (int i = 0; i < count; i++) {
+            if (values[i] != other.values[i] || !names[i].equals(other.names[i])) {
+                return i;
+            }
+        }
+        return fields == other.fields ? -1 : count;
+    }
+}
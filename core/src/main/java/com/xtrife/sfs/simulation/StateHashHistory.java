@@ -0,0 +1,94 @@
+package com.xtrife.sfs.simulation;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:44 PM.
+ * The rolling state hashes of the last few seconds of ticks, so hashes from another run or a peer that arrive late can
+ * still be checked. The rolling hash of a tick covers every tick before it, so the first tick whose hashes differ is
+ * where the runs diverged.
+ */
+public class StateHashHistory {
+    private static final int CAPACITY = 1024; // must be a power of 2, ~8.5 s at 120 Hz
+
+    private final long[] ticks = new long[CAPACITY];
+    private final long[] hashes = new long[CAPACITY];
+    private long rollingHash;
+    private long newestTick = -1;
+
+    public StateHashHistory() {
+        clear();
+    }
+
+    /**
+     * start over, e.g. when a new match starts
+     */
+    public void clear() {
+        rollingHash = 0;
+        newestTick = -1;
+        for (int i = 0; i < CAPACITY; i++) {
+            ticks[i] = -1;
+        }
+    }
+
+    /**
+     * fold the state hash of {@code tick} into the rolling hash and keep it
+     *
+     * @return the new rolling hash
+     */
+    public long add(long tick, long stateHash) {
+        rollingHash = StateHash.mix(rollingHash, stateHash);
+        int index = (int) (tick & (CAPACITY - 1));
+        ticks[index] = tick;
+        hashes[index] = rollingHash;
+        newestTick = tick;
+        return rollingHash;
+    }
+
+    /**
+     * start over from a rolling hash saved earlier, e.g. after jumping to a replay keyframe
+     */
+    public void restart(long rollingHash) {
+        clear();
+        this.rollingHash = rollingHash;
+    }
+
+    public long getRollingHash() {
+        return rollingHash;
+    }
+
+    public long getNewestTick() {
+        return newestTick;
+    }
+
+    public boolean contains(long tick) {
+        return ticks[(int) (tick & (CAPACITY - 1))] == tick;
+    }
+
+    /**
+     * rolling hash after {@code tick}, only valid if {@link #contains} it
+     */
+    public long get(long tick) {
+        return hashes[(int) (tick & (CAPACITY - 1))];
+    }
+
+    /**
+     * compare a hash reported for {@code tick}
+     *
+     * @return false if this history has the tick with a different hash
+     */
+    public boolean matches(long tick, long rollingHash) {
+        return !contains(tick) || get(tick) == rollingHash;
+    }
+
+    /**
+     * first tick both histories have but disagree on, -1 if they agree on all of them
+     */
+    public long findFirstMismatch(StateHashHistory other) {
+        long last = Math.min(newestTick, other.newestTick);
+        for (long tick = Math.max(0, last - CAPACITY + 1); tick <= last; tick++) {
+            if (contains(tick) && other.contains(tick) && get(tick) != other.get(tick)) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,152 @@
+package com.xtrife.sfs.simulation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 5:31 PM.
+ * Hashed timer wheel: timers are filed under the slot their deadline falls in, so advancing the time only looks at
+ * the slots that passed instead of checking every pending timer every tick. Time is whatever the owner advances it
+ * by (e.g. scaled gameplay seconds), rounded up to whole slots. Not thread safe, timers run inside {@link #advance}.
+ */
+public class TimerWheel {
+    private static final int SLOT_COUNT = 256; // power of two, deadlines further out simply wait for more turns
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+    /**
+     * handle of a scheduled task, can be cancelled until it runs
+     */
+    public static final class Timer {
+        private Runnable task;
+        private long deadline; // slot number
+        private Timer previous, next; // slot list
+        private boolean scheduled;
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+    }
+
+    private final float slotDuration;
+    private final Timer[] slots = new Timer[SLOT_COUNT]; // head of each slot's list
+    private double elapsed;
+    private long currentSlot;
+
+    public TimerWheel(float slotDuration) {
+        this.slotDuration = slotDuration;
+    }
+
+    /**
+     * run {@code task} once {@code delay} more time has been advanced. The task runs in the first slot at or after
+     * the deadline, never in the current one
+     */
+    public Timer schedule(float delay, Runnable task) {
+        // a tiny tolerance so delays that are a whole number of slots don't round up to the next one
+        return scheduleAt((long) Math.ceil((elapsed + delay) / slotDuration - 1e-4), task);
+    }
+
+    /**
+     * run {@code task} in the given slot, e.g. to put back a timer of a restored state
+     */
+    Timer scheduleAt(long deadline, Runnable task) {
+        Timer timer = new Timer();
+        timer.task = task;
+        timer.deadline = Math.max(currentSlot + 1, deadline);
+        timer.scheduled = true;
+
+        int slot = (int) (timer.deadline & SLOT_MASK);
+        timer.next = slots[slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[slot] = timer;
+        return timer;
+    }
+
+    public void cancel(Timer timer) {
+        if (timer == null || !timer.scheduled) return;
+        unlink(timer);
+    }
+
+    /**
+     * cancel everything and start over at time 0
+     */
+    public void clear() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            while (slots[i] != null) {
+                unlink(slots[i]);
+            }
+        }
+        elapsed = 0;
+        currentSlot = 0;
+    }
+
+    /**
+     * move the time forward by delta and run every timer whose deadline has passed, in deadline order
+     */
+    public void advance(float delta) {
+        elapsed += delta;
+        while ((currentSlot + 1) * (double) slotDuration <= elapsed + 1e-4 * slotDuration) {
+            currentSlot++;
+            runSlot();
+        }
+    }
+
+    private void runSlot() {
+        Timer timer = slots[(int) (currentSlot & SLOT_MASK)];
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.deadline <= currentSlot) {
+                unlink(timer);
+                timer.task.run(); // may schedule or cancel other timers
+            }
+            // a task may have cancelled the next timer, in which case the rest of the slot is picked up again below
+            if (next != null && !next.scheduled) {
+                next = slots[(int) (currentSlot & SLOT_MASK)];
+            }
+            timer = next;
+        }
+    }
+
+    private void unlink(Timer timer) {
+        int slot = (int) (timer.deadline & SLOT_MASK);
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = timer.next = null;
+        timer.scheduled = false;
+    }
+
+    /**
+     * add the wheel's clock to a state hash, the timers are hashed by whoever scheduled them
+     */
+    public void hash(StateHash hash) {
+        hash.add("elapsed", elapsed);
+        hash.add("currentSlot", currentSlot);
+    }
+
+    /**
+     * write the wheel's clock, like {@link #hash} the timers are saved by whoever scheduled them
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.putDouble(elapsed);
+        buffer.putLong(currentSlot);
+    }
+
+    /**
+     * cancel everything and continue from a saved clock
+     */
+    public void restore(ByteBuffer buffer) {
+        clear();
+        elapsed = buffer.getDouble();
+        currentSlot = buffer.getLong();
+    }
+}
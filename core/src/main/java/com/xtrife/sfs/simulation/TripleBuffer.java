@@ -0,0 +1,49 @@
+package com.xtrife.sfs.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by 9S on 10/19/2026 - 3:20 PM.
+ * Lock-free hand over of the latest value from one writer thread to one reader thread. The writer fills the back
+ * buffer and publishes it, the reader always gets the newest published buffer; neither ever waits for the other.
+ * Buffers are reused, so the reader must be done with a value before its next {@link #front()} call.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // set while the middle buffer holds a value the reader hasn't taken yet
+
+    private final Object[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; // only touched by the writer
+    private int front = 2; // only touched by the reader
+
+    public TripleBuffer(T first, T second, T third) {
+        buffers = new Object[]{first, second, third};
+    }
+
+    /**
+     * buffer the writer fills before calling {@link #publish()}
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * hand the back buffer to the reader and take the unread or already read middle buffer as the new back buffer
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * newest published buffer, or the same as last time if nothing was published since
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+}
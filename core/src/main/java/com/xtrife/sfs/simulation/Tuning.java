@@ -0,0 +1,272 @@
+package com.xtrife.sfs.simulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:25 PM.
+ * Gameplay values tuned without recompiling, as read from {@link com.xtrife.sfs.resources.Assets#TUNING_DATA}: fighter
+ * speed, damage and animation frame durations, contact distances, round times and the AI of every difficulty.
+ * A value the file leaves out keeps the default the game shipped with, the constants in {@link Fighter},
+ * {@link Match} and {@link AiSettings}. Immutable, so a new tuning can be handed to the simulation thread as a whole
+ * and swapped in between two ticks. Replays {@link #save} the tuning they were recorded with, and its {@link #getHash
+ * hash} is part of the match state hash.
+ */
+public class Tuning {
+    private static final Fighter.State[] STATES = Fighter.State.values();
+    private static final GlobalVariables.Difficulty[] DIFFICULTIES = GlobalVariables.Difficulty.values();
+    // in Fighter.State order
+    private static final float[] DEFAULT_FRAME_DURATIONS = {Fighter.BLOCK_FRAME_DURATION, Fighter.HURT_FRAME_DURATION,
+        Fighter.IDLE_FRAME_DURATION, Fighter.KICK_FRAME_DURATION, Fighter.LOSE_FRAME_DURATION,
+        Fighter.PUNCH_FRAME_DURATION, Fighter.WALK_FRAME_DURATION, Fighter.WIN_FRAME_DURATION};
+    private static final int AI_FLOATS = 5;
+
+    // bytes written by save(), every value as a float
+    public static final int SIZE = (4 + STATES.length + 5 + DIFFICULTIES.length * AI_FLOATS) * 4;
+    public static final Tuning DEFAULT = new Tuning(new JsonValue(JsonValue.ValueType.object));
+
+    // fighters
+    public final float movementSpeed;
+    public final float hitStrength;
+    public final float specialAttackFactor;
+    public final float blockDamageFactor;
+    private final float[] frameDurations = new float[STATES.length]; // by state
+
+    // match
+    public final float startRoundDelay;
+    public final float endRoundDelay;
+    public final float maxRoundTime;
+    public final float contactDistanceX;
+    public final float contactDistanceY;
+
+    // AI
+    private final AiSettings[] aiSettings = new AiSettings[DIFFICULTIES.length]; // by difficulty
+
+    private final long hash; // of the saved values
+
+    /**
+     * read a tuning file's text
+     * @throws GdxRuntimeException if it isn't valid JSON, names a value that doesn't exist or sets one out of range
+     */
+    public static Tuning parse(String json) {
+        JsonValue root;
+        try {
+            root = new JsonReader().parse(json);
+        } catch (RuntimeException e) {
+            throw new GdxRuntimeException("Tuning is not valid JSON: " + e.getMessage(), e);
+        }
+        if (root == null || !root.isObject()) throw new GdxRuntimeException("Tuning must be a JSON object");
+        return new Tuning(root);
+    }
+
+    private Tuning(JsonValue root) {
+        checkNames(root, "fighter", "match", "ai");
+
+        JsonValue fighter = getObject(root, "fighter");
+        checkNames(fighter, "movementSpeed", "hitStrength", "specialAttackFactor", "blockDamageFactor",
+            "frameDurations");
+        movementSpeed = getPositive(fighter, "movementSpeed", Fighter.MOVEMENT_SPEED);
+        hitStrength = getPositive(fighter, "hitStrength", Fighter.HIT_STRENGTH);
+        specialAttackFactor = getPositive(fighter, "specialAttackFactor", Fighter.SPECIAL_ATTACK_FACTOR);
+        blockDamageFactor = getChance(fighter, "blockDamageFactor", Fighter.BLOCK_DAMAGE_FACTOR);
+        JsonValue durations = getObject(fighter, "frameDurations");
+        checkNames(durations, enumNames(STATES));
+        for (Fighter.State state : STATES) {
+            frameDurations[state.ordinal()] = getPositive(durations, state.name(),
+                DEFAULT_FRAME_DURATIONS[state.ordinal()]);
+        }
+
+        JsonValue match = getObject(root, "match");
+        checkNames(match, "startRoundDelay", "endRoundDelay", "maxRoundTime", "contactDistanceX",
+            "contactDistanceY");
+        startRoundDelay = getPositive(match, "startRoundDelay", Match.START_ROUND_DELAY);
+        endRoundDelay = getPositive(match, "endRoundDelay", Match.END_ROUND_DELAY);
+        maxRoundTime = getPositive(match, "maxRoundTime", Match.MAX_ROUND_TIME);
+        contactDistanceX = getPositive(match, "contactDistanceX", Match.FIGHTER_CONTACT_DISTANCE_X);
+        contactDistanceY = getPositive(match, "contactDistanceY", Match.FIGHTER_CONTACT_DISTANCE_Y);
+
+        JsonValue ai = getObject(root, "ai");
+        checkNames(ai, enumNames(DIFFICULTIES));
+        for (GlobalVariables.Difficulty difficulty : DIFFICULTIES) {
+            JsonValue settings = getObject(ai, difficulty.name());
+            checkNames(settings, "blockChance", "attackChance", "pursueChance", "contactDecisionDelay",
+                "nonContactDecisionDelay");
+            AiSettings defaults = AiSettings.forDifficulty(difficulty);
+            aiSettings[difficulty.ordinal()] = new AiSettings(
+                getChance(settings, "blockChance", defaults.blockChance),
+                getChance(settings, "attackChance", defaults.attackChance),
+                getChance(settings, "pursueChance", defaults.pursueChance),
+                getPositive(settings, "contactDecisionDelay", defaults.contactDecisionDelay),
+                getPositive(settings, "nonContactDecisionDelay", defaults.nonContactDecisionDelay));
+        }
+        hash = computeHash();
+    }
+
+    /**
+     * read the values written by {@link #save}
+     */
+    private Tuning(ByteBuffer buffer) {
+        movementSpeed = buffer.getFloat();
+        hitStrength = buffer.getFloat();
+        specialAttackFactor = buffer.getFloat();
+        blockDamageFactor = buffer.getFloat();
+        for (int i = 0; i < frameDurations.length; i++) {
+            frameDurations[i] = buffer.getFloat();
+        }
+        startRoundDelay = buffer.getFloat();
+        endRoundDelay = buffer.getFloat();
+        maxRoundTime = buffer.getFloat();
+        contactDistanceX = buffer.getFloat();
+        contactDistanceY = buffer.getFloat();
+        for (int i = 0; i < aiSettings.length; i++) {
+            aiSettings[i] = new AiSettings(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+                buffer.getFloat());
+        }
+        hash = computeHash();
+    }
+
+    /**
+     * the tuning written by {@link #save} at the buffer's position, {@code current} if it has the same values. Only
+     * allocates when the tuning changed
+     */
+    public static Tuning restore(ByteBuffer buffer, Tuning current) {
+        if (hash(buffer, buffer.position()) == current.hash) {
+            buffer.position(buffer.position() + SIZE);
+            return current;
+        }
+        return new Tuning(buffer);
+    }
+
+    /**
+     * write every value, {@link #SIZE} bytes
+     */
+    public void save(ByteBuffer buffer) {
+        buffer.putFloat(movementSpeed);
+        buffer.putFloat(hitStrength);
+        buffer.putFloat(specialAttackFactor);
+        buffer.putFloat(blockDamageFactor);
+        for (float frameDuration : frameDurations) {
+            buffer.putFloat(frameDuration);
+        }
+        buffer.putFloat(startRoundDelay);
+        buffer.putFloat(endRoundDelay);
+        buffer.putFloat(maxRoundTime);
+        buffer.putFloat(contactDistanceX);
+        buffer.putFloat(contactDistanceY);
+        for (AiSettings settings : aiSettings) {
+            buffer.putFloat(settings.blockChance);
+            buffer.putFloat(settings.attackChance);
+            buffer.putFloat(settings.pursueChance);
+            buffer.putFloat(settings.contactDecisionDelay);
+            buffer.putFloat(settings.nonContactDecisionDelay);
+        }
+    }
+
+    /**
+     * hash of all values, equal for tunings with the very same values. Computed once, the state hash adds it every tick
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    private long computeHash() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        save(buffer);
+        return hash(buffer, 0);
+    }
+
+    private static long hash(ByteBuffer buffer, int offset) {
+        long hash = 0L;
+        for (int i = 0; i < SIZE; i += 4) {
+            hash = StateHash.mix(hash, buffer.getInt(offset + i));
+        }
+        return hash;
+    }
+
+    /**
+     * seconds each frame of a state's animation shows
+     */
+    public float getFrameDuration(Fighter.State state) {
+        return frameDurations[state.ordinal()];
+    }
+
+    public AiSettings getAiSettings(GlobalVariables.Difficulty difficulty) {
+        return aiSettings[difficulty.ordinal()];
+    }
+
+    public boolean areWithinContactDistance(Vector2 position1, Vector2 position2) {
+        // determine if contact is possible
+        float xDistance = Math.abs(position1.x - position2.x); // we want positive values only
+        float yDistance = Math.abs(position1.y - position2.y);
+        return xDistance <= contactDistanceX && yDistance <= contactDistanceY;
+    }
+
+    private static JsonValue getObject(JsonValue parent, String name) {
+        JsonValue child = parent.get(name);
+        if (child == null) return new JsonValue(JsonValue.ValueType.object); // everything at its default
+        if (!child.isObject()) throw new GdxRuntimeException("Tuning value " + path(child) + " must be an object");
+        return child;
+    }
+
+    private static float getPositive(JsonValue parent, String name, float defaultValue) {
+        float value = getFloat(parent, name, defaultValue);
+        if (!(value > 0f)) {
+            throw new GdxRuntimeException("Tuning value " + path(parent.get(name)) + " must be positive, was " + value);
+        }
+        return value;
+    }
+
+    private static float getChance(JsonValue parent, String name, float defaultValue) {
+        float value = getFloat(parent, name, defaultValue);
+        if (!(value >= 0f && value <= 1f)) {
+            throw new GdxRuntimeException("Tuning value " + path(parent.get(name)) + " must be between 0 and 1, was " +
+                value);
+        }
+        return value;
+    }
+
+    private static float getFloat(JsonValue parent, String name, float defaultValue) {
+        JsonValue value = parent.get(name);
+        if (value == null) return defaultValue;
+        if (!value.isNumber()) throw new GdxRuntimeException("Tuning value " + path(value) + " must be a number");
+        return value.asFloat();
+    }
+
+    /**
+     * a misspelled name would otherwise silently keep its default
+     */
+    private static void checkNames(JsonValue object, String... names) {
+        for (JsonValue child = object.child; child != null; child = child.next) {
+            boolean known = false;
+            for (String name : names) {
+                known |= name.equals(child.name);
+            }
+            if (!known) {
+                throw new GdxRuntimeException("Unknown tuning value " + path(child) + ", expected one of " +
+                    String.join(", ", names));
+            }
+        }
+    }
+
+    private static String[] enumNames(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    private static String path(JsonValue value) {
+        String path = value.name;
+        for (JsonValue parent = value.parent; parent != null && parent.name != null; parent = parent.parent) {
+            path = parent.name + "." + path;
+        }
+        return path;
+    }
+}
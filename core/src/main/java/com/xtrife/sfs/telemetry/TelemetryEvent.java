@@ -0,0 +1,24 @@
+package com.xtrife.sfs.telemetry;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:04 AM.
+ * Kinds of match events recorded by {@link TelemetryLog}. The ordinal is stored in the log files,
+ * so only ever append new events at the end.
+ */
+public enum TelemetryEvent {
+    HIT, // value = life left
+    BLOCK, // value = life left
+    BLOOD,
+    ROUND_WON, // value = player life left
+    ROUND_LOST, // value = opponent life left
+    DIFFICULTY_CHANGE,
+    PAUSE,
+    RESUME,
+    ROUND_ENDED; // value = seconds the round was fought, logged before ROUND_WON or ROUND_LOST
+
+    private static final TelemetryEvent[] VALUES = values();
+
+    public static TelemetryEvent fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+}
@@ -0,0 +1,207 @@
+package com.xtrife.sfs.telemetry;
+
+import com.xtrife.sfs.resources.GlobalVariables;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:10 AM.
+ * Records match events without ever blocking the game thread. {@link #log} copies a fixed-size record into a
+ * preallocated single producer / single consumer ring buffer; a background thread drains it in batches to
+ * append-only files that rotate once they get big. If the writer falls behind, new events are dropped and counted.
+ * <p>
+ * File layout (big endian): a header of magic, version, record size and the session start time, then 24 byte records
+ * of {@code long time (ns since session start), byte event, byte side, byte difficulty, byte 0, int round,
+ * float value, float round timer}.
+ */
+public class TelemetryLog {
+    public static final int MAGIC = 0x53465354; // "SFST"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 24;
+    public static final String FILE_PREFIX = "telemetry-";
+    public static final String FILE_EXTENSION = ".bin";
+
+    // which fighter an event is about
+    public static final int SIDE_PLAYER = 0;
+    public static final int SIDE_OPPONENT = 1;
+    public static final int SIDE_NONE = 2;
+
+    private static final int CAPACITY = 8192; // records, must be a power of 2
+    private static final int LONGS_PER_RECORD = 3;
+    private static final int BATCH_SIZE = 512; // records written per file write
+    private static final long MAX_FILE_SIZE = 4L * 1024 * 1024; // rotate after 4 MB
+    private static final int MAX_FILES = 16; // oldest files are deleted after that
+    private static final long IDLE_WAIT_NANOS = 5_000_000L; // writer sleeps 5 ms when there is nothing to write
+
+    private final File directory;
+    private final long sessionStartMillis = System.currentTimeMillis();
+    private final long sessionStartNanos = System.nanoTime();
+
+    // ring buffer, written only by the game thread and read only by the writer thread
+    private final long[] records = new long[CAPACITY * LONGS_PER_RECORD];
+    private final AtomicLong tail = new AtomicLong(); // next record to publish
+    private final AtomicLong head = new AtomicLong(); // next record to write to disk
+    private long cachedHead; // producer's last look at head, saves reading the atomic on every event
+    private long droppedEvents;
+
+    // writer thread
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE * RECORD_SIZE);
+    private Thread writerThread;
+    private volatile boolean running;
+    private FileChannel channel;
+    private int fileIndex;
+
+    public TelemetryLog(File directory) {
+        this.directory = directory;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        writerThread = new Thread(this::writeLoop, "telemetry-writer");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+    }
+
+    /**
+     * record an event. Only call from the game thread; never blocks and never allocates
+     */
+    public void log(TelemetryEvent event, int side, GlobalVariables.Difficulty difficulty, int round,
+                    float value, float roundTimer) {
+        long position = tail.get();
+        if (position - cachedHead >= CAPACITY) {
+            cachedHead = head.get();
+            if (position - cachedHead >= CAPACITY) {
+                // writer can't keep up, drop rather than wait
+                droppedEvents++;
+                return;
+            }
+        }
+
+        int index = (int) (position & (CAPACITY - 1)) * LONGS_PER_RECORD;
+        int header = event.ordinal() << 24 | (side & 0xFF) << 16 | (difficulty.ordinal() & 0xFF) << 8;
+        records[index] = System.nanoTime() - sessionStartNanos;
+        records[index + 1] = (long) header << 32 | (round & 0xFFFFFFFFL);
+        records[index + 2] = (long) Float.floatToRawIntBits(value) << 32 |
+            (Float.floatToRawIntBits(roundTimer) & 0xFFFFFFFFL);
+        tail.lazySet(position + 1); // publish the record to the writer
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * stop the writer thread after it has written everything logged so far
+     */
+    public void dispose() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (running) {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                }
+            }
+            // write whatever is left
+            drain();
+        } catch (IOException e) {
+            System.err.println("Telemetry disabled, could not write log: " + e.getMessage());
+        } finally {
+            closeFile();
+        }
+    }
+
+    /**
+     * write all published records to disk, returns how many there were
+     */
+    private int drain() throws IOException {
+        long position = head.get();
+        long available = tail.get() - position;
+        int drained = 0;
+        while (available > 0) {
+            int count = (int) Math.min(available, BATCH_SIZE);
+            batch.clear();
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((position + i) & (CAPACITY - 1)) * LONGS_PER_RECORD;
+                batch.putLong(records[index]);
+                batch.putLong(records[index + 1]);
+                batch.putLong(records[index + 2]);
+            }
+            // free the slots before the slow part
+            position += count;
+            head.lazySet(position);
+
+            batch.flip();
+            writeBatch();
+            available -= count;
+            drained += count;
+        }
+        return drained;
+    }
+
+    private void writeBatch() throws IOException {
+        if (channel == null || channel.size() + batch.remaining() > MAX_FILE_SIZE) {
+            rotateFile();
+        }
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+    }
+
+    private void rotateFile() throws IOException {
+        closeFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can't create " + directory);
+        }
+        deleteOldFiles();
+
+        File file = new File(directory, FILE_PREFIX + sessionStartMillis + "-" + fileIndex++ + FILE_EXTENSION);
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.position(channel.size()); // append only
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(sessionStartMillis);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void deleteOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_EXTENSION));
+        if (files == null || files.length < MAX_FILES) return;
+        // oldest first, keep room for the new file
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i <= files.length - MAX_FILES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,181 @@
+package com.xtrife.sfs.training;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.AiSettings;
+import com.xtrife.sfs.simulation.InputBuffer;
+import com.xtrife.sfs.simulation.InputCommand;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:24 PM.
+ * One headless match for training a bot, gym style: the bot plays the player against the opponent AI, picks one of
+ * {@link #ACTION_COUNT} actions per step and gets back an observation and a reward. Runs the match rules at the
+ * simulation's tick rate but without hitstop and slow motion, which only stretch time, and skips the round delays,
+ * nothing can be done in them. A finished match is started over right away with the next seed, so the observation
+ * returned with {@code done} is already the first one of the new match.
+ * <p>
+ * An action is {@code direction * 4 + button}: direction 0 to 8 is the stick, {@code x = direction % 3 - 1} (right is
+ * +1) and {@code y = direction / 3 - 1} (up is +1), button 0 is none, 1 holds block, 2 punches and 3 kicks. A step
+ * repeats its action for the frame skip ticks, attacks are only pressed on the first.
+ * <p>
+ * A result is {@link #RESULT_FLOATS} floats: the observation (player x, y, state ordinal, state time, life, the same for
+ * the opponent, round timer, rounds won, rounds lost), the step's reward and 1 if the match ended, else 0. The reward is
+ * the life taken from the opponent minus the life lost, as a fraction of {@link Fighter#MAX_LIFE}, plus 1 for a won
+ * and -1 for a lost round. Results are written with absolute puts, nothing is allocated per step.
+ * <p>
+ * Not thread safe, but different environments can be stepped on different threads.
+ */
+public class TrainingEnvironment {
+    public static final int ACTION_COUNT = 9 * 4;
+    public static final int OBSERVATION_FLOATS = 13;
+    public static final int RESULT_FLOATS = OBSERVATION_FLOATS + 2; // plus reward and done
+    public static final int RESULT_SIZE = RESULT_FLOATS * 4; // bytes
+
+    private static final int BUTTON_BLOCK = 1, BUTTON_PUNCH = 2, BUTTON_KICK = 3;
+    private static final float TICK = MatchRunner.TICK_DURATION;
+
+    private final Fighter player = new Fighter("Bot", Color.WHITE);
+    private final Fighter opponent = new Fighter("Opponent", Color.WHITE);
+    private final Match match = new Match(player, opponent);
+    private final InputBuffer input = match.getPlayerInput();
+    private final RandomXS128 seeds = new RandomXS128();
+    private final int frameSkip;
+
+    // controls the bot is holding
+    private int directionX, directionY;
+    private boolean blocking;
+
+    /**
+     * @param frameSkip ticks each step plays, at least 1
+     */
+    public TrainingEnvironment(GlobalVariables.Difficulty difficulty, int frameSkip) {
+        if (frameSkip < 1) throw new IllegalArgumentException("frameSkip must be at least 1");
+        this.frameSkip = frameSkip;
+        match.setDifficulty(difficulty);
+        // a match from the start, a step before the first reset would otherwise wait forever for a round
+        startMatch();
+    }
+
+    public void setOpponentAi(AiSettings settings) {
+        match.setOpponentAi(settings);
+    }
+
+    public int getFrameSkip() {
+        return frameSkip;
+    }
+
+    public Match getMatch() {
+        return match;
+    }
+
+    /**
+     * start over, the matches are seeded from {@code seed} one after the other. Writes the first observation with
+     * reward and done 0
+     */
+    public void reset(long seed, ByteBuffer results, int offset) {
+        seeds.setSeed(seed);
+        startMatch();
+        write(results, offset, 0f, false);
+    }
+
+    /**
+     * play one action for the frame skip ticks and write the result
+     */
+    public void step(int action, ByteBuffer results, int offset) {
+        if (action < 0 || action >= ACTION_COUNT) action = 0; // a bad client doesn't get to crash the batch
+        int direction = action / 4, button = action % 4;
+        setDirection(direction % 3 - 1, direction / 3 - 1);
+        setBlocking(button == BUTTON_BLOCK);
+        if (button == BUTTON_PUNCH) {
+            input.add(InputCommand.PUNCH);
+        } else if (button == BUTTON_KICK) {
+            input.add(InputCommand.KICK);
+        }
+
+        float reward = 0f;
+        for (int tick = 0; tick < frameSkip && match.getRoundState() == Match.RoundState.IN_PROGRESS; tick++) {
+            float playerLife = player.getLife(), opponentLife = opponent.getLife();
+            int roundsWon = match.getRoundsWon(), roundsLost = match.getRoundsLost();
+
+            match.update(TICK);
+
+            reward += (opponentLife - opponent.getLife() - (playerLife - player.getLife())) / Fighter.MAX_LIFE;
+            reward += match.getRoundsWon() - roundsWon - (match.getRoundsLost() - roundsLost);
+        }
+
+        boolean done = false;
+        if (match.getRoundState() != Match.RoundState.IN_PROGRESS) {
+            skipRoundDelays(); // a round ended, straight to the next one
+            done = match.isOver();
+            if (done) {
+                startMatch();
+            }
+        }
+        write(results, offset, reward, done);
+    }
+
+    private void startMatch() {
+        match.start(seeds.nextLong());
+        skipRoundDelays();
+    }
+
+    /**
+     * the delays only play the round intro and the win animation, nothing to learn from
+     */
+    private void skipRoundDelays() {
+        while (match.getRoundState() != Match.RoundState.IN_PROGRESS && !match.isOver()) {
+            match.skipRoundDelay();
+        }
+        // a new round cleared the input buffer, the bot holds nothing
+        directionX = directionY = 0;
+        blocking = false;
+    }
+
+    private void setDirection(int x, int y) {
+        if (x != directionX) {
+            if (directionX < 0) input.add(InputCommand.STOP_MOVING_LEFT);
+            if (directionX > 0) input.add(InputCommand.STOP_MOVING_RIGHT);
+            if (x < 0) input.add(InputCommand.MOVE_LEFT);
+            if (x > 0) input.add(InputCommand.MOVE_RIGHT);
+            directionX = x;
+        }
+        if (y != directionY) {
+            if (directionY < 0) input.add(InputCommand.STOP_MOVING_DOWN);
+            if (directionY > 0) input.add(InputCommand.STOP_MOVING_UP);
+            if (y < 0) input.add(InputCommand.MOVE_DOWN);
+            if (y > 0) input.add(InputCommand.MOVE_UP);
+            directionY = y;
+        }
+    }
+
+    private void setBlocking(boolean block) {
+        if (block == blocking) return;
+        input.add(block ? InputCommand.BLOCK : InputCommand.STOP_BLOCKING);
+        blocking = block;
+    }
+
+    private void write(ByteBuffer results, int offset, float reward, boolean done) {
+        offset = writeFighter(results, offset, player);
+        offset = writeFighter(results, offset, opponent);
+        results.putFloat(offset, match.getRoundTimer());
+        results.putFloat(offset + 4, match.getRoundsWon());
+        results.putFloat(offset + 8, match.getRoundsLost());
+        results.putFloat(offset + 12, reward);
+        results.putFloat(offset + 16, done ? 1f : 0f);
+    }
+
+    private static int writeFighter(ByteBuffer results, int offset, Fighter fighter) {
+        results.putFloat(offset, fighter.getPosition().x);
+        results.putFloat(offset + 4, fighter.getPosition().y);
+        results.putFloat(offset + 8, fighter.getState().ordinal());
+        results.putFloat(offset + 12, fighter.getStateTime());
+        results.putFloat(offset + 16, fighter.getLife());
+        return offset + 20;
+    }
+}
@@ -0,0 +1,150 @@
+package com.xtrife.sfs.training;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.resources.GlobalVariables;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Phaser;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:31 PM.
+ * A batch of {@link TrainingEnvironment}s stepped together, the in-process side of the training API (the headless
+ * TrainingServer puts a local socket in front of it). The environments are split into one fixed slice per thread and
+ * the threads are kept running between steps, woken by a phaser, so a step costs two hand-overs and no allocation.
+ * Every environment writes its result straight into its slot of the results buffer.
+ */
+public class TrainingEnvironments {
+    private final TrainingEnvironment[] environments;
+    private final long[] seeds;
+    private final Thread[] workers; // the calling thread plays the first slice itself
+    private final Phaser phaser;
+
+    // the batch being played, handed to the workers by the phaser
+    private ByteBuffer actions, results;
+    private int actionsStart, resultsStart;
+    private boolean resetting;
+    private volatile boolean disposed;
+    private volatile Throwable failure;
+
+    /**
+     * @param threads threads to step on, the calling thread included
+     */
+    public TrainingEnvironments(int count, GlobalVariables.Difficulty difficulty, int frameSkip, int threads) {
+        if (count < 1) throw new IllegalArgumentException("count must be at least 1");
+        environments = new TrainingEnvironment[count];
+        for (int i = 0; i < count; i++) {
+            environments[i] = new TrainingEnvironment(difficulty, frameSkip);
+        }
+        seeds = new long[count];
+
+        int slices = Math.max(1, Math.min(threads, count));
+        phaser = new Phaser(slices);
+        workers = new Thread[slices - 1];
+        for (int i = 0; i < workers.length; i++) {
+            final int slice = i + 1;
+            workers[i] = new Thread(() -> work(slice), "training-" + slice);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public int size() {
+        return environments.length;
+    }
+
+    public TrainingEnvironment get(int index) {
+        return environments[index];
+    }
+
+    /**
+     * bytes {@link #reset} and {@link #step} write, {@link TrainingEnvironment#RESULT_SIZE} per environment
+     */
+    public int getResultsSize() {
+        return environments.length * TrainingEnvironment.RESULT_SIZE;
+    }
+
+    /**
+     * start every environment over, each with its own seeds drawn from {@code seed}. Writes the first observations
+     * from the results' position on, without moving it
+     */
+    public void reset(long seed, ByteBuffer results) {
+        RandomXS128 random = new RandomXS128(seed);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        play(true, null, results);
+    }
+
+    /**
+     * play one action per environment, a byte each from the actions' position on. Writes the results from the results'
+     * position on. Neither position is moved
+     */
+    public void step(ByteBuffer actions, ByteBuffer results) {
+        if (actions.remaining() < environments.length) {
+            throw new IllegalArgumentException("Expected " + environments.length + " actions, got " + actions.remaining());
+        }
+        play(false, actions, results);
+    }
+
+    private void play(boolean reset, ByteBuffer actions, ByteBuffer results) {
+        if (disposed) throw new IllegalStateException("Training environments were disposed");
+        if (results.remaining() < getResultsSize()) {
+            throw new IllegalArgumentException("Results need " + getResultsSize() + " bytes, " + results.remaining() +
+                " left");
+        }
+        resetting = reset;
+        this.actions = actions;
+        actionsStart = actions == null ? 0 : actions.position();
+        this.results = results;
+        resultsStart = results.position();
+
+        phaser.arriveAndAwaitAdvance(); // start the workers
+        playSlice(0);
+        phaser.arriveAndAwaitAdvance(); // wait for them to finish
+
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            throw new GdxRuntimeException("Training step failed", error);
+        }
+    }
+
+    private void work(int slice) {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (disposed) return;
+            try {
+                playSlice(slice);
+            } catch (Throwable e) {
+                failure = e; // still arrive below, or the caller would wait forever
+            }
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    private void playSlice(int slice) {
+        int slices = workers.length + 1;
+        int from = environments.length * slice / slices;
+        int to = environments.length * (slice + 1) / slices;
+        for (int i = from; i < to; i++) {
+            int offset = resultsStart + i * TrainingEnvironment.RESULT_SIZE;
+            if (resetting) {
+                environments[i].reset(seeds[i], results, offset);
+            } else {
+                environments[i].step(actions.get(actionsStart + i), results, offset);
+            }
+        }
+    }
+
+    /**
+     * stop the worker threads
+     */
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+        if (workers.length > 0) {
+            phaser.arriveAndAwaitAdvance(); // the workers see disposed and return
+        }
+    }
+}
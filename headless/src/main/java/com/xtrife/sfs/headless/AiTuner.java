@@ -0,0 +1,341 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.AiSettings;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:02 AM.
+ * Offline tuner for the opponent AI. For every difficulty it runs a cross-entropy search over {@link AiSettings}:
+ * each candidate plays many headless matches against a set of reference player bots, on all cores, and the candidates
+ * whose player win rate is closest to the difficulty's target are used to refine the next generation.
+ * Every match is seeded from (seed, difficulty, generation, candidate, match), so a run is repeatable no matter how
+ * the matches get spread over the threads.
+ * <p>
+ * Matches are stepped by a {@link MatchRunner}, tick for tick like in the game: its tick rate, hitstop and KO
+ * slow-motion, so the presets fit the simulation the game actually runs. Nothing watches them, so the runner skips the
+ * state hash and snapshots.
+ */
+public class AiTuner {
+    // a 3 round match can't last longer than this, twice the match time for hitstop and slow-motion. Guards against
+    // a stuck simulation
+    private static final int MAX_TICKS = (int) (2 * Match.MAX_ROUNDS * (Match.START_ROUND_DELAY + Match.MAX_ROUND_TIME +
+        Match.END_ROUND_DELAY) * MatchRunner.TICK_RATE);
+    private static final float BLOOD_SPLATTER_DURATION = 0.5f; // only kept by the runner, doesn't change a match
+
+    // searched parameters, in this order: block, attack, pursue, contact delay, non-contact delay
+    private static final int PARAMETER_COUNT = 5;
+    private static final float[] PARAMETER_MIN = {0f, 0f, 0f, 0.01f, 0.05f};
+    private static final float[] PARAMETER_MAX = {1f, 1f, 1f, 1.5f, 1.5f};
+
+    // bots standing in for players. Each match picks a skill between the novice and the expert, so the win rate
+    // changes smoothly with the candidate instead of jumping whenever it starts beating one more fixed bot
+    private static final AiSettings NOVICE_PLAYER = new AiSettings(0.1f, 0.5f, 0.3f, 0.6f, 0.8f);
+    private static final AiSettings EXPERT_PLAYER = new AiSettings(0.7f, 0.95f, 1f, 0.02f, 0.2f);
+
+    // default options
+    private long seed = 1L;
+    private int generations = 30;
+    private int populationSize = 32;
+    private int eliteSize = 8;
+    private int matchesPerCandidate = 300;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private float[] targetWinRates = {0.8f, 0.55f, 0.3f}; // player win rate for EASY, MEDIUM, HARD
+    private String outputPath = "build/ai_presets.json";
+
+    private ExecutorService executor;
+    // each worker thread reuses its own fighters and match
+    private final ThreadLocal<Simulator> simulators = new ThreadLocal<Simulator>() {
+        @Override
+        protected Simulator initialValue() {
+            return new Simulator();
+        }
+    };
+    private long matchesPlayed;
+
+    public static void main(String[] args) throws Exception {
+        AiTuner tuner = new AiTuner();
+        tuner.parseArguments(args);
+        tuner.run();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--generations":
+                    generations = Integer.parseInt(value);
+                    break;
+                case "--population":
+                    populationSize = Integer.parseInt(value);
+                    break;
+                case "--elite":
+                    eliteSize = Integer.parseInt(value);
+                    break;
+                case "--matches":
+                    matchesPerCandidate = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--targets":
+                    String[] targets = value.split(",");
+                    targetWinRates = new float[targets.length];
+                    for (int t = 0; t < targets.length; t++) {
+                        targetWinRates[t] = Float.parseFloat(targets[t]);
+                    }
+                    break;
+                case "--output":
+                    outputPath = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ". Options: --seed, --generations, --population, --elite, --matches, --threads, --targets, --output");
+            }
+            i++; // skip the value
+        }
+        if (targetWinRates.length != GlobalVariables.Difficulty.values().length) {
+            throw new IllegalArgumentException("--targets needs one win rate per difficulty (EASY,MEDIUM,HARD)");
+        }
+        if (eliteSize < 1 || eliteSize > populationSize) {
+            throw new IllegalArgumentException("--elite must be between 1 and the population size");
+        }
+    }
+
+    private void run() throws InterruptedException, ExecutionException, IOException {
+        System.out.println("Tuning opponent AI with seed " + seed + " on " + threads + " threads");
+        executor = Executors.newFixedThreadPool(threads);
+        long startTime = System.nanoTime();
+
+        GlobalVariables.Difficulty[] difficulties = GlobalVariables.Difficulty.values();
+        AiSettings[] presets = new AiSettings[difficulties.length];
+        float[] winRates = new float[difficulties.length];
+        try {
+            for (int d = 0; d < difficulties.length; d++) {
+                presets[d] = tune(d, targetWinRates[d]);
+                // measure the final preset again with fresh seeds and more matches
+                winRates[d] = evaluate(presets[d], seedFor(d, generations, 0), matchesPerCandidate * 4);
+                System.out.printf(Locale.ROOT, "%-6s target %.2f -> %.3f  %s%n", difficulties[d],
+                    targetWinRates[d], winRates[d], presets[d]);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf(Locale.ROOT, "%d matches in %.1fs (%.0f matches/s)%n", matchesPlayed, seconds,
+            matchesPlayed / seconds);
+        writePresets(difficulties, presets, winRates);
+    }
+
+    /**
+     * cross-entropy search: sample candidates around a mean, keep the elite and refit mean and deviation to them
+     */
+    private AiSettings tune(int difficultyIndex, float targetWinRate) throws InterruptedException, ExecutionException {
+        RandomXS128 random = new RandomXS128(seed + difficultyIndex);
+        float[] mean = new float[PARAMETER_COUNT];
+        float[] deviation = new float[PARAMETER_COUNT];
+        // start at the middle of the search space in normalized [0, 1] coordinates
+        Arrays.fill(mean, 0.5f);
+        Arrays.fill(deviation, 0.3f);
+
+        float[][] population = new float[populationSize][PARAMETER_COUNT];
+        float[] errors = new float[populationSize];
+        Integer[] order = new Integer[populationSize];
+        float[] best = mean.clone();
+        float bestError = Float.MAX_VALUE;
+
+        for (int generation = 0; generation < generations; generation++) {
+            // sample and evaluate the generation
+            List<List<Future<Integer>>> results = new ArrayList<>(populationSize);
+            for (int c = 0; c < populationSize; c++) {
+                for (int p = 0; p < PARAMETER_COUNT; p++) {
+                    float value = mean[p] + deviation[p] * (float) random.nextGaussian();
+                    population[c][p] = Math.min(1f, Math.max(0f, value));
+                }
+                results.add(evaluateAsync(toSettings(population[c]), seedFor(difficultyIndex, generation, c),
+                    matchesPerCandidate));
+            }
+            for (int c = 0; c < populationSize; c++) {
+                errors[c] = Math.abs(winRate(results.get(c), matchesPerCandidate) - targetWinRate);
+                order[c] = c;
+                if (errors[c] < bestError) {
+                    bestError = errors[c];
+                    best = population[c].clone();
+                }
+            }
+
+            // refit the distribution to the elite candidates
+            final float[] generationErrors = errors;
+            Arrays.sort(order, (a, b) -> Float.compare(generationErrors[a], generationErrors[b]));
+            for (int p = 0; p < PARAMETER_COUNT; p++) {
+                float sum = 0f;
+                for (int e = 0; e < eliteSize; e++) {
+                    sum += population[order[e]][p];
+                }
+                float eliteMean = sum / eliteSize;
+                float variance = 0f;
+                for (int e = 0; e < eliteSize; e++) {
+                    float difference = population[order[e]][p] - eliteMean;
+                    variance += difference * difference;
+                }
+                mean[p] = eliteMean;
+                // keep a little noise so the search doesn't collapse early
+                deviation[p] = Math.max(0.02f, (float) Math.sqrt(variance / eliteSize));
+            }
+        }
+        return toSettings(best);
+    }
+
+    /**
+     * split the matches of one candidate into per-thread chunks; the summed wins don't depend on scheduling order
+     */
+    private List<Future<Integer>> evaluateAsync(final AiSettings settings, final long candidateSeed, final int matches) {
+        int chunks = Math.max(1, Math.min(threads, matches / 16));
+        List<Future<Integer>> parts = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int from = matches * chunk / chunks;
+            final int to = matches * (chunk + 1) / chunks;
+            parts.add(executor.submit(() -> simulators.get().playMatches(settings, candidateSeed, from, to, matches)));
+        }
+        return parts;
+    }
+
+    private static float winRate(List<Future<Integer>> parts, int matches) throws InterruptedException, ExecutionException {
+        int wins = 0;
+        for (Future<Integer> part : parts) {
+            wins += part.get();
+        }
+        return wins / (float) matches;
+    }
+
+    private float evaluate(AiSettings settings, long candidateSeed, int matches) throws InterruptedException, ExecutionException {
+        return winRate(evaluateAsync(settings, candidateSeed, matches), matches);
+    }
+
+    private long seedFor(int difficultyIndex, int generation, int candidate) {
+        long hash = mix(seed);
+        hash = mix(hash ^ difficultyIndex);
+        hash = mix(hash ^ generation);
+        return mix(hash ^ candidate);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads neighbouring indexes into unrelated seeds
+     */
+    private static long mix(long value) {
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static AiSettings toSettings(float[] normalized) {
+        float[] values = new float[PARAMETER_COUNT];
+        for (int p = 0; p < PARAMETER_COUNT; p++) {
+            values[p] = PARAMETER_MIN[p] + normalized[p] * (PARAMETER_MAX[p] - PARAMETER_MIN[p]);
+        }
+        return new AiSettings(values[0], values[1], values[2], values[3], values[4]);
+    }
+
+    /**
+     * reference player of the given skill, 0 is the novice and 1 the expert
+     */
+    private static AiSettings referencePlayer(float skill) {
+        return new AiSettings(
+            lerp(NOVICE_PLAYER.blockChance, EXPERT_PLAYER.blockChance, skill),
+            lerp(NOVICE_PLAYER.attackChance, EXPERT_PLAYER.attackChance, skill),
+            lerp(NOVICE_PLAYER.pursueChance, EXPERT_PLAYER.pursueChance, skill),
+            lerp(NOVICE_PLAYER.contactDecisionDelay, EXPERT_PLAYER.contactDecisionDelay, skill),
+            lerp(NOVICE_PLAYER.nonContactDecisionDelay, EXPERT_PLAYER.nonContactDecisionDelay, skill));
+    }
+
+    private static float lerp(float from, float to, float progress) {
+        return from + (to - from) * progress;
+    }
+
+    private void writePresets(GlobalVariables.Difficulty[] difficulties, AiSettings[] presets, float[] winRates) throws IOException {
+        File file = new File(outputPath);
+        if (file.getAbsoluteFile().getParentFile() != null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"seed\": " + seed + ",\n  \"presets\": [\n");
+            for (int d = 0; d < difficulties.length; d++) {
+                AiSettings preset = presets[d];
+                writer.write(String.format(Locale.ROOT,
+                    "    {\"difficulty\": \"%s\", \"targetPlayerWinRate\": %.3f, \"playerWinRate\": %.3f, " +
+                        "\"blockChance\": %.4f, \"attackChance\": %.4f, \"pursueChance\": %.4f, " +
+                        "\"contactDecisionDelay\": %.4f, \"nonContactDecisionDelay\": %.4f}%s\n",
+                    difficulties[d], targetWinRates[d], winRates[d], preset.blockChance, preset.attackChance,
+                    preset.pursueChance, preset.contactDecisionDelay, preset.nonContactDecisionDelay,
+                    d < difficulties.length - 1 ? "," : ""));
+            }
+            writer.write("  ]\n}\n");
+        }
+        System.out.println("Presets written to " + file.getAbsolutePath());
+    }
+
+    /**
+     * headless fighters, match and runner owned by one worker thread
+     */
+    private class Simulator {
+        private final Fighter player = new Fighter("Player", Color.WHITE);
+        private final Fighter opponent = new Fighter("Opponent", Color.WHITE);
+        private final Match match = new Match(player, opponent);
+        // stepped on the worker thread. Its log is never started, the events it gets are dropped once its buffer is full
+        private final MatchRunner runner = new MatchRunner(match, new TelemetryLog(new File("build/tuner-telemetry")),
+            BLOOD_SPLATTER_DURATION);
+
+        Simulator() {
+            runner.setObserved(false); // only the match is read, no hashing or snapshots
+            runner.startStepped(0L);
+        }
+
+        /**
+         * plays matches [from, to) out of the candidate's total and returns how many the player won
+         */
+        int playMatches(AiSettings opponentSettings, long candidateSeed, int from, int to, int matches) {
+            int wins = 0;
+            match.setOpponentAi(opponentSettings);
+            for (int i = from; i < to; i++) {
+                match.setPlayerAi(referencePlayer((i + 0.5f) / matches)); // skills evenly spread over the matches
+                runner.startMatch(i, mix(candidateSeed ^ i)); // starts with the next step
+                for (int tick = 0; tick < MAX_TICKS; tick++) {
+                    runner.step();
+                    if (match.isOver()) break;
+                }
+                if (match.getRoundsWon() > match.getRoundsLost()) {
+                    wins++;
+                }
+            }
+            synchronized (AiTuner.this) {
+                matchesPlayed += to - from;
+            }
+            return wins;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.xtrife.sfs.headless;
+
+import com.xtrife.sfs.resources.AssetPack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+/**
+ * Created by 9S on 10/19/2026 - 1:52 PM.
+ * Packs every file of the assets folder into one {@link AssetPack}. Text formats are deflated when that saves enough;
+ * images, audio and fonts are stored as is, they are already compressed and stored entries can be memory-mapped.
+ * Files with the same content are stored once. Output only depends on the input files, so builds are reproducible.
+ * Generated files that live outside the assets folder, like the texture tiers, are added with {@code --add}, at the
+ * same paths relative to their folder.
+ * <p>
+ * Usage: AssetPacker &lt;assets folder&gt; &lt;output file&gt; [--no-compress] [--add &lt;folder&gt;]...
+ */
+public class AssetPacker {
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = new HashSet<>(Arrays.asList("atlas", "json", "txt", "fnt", "xml"));
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList("assets.txt", "assets.pack"));
+    private static final float MIN_COMPRESSION_GAIN = 0.1f; // only keep deflated data if it is 10% smaller
+
+    public static void main(String[] args) throws IOException, NoSuchAlgorithmException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetPacker <assets folder> <output file> [--no-compress] [--add <folder>]...");
+            System.exit(1);
+        }
+        File output = new File(args[1]);
+        boolean compress = true;
+        // pack path -> file, sorted by path
+        Map<String, File> files = new TreeMap<>();
+        collect(new File(args[0]), "", files);
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--no-compress":
+                    compress = false;
+                    break;
+                case "--add":
+                    if (i + 1 >= args.length) throw new IllegalArgumentException("--add needs a folder");
+                    collect(new File(args[++i]), "", files);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] + ". Options: --no-compress, --add");
+            }
+        }
+        List<String> paths = new ArrayList<>(files.keySet());
+
+        if (output.getAbsoluteFile().getParentFile() != null) {
+            output.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        Files.deleteIfExists(output.toPath());
+
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        Map<String, AssetPack.Entry> stored = new HashMap<>(); // content hash -> first entry with that content
+        List<AssetPack.Entry> entries = new ArrayList<>(paths.size());
+        long looseSize = 0, packedSize = 0;
+
+        try (RandomAccessFile file = new RandomAccessFile(output, "rw")) {
+            // header, the index offset is filled in at the end
+            file.writeInt(AssetPack.MAGIC);
+            file.writeInt(AssetPack.VERSION);
+            file.writeInt(paths.size());
+            file.writeLong(0L);
+
+            for (String path : paths) {
+                byte[] content = Files.readAllBytes(files.get(path).toPath());
+                looseSize += content.length;
+                byte[] digest = sha256.digest(content);
+                String digestKey = toHex(digest);
+
+                AssetPack.Entry same = stored.get(digestKey);
+                if (same != null) {
+                    // identical content, point at the data already written
+                    entries.add(new AssetPack.Entry(path, same.offset, same.storedLength, same.length, same.compression, same.contentHash));
+                    continue;
+                }
+
+                byte[] data = content;
+                byte compression = AssetPack.STORED;
+                if (compress && COMPRESSIBLE_EXTENSIONS.contains(extension(path))) {
+                    byte[] deflated = deflate(content);
+                    if (deflated.length < content.length * (1f - MIN_COMPRESSION_GAIN)) {
+                        data = deflated;
+                        compression = AssetPack.DEFLATED;
+                    }
+                }
+
+                AssetPack.Entry entry = new AssetPack.Entry(path, file.getFilePointer(), data.length, content.length,
+                    compression, firstLong(digest));
+                file.write(data);
+                packedSize += data.length;
+                stored.put(digestKey, entry);
+                entries.add(entry);
+            }
+
+            // index
+            long indexOffset = file.getFilePointer();
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(indexBytes);
+            for (AssetPack.Entry entry : entries) {
+                byte[] pathBytes = entry.path.getBytes(StandardCharsets.UTF_8);
+                index.writeShort(pathBytes.length);
+                index.write(pathBytes);
+                index.writeLong(entry.offset);
+                index.writeInt(entry.storedLength);
+                index.writeInt(entry.length);
+                index.writeByte(entry.compression);
+                index.writeLong(entry.contentHash);
+            }
+            file.write(indexBytes.toByteArray());
+            file.seek(12);
+            file.writeLong(indexOffset);
+        }
+
+        System.out.printf("Packed %d files (%d unique) into %s: %d KB loose, %d KB of data%n", entries.size(),
+            stored.size(), output.getPath(), looseSize / 1024, packedSize / 1024);
+    }
+
+    private static void collect(File folder, String prefix, Map<String, File> files) {
+        File[] children = folder.listFiles();
+        if (children == null) return;
+        for (File file : children) {
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                collect(file, path + "/", files);
+            } else if (!SKIPPED_FILES.contains(path) && files.put(path, file) != null) {
+                throw new IllegalArgumentException(path + " is in more than one of the packed folders");
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(content.length);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String extension(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < 0 ? "" : path.substring(dot + 1).toLowerCase();
+    }
+
+    private static long firstLong(byte[] bytes) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
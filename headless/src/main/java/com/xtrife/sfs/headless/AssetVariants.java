@@ -0,0 +1,218 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.resources.Assets;
+import com.xtrife.sfs.resources.TieredFileHandleResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by 9S on 10/19/2026 - 7:04 PM.
+ * Writes the downscaled texture tiers of the assets folder (see {@link Assets#TEXTURE_TIERS}): every image is halved
+ * with a box filter down to the tier's size, every atlas is rewritten with its regions scaled to match and
+ * mipmapped filtering. The tiers are written to their own folder, outside of the assets folder, which the build adds
+ * to the game's resources and packs. The game picks a tier at startup and falls back to the authored file for anything
+ * missing.
+ * <p>
+ * Usage: AssetVariants &lt;assets folder&gt; &lt;output folder&gt;
+ */
+public class AssetVariants {
+    private static final String MIPMAP_FILTER = "filter: MipMapLinearLinear, Linear";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetVariants <assets folder> <output folder>");
+            System.exit(1);
+        }
+        File assetsFolder = new File(args[0]);
+        File outputFolder = new File(args[1]);
+
+        GdxNativesLoader.load();
+
+        List<String> paths = new ArrayList<>();
+        collect(assetsFolder, "", paths);
+        Collections.sort(paths);
+
+        for (float tier : Assets.TEXTURE_TIERS) {
+            if (tier >= 1f) continue; // the authored files
+            File tierFolder = new File(outputFolder, Assets.getTierFolder(tier));
+            long bytes = 0;
+            for (String path : paths) {
+                File source = new File(assetsFolder, path);
+                File target = new File(tierFolder, path);
+                target.getParentFile().mkdirs();
+                if (path.toLowerCase().endsWith(".atlas")) {
+                    writeAtlas(source, target, tier);
+                } else {
+                    writeImage(source, target, tier);
+                }
+                bytes += target.length();
+            }
+            System.out.printf("Wrote %d files for tier %sx to %s: %d KB%n", paths.size(), tier, tierFolder.getPath(),
+                bytes / 1024);
+        }
+    }
+
+    private static void collect(File folder, String prefix, List<String> paths) {
+        File[] files = folder.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                collect(file, path + "/", paths);
+            } else if (TieredFileHandleResolver.hasVariants(path)) {
+                paths.add(path); // skips a tiers folder left in the assets folder by older builds
+            }
+        }
+    }
+
+    private static void writeImage(File source, File target, float tier) {
+        Pixmap image = new Pixmap(new FileHandle(source));
+        // tiers are powers of two, odd sizes round up on every halving
+        int halvings = Math.round((float) (Math.log(1f / tier) / Math.log(2)));
+        for (int i = 0; i < halvings; i++) {
+            Pixmap half = halve(image);
+            image.dispose();
+            image = half;
+        }
+        PixmapIO.writePNG(new FileHandle(target), image);
+        image.dispose();
+    }
+
+    /**
+     * 2x2 box filter, weighted by alpha so transparent pixels don't darken the edges of sprites
+     */
+    private static Pixmap halve(Pixmap source) {
+        if (source.getFormat() != Pixmap.Format.RGBA8888) {
+            Pixmap converted = new Pixmap(source.getWidth(), source.getHeight(), Pixmap.Format.RGBA8888);
+            converted.setBlending(Pixmap.Blending.None);
+            converted.drawPixmap(source, 0, 0);
+            Pixmap half = halve(converted);
+            converted.dispose();
+            return half;
+        }
+
+        int sourceWidth = source.getWidth(), sourceHeight = source.getHeight();
+        int width = (sourceWidth + 1) / 2, height = (sourceHeight + 1) / 2;
+        Pixmap half = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        ByteBuffer in = source.getPixels();
+        ByteBuffer out = half.getPixels();
+        for (int y = 0; y < height; y++) {
+            int y0 = y * 2, y1 = Math.min(y0 + 1, sourceHeight - 1);
+            for (int x = 0; x < width; x++) {
+                int x0 = x * 2, x1 = Math.min(x0 + 1, sourceWidth - 1);
+                int r = 0, g = 0, b = 0, a = 0;
+                for (int i = 0; i < 4; i++) {
+                    int offset = ((i < 2 ? y0 : y1) * sourceWidth + (i % 2 == 0 ? x0 : x1)) * 4;
+                    int alpha = in.get(offset + 3) & 0xFF;
+                    r += (in.get(offset) & 0xFF) * alpha;
+                    g += (in.get(offset + 1) & 0xFF) * alpha;
+                    b += (in.get(offset + 2) & 0xFF) * alpha;
+                    a += alpha;
+                }
+                int offset = (y * width + x) * 4;
+                out.put(offset, (byte) (a == 0 ? 0 : (r + a / 2) / a));
+                out.put(offset + 1, (byte) (a == 0 ? 0 : (g + a / 2) / a));
+                out.put(offset + 2, (byte) (a == 0 ? 0 : (b + a / 2) / a));
+                out.put(offset + 3, (byte) ((a + 2) / 4));
+            }
+        }
+        return half;
+    }
+
+    /**
+     * copy of a libGDX atlas with page sizes, region bounds, offsets and original sizes scaled to the tier. Bounds are
+     * scaled by their edges, so regions that touched before still touch and none overlap
+     */
+    private static void writeAtlas(File source, File target, float tier) throws IOException {
+        List<String> lines = Files.readAllLines(source.toPath(), StandardCharsets.UTF_8);
+        List<String> scaled = new ArrayList<>(lines.size());
+        boolean pageHeader = false, newPage = true;
+        int x = 0, y = 0;
+        for (String line : lines) {
+            String trimmed = line.trim();
+            int colon = trimmed.indexOf(':');
+            if (trimmed.isEmpty()) {
+                newPage = true;
+                scaled.add(line);
+                continue;
+            }
+            if (colon < 0) {
+                // a page starts with its image name after an empty line, anything else without a colon is a region
+                pageHeader = newPage;
+                newPage = false;
+                scaled.add(line);
+                continue;
+            }
+
+            String indent = line.substring(0, line.indexOf(trimmed));
+            String key = trimmed.substring(0, colon).trim();
+            int[] values = parseValues(trimmed.substring(colon + 1));
+            if (pageHeader && key.equals("filter")) {
+                scaled.add(indent + MIPMAP_FILTER);
+            } else if (pageHeader && key.equals("size") && values != null) {
+                scaled.add(indent + "size: " + scale(values[0], tier) + ", " + scale(values[1], tier));
+            } else if (key.equals("xy") && values != null) {
+                x = values[0];
+                y = values[1];
+                scaled.add(indent + "xy: " + scale(x, tier) + ", " + scale(y, tier));
+            } else if (key.equals("size") && values != null) {
+                // legacy format, xy comes first
+                scaled.add(indent + "size: " + scaleSpan(x, values[0], tier) + ", " + scaleSpan(y, values[1], tier));
+            } else if (key.equals("bounds") && values != null && values.length == 4) {
+                scaled.add(indent + "bounds: " + scale(values[0], tier) + ", " + scale(values[1], tier) + ", "
+                    + scaleSpan(values[0], values[2], tier) + ", " + scaleSpan(values[1], values[3], tier));
+            } else if ((key.equals("orig") || key.equals("offset") || key.equals("offsets") || key.equals("split")
+                || key.equals("pad")) && values != null) {
+                StringBuilder builder = new StringBuilder(indent).append(key).append(": ");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) builder.append(", ");
+                    builder.append(scale(values[i], tier));
+                }
+                scaled.add(builder.toString());
+            } else {
+                scaled.add(line);
+            }
+        }
+        Files.write(target.toPath(), scaled, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * the values of a "key: a, b, ..." line, or null if they aren't all integers
+     */
+    private static int[] parseValues(String text) {
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return values;
+    }
+
+    private static int scale(int value, float tier) {
+        return Math.round(value * tier);
+    }
+
+    private static int scaleSpan(int start, int length, float tier) {
+        int span = scale(start + length, tier) - scale(start, tier);
+        if (length > 0 && span <= 0) {
+            throw new GdxRuntimeException("Region of " + length + " pixels vanishes at tier " + tier);
+        }
+        return span;
+    }
+}
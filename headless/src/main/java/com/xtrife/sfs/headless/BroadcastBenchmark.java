@@ -0,0 +1,251 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.broadcast.SnapshotCodec;
+import com.xtrife.sfs.broadcast.SpectatorClient;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.AiSettings;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:20 PM.
+ * Measures the spectator broadcast. First it codes AI vs AI matches tick by tick like a {@link MatchBroadcaster} does
+ * and decodes them again, for the size of keyframes and deltas, the coding time per tick and how far decoded values
+ * are from the simulated ones. Then it broadcasts the same matches over loopback to 1, 2, 4, ... spectators, stepped
+ * in lockstep with them, for the bytes each spectator receives and the host CPU the broadcast thread spends.
+ * <p>
+ * Usage: BroadcastBenchmark [--seed n] [--seconds simulated seconds] [--max-spectators n]
+ */
+public class BroadcastBenchmark {
+    private static final GlobalVariables.Difficulty DIFFICULTY = GlobalVariables.Difficulty.HARD; // both fighters
+    private static final float BLOOD_SPLATTER_DURATION = 0.5f;
+    private static final long FRAME_TIMEOUT_NANOS = 5_000_000_000L;
+    // half a quantization step, plus float rounding
+    private static final float MAX_POSITION_ERROR = 0.5f / 64f + 1e-4f;
+    private static final float MAX_TIME_ERROR = 0.5f / (MatchRunner.TICK_RATE * 4f) + 1e-4f;
+    private static final float MAX_LIFE_ERROR = 0.5f / 100f + 1e-4f;
+
+    private long seed = 1L;
+    private int seconds = 60;
+    private int maxSpectators = 64;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BroadcastBenchmark benchmark = new BroadcastBenchmark();
+        benchmark.parseArguments(args);
+        boolean exact = benchmark.measureCoding();
+        benchmark.measureBroadcast();
+        System.exit(exact ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(value);
+                    break;
+                case "--max-spectators":
+                    maxSpectators = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ". Options: --seed, --seconds, --max-spectators");
+            }
+            i++; // skip the value
+        }
+    }
+
+    /**
+     * @return true if every decoded value was within half a quantization step of the simulated one
+     */
+    private boolean measureCoding() {
+        Run run = new Run(seed);
+        SnapshotCodec encoder = new SnapshotCodec(), decoder = new SnapshotCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(MatchBroadcaster.MAX_FRAME_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        MatchSnapshot decoded = new MatchSnapshot();
+
+        long ticks = (long) seconds * MatchRunner.TICK_RATE;
+        long keyframes = 0, keyframeBytes = 0, deltaBytes = 0, encodeNanos = 0, decodeNanos = 0;
+        long mismatches = 0;
+        float positionError = 0f, timeError = 0f, lifeError = 0f;
+        for (long tick = 0; tick < ticks; tick++) {
+            run.step();
+            MatchSnapshot host = run.runner.getSnapshot();
+            boolean keyframe = tick % MatchBroadcaster.KEYFRAME_INTERVAL == 0;
+
+            // one record per buffer, so its size is known to the byte
+            long start = System.nanoTime();
+            encoder.beginWrite(buffer, 0);
+            if (keyframe) {
+                encoder.writeKeyframe(host);
+            } else {
+                encoder.writeDelta(host);
+            }
+            int size = encoder.endWrite();
+            long encoded = System.nanoTime();
+            decoder.beginRead(buffer, 0);
+            if (keyframe) {
+                decoder.readKeyframe(decoded);
+            } else {
+                decoder.readDelta(decoded);
+            }
+            decodeNanos += System.nanoTime() - encoded;
+            encodeNanos += encoded - start;
+            if (keyframe) {
+                keyframes++;
+                keyframeBytes += size;
+            } else {
+                deltaBytes += size;
+            }
+
+            positionError = Math.max(positionError, Math.max(fighterPositionError(host.player, decoded.player),
+                fighterPositionError(host.opponent, decoded.opponent)));
+            timeError = Math.max(timeError, Math.max(Math.abs(host.player.stateTime - decoded.player.stateTime),
+                Math.abs(host.roundTimer - decoded.roundTimer)));
+            lifeError = Math.max(lifeError, Math.max(Math.abs(host.player.life - decoded.player.life),
+                Math.abs(host.opponent.life - decoded.opponent.life)));
+            if (!sameDiscreteValues(host, decoded)) {
+                mismatches++;
+            }
+        }
+
+        long deltas = ticks - keyframes;
+        System.out.printf(Locale.ROOT, "%d ticks of %d matches coded%n", ticks, run.generation + 1);
+        System.out.printf(Locale.ROOT, "keyframe %.1f bytes, delta %.2f bytes, %.0f bytes per second with a keyframe " +
+                "every %d ticks%n", keyframeBytes / (double) keyframes, deltaBytes / (double) deltas,
+            (keyframeBytes + deltaBytes) / (double) seconds, MatchBroadcaster.KEYFRAME_INTERVAL);
+        System.out.printf(Locale.ROOT, "encode %.0f ns, decode %.0f ns per tick%n", encodeNanos / (double) ticks,
+            decodeNanos / (double) ticks);
+        System.out.printf(Locale.ROOT, "largest error: position %.5f, time %.5f s, life %.4f; %d ticks with other " +
+            "discrete values%n", positionError, timeError, lifeError, mismatches);
+        boolean exact = mismatches == 0 && positionError <= MAX_POSITION_ERROR && timeError <= MAX_TIME_ERROR &&
+            lifeError <= MAX_LIFE_ERROR;
+        if (!exact) {
+            System.out.println("FAILED: decoded state is further off than quantization explains");
+        }
+        return exact;
+    }
+
+    private static float fighterPositionError(MatchSnapshot.FighterSnapshot host, MatchSnapshot.FighterSnapshot decoded) {
+        return Math.max(Math.abs(host.x - decoded.x), Math.abs(host.y - decoded.y));
+    }
+
+    private static boolean sameDiscreteValues(MatchSnapshot host, MatchSnapshot decoded) {
+        boolean same = host.player.state == decoded.player.state && host.opponent.state == decoded.opponent.state &&
+            host.player.facing == decoded.player.facing && host.opponent.facing == decoded.opponent.facing &&
+            host.roundState == decoded.roundState && host.currentRound == decoded.currentRound &&
+            host.roundsWon == decoded.roundsWon && host.roundsLost == decoded.roundsLost &&
+            host.difficulty == decoded.difficulty && host.over == decoded.over && host.hits == decoded.hits &&
+            host.blocks == decoded.blocks && host.roundWins == decoded.roundWins &&
+            host.roundLosses == decoded.roundLosses && host.generation == decoded.generation;
+        for (int i = 0; i < host.bloodActive.length; i++) {
+            same &= host.bloodActive[i] == decoded.bloodActive[i];
+        }
+        return same;
+    }
+
+    private void measureBroadcast() throws IOException, InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long ticks = (long) seconds * MatchRunner.TICK_RATE;
+        System.out.printf(Locale.ROOT, "%n%d simulated seconds over loopback, %d ticks per frame%n", seconds,
+            MatchBroadcaster.BATCH_TICKS);
+        System.out.println("spectators   bytes/s each   broadcast cpu ms/s   per spectator   skipped   dropped");
+        for (int spectatorCount = 1; spectatorCount <= maxSpectators; spectatorCount *= 2) {
+            Run run = new Run(seed);
+            MatchBroadcaster broadcaster = new MatchBroadcaster(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            run.runner.setBroadcaster(broadcaster);
+            broadcaster.start();
+
+            // a first frame to start from, connect() waits for it
+            for (int i = 0; i < MatchBroadcaster.BATCH_TICKS; i++) {
+                run.step();
+            }
+            SpectatorClient[] spectators = new SpectatorClient[spectatorCount];
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), broadcaster.getPort());
+            for (int i = 0; i < spectatorCount; i++) {
+                spectators[i] = new SpectatorClient();
+                spectators[i].connect(address, 5000);
+            }
+
+            long startBytes = broadcaster.getBytesSent();
+            long startCpu = threads.getThreadCpuTime(broadcaster.getBroadcastThreadId());
+            for (long tick = 0; tick < ticks; tick += MatchBroadcaster.BATCH_TICKS) {
+                for (int i = 0; i < MatchBroadcaster.BATCH_TICKS; i++) {
+                    run.step();
+                }
+                // every spectator gets the frame before the next one, like a host with all the bandwidth it needs
+                long frames = broadcaster.getFramesPublished();
+                for (SpectatorClient spectator : spectators) {
+                    waitForFrames(spectator, frames);
+                    spectator.update(MatchBroadcaster.BATCH_TICKS * MatchRunner.TICK_DURATION);
+                }
+            }
+            long bytes = broadcaster.getBytesSent() - startBytes;
+            double cpuMillis = (threads.getThreadCpuTime(broadcaster.getBroadcastThreadId()) - startCpu) / 1e6;
+            System.out.printf(Locale.ROOT, "%10d   %12.0f   %18.2f   %13.3f   %7d   %7d%n", spectatorCount,
+                bytes / (double) spectatorCount / seconds, cpuMillis / seconds, cpuMillis / seconds / spectatorCount,
+                broadcaster.getSkippedFrames(), broadcaster.getDroppedSpectators());
+
+            for (SpectatorClient spectator : spectators) {
+                spectator.dispose();
+            }
+            broadcaster.dispose();
+        }
+    }
+
+    private static void waitForFrames(SpectatorClient spectator, long frames) throws InterruptedException {
+        long deadline = System.nanoTime() + FRAME_TIMEOUT_NANOS;
+        while (spectator.getFramesReceived() + spectator.getDroppedFrames() < frames) {
+            if (!spectator.isConnected() || System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("A spectator stopped receiving frames");
+            }
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    /**
+     * a seeded AI vs AI runner, stepped on this thread, that starts the next match when one is over
+     */
+    private static class Run {
+        final MatchRunner runner;
+        final RandomXS128 matchSeeds;
+        int generation;
+
+        Run(long seed) {
+            Match match = new Match(new Fighter("Player", Color.WHITE), new Fighter("Opponent", Color.WHITE));
+            match.setPlayerAi(AiSettings.forDifficulty(DIFFICULTY));
+            match.setDifficulty(DIFFICULTY);
+            // the log is never started, the few events it gets stay in its buffer
+            runner = new MatchRunner(match, new TelemetryLog(new File("build/broadcast-telemetry")),
+                BLOOD_SPLATTER_DURATION);
+            matchSeeds = new RandomXS128(seed);
+            runner.startStepped(matchSeeds.nextLong());
+        }
+
+        void step() {
+            runner.step();
+            if (runner.getSnapshot().over) {
+                runner.startMatch(++generation, matchSeeds.nextLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.AiSettings;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.StateHash;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:57 PM.
+ * Plays the same AI vs AI matches twice, tick by tick, and compares the state hashes of the two runs after every tick.
+ * Reports the first tick they disagree on and the field that differs, or that they never did, plus what the hashing
+ * costs per tick. {@code --perturb <tick>} nudges one fighter of the second run at that tick to show a desync being
+ * caught.
+ * <p>
+ * Usage: DesyncCheck [--seed n] [--ticks n] [--perturb tick]
+ */
+public class DesyncCheck {
+    private static final GlobalVariables.Difficulty DIFFICULTY = GlobalVariables.Difficulty.HARD; // both fighters
+    private static final float BLOOD_SPLATTER_DURATION = 0.5f; // blood isn't part of the state hash
+    private static final int HASH_TIMING_ROUNDS = 100_000;
+
+    private long seed = 1L;
+    private long ticks = 120L * 60 * 10; // ten minutes of matches
+    private long perturbTick = -1;
+
+    public static void main(String[] args) {
+        DesyncCheck check = new DesyncCheck();
+        check.parseArguments(args);
+        System.exit(check.run() ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--ticks":
+                    ticks = Long.parseLong(value);
+                    break;
+                case "--perturb":
+                    perturbTick = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ". Options: --seed, --ticks, --perturb");
+            }
+            i++; // skip the value
+        }
+    }
+
+    /**
+     * @return true if the runs stayed in sync
+     */
+    private boolean run() {
+        Run a = new Run(), b = new Run();
+        RandomXS128 matchSeeds = new RandomXS128(seed);
+        int generation = 0;
+        long firstSeed = matchSeeds.nextLong();
+        a.runner.startStepped(firstSeed);
+        b.runner.startStepped(firstSeed);
+
+        long stepNanos = 0;
+        for (long tick = 0; tick < ticks; tick++) {
+            if (tick == perturbTick) {
+                b.opponent.getPosition().x += 0.0001f;
+            }
+            long start = System.nanoTime();
+            a.runner.step();
+            stepNanos += System.nanoTime() - start;
+            b.runner.step();
+
+            if (a.runner.getSnapshot().stateHash != b.runner.getSnapshot().stateHash) {
+                reportMismatch(tick, a, b);
+                return false;
+            }
+            if (a.runner.getSnapshot().over) {
+                // both are, or the hashes would differ
+                long matchSeed = matchSeeds.nextLong();
+                generation++;
+                a.runner.startMatch(generation, matchSeed);
+                b.runner.startMatch(generation, matchSeed);
+            }
+        }
+
+        // what hashing adds to a tick
+        StateHash hash = new StateHash();
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < HASH_TIMING_ROUNDS; i++) {
+            a.runner.hashState(hash);
+            sink += hash.get();
+        }
+        double hashNanos = (System.nanoTime() - start) / (double) HASH_TIMING_ROUNDS;
+        double tickNanos = stepNanos / (double) ticks;
+        System.out.printf(Locale.ROOT, "%d ticks of %d matches in sync, final hash %016X%n", ticks, generation + 1,
+            a.runner.getSnapshot().stateHash);
+        System.out.printf(Locale.ROOT, "state hash %.0f ns per tick, %.1f%% of a %.0f ns tick%n", hashNanos,
+            100 * hashNanos / tickNanos, tickNanos);
+        return sink != 1; // keeps the timed hashing from being optimized away
+    }
+
+    /**
+     * the runs have just finished the tick they first disagree on, hash it again field by field
+     */
+    private static void reportMismatch(long tick, Run a, Run b) {
+        StateHash fieldsA = new StateHash(), fieldsB = new StateHash();
+        fieldsA.setRecordingFields(true);
+        fieldsB.setRecordingFields(true);
+        a.runner.hashState(fieldsA);
+        b.runner.hashState(fieldsB);
+        int field = fieldsA.findMismatch(fieldsB);
+
+        System.out.printf(Locale.ROOT, "Desync at tick %d (match tick %d)%n", tick, a.runner.getSnapshot().matchTick - 1);
+        if (field < 0 || field >= fieldsA.getFieldCount() || field >= fieldsB.getFieldCount()) {
+            System.out.println("  the recorded fields match, the state has more fields than the hash records");
+            return;
+        }
+        long valueA = fieldsA.getFieldValue(field), valueB = fieldsB.getFieldValue(field);
+        System.out.printf(Locale.ROOT, "  first differing field %s: %d vs %d (as floats %s vs %s)%n",
+            fieldsA.getFieldName(field), valueA, valueB, Float.intBitsToFloat((int) valueA),
+            Float.intBitsToFloat((int) valueB));
+    }
+
+    /**
+     * one of the two runs: its own fighters, match and runner, the AI fighting for both
+     */
+    private static class Run {
+        final Fighter player = new Fighter("Player", Color.WHITE);
+        final Fighter opponent = new Fighter("Opponent", Color.WHITE);
+        final MatchRunner runner;
+
+        Run() {
+            Match match = new Match(player, opponent);
+            match.setPlayerAi(AiSettings.forDifficulty(DIFFICULTY));
+            match.setDifficulty(DIFFICULTY);
+            // the log is never started, the few events it gets stay in its buffer
+            runner = new MatchRunner(match, new TelemetryLog(new File("build/desync-telemetry")),
+                BLOOD_SPLATTER_DURATION);
+        }
+    }
+}
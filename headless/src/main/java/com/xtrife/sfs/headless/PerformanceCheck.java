@@ -0,0 +1,393 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.objects.Fighter;
+import com.xtrife.sfs.rendering.HudText;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.simulation.AiSettings;
+import com.xtrife.sfs.simulation.Match;
+import com.xtrife.sfs.simulation.MatchRunner;
+import com.xtrife.sfs.simulation.MatchSnapshot;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:55 PM.
+ * Performance regression check of the game logic, run by the headless module's {@code check} task. Seeded scenarios
+ * (scripted fighters, AI vs AI matches, the full simulation tick with blood and hashing, and the HUD text) each run
+ * until the JIT has settled and are then measured tick by tick with the thread's allocation counter, in a few passes
+ * of which the cleanest counts. Every scenario has budgets: ticks per second, bytes allocated per steady-state tick
+ * (none) and bytes allocated per round, for the ticks where a round starts, its fight starts or it ends. A broken
+ * budget prints what it was and what was measured, and the check exits with 1.
+ * <p>
+ * The tick rate budgets sit far below what a single core does, so only a drastic slowdown of a hot loop trips them on
+ * a slow build machine. {@code --tick-rate-scale} raises or lowers them all, e.g. 0 to only check the allocations.
+ * <p>
+ * Usage: PerformanceCheck [--seed n] [--ticks n] [--warmup n] [--tick-rate-scale factor]
+ */
+public class PerformanceCheck {
+    private static final float TICK = MatchRunner.TICK_DURATION;
+    private static final float BLOOD_SPLATTER_DURATION = 0.5f;
+    private static final float FIGHTER_ROUND_TIME = 2f; // seconds between getReady calls of the fighter scenario
+    private static final int OVERHEAD_SAMPLES = 1000;
+    private static final int PASSES = 3; // of the allocation measurement
+
+    private long seed = 1L;
+    private int ticks = 50_000; // per scenario
+    private int warmupTicks = 50_000;
+    private float tickRateScale = 1f;
+
+    private com.sun.management.ThreadMXBean threads;
+    private long threadId;
+    private long measurementOverhead; // bytes the allocation counter itself allocates per reading
+
+    public static void main(String[] args) {
+        PerformanceCheck check = new PerformanceCheck();
+        check.parseArguments(args);
+        System.exit(check.run() ? 0 : 1);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--ticks":
+                    ticks = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmupTicks = Integer.parseInt(value);
+                    break;
+                case "--tick-rate-scale":
+                    tickRateScale = Float.parseFloat(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ". Options: --seed, --ticks, --warmup, --tick-rate-scale");
+            }
+            i++; // skip the value
+        }
+        if (ticks < 1) throw new IllegalArgumentException("--ticks must be at least 1");
+    }
+
+    /**
+     * @return true if every budget held
+     */
+    private boolean run() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("This JVM can't count allocated bytes per thread, skipping the performance check");
+            return true;
+        }
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("This JVM can't count allocated bytes per thread, skipping the performance check");
+            return true;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+
+        Scenario[] scenarios = {
+            // name, min ticks per second, max bytes per steady-state tick, max bytes per round
+            new FighterScenario("fighter", 1_500_000, 0, 0),
+            new AiScenario("ai", 500_000, 0, 512),
+            new MatchScenario("match", 100_000, 0, 1024),
+            new HudScenario("hud", 400_000, 0, 0),
+        };
+
+        List<String> failures = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-8s %22s %20s %20s%n", "", "ticks/s (min)", "B/tick (max)", "B/round (max)");
+        for (Scenario scenario : scenarios) {
+            measure(scenario);
+            scenario.report(failures);
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("All performance budgets held");
+            return true;
+        }
+        System.out.println();
+        for (String failure : failures) {
+            System.out.println("FAILED " + failure);
+        }
+        System.out.println("Record a run with Flight Recorder (jdk.ObjectAllocationSample) to see where the allocations come from");
+        return false;
+    }
+
+    private void measure(Scenario scenario) {
+        scenario.start(seed);
+        for (int i = 0; i < warmupTicks; i++) {
+            scenario.prepare();
+            scenario.tick();
+        }
+        calibrate();
+
+        // allocations, tick by tick. The JIT can still recompile a method now and then, which runs it once without
+        // its allocations optimized away; garbage made every frame shows in every pass, so the cleanest pass counts
+        for (int pass = 0; pass < PASSES; pass++) {
+            long steadyBytes = 0, steadyTicks = 0, roundBytes = 0, rounds = 0;
+            for (int i = 0; i < ticks; i++) {
+                scenario.prepare();
+                long round = scenario.round();
+                long before = threads.getThreadAllocatedBytes(threadId);
+                scenario.tick();
+                long bytes = Math.max(0, threads.getThreadAllocatedBytes(threadId) - before - measurementOverhead);
+                if (scenario.round() == round) {
+                    steadyBytes += bytes;
+                    steadyTicks++;
+                } else {
+                    roundBytes += bytes;
+                    rounds++;
+                }
+            }
+            if (pass == 0 || steadyBytes * scenario.steadyTicks < scenario.steadyBytes * steadyTicks) {
+                scenario.steadyBytes = steadyBytes;
+                scenario.steadyTicks = steadyTicks;
+            }
+            if (pass == 0 || roundBytes * scenario.rounds < scenario.roundBytes * rounds) {
+                scenario.roundBytes = roundBytes;
+                scenario.rounds = rounds;
+            }
+        }
+
+        // speed, without the allocation counter in the loop. Ticks that prepare work are timed without it
+        long elapsed = 0;
+        for (int i = 0; i < ticks; i++) {
+            scenario.prepare();
+            long start = System.nanoTime();
+            scenario.tick();
+            elapsed += System.nanoTime() - start;
+        }
+        scenario.ticksPerSecond = ticks / (elapsed / 1e9);
+    }
+
+    /**
+     * what reading the allocation counter allocates itself, the least of many readings
+     */
+    private void calibrate() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < OVERHEAD_SAMPLES; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        measurementOverhead = overhead;
+    }
+
+    /**
+     * a seeded workload and its budgets
+     */
+    private abstract class Scenario {
+        final String name;
+        final double minTicksPerSecond;
+        final long maxBytesPerTick, maxBytesPerRound;
+        long steadyBytes, steadyTicks, roundBytes, rounds;
+        double ticksPerSecond;
+
+        Scenario(String name, double minTicksPerSecond, long maxBytesPerTick, long maxBytesPerRound) {
+            this.name = name;
+            this.minTicksPerSecond = minTicksPerSecond * tickRateScale;
+            this.maxBytesPerTick = maxBytesPerTick;
+            this.maxBytesPerRound = maxBytesPerRound;
+        }
+
+        abstract void start(long seed);
+
+        /**
+         * unmeasured work before a tick, e.g. producing the input the measured code consumes
+         */
+        void prepare() {
+        }
+
+        abstract void tick();
+
+        /**
+         * changes on the ticks a round starts or ends
+         */
+        abstract long round();
+
+        void report(List<String> failures) {
+            double bytesPerTick = steadyTicks == 0 ? 0 : steadyBytes / (double) steadyTicks;
+            double bytesPerRound = rounds == 0 ? 0 : roundBytes / (double) rounds;
+            System.out.printf(Locale.ROOT, "%-8s %11.0f (%8.0f) %11.1f (%6d) %11.0f (%6d)%n", name, ticksPerSecond,
+                minTicksPerSecond, bytesPerTick, maxBytesPerTick, bytesPerRound, maxBytesPerRound);
+            if (ticksPerSecond < minTicksPerSecond) {
+                failures.add(String.format(Locale.ROOT, "%s: %.0f ticks/s, budget at least %.0f (%.0f%%)", name,
+                    ticksPerSecond, minTicksPerSecond, 100 * (ticksPerSecond / minTicksPerSecond - 1)));
+            }
+            if (steadyBytes > maxBytesPerTick * steadyTicks) {
+                failures.add(String.format(Locale.ROOT,
+                    "%s: %.1f bytes allocated per steady-state tick (%d over %d ticks), budget %d (+%.1f)", name,
+                    bytesPerTick, steadyBytes, steadyTicks, maxBytesPerTick, bytesPerTick - maxBytesPerTick));
+            }
+            if (roundBytes > maxBytesPerRound * rounds) {
+                failures.add(String.format(Locale.ROOT,
+                    "%s: %.0f bytes allocated per round start or end (%d over %d), budget %d (+%.0f)", name,
+                    bytesPerRound, roundBytes, rounds, maxBytesPerRound, bytesPerRound - maxBytesPerRound));
+            }
+        }
+    }
+
+    /**
+     * two fighters scripted by random controls: walking, attacks, blocks and hits
+     */
+    private class FighterScenario extends Scenario {
+        private final Fighter[] fighters = {new Fighter("A", Color.WHITE), new Fighter("B", Color.WHITE)};
+        private final RandomXS128 random = new RandomXS128();
+        private long tick;
+
+        FighterScenario(String name, double minTicksPerSecond, long maxBytesPerTick, long maxBytesPerRound) {
+            super(name, minTicksPerSecond, maxBytesPerTick, maxBytesPerRound);
+        }
+
+        @Override
+        void start(long seed) {
+            random.setSeed(seed);
+            fighters[0].getReady(Match.PLAYER_START_POSITION_X, Match.FIGHTER_START_POSITION_Y);
+            fighters[1].getReady(Match.OPPONENT_START_POSITION_X, Match.FIGHTER_START_POSITION_Y);
+        }
+
+        @Override
+        void tick() {
+            if (++tick % (long) (FIGHTER_ROUND_TIME / TICK) == 0) {
+                start(random.nextLong());
+            }
+            for (Fighter fighter : fighters) {
+                control(fighter);
+                fighter.update(TICK);
+            }
+        }
+
+        private void control(Fighter fighter) {
+            if (random.nextInt(8) != 0) return; // a control every 8 ticks on average
+            switch (random.nextInt(12)) {
+                case 0: fighter.moveLeft(); break;
+                case 1: fighter.moveRight(); break;
+                case 2: fighter.moveUp(); break;
+                case 3: fighter.moveDown(); break;
+                case 4: fighter.stopMovingLeft(); break;
+                case 5: fighter.stopMovingRight(); break;
+                case 6: fighter.stopMovingUp(); break;
+                case 7: fighter.stopMovingDown(); break;
+                case 8: fighter.block(); break;
+                case 9: fighter.stopBlocking(); break;
+                case 10: fighter.punch(random.nextBoolean()); break;
+                default:
+                    if (fighter.isAttacking()) {
+                        fighter.makeContact();
+                    } else {
+                        fighter.getHit(Fighter.HIT_STRENGTH);
+                    }
+                    break;
+            }
+        }
+
+        @Override
+        long round() {
+            return tick / (long) (FIGHTER_ROUND_TIME / TICK);
+        }
+    }
+
+    /**
+     * the match rules with the AI fighting on both sides
+     */
+    private class AiScenario extends Scenario {
+        private final Match match = new Match(new Fighter("Player", Color.WHITE), new Fighter("Opponent", Color.WHITE));
+        private final RandomXS128 seeds = new RandomXS128();
+        private long matches;
+
+        AiScenario(String name, double minTicksPerSecond, long maxBytesPerTick, long maxBytesPerRound) {
+            super(name, minTicksPerSecond, maxBytesPerTick, maxBytesPerRound);
+            match.setPlayerAi(AiSettings.HARD);
+            match.setDifficulty(GlobalVariables.Difficulty.HARD);
+        }
+
+        @Override
+        void start(long seed) {
+            seeds.setSeed(seed);
+            match.start(seeds.nextLong());
+        }
+
+        @Override
+        void tick() {
+            match.update(TICK);
+            if (match.isOver()) {
+                matches++;
+                match.start(seeds.nextLong());
+            }
+        }
+
+        @Override
+        long round() {
+            return (matches * Match.MAX_ROUNDS + match.getCurrentRound()) * 4 + match.getRoundState().ordinal();
+        }
+    }
+
+    /**
+     * the whole simulation tick of an AI vs AI match: clock, rules, AI, blood, state hash and snapshot
+     */
+    private class MatchScenario extends Scenario {
+        final MatchRunner runner;
+        private final RandomXS128 seeds = new RandomXS128();
+        private int generation;
+
+        MatchScenario(String name, double minTicksPerSecond, long maxBytesPerTick, long maxBytesPerRound) {
+            super(name, minTicksPerSecond, maxBytesPerTick, maxBytesPerRound);
+            Match match = new Match(new Fighter("Player", Color.WHITE), new Fighter("Opponent", Color.WHITE));
+            match.setPlayerAi(AiSettings.HARD);
+            match.setDifficulty(GlobalVariables.Difficulty.HARD);
+            // the log is never started, the few events it gets stay in its buffer
+            runner = new MatchRunner(match, new TelemetryLog(new File("build/performance-telemetry")),
+                BLOOD_SPLATTER_DURATION);
+        }
+
+        @Override
+        void start(long seed) {
+            seeds.setSeed(seed);
+            runner.startStepped(seeds.nextLong());
+        }
+
+        @Override
+        void tick() {
+            runner.step();
+            if (runner.getSnapshot().over) {
+                runner.startMatch(++generation, seeds.nextLong());
+            }
+        }
+
+        @Override
+        long round() {
+            MatchSnapshot snapshot = runner.getSnapshot();
+            // the match being over ends its last round, the restart posted then is part of it
+            return (((long) snapshot.generation * Match.MAX_ROUNDS + snapshot.currentRound) * 4 +
+                snapshot.roundState.ordinal()) * 2 + (snapshot.over ? 1 : 0);
+        }
+    }
+
+    /**
+     * the HUD text of every snapshot of an AI vs AI match, the match itself isn't measured
+     */
+    private class HudScenario extends MatchScenario {
+        private final HudText hudText = new HudText();
+
+        HudScenario(String name, double minTicksPerSecond, long maxBytesPerTick, long maxBytesPerRound) {
+            super(name, minTicksPerSecond, maxBytesPerTick, maxBytesPerRound);
+        }
+
+        @Override
+        void prepare() {
+            super.tick();
+        }
+
+        @Override
+        void tick() {
+            hudText.update(runner.getSnapshot());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.xtrife.sfs.headless;
+
+import com.xtrife.sfs.Main;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.telemetry.TelemetryEvent;
+import com.xtrife.sfs.telemetry.TelemetryLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 11:48 AM.
+ * Reads the files written by {@link TelemetryLog} and prints balance stats per difficulty:
+ * round win rate, round length, hits and blocks by each side, blood and pauses.
+ */
+public class TelemetryReport {
+    private static final GlobalVariables.Difficulty[] DIFFICULTIES = GlobalVariables.Difficulty.values();
+
+    // counters, indexed by difficulty
+    private final int[] roundsWon = new int[DIFFICULTIES.length];
+    private final int[] roundsLost = new int[DIFFICULTIES.length];
+    // round length is logged on its own, the max round time is tunable
+    private final int[] roundsTimed = new int[DIFFICULTIES.length];
+    private final double[] roundSeconds = new double[DIFFICULTIES.length];
+    private final double[] winnerLife = new double[DIFFICULTIES.length];
+    private final int[] timeouts = new int[DIFFICULTIES.length];
+    // indexed by difficulty and side
+    private final int[][] hitsTaken = new int[DIFFICULTIES.length][2];
+    private final int[][] blocks = new int[DIFFICULTIES.length][2];
+    private final int[][] blood = new int[DIFFICULTIES.length][2];
+    private final int[] pauses = new int[DIFFICULTIES.length];
+    private int difficultyChanges;
+    private int files, records, skippedRecords;
+
+    public static void main(String[] args) throws IOException {
+        File directory = args.length > 0 ? new File(args[0]) :
+            new File(System.getProperty("user.home"), Main.TELEMETRY_DIRECTORY);
+        File[] logFiles = directory.listFiles((dir, name) ->
+            name.startsWith(TelemetryLog.FILE_PREFIX) && name.endsWith(TelemetryLog.FILE_EXTENSION));
+        if (logFiles == null || logFiles.length == 0) {
+            System.out.println("No telemetry files in " + directory.getAbsolutePath());
+            return;
+        }
+        Arrays.sort(logFiles);
+
+        TelemetryReport report = new TelemetryReport();
+        for (File file : logFiles) {
+            report.read(file);
+        }
+        report.print();
+    }
+
+    private void read(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the files are small, map them instead of copying through a stream
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < TelemetryLog.HEADER_SIZE || buffer.getInt() != TelemetryLog.MAGIC) {
+                System.err.println("Skipping " + file.getName() + ", not a telemetry file");
+                return;
+            }
+            short version = buffer.getShort();
+            int recordSize = buffer.getShort();
+            buffer.getLong(); // session start
+            if (version != TelemetryLog.VERSION || recordSize < TelemetryLog.RECORD_SIZE) {
+                System.err.println("Skipping " + file.getName() + ", unsupported version " + version);
+                return;
+            }
+            files++;
+
+            // a partially written last record is ignored
+            while (buffer.remaining() >= recordSize) {
+                int start = buffer.position();
+                buffer.getLong(); // time
+                int header = buffer.getInt();
+                buffer.getInt(); // round
+                float value = buffer.getFloat();
+                float roundTimer = buffer.getFloat();
+                buffer.position(start + recordSize);
+
+                TelemetryEvent event = TelemetryEvent.fromOrdinal(header >>> 24);
+                int side = header >>> 16 & 0xFF;
+                int difficulty = header >>> 8 & 0xFF;
+                if (event == null || difficulty >= DIFFICULTIES.length) {
+                    skippedRecords++;
+                    continue;
+                }
+                add(event, Math.min(side, TelemetryLog.SIDE_NONE), difficulty, value, roundTimer);
+                records++;
+            }
+        }
+    }
+
+    private void add(TelemetryEvent event, int side, int difficulty, float value, float roundTimer) {
+        switch (event) {
+            case HIT:
+                if (side != TelemetryLog.SIDE_NONE) hitsTaken[difficulty][side]++;
+                break;
+            case BLOCK:
+                if (side != TelemetryLog.SIDE_NONE) blocks[difficulty][side]++;
+                break;
+            case BLOOD:
+                if (side != TelemetryLog.SIDE_NONE) blood[difficulty][side]++;
+                break;
+            case ROUND_WON:
+            case ROUND_LOST:
+                if (event == TelemetryEvent.ROUND_WON) {
+                    roundsWon[difficulty]++;
+                } else {
+                    roundsLost[difficulty]++;
+                }
+                winnerLife[difficulty] += value;
+                if (roundTimer <= 0f) {
+                    timeouts[difficulty]++;
+                }
+                break;
+            case ROUND_ENDED:
+                roundsTimed[difficulty]++;
+                roundSeconds[difficulty] += value;
+                break;
+            case DIFFICULTY_CHANGE:
+                difficultyChanges++;
+                break;
+            case PAUSE:
+                pauses[difficulty]++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void print() {
+        System.out.printf(Locale.ROOT, "%d files, %d events (%d unreadable), %d difficulty changes%n%n",
+            files, records, skippedRecords, difficultyChanges);
+        System.out.printf(Locale.ROOT, "%-10s %7s %9s %10s %11s %9s %13s %13s %11s %7s%n", "DIFFICULTY", "ROUNDS",
+            "PLAYER %", "AVG ROUND", "WINNER HP", "TIMEOUTS", "HITS ON P/O", "BLOCKS P/O", "BLOOD P/O", "PAUSES");
+        for (int d = 0; d < DIFFICULTIES.length; d++) {
+            int rounds = roundsWon[d] + roundsLost[d];
+            System.out.printf(Locale.ROOT, "%-10s %7d %8.1f%% %9.1fs %11.1f %9d %6d/%-6d %6d/%-6d %5d/%-5d %7d%n",
+                DIFFICULTIES[d], rounds,
+                rounds == 0 ? 0f : 100f * roundsWon[d] / rounds,
+                roundsTimed[d] == 0 ? 0f : roundSeconds[d] / roundsTimed[d],
+                rounds == 0 ? 0f : winnerLife[d] / rounds,
+                timeouts[d],
+                hitsTaken[d][TelemetryLog.SIDE_PLAYER], hitsTaken[d][TelemetryLog.SIDE_OPPONENT],
+                blocks[d][TelemetryLog.SIDE_PLAYER], blocks[d][TelemetryLog.SIDE_OPPONENT],
+                blood[d][TelemetryLog.SIDE_PLAYER], blood[d][TelemetryLog.SIDE_OPPONENT],
+                pauses[d]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Created by 9S on 10/19/2026 - 2:58 PM.
+ * Measures the image decoding part of startup: every image of the assets folder is decoded to a pixmap, first on one
+ * thread like the stock texture loader does, then on pools of increasing size like the parallel texture loader does.
+ * Files are read into memory up front so only decoding is timed. GL upload isn't part of it, it stays on one thread.
+ * <p>
+ * Usage: TextureDecodeBenchmark &lt;assets folder&gt; [runs]
+ */
+public class TextureDecodeBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int WARMUP_RUNS = 2;
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1) {
+            System.err.println("Usage: TextureDecodeBenchmark <assets folder> [runs]");
+            System.exit(1);
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        GdxNativesLoader.load();
+
+        List<File> files = new ArrayList<>();
+        collect(new File(args[0]), files);
+        Collections.sort(files);
+        List<byte[]> images = new ArrayList<>(files.size());
+        long totalBytes = 0;
+        for (File file : files) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            images.add(bytes);
+            totalBytes += bytes.length;
+        }
+        System.out.printf(Locale.ROOT, "%d images, %d KB encoded, %d cores available%n", images.size(),
+            totalBytes / 1024, Runtime.getRuntime().availableProcessors());
+
+        double baseline = 0;
+        for (int threads : THREAD_COUNTS) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (int i = 0; i < WARMUP_RUNS; i++) {
+                    decodeAll(images, pool);
+                }
+                long best = Long.MAX_VALUE;
+                for (int i = 0; i < runs; i++) {
+                    best = Math.min(best, decodeAll(images, pool));
+                }
+                double millis = best / 1e6;
+                if (baseline == 0) baseline = millis;
+                System.out.printf(Locale.ROOT, "%d thread(s): %8.2f ms  (%.2fx)%n", threads, millis, baseline / millis);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * decode every image on the pool and wait for all of them, returns the wall clock time in nanoseconds
+     */
+    private static long decodeAll(List<byte[]> images, ExecutorService pool) throws InterruptedException, ExecutionException {
+        List<Future<Pixmap>> pending = new ArrayList<>(images.size());
+        long start = System.nanoTime();
+        for (final byte[] bytes : images) {
+            pending.add(pool.submit(() -> new Pixmap(bytes, 0, bytes.length)));
+        }
+        List<Pixmap> pixmaps = new ArrayList<>(pending.size());
+        for (Future<Pixmap> future : pending) {
+            pixmaps.add(future.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Pixmap pixmap : pixmaps) {
+            pixmap.dispose();
+        }
+        return elapsed;
+    }
+
+    private static void collect(File folder, List<File> files) {
+        File[] children = folder.listFiles();
+        if (children == null) return;
+        for (File file : children) {
+            String name = file.getName().toLowerCase(Locale.ROOT);
+            if (file.isDirectory()) {
+                collect(file, files);
+            } else if (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".bmp")) {
+                files.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.xtrife.sfs.headless;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.xtrife.sfs.resources.GlobalVariables;
+import com.xtrife.sfs.training.TrainingEnvironment;
+import com.xtrife.sfs.training.TrainingEnvironments;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 9:38 PM.
+ * Serves a batch of {@link TrainingEnvironments} to one training client at a time over a loopback socket, so bots can
+ * be trained from outside the JVM (e.g. Python with numpy). {@code --benchmark <steps>} plays random actions instead
+ * and reports the environment steps per second.
+ * <p>
+ * Protocol, little endian so the results can be read as a float32 array as they are: on connecting the server sends
+ * {@code int magic, int version, int environment count, int action count, int floats per result, int frame skip}.
+ * The client then sends requests, each answered with one result per environment (see {@link TrainingEnvironment}):
+ * {@code byte 1, long seed} resets every environment, {@code byte 2} followed by one action byte per environment steps
+ * them and {@code byte 3} ends the session. The first request has to be a reset, a step before it drops the client.
+ * <p>
+ * Usage: TrainingServer [--port n] [--envs n] [--frame-skip n] [--threads n] [--difficulty EASY|MEDIUM|HARD]
+ * [--benchmark steps]
+ */
+public class TrainingServer {
+    public static final int MAGIC = 0x53465347; // "SFSG"
+    public static final int VERSION = 1;
+    public static final int RESET = 1, STEP = 2, CLOSE = 3;
+    private static final int HELLO_SIZE = 24;
+
+    private int port = 7420;
+    private int environmentCount = 256;
+    private int frameSkip = 4;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private GlobalVariables.Difficulty difficulty = GlobalVariables.Difficulty.MEDIUM;
+    private long benchmarkSteps = 0;
+
+    private TrainingEnvironments environments;
+    private ByteBuffer request, results;
+
+    public static void main(String[] args) throws IOException {
+        TrainingServer server = new TrainingServer();
+        server.parseArguments(args);
+        server.run();
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "--envs":
+                    environmentCount = Integer.parseInt(value);
+                    break;
+                case "--frame-skip":
+                    frameSkip = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--difficulty":
+                    difficulty = GlobalVariables.Difficulty.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "--benchmark":
+                    benchmarkSteps = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ". Options: --port, --envs, --frame-skip, --threads, --difficulty, --benchmark");
+            }
+            i++; // skip the value
+        }
+        if (environmentCount < 1) throw new IllegalArgumentException("--envs must be at least 1");
+        if (frameSkip < 1) throw new IllegalArgumentException("--frame-skip must be at least 1");
+    }
+
+    private void run() throws IOException {
+        environments = new TrainingEnvironments(environmentCount, difficulty, frameSkip, threads);
+        // direct, so the socket reads and writes them without copying
+        request = ByteBuffer.allocateDirect(Math.max(HELLO_SIZE, 1 + Math.max(8, environmentCount)))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        results = ByteBuffer.allocateDirect(environments.getResultsSize()).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (benchmarkSteps > 0) {
+                benchmark();
+            } else {
+                serve();
+            }
+        } finally {
+            environments.dispose();
+        }
+    }
+
+    private void serve() throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            System.out.printf(Locale.ROOT, "Serving %d environments (frame skip %d, %s opponent, %d threads) on %s%n",
+                environmentCount, frameSkip, difficulty, threads, server.getLocalAddress());
+            while (true) {
+                try (SocketChannel client = server.accept()) {
+                    client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    System.out.println("Client connected from " + client.getRemoteAddress());
+                    long steps = session(client);
+                    System.out.println("Client done after " + steps + " steps");
+                } catch (IOException e) {
+                    System.out.println("Client dropped: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * answer one client's requests until it closes the session
+     * @return batches stepped
+     */
+    private long session(SocketChannel client) throws IOException {
+        request.clear();
+        request.putInt(MAGIC).putInt(VERSION).putInt(environmentCount).putInt(TrainingEnvironment.ACTION_COUNT)
+            .putInt(TrainingEnvironment.RESULT_FLOATS).putInt(frameSkip);
+        request.flip();
+        writeFully(client, request);
+
+        long steps = 0;
+        boolean reset = false;
+        while (true) {
+            read(client, 1);
+            int operation = request.get(0);
+            switch (operation) {
+                case RESET:
+                    read(client, 8);
+                    results.clear();
+                    environments.reset(request.getLong(0), results);
+                    reset = true;
+                    break;
+                case STEP:
+                    if (!reset) throw new IOException("Step before the first reset");
+                    read(client, environmentCount);
+                    results.clear();
+                    environments.step(request, results);
+                    steps++;
+                    break;
+                case CLOSE:
+                    return steps;
+                default:
+                    throw new IOException("Unknown request " + operation);
+            }
+            writeFully(client, results);
+        }
+    }
+
+    /**
+     * random actions as fast as the environments take them, results stay in memory
+     */
+    private void benchmark() {
+        RandomXS128 random = new RandomXS128(1L);
+        environments.reset(1L, results);
+        long warmupSteps = Math.min(benchmarkSteps, 1000);
+        long start = 0;
+        for (long step = 0; step < warmupSteps + benchmarkSteps; step++) {
+            if (step == warmupSteps) {
+                start = System.nanoTime();
+            }
+            request.clear();
+            for (int i = 0; i < environmentCount; i++) {
+                request.put((byte) random.nextInt(TrainingEnvironment.ACTION_COUNT));
+            }
+            request.flip();
+            environments.step(request, results);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double environmentSteps = (double) benchmarkSteps * environmentCount;
+        System.out.printf(Locale.ROOT, "%d steps of %d environments (frame skip %d) on %d threads in %.2fs%n",
+            benchmarkSteps, environmentCount, frameSkip, threads, seconds);
+        System.out.printf(Locale.ROOT, "%.0f environment steps/s, %.0f simulated ticks/s%n", environmentSteps / seconds,
+            environmentSteps * frameSkip / seconds);
+    }
+
+    /**
+     * read exactly {@code bytes} into the request buffer, from position 0
+     */
+    private void read(SocketChannel client, int bytes) throws IOException {
+        request.clear().limit(bytes);
+        while (request.hasRemaining()) {
+            if (client.read(request) < 0) throw new EOFException("Client disconnected");
+        }
+        request.flip();
+    }
+
+    private static void writeFully(SocketChannel client, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+}
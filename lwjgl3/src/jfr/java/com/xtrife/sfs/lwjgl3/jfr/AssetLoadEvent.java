@@ -0,0 +1,29 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:57 PM.
+ */
+@Name("com.xtrife.sfs.AssetLoad")
+@Label("Asset Load")
+@Description("A texture decoded and uploaded to the GPU")
+@Category({"Stick Figure Showdown", "Assets"})
+@StackTrace(false)
+public class AssetLoadEvent extends jdk.jfr.Event {
+    @Label("File")
+    public String fileName;
+
+    @Label("Decode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decodeTime;
+
+    @Label("Upload Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long uploadTime;
+}
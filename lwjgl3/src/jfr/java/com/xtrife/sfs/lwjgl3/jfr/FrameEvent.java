@@ -0,0 +1,24 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:53 PM.
+ */
+@Name("com.xtrife.sfs.Frame")
+@Label("Frame")
+@Description("A whole rendered frame, from the end of the previous one")
+@Category({"Stick Figure Showdown", "Frame"})
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Render Calls")
+    @Description("Sprite batch flushes in this frame")
+    public int renderCalls;
+
+    @Label("Active Effects")
+    public int activeEffects;
+}
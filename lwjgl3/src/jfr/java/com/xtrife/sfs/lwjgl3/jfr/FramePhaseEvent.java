@@ -0,0 +1,20 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:52 PM.
+ */
+@Name("com.xtrife.sfs.FramePhase")
+@Label("Frame Phase")
+@Description("One timed part of a frame or a simulation tick")
+@Category({"Stick Figure Showdown", "Frame"})
+@StackTrace(false)
+public class FramePhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    public String phase;
+}
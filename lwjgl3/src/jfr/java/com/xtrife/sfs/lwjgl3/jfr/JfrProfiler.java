@@ -0,0 +1,88 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import com.xtrife.sfs.profiling.FrameMetrics;
+import com.xtrife.sfs.profiling.FramePhase;
+
+/**
+ * Created by 9S on 10/19/2026 - 5:02 PM.
+ * {@link FrameMetrics} that also emits Flight Recorder events, so a recording started with
+ * {@code -XX:StartFlightRecording} lines hitches up with frame phases, rounds, asset loads and sounds.
+ * Events that aren't enabled in the recording settings cost a flag check. Compiled for Java 11 and loaded by name,
+ * the game still runs on JVMs without JFR.
+ */
+public class JfrProfiler extends FrameMetrics {
+    private static final FramePhase[] PHASES = FramePhase.values();
+
+    // open event per phase, like the start times each one is only touched by the thread that runs the phase
+    private final FramePhaseEvent[] phaseEvents = new FramePhaseEvent[PHASES.length];
+    private FrameEvent frameEvent = new FrameEvent(); // render thread
+    private RoundEvent roundEvent = new RoundEvent(); // simulation thread
+
+    @Override
+    public void begin(FramePhase phase) {
+        super.begin(phase);
+        FramePhaseEvent event = new FramePhaseEvent();
+        event.phase = phase.name();
+        event.begin();
+        phaseEvents[phase.ordinal()] = event;
+    }
+
+    @Override
+    public void end(FramePhase phase) {
+        super.end(phase);
+        FramePhaseEvent event = phaseEvents[phase.ordinal()];
+        if (event == null) return;
+        event.commit();
+        phaseEvents[phase.ordinal()] = null;
+    }
+
+    @Override
+    public void frameEnded(int renderCalls, int activeEffects) {
+        super.frameEnded(renderCalls, activeEffects);
+        frameEvent.renderCalls = renderCalls;
+        frameEvent.activeEffects = activeEffects;
+        frameEvent.commit();
+
+        // the next frame starts now
+        frameEvent = new FrameEvent();
+        frameEvent.begin();
+    }
+
+    @Override
+    public void roundStarted(int round) {
+        super.roundStarted(round);
+        roundEvent = new RoundEvent();
+        roundEvent.round = round;
+        roundEvent.begin();
+    }
+
+    @Override
+    public void roundEnded(int round, boolean playerWon, float roundTime) {
+        super.roundEnded(round, playerWon, roundTime);
+        roundEvent.playerWon = playerWon;
+        roundEvent.roundTime = roundTime;
+        roundEvent.commit();
+    }
+
+    @Override
+    public void assetLoaded(String fileName, long decodeNanos, long uploadNanos) {
+        super.assetLoaded(fileName, decodeNanos, uploadNanos);
+        AssetLoadEvent event = new AssetLoadEvent();
+        if (event.shouldCommit()) {
+            event.fileName = fileName;
+            event.decodeTime = decodeNanos;
+            event.uploadTime = uploadNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void soundPlayed(String soundAsset) {
+        super.soundPlayed(soundAsset);
+        SoundPlayEvent event = new SoundPlayEvent();
+        if (event.shouldCommit()) {
+            event.sound = soundAsset;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:55 PM.
+ */
+@Name("com.xtrife.sfs.Round")
+@Label("Round")
+@Description("A round from its start to the knockout or timeout")
+@Category({"Stick Figure Showdown", "Match"})
+@StackTrace(false)
+public class RoundEvent extends jdk.jfr.Event {
+    @Label("Round")
+    public int round;
+
+    @Label("Player Won")
+    public boolean playerWon;
+
+    @Label("Round Time")
+    @Description("Seconds of fighting, without the start and end delays")
+    public float roundTime;
+}
@@ -0,0 +1,18 @@
+package com.xtrife.sfs.lwjgl3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:58 PM.
+ */
+@Name("com.xtrife.sfs.SoundPlay")
+@Label("Sound Play")
+@Category({"Stick Figure Showdown", "Audio"})
+@StackTrace(false)
+public class SoundPlayEvent extends jdk.jfr.Event {
+    @Label("Sound")
+    public String sound;
+}
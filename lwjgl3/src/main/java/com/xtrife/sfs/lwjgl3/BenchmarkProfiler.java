@@ -0,0 +1,224 @@
+package com.xtrife.sfs.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.xtrife.sfs.profiling.FrameMetrics;
+import com.xtrife.sfs.profiling.FramePhase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by 9S on 10/19/2026 - 6:52 PM.
+ * {@link FrameMetrics} for a {@code --benchmark} run: after the warmup frames it keeps the exact time and render calls
+ * of every frame, samples GC and memory, and once enough frames were measured prints a JSON report (and writes it to
+ * the report file, if any) and exits the game.
+ */
+public class BenchmarkProfiler extends FrameMetrics {
+    private static final int MEMORY_SAMPLE_INTERVAL = 10; // frames
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p95", "p99", "p99_9"};
+
+    private final int warmupFrames;
+    private final long seed;
+    private final File reportFile;
+
+    private final long[] frameNanos;
+    private final int[] frameRenderCalls;
+    private int frame; // frames ended so far, warmup included
+    private long lastFrameEnd;
+    private long measureStart;
+    private boolean done;
+
+    // jvm
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<BufferPoolMXBean> bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private long startCollections, startCollectionMillis;
+    private long peakHeap, peakNonHeap, peakBuffers;
+
+    /**
+     * @param reportFile also write the report here, or null for the console only
+     */
+    public BenchmarkProfiler(int frames, int warmupFrames, long seed, File reportFile) {
+        this.warmupFrames = warmupFrames;
+        this.seed = seed;
+        this.reportFile = reportFile;
+        frameNanos = new long[frames];
+        frameRenderCalls = new int[frames];
+    }
+
+    @Override
+    public void frameEnded(int renderCalls, int activeEffects) {
+        super.frameEnded(renderCalls, activeEffects);
+        if (done) return;
+
+        long now = System.nanoTime();
+        if (frame == warmupFrames) {
+            startMeasuring(now);
+        } else if (frame > warmupFrames) {
+            int measured = frame - warmupFrames - 1;
+            frameNanos[measured] = now - lastFrameEnd;
+            frameRenderCalls[measured] = renderCalls;
+            if (measured % MEMORY_SAMPLE_INTERVAL == 0) {
+                sampleMemory();
+            }
+            if (measured == frameNanos.length - 1) {
+                finish(now);
+            }
+        }
+        lastFrameEnd = now;
+        frame++;
+    }
+
+    private void startMeasuring(long now) {
+        reset(); // phase histograms only cover the measured frames
+        measureStart = now;
+        startCollections = collectionCount();
+        startCollectionMillis = collectionMillis();
+        sampleMemory();
+    }
+
+    private void sampleMemory() {
+        peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+        peakNonHeap = Math.max(peakNonHeap, memory.getNonHeapMemoryUsage().getUsed());
+        long buffers = 0;
+        for (BufferPoolMXBean pool : bufferPools) {
+            buffers += pool.getMemoryUsed(); // direct and mapped buffers, e.g. vertex data and the asset pack
+        }
+        peakBuffers = Math.max(peakBuffers, buffers);
+    }
+
+    private long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private void finish(long now) {
+        done = true;
+        sampleMemory();
+        String report = createReport(now - measureStart);
+        System.out.println(report);
+        if (reportFile != null) {
+            try (Writer writer = new FileWriter(reportFile)) {
+                writer.write(report);
+            } catch (IOException e) {
+                System.err.println("Could not write the benchmark report to " + reportFile + ": " + e.getMessage());
+            }
+        }
+        Gdx.app.exit();
+    }
+
+    private String createReport(long totalNanos) {
+        int frames = frameNanos.length;
+        long[] sorted = Arrays.copyOf(frameNanos, frames);
+        Arrays.sort(sorted);
+        long totalRenderCalls = 0;
+        int maxRenderCalls = 0;
+        for (int calls : frameRenderCalls) {
+            totalRenderCalls += calls;
+            maxRenderCalls = Math.max(maxRenderCalls, calls);
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        field(json, 1, "frames", frames);
+        field(json, 1, "warmupFrames", warmupFrames);
+        field(json, 1, "seed", seed);
+        field(json, 1, "seconds", totalNanos / 1e9);
+        field(json, 1, "averageFps", frames / (totalNanos / 1e9));
+
+        json.append("  \"frameMillis\": {\n");
+        field(json, 2, "average", totalNanos / (double) frames / NANOS_PER_MILLI);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            // nearest rank
+            int index = Math.max(0, (int) Math.ceil(PERCENTILES[i] / 100.0 * frames) - 1);
+            field(json, 2, PERCENTILE_NAMES[i], sorted[index] / NANOS_PER_MILLI);
+        }
+        lastField(json, 2, "max", sorted[frames - 1] / NANOS_PER_MILLI);
+        json.append("  },\n");
+
+        json.append("  \"phaseMillis\": {\n");
+        FramePhase[] phases = FramePhase.values();
+        for (int i = 0; i < phases.length; i++) {
+            double average = getPhaseTimes(phases[i]).getAverageNanos() / NANOS_PER_MILLI;
+            if (i < phases.length - 1) {
+                field(json, 2, phases[i].name(), average);
+            } else {
+                lastField(json, 2, phases[i].name(), average);
+            }
+        }
+        json.append("  },\n");
+
+        json.append("  \"renderCalls\": {\n");
+        field(json, 2, "average", totalRenderCalls / (double) frames);
+        lastField(json, 2, "max", maxRenderCalls);
+        json.append("  },\n");
+
+        json.append("  \"gc\": {\n");
+        field(json, 2, "collections", collectionCount() - startCollections);
+        lastField(json, 2, "millis", collectionMillis() - startCollectionMillis);
+        json.append("  },\n");
+
+        json.append("  \"memory\": {\n");
+        field(json, 2, "peakHeapBytes", peakHeap);
+        field(json, 2, "peakNonHeapBytes", peakNonHeap);
+        lastField(json, 2, "peakBufferBytes", peakBuffers);
+        json.append("  },\n");
+
+        // what the numbers were measured on, software GL shows up as e.g. "llvmpipe"
+        json.append("  \"environment\": {\n");
+        field(json, 2, "glRenderer", Gdx.graphics.getGLVersion().getRendererString());
+        field(json, 2, "glVersion", Gdx.graphics.getGLVersion().getMajorVersion() + "."
+            + Gdx.graphics.getGLVersion().getMinorVersion());
+        field(json, 2, "java", System.getProperty("java.version"));
+        lastField(json, 2, "os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        json.append("  }\n");
+        json.append("}");
+        return json.toString();
+    }
+
+    private static void field(StringBuilder json, int depth, String name, Object value) {
+        lastField(json, depth, name, value);
+        json.insert(json.length() - 1, ',');
+    }
+
+    private static void lastField(StringBuilder json, int depth, String name, Object value) {
+        for (int i = 0; i < depth; i++) {
+            json.append("  ");
+        }
+        json.append('"').append(name).append("\": ");
+        if (value instanceof String) {
+            json.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        } else if (value instanceof Double) {
+            json.append(format((Double) value));
+        } else {
+            json.append(value);
+        }
+        json.append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,133 @@
+package com.xtrife.sfs.lwjgl3;
+
+import com.xtrife.sfs.profiling.FrameMetrics;
+import com.xtrife.sfs.profiling.FramePhase;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:44 PM.
+ * Publishes the game's {@link FrameMetrics} on the platform MBean server.
+ */
+public class FrameMetricsBean implements FrameMetricsMXBean {
+    public static final String OBJECT_NAME = "com.xtrife.sfs:type=FrameMetrics";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final FrameMetrics metrics;
+
+    public FrameMetricsBean(FrameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * register the metrics, a failure only costs the endpoint so it is reported and otherwise ignored
+     */
+    public static void register(FrameMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new FrameMetricsBean(metrics),
+                new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Frame metrics not available over JMX: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getFrameCount() {
+        return metrics.getFrameTimes().getCount();
+    }
+
+    @Override
+    public double getAverageFrameMillis() {
+        return metrics.getFrameTimes().getAverageNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getFrameMillisP99() {
+        return metrics.getFrameTimes().getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxFrameMillis() {
+        return metrics.getFrameTimes().getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (FramePhase phase : FramePhase.values()) {
+            counts.put(phase.name(), metrics.getPhaseTimes(phase).getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseAverageMillis() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (FramePhase phase : FramePhase.values()) {
+            averages.put(phase.name(), metrics.getPhaseTimes(phase).getAverageNanos() / NANOS_PER_MILLI);
+        }
+        return averages;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Millis() {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (FramePhase phase : FramePhase.values()) {
+            percentiles.put(phase.name(), metrics.getPhaseTimes(phase).getPercentileNanos(99) / NANOS_PER_MILLI);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMillis() {
+        Map<String, Double> maxima = new LinkedHashMap<>();
+        for (FramePhase phase : FramePhase.values()) {
+            maxima.put(phase.name(), metrics.getPhaseTimes(phase).getMaxNanos() / NANOS_PER_MILLI);
+        }
+        return maxima;
+    }
+
+    @Override
+    public int getLastRenderCalls() {
+        return metrics.getLastRenderCalls();
+    }
+
+    @Override
+    public long getMaxRenderCalls() {
+        return metrics.getMaxRenderCalls();
+    }
+
+    @Override
+    public int getLastActiveEffects() {
+        return metrics.getLastActiveEffects();
+    }
+
+    @Override
+    public long getRoundsStarted() {
+        return metrics.getRoundsStarted();
+    }
+
+    @Override
+    public long getSoundsPlayed() {
+        return metrics.getSoundsPlayed();
+    }
+
+    @Override
+    public long getAssetsLoaded() {
+        return metrics.getAssetsLoaded();
+    }
+
+    @Override
+    public double getAssetLoadMillis() {
+        return metrics.getAssetLoadNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+}
@@ -0,0 +1,43 @@
+package com.xtrife.sfs.lwjgl3;
+
+import java.util.Map;
+
+/**
+ * Created by 9S on 10/19/2026 - 4:40 PM.
+ * JMX view of {@link com.xtrife.sfs.profiling.FrameMetrics}, registered as {@value FrameMetricsBean#OBJECT_NAME}.
+ * Only reachable from the same machine (JConsole, Mission Control) unless remote JMX is turned on explicitly.
+ */
+public interface FrameMetricsMXBean {
+    long getFrameCount();
+
+    double getAverageFrameMillis();
+
+    double getFrameMillisP99();
+
+    double getMaxFrameMillis();
+
+    // per FramePhase name
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Double> getPhaseAverageMillis();
+
+    Map<String, Double> getPhaseP99Millis();
+
+    Map<String, Double> getPhaseMaxMillis();
+
+    int getLastRenderCalls();
+
+    long getMaxRenderCalls();
+
+    int getLastActiveEffects();
+
+    long getRoundsStarted();
+
+    long getSoundsPlayed();
+
+    long getAssetsLoaded();
+
+    double getAssetLoadMillis();
+
+    void reset();
+}
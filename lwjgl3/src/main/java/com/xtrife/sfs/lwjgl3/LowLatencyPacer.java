@@ -0,0 +1,74 @@
+package com.xtrife.sfs.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Input;
+import com.xtrife.sfs.profiling.FramePacer;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:06 PM.
+ * Frame pacing for the lowest input latency, used with vsync and the backend's frame cap off. Frames are due at the
+ * monitor's refresh rate; each one sleeps until the longest recent frame still fits before it's due, then polls the
+ * window events and hands them to the game right before drawing. Without vsync the swap doesn't wait for the display,
+ * so the frame goes out as soon as it's drawn, at the price of possible tearing.
+ */
+public class LowLatencyPacer extends FramePacer {
+    private static final long SAFETY_MARGIN_NANOS = 1_000_000L;
+    private static final long SPIN_NANOS = 1_000_000L; // sleeps overshoot, the last bit is spent yielding instead
+    private static final float WORK_DECAY = 0.98f; // per frame, so one slow frame stops mattering after a second or so
+
+    private final long framePeriod;
+    private long deadline; // when the current frame is due
+    private long wakeTime; // when the previous frame started drawing
+    private long workEstimate; // from waking up to the next frame start: input, drawing and the buffer swap
+    private boolean waiting; // polling events can render a window that's being resized, don't pace that frame
+
+    public LowLatencyPacer(int refreshRate) {
+        framePeriod = 1_000_000_000L / Math.max(1, refreshRate);
+    }
+
+    @Override
+    public void beginFrame() {
+        if (waiting) return;
+        long now = System.nanoTime();
+        long work = now - wakeTime;
+        if (wakeTime != 0 && work < framePeriod * 2) { // longer gaps are rendering that was off, e.g. while paused
+            // slower frames raise the estimate right away, faster ones lower it slowly
+            workEstimate = Math.max(Math.min(work, framePeriod), (long) (workEstimate * WORK_DECAY));
+        }
+
+        deadline += framePeriod;
+        long wakeUp = deadline - workEstimate - SAFETY_MARGIN_NANOS;
+        if (wakeUp - now < 0) {
+            // late, or the first frame after a pause in rendering: draw right away and schedule from here
+            deadline = now + workEstimate + SAFETY_MARGIN_NANOS;
+        } else {
+            waiting = true;
+            sleepUntil(wakeUp);
+            // read what happened during the sleep, the backend only polls after the swap
+            GLFW.glfwPollEvents();
+            if (Gdx.input instanceof Lwjgl3Input) {
+                ((Lwjgl3Input) Gdx.input).update();
+            }
+            waiting = false;
+        }
+        wakeTime = System.nanoTime();
+    }
+
+    private static void sleepUntil(long time) {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (time - System.nanoTime() > 0) {
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "low latency";
+    }
+}
@@ -1,36 +1,316 @@
 package com.xtrife.sfs.lwjgl3;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3WindowAdapter;
+import com.badlogic.gdx.backends.lwjgl3.audio.Lwjgl3Audio;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.xtrife.sfs.LaunchOptions;
 import com.xtrife.sfs.Main;
+import com.xtrife.sfs.broadcast.MatchBroadcaster;
+import com.xtrife.sfs.broadcast.SpectatorClient;
+import com.xtrife.sfs.profiling.BenchmarkMode;
+import com.xtrife.sfs.profiling.FrameMetrics;
+import com.xtrife.sfs.profiling.SoakMode;
 import com.xtrife.sfs.resources.GlobalVariables;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
+    // frame rate while another window has focus, the game keeps running but nobody is looking closely
+    private static final int UNFOCUSED_FPS = 30;
+    // how often input is polled while nothing is being rendered (paused, game over or minimized)
+    private static final int IDLE_FPS = 20;
+
+    // --benchmark defaults
+    private static final int BENCHMARK_FRAMES = 3000;
+    private static final int BENCHMARK_WARMUP_FRAMES = 300;
+    private static final long BENCHMARK_SEED = 1;
+
+    // --soak defaults
+    private static final float SOAK_MINUTES = 60f;
+    private static final float SOAK_SAMPLE_INTERVAL = 10f; // seconds
+    private static final int SOAK_FPS = 60;
+
+    private static final int SPECTATE_TIMEOUT_MILLIS = 5000;
+
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        if (Arrays.asList(args).contains("--benchmark")) {
+            createBenchmark(args);
+        } else if (Arrays.asList(args).contains("--soak")) {
+            SoakProfiler profiler = createSoak(args);
+            System.exit(profiler.foundGrowth() ? 1 : 0); // the window has closed, tell the script running the soak
+        } else {
+            createApplication(args);
+        }
+    }
+
+    /**
+     * {@code --low-latency} paces frames with a {@link LowLatencyPacer} instead of vsync and the frame cap,
+     * {@code --replay <file>} plays back a recorded match instead of starting one, {@code --broadcast <port>} streams
+     * the matches to spectators on every network interface and {@code --spectate <host>[:<port>]} watches such a stream
+     */
+    private static Lwjgl3Application createApplication(String[] args) {
+        boolean lowLatency = false;
+        File replay = null;
+        MatchBroadcaster broadcaster = null;
+        SpectatorClient spectator = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--low-latency":
+                    lowLatency = true;
+                    break;
+                case "--replay":
+                    replay = new File(i + 1 < args.length ? args[i + 1] : "");
+                    i++;
+                    break;
+                case "--broadcast":
+                    broadcaster = createBroadcaster(i + 1 < args.length ? args[i + 1] : "");
+                    i++;
+                    break;
+                case "--spectate":
+                    spectator = createSpectator(i + 1 < args.length ? args[i + 1] : "");
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ", expected --low-latency, --replay, --broadcast, --spectate, --benchmark or --soak");
+            }
+        }
+
+        LaunchOptions options = new LaunchOptions();
+        options.profiler = createProfiler();
+        if (lowLatency) {
+            options.pacer = new LowLatencyPacer(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate);
+        }
+        options.replay = replay;
+        options.broadcaster = broadcaster;
+        options.spectator = spectator;
+        return new Lwjgl3Application(new Main(options), getDefaultConfiguration(lowLatency)) {
+            @Override
+            public Lwjgl3Audio createAudio(Lwjgl3ApplicationConfiguration config) {
+                // updated on the game's audio thread, see AudioManager
+                return new ThreadedLwjgl3Audio(super.createAudio(config));
+            }
+        };
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+    private static MatchBroadcaster createBroadcaster(String port) {
+        try {
+            return new MatchBroadcaster(new InetSocketAddress(Integer.parseInt(port)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--broadcast needs a port, e.g. " + MatchBroadcaster.DEFAULT_PORT);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Can't broadcast on port " + port, e);
+        }
+    }
+
+    private static SpectatorClient createSpectator(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        String host = colon < 0 ? hostAndPort : hostAndPort.substring(0, colon);
+        int port;
+        try {
+            port = colon < 0 ? MatchBroadcaster.DEFAULT_PORT : Integer.parseInt(hostAndPort.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--spectate needs a host and maybe a port, e.g. localhost:" +
+                MatchBroadcaster.DEFAULT_PORT);
+        }
+        if (host.isEmpty()) {
+            throw new IllegalArgumentException("--spectate needs a host and maybe a port, e.g. localhost:" +
+                MatchBroadcaster.DEFAULT_PORT);
+        }
+        SpectatorClient spectator = new SpectatorClient();
+        try {
+            spectator.connect(new InetSocketAddress(host, port), SPECTATE_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Can't watch the broadcast at " + hostAndPort, e);
+        }
+        return spectator;
+    }
+
+    /**
+     * uncapped run of a scripted match that exits with a JSON report, e.g.
+     * {@code --benchmark --frames 5000 --warmup 500 --seed 7 --report build/benchmark.json}
+     */
+    private static Lwjgl3Application createBenchmark(String[] args) {
+        int frames = BENCHMARK_FRAMES;
+        int warmupFrames = BENCHMARK_WARMUP_FRAMES;
+        long seed = BENCHMARK_SEED;
+        File reportFile = null;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--benchmark":
+                    break;
+                case "--frames":
+                    frames = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--warmup":
+                    warmupFrames = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    i++;
+                    break;
+                case "--report":
+                    reportFile = new File(value);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ", expected --frames, --warmup, --seed or --report");
+            }
+        }
+        if (frames < 1) throw new IllegalArgumentException("--frames must be at least 1");
+
+        BenchmarkProfiler profiler = new BenchmarkProfiler(frames, Math.max(0, warmupFrames), seed, reportFile);
+        FrameMetricsBean.register(profiler);
+        LaunchOptions options = new LaunchOptions();
+        options.profiler = profiler;
+        options.benchmark = new BenchmarkMode(seed);
+        return new Lwjgl3Application(new Main(options), getBenchmarkConfiguration());
+    }
+
+    /**
+     * hours of AI matches with scripted restarts, pauses and settings changes that samples memory and frame times to a
+     * CSV file, e.g. {@code --soak --minutes 240 --interval 30 --seed 7 --report build/soak.csv}
+     * @return the profiler, once the run is over
+     */
+    private static SoakProfiler createSoak(String[] args) {
+        float minutes = SOAK_MINUTES;
+        float interval = SOAK_SAMPLE_INTERVAL;
+        long seed = System.currentTimeMillis();
+        File reportFile = new File("soak.csv");
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--soak":
+                    break;
+                case "--minutes":
+                    minutes = Float.parseFloat(value);
+                    i++;
+                    break;
+                case "--interval":
+                    interval = Float.parseFloat(value);
+                    i++;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    i++;
+                    break;
+                case "--report":
+                    reportFile = new File(value);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] +
+                        ", expected --minutes, --interval, --seed or --report");
+            }
+        }
+        if (interval <= 0f) throw new IllegalArgumentException("--interval must be positive");
+
+        System.out.println("Soak run with seed " + seed);
+        SoakProfiler profiler = new SoakProfiler((long) (minutes * 60e9), (long) (interval * 1e9), reportFile);
+        FrameMetricsBean.register(profiler);
+        LaunchOptions options = new LaunchOptions();
+        options.profiler = profiler;
+        options.soak = new SoakMode(seed);
+        new Lwjgl3Application(new Main(options), getSoakConfiguration()) {
+            @Override
+            public Lwjgl3Audio createAudio(Lwjgl3ApplicationConfiguration config) {
+                return new ThreadedLwjgl3Audio(super.createAudio(config));
+            }
+        };
+        return profiler;
     }
 
-    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
+    /**
+     * frame metrics readable over JMX, plus Flight Recorder events when the JVM supports them
+     */
+    private static FrameMetrics createProfiler() {
+        FrameMetrics metrics;
+        try {
+            Class.forName("jdk.jfr.Event");
+            metrics = (FrameMetrics) Class.forName("com.xtrife.sfs.lwjgl3.jfr.JfrProfiler").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            metrics = new FrameMetrics(); // no JFR in this JVM (e.g. Java 8)
+        }
+        FrameMetricsBean.register(metrics);
+        return metrics;
+    }
+
+    /**
+     * @param lowLatency no vsync and no frame cap, the game's {@link LowLatencyPacer} times the frames instead
+     */
+    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration(boolean lowLatency) {
         Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
         configuration.setTitle("Stick Figure Showdown");
         //// Vsync limits the frames per second to what your hardware can display, and helps eliminate
         //// screen tearing. This setting doesn't always work on Linux, so the line after is a safeguard.
-        configuration.useVsync(true);
+        configuration.useVsync(!lowLatency);
         //// Limits FPS to the refresh rate of the currently active monitor, plus 1 to try to match fractional
         //// refresh rates. The Vsync setting above should limit the actual FPS to match the monitor.
-        configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+        final int foregroundFPS = lowLatency ? 0 : Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1;
+        configuration.setForegroundFPS(foregroundFPS);
         //// If you remove the above line and set Vsync to false, you can get unlimited FPS, which can be
         //// useful for testing performance, but can also be very stressful to some hardware.
         //// You may also need to configure GPU drivers to fully disable Vsync; this can cause screen tearing.
+        configuration.setIdleFPS(IDLE_FPS);
+        // throttle in the background, back to the monitor's refresh rate when focused again
+        configuration.setWindowListener(new Lwjgl3WindowAdapter() {
+            @Override
+            public void focusLost() {
+                Gdx.graphics.setForegroundFPS(foregroundFPS == 0 ? UNFOCUSED_FPS : Math.min(UNFOCUSED_FPS, foregroundFPS));
+            }
+
+            @Override
+            public void focusGained() {
+                Gdx.graphics.setForegroundFPS(foregroundFPS);
+            }
+        });
         configuration.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
         //// You can change these files; they are in lwjgl3/src/main/resources/ .
         configuration.setWindowIcon("libgdx128.png", "libgdx64.png", "libgdx32.png", "libgdx16.png");
         return configuration;
     }
+
+    /**
+     * a fixed frame rate instead of vsync, which a virtual display (e.g. Xvfb with software GL) doesn't have, and no
+     * throttling when the window loses focus. Audio stays on for the music toggles, without a device the backend
+     * falls back to silence
+     */
+    private static Lwjgl3ApplicationConfiguration getSoakConfiguration() {
+        Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
+        configuration.setTitle("Stick Figure Showdown - Soak");
+        configuration.useVsync(false);
+        configuration.setForegroundFPS(SOAK_FPS);
+        configuration.setIdleFPS(SOAK_FPS);
+        configuration.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
+        configuration.setWindowIcon("libgdx128.png", "libgdx64.png", "libgdx32.png", "libgdx16.png");
+        return configuration;
+    }
+
+    /**
+     * no vsync, no frame cap, no background throttling and no audio device, so the frame rate only depends on how
+     * fast the machine renders. The window has a fixed size, every run draws the same number of pixels
+     */
+    private static Lwjgl3ApplicationConfiguration getBenchmarkConfiguration() {
+        Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
+        configuration.setTitle("Stick Figure Showdown - Benchmark");
+        configuration.useVsync(false);
+        configuration.setForegroundFPS(0); // 0 is uncapped
+        configuration.disableAudio(true);
+        configuration.setResizable(false);
+        configuration.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
+        configuration.setWindowIcon("libgdx128.png", "libgdx64.png", "libgdx32.png", "libgdx16.png");
+        return configuration;
+    }
 }
@@ -0,0 +1,290 @@
+package com.xtrife.sfs.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.LongArray;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.xtrife.sfs.Main;
+import com.xtrife.sfs.profiling.FrameMetrics;
+import com.xtrife.sfs.profiling.ResourceTracker;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by 9S on 10/19/2026 - 10:16 PM.
+ * {@link FrameMetrics} for a {@code --soak} run. Every sample interval it appends a row to a CSV time series: heap
+ * (after the last collection too), non-heap, direct and mapped buffers, the process's resident memory, the live native
+ * resources per type, collections with their time and longest pause, and the worst frame time since the last row.
+ * The file is flushed after every row, so a run that dies still leaves its numbers. Once the soak duration is over it
+ * prints which series kept growing and exits the game.
+ * <p>
+ * A series counts as growing when, after the first tenth of the run, the lowest value of each quarter of the samples
+ * is higher than the one of the quarter before. The lows ignore the garbage collector's sawtooth and short spikes,
+ * only a floor that keeps rising is flagged.
+ */
+public class SoakProfiler extends FrameMetrics {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int QUARTERS = 4;
+    private static final int MIN_SAMPLES = QUARTERS * 2; // fewer can't show a trend
+    private static final long MIN_BYTE_GROWTH = 1024 * 1024; // below this a rising byte floor is noise
+    private static final long PAGE_SIZE = 4096; // of /proc/self/statm, on x86 and arm64 Linux
+
+    // CSV columns; the ones up to GROWTH_COLUMNS are checked for growth
+    private static final String[] COLUMNS = {"heapAfterGcBytes", "nonHeapBytes", "directBytes", "mappedBytes",
+        "residentBytes", "textures", "frameBuffers", "meshes", "fonts", "audio", "nativeResourceBytes",
+        "heapUsedBytes", "heapCommittedBytes", "gcCount", "gcMillis", "maxGcPauseMillis", "worstFrameMillis",
+        "frames", "roundsStarted"};
+    private static final int GROWTH_COLUMNS = 11;
+    private static final boolean[] BYTE_COLUMNS = {true, true, true, true, true, false, false, false, false, false,
+        true};
+
+    private final long durationNanos;
+    private final long sampleIntervalNanos;
+    private final File reportFile;
+    private Writer report;
+
+    private long start, nextSample, lastFrameEnd;
+    private long worstFrameNanos; // since the last sample
+    private long frames;
+    private boolean done;
+    private final LongArray[] series = new LongArray[GROWTH_COLUMNS];
+    private final long[] row = new long[COLUMNS.length];
+    private final StringBuilder line = new StringBuilder();
+    private final StringBuilder growth = new StringBuilder();
+
+    // jvm
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<BufferPoolMXBean> bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private final AtomicLong maxGcPauseMillis = new AtomicLong(); // since the last sample, set by the JMX thread
+
+    /**
+     * @param reportFile CSV time series, written as the run goes
+     */
+    public SoakProfiler(long durationNanos, long sampleIntervalNanos, File reportFile) {
+        this.durationNanos = durationNanos;
+        this.sampleIntervalNanos = sampleIntervalNanos;
+        this.reportFile = reportFile;
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new LongArray();
+        }
+        listenToCollections();
+    }
+
+    /**
+     * longest collection pause per sample, the MXBeans only add up their times
+     */
+    private void listenToCollections() {
+        for (GarbageCollectorMXBean collector : collectors) {
+            if (!(collector instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) collector).addNotificationListener(this::collected, null, null);
+        }
+    }
+
+    private void collected(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // concurrent cycles run next to the game, only stop-the-world collections stall a frame
+        if (info.getGcName().contains("Concurrent")) return;
+        maxGcPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+    }
+
+    /**
+     * true if any series kept growing, only known once the run is over
+     */
+    public boolean foundGrowth() {
+        return growth.length() > 0;
+    }
+
+    @Override
+    public void frameEnded(int renderCalls, int activeEffects) {
+        super.frameEnded(renderCalls, activeEffects);
+        if (done) return;
+
+        long now = System.nanoTime();
+        if (frames == 0) {
+            start(now);
+        } else {
+            worstFrameNanos = Math.max(worstFrameNanos, now - lastFrameEnd);
+        }
+        frames++;
+        lastFrameEnd = now;
+
+        if (now - nextSample >= 0) {
+            sample(now);
+            nextSample += sampleIntervalNanos;
+        }
+        if (now - start >= durationNanos) {
+            finish();
+        }
+    }
+
+    private void start(long now) {
+        start = now;
+        nextSample = now + sampleIntervalNanos;
+        try {
+            if (reportFile.getAbsoluteFile().getParentFile() != null) {
+                reportFile.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            report = new BufferedWriter(new FileWriter(reportFile));
+            report.write("seconds");
+            for (String column : COLUMNS) {
+                report.write(',');
+                report.write(column);
+            }
+            report.write('\n');
+            report.flush();
+        } catch (IOException e) {
+            System.err.println("Soak samples not written, can't open " + reportFile + ": " + e.getMessage());
+            report = null;
+        }
+    }
+
+    private void sample(long now) {
+        long heapAfterGc = 0;
+        for (MemoryPoolMXBean pool : memoryPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                heapAfterGc += afterGc.getUsed();
+            }
+        }
+        long direct = 0, mapped = 0;
+        for (BufferPoolMXBean pool : bufferPools) {
+            if ("mapped".equals(pool.getName())) {
+                mapped += pool.getMemoryUsed(); // e.g. the asset pack and replays being watched
+            } else {
+                direct += pool.getMemoryUsed();
+            }
+        }
+        ResourceTracker resources = ((Main) Gdx.app.getApplicationListener()).resources;
+        resources.refresh();
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+
+        int column = 0;
+        row[column++] = heapAfterGc;
+        row[column++] = memory.getNonHeapMemoryUsage().getUsed();
+        row[column++] = direct;
+        row[column++] = mapped;
+        row[column++] = residentBytes();
+        row[column++] = resources.getCount(ResourceTracker.Type.TEXTURE);
+        row[column++] = resources.getCount(ResourceTracker.Type.FRAME_BUFFER);
+        row[column++] = resources.getCount(ResourceTracker.Type.MESH);
+        row[column++] = resources.getCount(ResourceTracker.Type.FONT);
+        row[column++] = resources.getCount(ResourceTracker.Type.AUDIO);
+        row[column++] = resources.getTotalBytes();
+        row[column++] = memory.getHeapMemoryUsage().getUsed();
+        row[column++] = memory.getHeapMemoryUsage().getCommitted();
+        row[column++] = gcCount;
+        row[column++] = gcMillis;
+        row[column++] = maxGcPauseMillis.getAndSet(0);
+        row[column++] = Math.round(worstFrameNanos / NANOS_PER_MILLI);
+        row[column++] = frames;
+        row[column] = getRoundsStarted();
+        worstFrameNanos = 0;
+
+        for (int i = 0; i < GROWTH_COLUMNS; i++) {
+            series[i].add(row[i]);
+        }
+        if (report == null) return;
+        line.setLength(0);
+        line.append(String.format(Locale.ROOT, "%.1f", (now - start) / 1e9));
+        for (long value : row) {
+            line.append(',').append(value);
+        }
+        line.append('\n');
+        try {
+            report.append(line);
+            report.flush();
+        } catch (IOException e) {
+            System.err.println("Soak samples not written to " + reportFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * resident set size of the process, native allocations included, or -1 where there's no /proc
+     */
+    private static long residentBytes() {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/statm"))) {
+            String[] fields = reader.readLine().split(" ");
+            return Long.parseLong(fields[1]) * PAGE_SIZE;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private void finish() {
+        done = true;
+        if (report != null) {
+            try {
+                report.close();
+            } catch (IOException e) {
+                System.err.println("Soak samples not written to " + reportFile + ": " + e.getMessage());
+            }
+        }
+
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        int samples = series[0].size;
+        int skipped = samples / 10; // the first tenth is warmup: JIT, caches, the first stage switches
+        System.out.printf(Locale.ROOT, "Soak run of %.2f h, %d frames, %d samples in %s%n", hours, frames, samples,
+            reportFile.getAbsolutePath());
+        if (samples - skipped < MIN_SAMPLES) {
+            System.out.println("Too few samples to look for growth, run longer or sample more often");
+        } else {
+            // from the middle of the first quarter to the middle of the last
+            double spanHours = hours * (samples - skipped) / samples * (QUARTERS - 1) / QUARTERS;
+            for (int i = 0; i < GROWTH_COLUMNS; i++) {
+                checkGrowth(i, skipped, spanHours);
+            }
+            System.out.println(growth.length() == 0 ? "No series kept growing" : growth.toString().trim());
+        }
+        Gdx.app.exit();
+    }
+
+    private void checkGrowth(int column, int skipped, double spanHours) {
+        LongArray values = series[column];
+        int count = values.size - skipped;
+        long previousLow = 0, firstLow = 0, low = 0;
+        for (int quarter = 0; quarter < QUARTERS; quarter++) {
+            low = Long.MAX_VALUE;
+            for (int i = skipped + count * quarter / QUARTERS; i < skipped + count * (quarter + 1) / QUARTERS; i++) {
+                low = Math.min(low, values.get(i));
+            }
+            if (quarter == 0) {
+                firstLow = low;
+            } else if (low <= previousLow) {
+                return; // leveled off or went down
+            }
+            previousLow = low;
+        }
+        if (low < 0 || BYTE_COLUMNS[column] && low - firstLow < MIN_BYTE_GROWTH) return;
+
+        String unit = BYTE_COLUMNS[column] ? " bytes" : "";
+        growth.append(String.format(Locale.ROOT, "GROWING %s: low of %d%s in the first quarter, %d%s in the last " +
+                "(%+.0f%s per hour)%n", COLUMNS[column], firstLow, unit, low, unit,
+            (low - firstLow) / spanHours, unit));
+    }
+}
@@ -0,0 +1,68 @@
+package com.xtrife.sfs.lwjgl3;
+
+import com.badlogic.gdx.audio.AudioDevice;
+import com.badlogic.gdx.audio.AudioRecorder;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.lwjgl3.audio.Lwjgl3Audio;
+import com.badlogic.gdx.files.FileHandle;
+import com.xtrife.sfs.resources.ThreadedAudio;
+
+/**
+ * Created by 9S on 10/19/2026 - 8:27 PM.
+ * OpenAL audio whose update runs on the game's audio thread. The application loop still calls {@link #update()} every
+ * frame, but the OpenAL backend keeps its sources and playing music in plain collections, so the update has to run on
+ * the same thread that plays the sounds and music.
+ */
+class ThreadedLwjgl3Audio implements Lwjgl3Audio, ThreadedAudio {
+    private final Lwjgl3Audio audio;
+
+    ThreadedLwjgl3Audio(Lwjgl3Audio audio) {
+        this.audio = audio;
+    }
+
+    @Override
+    public void update() {
+        // done by updateOnAudioThread
+    }
+
+    @Override
+    public void updateOnAudioThread() {
+        audio.update();
+    }
+
+    @Override
+    public AudioDevice newAudioDevice(int samplingRate, boolean isMono) {
+        return audio.newAudioDevice(samplingRate, isMono);
+    }
+
+    @Override
+    public AudioRecorder newAudioRecorder(int samplingRate, boolean isMono) {
+        return audio.newAudioRecorder(samplingRate, isMono);
+    }
+
+    @Override
+    public Sound newSound(FileHandle fileHandle) {
+        return audio.newSound(fileHandle);
+    }
+
+    @Override
+    public Music newMusic(FileHandle file) {
+        return audio.newMusic(file);
+    }
+
+    @Override
+    public boolean switchOutputDevice(String deviceIdentifier) {
+        return audio.switchOutputDevice(deviceIdentifier);
+    }
+
+    @Override
+    public String[] getAvailableOutputDevices() {
+        return audio.getAvailableOutputDevices();
+    }
+
+    @Override
+    public void dispose() {
+        audio.dispose();
+    }
+}